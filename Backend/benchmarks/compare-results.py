@@ -0,0 +1,73 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files.
+
+    ./compare-results.py baseline.json candidate.json [--threshold 5] [--fail-on-regression]
+
+A benchmark is reported as a regression or an improvement only when the change is
+larger than the threshold AND the two 99.9% confidence intervals don't overlap;
+anything else is noise.
+"""
+import argparse
+import json
+import sys
+
+LOWER_IS_BETTER = {"avgt", "sample", "ss"}
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for run in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((run.get("params") or {}).items()))
+            name = run["benchmark"].rsplit(".", 2)
+            key = ".".join(name[-2:]) + (f" [{params}]" if params else "")
+            metric = run["primaryMetric"]
+            results[key] = {
+                "mode": run["mode"],
+                "score": metric["score"],
+                "ci": metric.get("scoreConfidence", [metric["score"], metric["score"]]),
+                "unit": metric["scoreUnit"],
+            }
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("candidate")
+    parser.add_argument("--threshold", type=float, default=5.0, help="minimum change in percent (default 5)")
+    parser.add_argument("--fail-on-regression", action="store_true", help="exit 1 if any benchmark regressed")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    candidate = load(args.candidate)
+
+    regressions = 0
+    print(f"{'benchmark':60} {'baseline':>12} {'candidate':>12} {'unit':>8} {'change':>8}  verdict")
+    for key in sorted(baseline.keys() | candidate.keys()):
+        base, cand = baseline.get(key), candidate.get(key)
+        if base is None or cand is None:
+            print(f"{key:60} {'-' if base is None else format(base['score'], '.3f'):>12} "
+                  f"{'-' if cand is None else format(cand['score'], '.3f'):>12} {'':>8} {'':>8}  only in one run")
+            continue
+
+        change = (cand["score"] - base["score"]) / base["score"] * 100 if base["score"] else 0.0
+        better = -change if base["mode"] in LOWER_IS_BETTER else change
+        overlap = cand["ci"][0] <= base["ci"][1] and base["ci"][0] <= cand["ci"][1]
+        if abs(change) < args.threshold or overlap:
+            verdict = "~"
+        elif better > 0:
+            verdict = "improved"
+        else:
+            verdict = "REGRESSED"
+            regressions += 1
+        print(f"{key:60} {base['score']:12.3f} {cand['score']:12.3f} {cand['unit']:>8} {change:+7.1f}%  {verdict}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold}%")
+        if args.fail_on_regression:
+            sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
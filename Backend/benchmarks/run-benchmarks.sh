@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Build and run the JMH benchmarks with a fixed profile so runs are comparable.
+#
+#   ./run-benchmarks.sh [quick|full] [benchmark-regex]
+#
+# Results are written to results/<profile>-<commit>-<timestamp>.json; compare two
+# runs with ./compare-results.py <baseline.json> <candidate.json>.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+profile="${1:-quick}"
+include="${2:-.*}"
+
+case "$profile" in
+  quick)
+    # Smoke run while iterating on a change; noisy, don't publish numbers from it
+    jmh_args=(-f 1 -wi 3 -w 1s -i 5 -r 1s)
+    ;;
+  full)
+    # Numbers used to accept or reject a change
+    jmh_args=(-f 3 -wi 5 -w 2s -i 10 -r 2s)
+    ;;
+  *)
+    echo "Unknown profile '$profile' (expected quick or full)" >&2
+    exit 2
+    ;;
+esac
+
+# Pinned heap and collector so GC sizing doesn't drift between machines or runs
+jvm_args="-Xms1g -Xmx1g -XX:+UseG1GC -XX:+AlwaysPreTouch"
+
+(cd .. && ./mvnw -q -B install -DskipTests)
+../mvnw -q -B -f pom.xml package
+
+mkdir -p results
+commit="$(git rev-parse --short HEAD 2>/dev/null || echo unknown)"
+if [ -n "$(git status --porcelain 2>/dev/null)" ]; then
+  commit="${commit}-dirty"
+fi
+out="results/${profile}-${commit}-$(date +%Y%m%d%H%M%S).json"
+
+java -jar target/benchmarks.jar "$include" "${jmh_args[@]}" -jvmArgs "$jvm_args" -rf json -rff "$out"
+echo "Results written to $out"
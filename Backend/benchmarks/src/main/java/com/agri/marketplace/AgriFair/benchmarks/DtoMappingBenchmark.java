@@ -0,0 +1,114 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.dto.CropResponseDto;
+import com.agri.marketplace.AgriFair.dto.ProfileResponseDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import com.agri.marketplace.AgriFair.service.CropService;
+import com.agri.marketplace.AgriFair.service.FileStorageService;
+import com.agri.marketplace.AgriFair.service.ImageDerivativeService;
+import com.agri.marketplace.AgriFair.service.ProfileService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping in CropService.getAllCrops and ProfileService.getProfile,
+ * including the rendition lookup each image URL triggers. "missing" renditions cost a
+ * filesystem check per size on every call; "present" ones are served from the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoMappingBenchmark {
+
+    @Param({"10", "100"})
+    public int crops;
+
+    @Param({"missing", "present"})
+    public String renditions;
+
+    private CropService cropService;
+    private ProfileService profileService;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path uploadDir = Files.createTempDirectory("agrifair-bench");
+        ImageDerivativeService imageDerivativeService = Stubs.imageDerivatives(uploadDir);
+
+        List<Crop> catalogue = new ArrayList<>();
+        for (int i = 0; i < crops; i++) {
+            User farmer = new User();
+            farmer.setId((long) i);
+            farmer.setUsername("farmer" + i);
+
+            Crop crop = new Crop();
+            crop.setId((long) i);
+            crop.setProductName("Crop " + i);
+            crop.setDescription("Freshly harvested produce from a benchmark farm");
+            crop.setPrice(25.5 + i);
+            crop.setQuantity(100);
+            crop.setOrganic(i % 2 == 0);
+            crop.setPhotoUrl(imageUrl(uploadDir, i));
+            crop.setFarmer(farmer);
+            catalogue.add(crop);
+        }
+
+        User profile = new User();
+        profile.setId(1L);
+        profile.setUsername("farmer0");
+        profile.setEmail("farmer0@agrifair.test");
+        profile.setRole("ROLE_FARMER");
+        profile.setFullName("Farmer Zero");
+        profile.setProfileImage(imageUrl(uploadDir, crops));
+
+        cropService = new CropService();
+        Stubs.inject(cropService, "cropRepository", Stubs.repository(CropRepository.class, Map.of(
+                "findAll", args -> catalogue)));
+        Stubs.inject(cropService, "imageDerivativeService", imageDerivativeService);
+
+        profileService = new ProfileService();
+        Stubs.inject(profileService, "userRepository", Stubs.repository(UserRepository.class, Map.of(
+                "findByUsername", args -> profile)));
+        Stubs.inject(profileService, "imageDerivativeService", imageDerivativeService);
+    }
+
+    @Benchmark
+    public List<CropResponseDto> getAllCrops() {
+        return cropService.getAllCrops();
+    }
+
+    @Benchmark
+    public ProfileResponseDto getProfile() {
+        return profileService.getProfile("farmer0");
+    }
+
+    private String imageUrl(Path uploadDir, int i) throws IOException {
+        String filename = String.format(Locale.ROOT, "%064x", i + 1) + ".jpg";
+        if ("present".equals(renditions)) {
+            for (ImageDerivativeService.Rendition rendition : ImageDerivativeService.Rendition.values()) {
+                Path rendered = uploadDir.resolve(FileStorageService.relativePathFor(
+                        ImageDerivativeService.renditionName(filename, rendition)));
+                Files.createDirectories(rendered.getParent());
+                Files.write(rendered, new byte[0]);
+            }
+        }
+        return "/uploads/" + FileStorageService.relativePathFor(filename);
+    }
+}
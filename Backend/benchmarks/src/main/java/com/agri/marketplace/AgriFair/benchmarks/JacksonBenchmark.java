@@ -0,0 +1,116 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.dto.RentalSummaryDto;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the entity graphs the equipment and rental endpoints return,
+ * next to the flat rental summary the list endpoints now use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JacksonBenchmark {
+
+    @Param({"10", "100"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Equipment> equipments;
+    private List<Rental> rentals;
+    private List<RentalSummaryDto> summaries;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        equipments = new ArrayList<>();
+        rentals = new ArrayList<>();
+        summaries = new ArrayList<>();
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        for (int i = 0; i < rows; i++) {
+            Farmer owner = farmer(2L * i, "Owner");
+            Farmer renter = farmer(2L * i + 1, "Renter");
+
+            Equipment equipment = new Equipment();
+            equipment.setId((long) i);
+            equipment.setType("Tractor");
+            equipment.setModel("Model " + i);
+            equipment.setRate(450 + i);
+            equipment.setAvailable(Boolean.TRUE);
+            equipment.setImageUrl("/uploads/ab/cd/abcd" + i + ".jpg");
+            equipment.setImageRenditions(Map.of(
+                    "thumb", "/uploads/ab/cd/abcd" + i + "_thumb.jpg",
+                    "medium", "/uploads/ab/cd/abcd" + i + "_medium.jpg"));
+            equipment.setOwner(owner);
+            equipments.add(equipment);
+
+            Rental rental = new Rental();
+            rental.setId((long) i);
+            rental.setRenter(renter);
+            rental.setEquipment(equipment);
+            rental.setStartDate(start.plusDays(i));
+            rental.setEndDate(start.plusDays(i + 3));
+            rental.setStatus(RentalStatus.APPROVED);
+            rental.setTotalCost(1800.0);
+            rental.setNotes("Delivered to the north field gate");
+            rentals.add(rental);
+
+            summaries.add(new RentalSummaryDto(rental.getId(), rental.getStartDate(), rental.getEndDate(),
+                    rental.getStatus(), rental.getTotalCost(), rental.getNotes(),
+                    renter.getId(), renter.getFirstName(), renter.getSecondName(),
+                    equipment.getId(), equipment.getType(), equipment.getModel(), equipment.getImageUrl(),
+                    owner.getId(), owner.getFirstName(), owner.getSecondName()));
+        }
+    }
+
+    @Benchmark
+    public byte[] equipmentList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(equipments);
+    }
+
+    @Benchmark
+    public byte[] rentalEntityList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(rentals);
+    }
+
+    @Benchmark
+    public byte[] rentalSummaryList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    private static Farmer farmer(long id, String firstName) {
+        Farmer farmer = new Farmer();
+        farmer.setId(id);
+        farmer.setFirstName(firstName);
+        farmer.setSecondName(String.valueOf(id));
+        farmer.setEmail(firstName.toLowerCase() + id + "@agrifair.test");
+        farmer.setCounty("Nakuru");
+        farmer.setLocalArea("Njoro");
+        return farmer;
+    }
+}
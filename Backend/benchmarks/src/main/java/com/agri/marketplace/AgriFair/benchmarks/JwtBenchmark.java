@@ -0,0 +1,49 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every authenticated request: the filter parses the subject and then
+ * validates the same token again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-key-that-is-long-enough-for-hs256", 3_600_000L);
+        token = jwtUtil.generateToken("farmer0", Map.of("role", "ROLE_FARMER"));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("farmer0", Map.of("role", "ROLE_FARMER"));
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtUtil.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public boolean filterRequest() {
+        // What JwtAuthenticationFilter does per request
+        String username = jwtUtil.getUsernameFromToken(token);
+        return jwtUtil.isTokenValid(token, username);
+    }
+}
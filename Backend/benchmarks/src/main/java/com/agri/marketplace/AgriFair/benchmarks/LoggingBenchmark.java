@@ -0,0 +1,92 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread throughput with a log line per operation, eight threads at once:
+ * println on a shared PrintStream (the old System.out logging), a synchronous JSON
+ * appender, and the same appender behind the AsyncAppender used in logback-spring.xml.
+ * Output goes to a null stream, so a real console or pipe only widens the gap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LoggingBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("agrifair.benchmark");
+
+    @Param({"println", "sync", "async"})
+    public String mode;
+
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = new PrintStream(OutputStream.nullOutputStream(), false);
+        configureLogging(mode.equals("async") ? "async" : "sync");
+    }
+
+    @Benchmark
+    public void logOrderPlaced() {
+        long orderId = Thread.currentThread().getId();
+        if (mode.equals("println")) {
+            console.println("Order " + orderId + " placed by customer" + orderId + " with 3 items");
+        } else {
+            log.info("Order {} placed by {} with {} items", orderId, "customer" + orderId, 3);
+        }
+    }
+
+    /** Root logger at INFO writing JSON to a null stream, directly or through an AsyncAppender. */
+    static void configureLogging(String mode) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setName("null");
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        if (mode.equals("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("async");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            root.addAppender(async);
+        } else {
+            root.addAppender(output);
+        }
+    }
+}
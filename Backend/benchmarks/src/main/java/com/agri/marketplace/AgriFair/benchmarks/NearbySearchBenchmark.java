@@ -0,0 +1,65 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.service.GeoGrid;
+import com.agri.marketplace.AgriFair.service.LocationIndexService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius queries against the nearby-search grid behind /api/crops/nearby and
+ * /api/v1/equipments/nearby, with sellers spread uniformly over India's bounding box
+ * at the default 0.1 degree cells. nearest is what the endpoints run (the
+ * LocationIndexService.MAX_RESULTS nearest); within returns every point in the radius.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NearbySearchBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int points;
+
+    @Param({"10", "50", "200"})
+    public double radiusKm;
+
+    private GeoGrid grid;
+    private double[][] centres;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        grid = new GeoGrid(0.1);
+        for (long id = 0; id < points; id++) {
+            grid.put(id, 8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29);
+        }
+        centres = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            centres[i] = new double[]{8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29};
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Double> nearest() {
+        double[] centre = centres[next++ & (QUERIES - 1)];
+        return grid.nearest(centre[0], centre[1], radiusKm, LocationIndexService.MAX_RESULTS);
+    }
+
+    @Benchmark
+    public Map<Long, Double> within() {
+        double[] centre = centres[next++ & (QUERIES - 1)];
+        return grid.within(centre[0], centre[1], radiusKm);
+    }
+}
@@ -0,0 +1,156 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
+import com.agri.marketplace.AgriFair.dto.OrderResponseDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.OrderFulfillmentRepository;
+import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import com.agri.marketplace.AgriFair.repository.OrderRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import com.agri.marketplace.AgriFair.service.MarketPriceIndex;
+import com.agri.marketplace.AgriFair.service.MarketplaceMetrics;
+import com.agri.marketplace.AgriFair.service.OrderService;
+import com.agri.marketplace.AgriFair.service.SalesRollupService;
+import com.agri.marketplace.AgriFair.service.TrendingCropTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.createOrder price and stock validation for carts of different sizes,
+ * with repositories answered from memory. Stock is large enough that it never runs out.
+ * Crops belong to a handful of farmers, so the per-farmer split and the sales rollup
+ * upserts run as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderValidationBenchmark {
+
+    private static final int FARMERS = 5;
+
+    @Param({"1", "10", "50"})
+    public int cartItems;
+
+    private OrderService orderService;
+    private Authentication auth;
+    private OrderRequestDto request;
+    private Map<Long, Crop> crops;
+
+    @Setup
+    public void setUp() {
+        User customer = new User();
+        customer.setId(1L);
+        customer.setUsername("buyer");
+
+        List<User> farmers = new ArrayList<>();
+        for (long id = 1; id <= FARMERS; id++) {
+            User farmer = new User();
+            farmer.setId(100 + id);
+            farmer.setUsername("farmer" + id);
+            farmers.add(farmer);
+        }
+
+        crops = new HashMap<>();
+        List<OrderRequestDto.OrderItemDto> items = new ArrayList<>();
+        for (long id = 1; id <= cartItems; id++) {
+            Crop crop = new Crop();
+            crop.setId(id);
+            crop.setProductName("Crop " + id);
+            crop.setPrice(20.0 + id);
+            crop.setFarmer(farmers.get((int) (id % FARMERS)));
+            crops.put(id, crop);
+
+            OrderRequestDto.OrderItemDto item = new OrderRequestDto.OrderItemDto();
+            item.setCropId(id);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        request = new OrderRequestDto();
+        request.setItems(items);
+
+        orderService = new OrderService();
+        Stubs.inject(orderService, "userRepository", Stubs.repository(UserRepository.class, Map.of(
+                "findByUsername", args -> customer)));
+        Stubs.inject(orderService, "cropRepository", Stubs.repository(CropRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(crops.get((Long) args[0])),
+                "save", args -> args[0])));
+        Stubs.inject(orderService, "orderRepository", Stubs.repository(OrderRepository.class, Map.of(
+                "save", args -> {
+                    Order order = (Order) args[0];
+                    order.setId(1L);
+                    return order;
+                })));
+        Stubs.inject(orderService, "orderItemRepository", Stubs.repository(OrderItemRepository.class, Map.of(
+                "save", args -> args[0],
+                "findByOrder", args -> List.<OrderItem>of())));
+        Stubs.inject(orderService, "orderFulfillmentRepository", Stubs.repository(OrderFulfillmentRepository.class, Map.of(
+                "saveAll", args -> new ArrayList<>((Collection<?>) args[0]))));
+        Stubs.inject(orderService, "marketplaceMetrics",
+                new MarketplaceMetrics(new SimpleMeterRegistry(), Stubs.imageDerivatives()));
+        Stubs.inject(orderService, "salesRollupService", new SalesRollupService(
+                Stubs.repository(FarmerDailySalesRepository.class, Map.of("add", args -> 1)),
+                Stubs.repository(CropDailySalesRepository.class, Map.of("add", args -> 1)),
+                null, null, null, null, null, null));
+        Stubs.inject(orderService, "marketPriceIndex", new MarketPriceIndex(
+                Stubs.repository(OrderItemRepository.class, Map.of()), 0.01, 30, 24, 1000));
+        Stubs.inject(orderService, "trendingCropTracker", trendingCropTracker());
+        Stubs.inject(orderService, "transitionJournal", Stubs.transitionJournal());
+
+        auth = new UsernamePasswordAuthenticationToken("buyer", null, List.of());
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        // Every order deducts stock; refill so validation never starts failing mid-run
+        crops.values().forEach(crop -> crop.setQuantity(Integer.MAX_VALUE));
+    }
+
+    @Benchmark
+    public OrderResponseDto createOrder() {
+        // As inside the real transaction, the price index, trending and journal updates
+        // wait for a commit; none comes here, so only the request path is measured
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return orderService.createOrder(auth, request);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static TrendingCropTracker trendingCropTracker() {
+        try {
+            String checkpoint = Files.createTempDirectory("agrifair-bench-trending").resolve("trending.ckpt").toString();
+            return new TrendingCropTracker(4, 4096, 50, 360, 5, checkpoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
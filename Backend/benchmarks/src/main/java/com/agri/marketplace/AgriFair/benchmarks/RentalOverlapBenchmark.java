@@ -0,0 +1,118 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.RentalRepository;
+import com.agri.marketplace.AgriFair.service.MarketplaceMetrics;
+import com.agri.marketplace.AgriFair.service.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RentalService.createRental with the overlap check scanning a piece of equipment's
+ * existing bookings. The requested period is free, so every booking is compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RentalOverlapBenchmark {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    @Param({"10", "100", "1000"})
+    public int existingBookings;
+
+    private RentalService rentalService;
+    private Farmer renter;
+    private Equipment equipment;
+    private LocalDate freeStart;
+
+    @Setup
+    public void setUp() {
+        renter = new Farmer();
+        renter.setId(1L);
+        renter.setFirstName("Renter");
+
+        Farmer owner = new Farmer();
+        owner.setId(2L);
+        owner.setFirstName("Owner");
+
+        equipment = new Equipment();
+        equipment.setId(10L);
+        equipment.setType("Tractor");
+        equipment.setModel("Benchmark");
+        equipment.setRate(500);
+        equipment.setAvailable(Boolean.TRUE);
+        equipment.setOwner(owner);
+
+        // Back-to-back three-day bookings, then a free window after the last one
+        List<Rental> bookings = new ArrayList<>();
+        for (int i = 0; i < existingBookings; i++) {
+            Rental booking = new Rental();
+            booking.setId((long) i + 1);
+            booking.setRenter(renter);
+            booking.setEquipment(equipment);
+            booking.setStartDate(BASE.plusDays(3L * i));
+            booking.setEndDate(BASE.plusDays(3L * i + 2));
+            booking.setStatus(i % 2 == 0 ? RentalStatus.APPROVED : RentalStatus.PENDING);
+            booking.setTotalCost(1500.0);
+            bookings.add(booking);
+        }
+        freeStart = BASE.plusDays(3L * existingBookings + 1);
+
+        RentalRepository rentals = Stubs.repository(RentalRepository.class, Map.of(
+                "findByEquipmentIdAndStatusIn", args -> bookings,
+                "save", args -> {
+                    // Like JPA, hand back the booking with an id; the journal records it
+                    Rental saved = (Rental) args[0];
+                    saved.setId((long) existingBookings + 1);
+                    return saved;
+                }));
+        FarmerRepository farmers = Stubs.repository(FarmerRepository.class, Map.of(
+                "findById", args -> Optional.of(renter)));
+        EquipmentRepository equipments = Stubs.repository(EquipmentRepository.class, Map.of(
+                "findById", args -> Optional.of(equipment)));
+
+        MarketplaceMetrics metrics = new MarketplaceMetrics(new SimpleMeterRegistry(), Stubs.imageDerivatives());
+        // createRental only journals the new booking; the sales rollup is touched on approval
+        rentalService = new RentalService(rentals, farmers, null, equipments, metrics,
+                Stubs.transitionJournal(), null);
+    }
+
+    @Benchmark
+    public Rental createRental() {
+        Rental request = new Rental();
+        request.setRenter(renter);
+        request.setEquipment(equipment);
+        request.setStartDate(freeStart);
+        request.setEndDate(freeStart.plusDays(4));
+        // As inside the real transaction, the journal append is deferred to a commit that
+        // never comes here, so the overlap check isn't drowned out by journal I/O
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // No username: the renter comes from the request, skipping the user lookup
+            return rentalService.createRental(request, null);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.config.SqlLoggingDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-statement cost of SqlLoggingDataSource over a no-op driver: prepare, three binds,
+ * execute and close, raw and wrapped at several sample rates. Sampled statements are
+ * logged through the async appender, so this includes enqueueing but not the write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SqlLoggingBenchmark {
+
+    private static final String SQL = "SELECT * FROM crop WHERE farmer_id = ? AND price < ? AND organic = ?";
+
+    @Param({"raw", "0", "0.001", "0.01"})
+    public String sampleRate;
+
+    private DataSource dataSource;
+
+    @Setup
+    public void setUp() {
+        LoggingBenchmark.configureLogging("async");
+        DataSource driver = Stubs.dataSource();
+        dataSource = sampleRate.equals("raw")
+                ? driver
+                : new SqlLoggingDataSource(driver, Double.parseDouble(sampleRate), 200, 2000, false);
+    }
+
+    @Benchmark
+    public boolean query() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SQL)) {
+            statement.setLong(1, 42L);
+            statement.setDouble(2, 150.0);
+            statement.setBoolean(3, true);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.agri.marketplace.AgriFair.benchmarks;
+
+import com.agri.marketplace.AgriFair.journal.TransitionJournal;
+import com.agri.marketplace.AgriFair.service.ImageDerivativeService;
+import com.agri.marketplace.AgriFair.service.OpenFileCache;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins so benchmarks measure service code rather than a database.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * A proxy for a repository interface that answers the named methods and throws for
+     * anything else, so a benchmark can't silently measure an unstubbed call.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return "stub " + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+                    }
+                    return answer.apply(args);
+            }
+        });
+    }
+
+    /** Set an {@code @Autowired} field on a service built without Spring. */
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    /** Rendition lookups against an empty upload dir: every call pays the filesystem miss. */
+    static ImageDerivativeService imageDerivatives() {
+        try {
+            return imageDerivatives(Files.createTempDirectory("agrifair-bench"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ImageDerivativeService imageDerivatives(Path uploadDir) {
+        return new ImageDerivativeService(uploadDir.toString(), 1, 1, 60_000, new OpenFileCache(1));
+    }
+
+    /**
+     * A journal in a fresh temp dir. Outside a transaction every transition is appended
+     * right away; benchmarks that don't want to measure the append run with transaction
+     * synchronization active, so it waits for a commit that never happens.
+     */
+    static TransitionJournal transitionJournal() {
+        try {
+            return new TransitionJournal(Files.createTempDirectory("agrifair-bench-journal").toString(), 16 * 1024 * 1024, 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A DataSource whose statements execute instantly and return no rows, so a benchmark
+     * measures only what wraps the JDBC calls.
+     */
+    static DataSource dataSource() {
+        ResultSet empty = jdbc(ResultSet.class, Map.of("next", args -> false));
+        PreparedStatement statement = jdbc(PreparedStatement.class, Map.of(
+                "executeQuery", args -> empty,
+                "executeUpdate", args -> 1));
+        Connection connection = jdbc(Connection.class, Map.of("prepareStatement", args -> statement));
+        return jdbc(DataSource.class, Map.of("getConnection", args -> connection));
+    }
+
+    /** Unlike {@link #repository}, anything unstubbed (setters, close) is a no-op. */
+    @SuppressWarnings("unchecked")
+    private static <T> T jdbc(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,597 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load driver for a running AgriFair backend. Single file, JDK only:
+ *
+ * <pre>
+ *   java loadtest/LoadDriver.java --base-url http://localhost:8080 --users 32 --duration 60
+ * </pre>
+ *
+ * Registers and logs in a population of farmers and customers, has the farmers list
+ * crops and equipment, then runs a weighted mix of browse / login / register / order /
+ * book / approve / cancel traffic and reports throughput and latency percentiles per
+ * endpoint. Operation choice is driven by --seed, so the same flags replay the same mix.
+ */
+public class LoadDriver {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    // Default traffic mix, overridable with --mix name=weight,...
+    private static final String DEFAULT_MIX =
+            "browse-crops=45,browse-equipment=10,login=8,register=2,order=20,book=8,approve=4,cancel=3";
+
+    private final Options options;
+    private final HttpClient http;
+    private final String runId;
+
+    private final List<Account> farmers = new ArrayList<>();
+    private final List<Account> customers = new ArrayList<>();
+    private final List<Long> cropIds = new ArrayList<>();
+    private final List<Listing> equipment = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Booking> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Booking> approved = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    private record Account(String username, String password, String token) {
+    }
+
+    private record Listing(long id, Account owner) {
+    }
+
+    private record Booking(long id, Account renter, Account owner) {
+    }
+
+    private record Result(int status, String body) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new LoadDriver(options).run();
+    }
+
+    LoadDriver(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+    }
+
+    void run() throws Exception {
+        System.out.printf("Setting up %d farmers, %d customers against %s%n",
+                options.farmers, options.customers, options.baseUrl);
+        setUp();
+        System.out.printf("Listed %d crops and %d pieces of equipment%n", cropIds.size(), equipment.size());
+
+        Map<String, Integer> mix = options.mix;
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(options.warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(options.durationSeconds).toNanos();
+
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(options.users);
+        for (int i = 0; i < options.users; i++) {
+            Worker worker = new Worker(new Random(options.seed * 31 + i), mix, totalWeight, start, measureFrom, end, done);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        System.out.printf("Running %d users for %ds after %ds warm-up%s%n", options.users, options.durationSeconds,
+                options.warmupSeconds, options.rate > 0 ? " at " + options.rate + " req/s" : " (closed loop)");
+        done.await();
+
+        Map<String, Stats> merged = new TreeMap<>();
+        for (Worker worker : workers) {
+            worker.stats.forEach((endpoint, stats) -> merged.computeIfAbsent(endpoint, k -> new Stats()).merge(stats));
+        }
+        report(merged, System.out);
+        if (options.jsonOut != null) {
+            Files.writeString(options.jsonOut, toJson(merged));
+            System.out.println("Wrote " + options.jsonOut);
+        }
+    }
+
+    // ---------------------------------------------------------------- setup
+
+    private void setUp() throws Exception {
+        Random random = new Random(options.seed);
+        for (int i = 0; i < options.farmers; i++) {
+            farmers.add(registerAndLogin("lt" + runId + "f" + i, "ROLE_FARMER"));
+        }
+        for (int i = 0; i < options.customers; i++) {
+            customers.add(registerAndLogin("lt" + runId + "c" + i, "ROLE_CUSTOMER"));
+        }
+        for (Account farmer : farmers) {
+            for (int i = 0; i < options.cropsPerFarmer; i++) {
+                String crop = String.format(Locale.ROOT,
+                        "{\"productName\":\"%s\",\"description\":\"Load test produce\",\"price\":%.2f,"
+                                + "\"quantity\":%d,\"organic\":%b}",
+                        CROP_NAMES[random.nextInt(CROP_NAMES.length)], 10 + random.nextDouble() * 90,
+                        10_000_000, random.nextBoolean());
+                Result result = multipart("/api/crops", farmer.token(), "crop", crop);
+                expectOk(result, "create crop");
+                cropIds.add(firstId(result.body()));
+            }
+            for (int i = 0; i < options.equipmentPerFarmer; i++) {
+                String item = String.format(Locale.ROOT,
+                        "{\"type\":\"%s\",\"model\":\"LT-%d\",\"rate\":%d,\"available\":true}",
+                        EQUIPMENT_TYPES[random.nextInt(EQUIPMENT_TYPES.length)], random.nextInt(9000) + 1000,
+                        200 + random.nextInt(1800));
+                Result result = multipart("/api/v1/equipments", farmer.token(), "equipment", item);
+                expectOk(result, "create equipment");
+                equipment.add(new Listing(firstId(result.body()), farmer));
+            }
+        }
+    }
+
+    private Account registerAndLogin(String username, String role) throws Exception {
+        String password = "Load-" + username;
+        Result registered = send("POST", "/api/auth/register", null, registration(username, password, role));
+        expectOk(registered, "register " + username);
+        return new Account(username, password, login(username, password));
+    }
+
+    private String login(String username, String password) throws Exception {
+        Result result = send("POST", "/api/auth/login", null,
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+        expectOk(result, "login " + username);
+        Matcher matcher = TOKEN.matcher(result.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("No token in login response: " + result.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static String registration(String username, String password, String role) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@loadtest.agrifair\","
+                + "\"password\":\"" + password + "\",\"role\":\"" + role + "\",\"fullName\":\"" + username + "\"}";
+    }
+
+    // ---------------------------------------------------------------- traffic
+
+    private final class Worker implements Runnable {
+
+        private final Random random;
+        private final Map<String, Integer> mix;
+        private final int totalWeight;
+        private final long start;
+        private final long measureFrom;
+        private final long end;
+        private final CountDownLatch done;
+        private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+        Worker(Random random, Map<String, Integer> mix, int totalWeight,
+               long start, long measureFrom, long end, CountDownLatch done) {
+            this.random = random;
+            this.mix = mix;
+            this.totalWeight = totalWeight;
+            this.start = start;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // Open model: each user fires on a fixed schedule and latency counts from the
+                // scheduled time, so a slow server can't hide its queueing delay
+                long interval = options.rate > 0 ? (long) (1e9 * options.users / options.rate) : 0;
+                long next = start + (interval > 0 ? (long) (random.nextDouble() * interval) : 0);
+                while (true) {
+                    long now = System.nanoTime();
+                    if (interval > 0) {
+                        if (next > now) {
+                            sleepNanos(next - now);
+                        }
+                    } else {
+                        next = now;
+                    }
+                    if (next >= end) {
+                        return;
+                    }
+                    String op = pick();
+                    Operation operation = operation(op);
+                    if (operation == null) {
+                        next += interval;
+                        continue;
+                    }
+                    int status;
+                    try {
+                        status = operation.execute().status();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long finished = System.nanoTime();
+                    if (next >= measureFrom) {
+                        stats.computeIfAbsent(operation.endpoint(), k -> new Stats()).record(finished - next, status);
+                    }
+                    next += interval;
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private String pick() {
+            int roll = random.nextInt(totalWeight);
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("unreachable");
+        }
+
+        private Operation operation(String op) {
+            switch (op) {
+                case "browse-crops":
+                    return new Operation("GET /api/crops", () -> send("GET", "/api/crops", null, null));
+                case "browse-equipment": {
+                    Account user = any(farmers);
+                    return new Operation("GET /api/v1/equipments/available",
+                            () -> send("GET", "/api/v1/equipments/available", user.token(), null));
+                }
+                case "login": {
+                    Account user = random.nextBoolean() ? any(customers) : any(farmers);
+                    return new Operation("POST /api/auth/login", () -> send("POST", "/api/auth/login", null,
+                            "{\"username\":\"" + user.username() + "\",\"password\":\"" + user.password() + "\"}"));
+                }
+                case "register": {
+                    String username = "lt" + runId + "r" + Thread.currentThread().getName().substring(5)
+                            + "x" + registrations.incrementAndGet();
+                    return new Operation("POST /api/auth/register", () -> send("POST", "/api/auth/register", null,
+                            registration(username, "Load-" + username, "ROLE_CUSTOMER")));
+                }
+                case "order": {
+                    Account customer = any(customers);
+                    StringBuilder items = new StringBuilder();
+                    int lines = 1 + random.nextInt(3);
+                    for (int i = 0; i < lines; i++) {
+                        items.append(i == 0 ? "" : ",")
+                                .append("{\"cropId\":").append(any(cropIds))
+                                .append(",\"quantity\":").append(1 + random.nextInt(5)).append('}');
+                    }
+                    String body = "{\"items\":[" + items + "]}";
+                    return new Operation("POST /api/orders", () -> send("POST", "/api/orders", customer.token(), body));
+                }
+                case "book": {
+                    Listing listing = any(equipment);
+                    Account renter = any(farmers);
+                    LocalDate from = LocalDate.now().plusDays(1 + random.nextInt(365));
+                    LocalDate to = from.plusDays(random.nextInt(7));
+                    String body = "{\"equipment\":{\"id\":" + listing.id() + "},\"startDate\":\"" + from
+                            + "\",\"endDate\":\"" + to + "\",\"notes\":\"load test\"}";
+                    return new Operation("POST /api/v1/rentals", () -> {
+                        Result result = send("POST", "/api/v1/rentals", renter.token(), body);
+                        if (result.status() / 100 == 2) {
+                            pending.add(new Booking(firstId(result.body()), renter, listing.owner()));
+                        }
+                        return result;
+                    });
+                }
+                case "approve": {
+                    Booking booking = pending.poll();
+                    if (booking == null) {
+                        return null;
+                    }
+                    return new Operation("PUT /api/v1/rentals/{id}/approve", () -> {
+                        Result result = send("PUT", "/api/v1/rentals/" + booking.id() + "/approve",
+                                booking.owner().token(), null);
+                        if (result.status() / 100 == 2) {
+                            approved.add(booking);
+                        }
+                        return result;
+                    });
+                }
+                case "cancel": {
+                    // Returns approved equipment to the pool so bookings keep succeeding
+                    Booking booking = approved.poll();
+                    if (booking == null) {
+                        return null;
+                    }
+                    return new Operation("PUT /api/v1/rentals/{id}/cancel",
+                            () -> send("PUT", "/api/v1/rentals/" + booking.id() + "/cancel",
+                                    booking.renter().token(), null));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown operation in mix: " + op);
+            }
+        }
+
+        private <T> T any(List<T> values) {
+            return values.get(random.nextInt(values.size()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Result call() throws IOException, InterruptedException;
+    }
+
+    private record Operation(String endpoint, Call call) {
+        Result execute() throws IOException, InterruptedException {
+            return call.call();
+        }
+    }
+
+    // ---------------------------------------------------------------- HTTP
+
+    private Result send(String method, String path, String token, String json)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(Duration.ofSeconds(options.timeoutSeconds));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (json != null) {
+            request.header("Content-Type", "application/json");
+            request.method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        return new Result(response.statusCode(), response.body());
+    }
+
+    private Result multipart(String path, String token, String part, String json)
+            throws IOException, InterruptedException {
+        String boundary = "----agrifair" + UUID.randomUUID();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + part + "\"\r\n"
+                + "Content-Type: application/json\r\n\r\n"
+                + json + "\r\n"
+                + "--" + boundary + "--\r\n";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(Duration.ofSeconds(options.timeoutSeconds))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Result(response.statusCode(), response.body());
+    }
+
+    private static void expectOk(Result result, String what) {
+        if (result.status() / 100 != 2) {
+            throw new IllegalStateException(what + " failed with " + result.status() + ": " + result.body());
+        }
+    }
+
+    private static long firstId(String json) {
+        Matcher matcher = ID.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in response: " + json);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------------------------------------------------------- reporting
+
+    /** Latencies for one endpoint, kept raw so percentiles are exact. */
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int ok;
+        private int rejected;
+        private int errors;
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status / 100 == 2) {
+                ok++;
+            } else if (status / 100 == 4) {
+                rejected++;
+            } else {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = other.latencies[i];
+            }
+            ok += other.ok;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+
+        double percentileMs(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private void report(Map<String, Stats> results, PrintStream out) {
+        double seconds = options.durationSeconds;
+        out.println();
+        out.printf("%-36s %8s %9s %6s %6s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "4xx", "err", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            long[] sorted = stats.sorted();
+            total += stats.count;
+            out.printf(Locale.ROOT, "%-36s %8d %9.1f %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), stats.count, stats.count / seconds, stats.rejected, stats.errors,
+                    stats.percentileMs(sorted, 50), stats.percentileMs(sorted, 90), stats.percentileMs(sorted, 99),
+                    stats.percentileMs(sorted, 99.9), stats.percentileMs(sorted, 100));
+        }
+        out.printf(Locale.ROOT, "%-36s %8d %9.1f%n", "total", total, total / seconds);
+    }
+
+    private String toJson(Map<String, Stats> results) {
+        StringBuilder json = new StringBuilder("{\"options\":").append(options.toJson()).append(",\"endpoints\":{");
+        String separator = "";
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            long[] sorted = stats.sorted();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "\"%s\":{\"count\":%d,\"throughput\":%.2f,\"ok\":%d,\"rejected\":%d,\"errors\":%d,"
+                            + "\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f}",
+                    entry.getKey(), stats.count, stats.count / (double) options.durationSeconds,
+                    stats.ok, stats.rejected, stats.errors,
+                    stats.percentileMs(sorted, 50), stats.percentileMs(sorted, 90), stats.percentileMs(sorted, 99),
+                    stats.percentileMs(sorted, 99.9), stats.percentileMs(sorted, 100)));
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    // ---------------------------------------------------------------- options
+
+    private static final String[] CROP_NAMES = {
+            "Wheat", "Rice", "Maize", "Tomato", "Onion", "Potato", "Mango", "Banana", "Cotton", "Soybean"};
+    private static final String[] EQUIPMENT_TYPES = {
+            "Tractor", "Harvester", "Seeder", "Sprayer", "Tiller", "Baler"};
+
+    private static final class Options {
+        String baseUrl = "http://localhost:8080";
+        int users = 16;
+        int durationSeconds = 60;
+        int warmupSeconds = 10;
+        double rate;
+        long seed = 42;
+        int farmers = 20;
+        int customers = 50;
+        int cropsPerFarmer = 5;
+        int equipmentPerFarmer = 3;
+        int timeoutSeconds = 30;
+        Map<String, Integer> mix = parseMix(DEFAULT_MIX);
+        Path jsonOut;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (flag.equals("--help") || flag.equals("-h")) {
+                    usage();
+                    System.exit(0);
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[++i];
+                switch (flag) {
+                    case "--base-url" -> options.baseUrl = value.replaceAll("/+$", "");
+                    case "--users" -> options.users = Integer.parseInt(value);
+                    case "--duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "--warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "--rate" -> options.rate = Double.parseDouble(value);
+                    case "--seed" -> options.seed = Long.parseLong(value);
+                    case "--farmers" -> options.farmers = Integer.parseInt(value);
+                    case "--customers" -> options.customers = Integer.parseInt(value);
+                    case "--crops-per-farmer" -> options.cropsPerFarmer = Integer.parseInt(value);
+                    case "--equipment-per-farmer" -> options.equipmentPerFarmer = Integer.parseInt(value);
+                    case "--timeout" -> options.timeoutSeconds = Integer.parseInt(value);
+                    case "--mix" -> options.mix = parseMix(value);
+                    case "--json" -> options.jsonOut = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + flag + " (see --help)");
+                }
+            }
+            if (options.farmers < 2 || options.customers < 1 || options.cropsPerFarmer < 1
+                    || options.equipmentPerFarmer < 1) {
+                throw new IllegalArgumentException("Need at least 2 farmers, 1 customer, 1 crop and 1 equipment each");
+            }
+            return options;
+        }
+
+        static Map<String, Integer> parseMix(String spec) {
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split("=");
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight > 0) {
+                    mix.put(parts[0].trim(), weight);
+                }
+            }
+            if (mix.isEmpty()) {
+                throw new IllegalArgumentException("Traffic mix is empty");
+            }
+            return mix;
+        }
+
+        String toJson() {
+            StringBuilder mixJson = new StringBuilder("{");
+            mix.forEach((op, weight) -> mixJson.append(mixJson.length() > 1 ? "," : "")
+                    .append('"').append(op).append("\":").append(weight));
+            mixJson.append('}');
+            return String.format(Locale.ROOT,
+                    "{\"baseUrl\":\"%s\",\"users\":%d,\"duration\":%d,\"warmup\":%d,\"rate\":%.1f,\"seed\":%d,"
+                            + "\"farmers\":%d,\"customers\":%d,\"mix\":%s}",
+                    baseUrl, users, durationSeconds, warmupSeconds, rate, seed, farmers, customers, mixJson);
+        }
+
+        static void usage() {
+            System.out.println("""
+                    Usage: java loadtest/LoadDriver.java [options]
+                      --base-url URL            backend to drive (default http://localhost:8080)
+                      --users N                 concurrent virtual users (default 16)
+                      --duration S              measured seconds (default 60)
+                      --warmup S                unmeasured seconds before that (default 10)
+                      --rate R                  total requests/s across users; 0 = closed loop (default 0)
+                      --seed N                  seed for the operation mix (default 42)
+                      --farmers N / --customers N
+                      --crops-per-farmer N / --equipment-per-farmer N
+                      --mix op=w,...            weights for browse-crops, browse-equipment, login,
+                                                register, order, book, approve, cancel
+                      --json FILE               also write the results as JSON
+                      --timeout S               per-request timeout (default 30)""");
+        }
+    }
+}
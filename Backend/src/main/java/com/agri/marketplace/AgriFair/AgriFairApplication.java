@@ -2,10 +2,12 @@ package com.agri.marketplace.AgriFair;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 @SpringBootApplication
 @EnableMethodSecurity(prePostEnabled = true)
+@EnableScheduling
 public class AgriFairApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(AgriFairApplication.class, args);
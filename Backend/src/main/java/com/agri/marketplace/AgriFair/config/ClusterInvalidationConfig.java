@@ -0,0 +1,95 @@
+package com.agri.marketplace.AgriFair.config;
+
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.service.LocationIndexService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps node-local caches (the Hibernate second-level cache and the location index)
+ * consistent across backend nodes without a message broker: writes append to the
+ * entity_changes table in their own transaction and every node tails it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ClusterInvalidationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterInvalidationConfig.class);
+
+    private final String nodeId;
+
+    public ClusterInvalidationConfig(@Value("${cluster.node-id:}") String nodeId) {
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Bean
+    public EntityChangeLog entityChangeLog(DataSource dataSource) throws SQLException {
+        EntityChangeLog changeLog = new EntityChangeLog(dataSource);
+        changeLog.createTable();
+        return changeLog;
+    }
+
+    /** Records changes to every second-level cached entity, plus users and farmers for the location index. */
+    @Bean
+    public EntityChangeRecorder entityChangeRecorder(EntityManagerFactory entityManagerFactory,
+                                                     EntityChangeLog entityChangeLog) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Set<String> tracked = new HashSet<>(Set.of(User.class.getName(), Farmer.class.getName()));
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.canWriteToCache()) {
+                tracked.add(persister.getEntityName());
+            }
+        });
+
+        EntityChangeRecorder recorder = new EntityChangeRecorder(nodeId, Set.copyOf(tracked), System::currentTimeMillis);
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, recorder);
+        listeners.appendListeners(EventType.POST_UPDATE, recorder);
+        listeners.appendListeners(EventType.POST_DELETE, recorder);
+        log.info("Recording entity changes as node {} for {}", nodeId, tracked);
+        return recorder;
+    }
+
+    @Bean
+    public EntityChangeTailer entityChangeTailer(EntityChangeLog entityChangeLog,
+                                                 EntityManagerFactory entityManagerFactory,
+                                                 LocationIndexService locationIndexService,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${cluster.invalidation.batch-size:500}") int batchSize,
+                                                 @Value("${cluster.invalidation.gap-timeout-ms:10000}") long gapTimeoutMs,
+                                                 @Value("${cluster.invalidation.retention-minutes:60}") long retentionMinutes)
+            throws SQLException {
+        SecondLevelCacheEvictor evictor =
+                new SecondLevelCacheEvictor(entityManagerFactory.unwrap(SessionFactoryImplementor.class));
+        // The evictor runs first so the location index re-reads from the database, not the stale cache
+        EntityChangeTailer.Listener locationIndex = change -> {
+            if (Farmer.class.getName().equals(change.entityType())) {
+                locationIndexService.refreshFarmer(change.entityId());
+            } else if (User.class.getName().equals(change.entityType())) {
+                locationIndexService.refreshUser(change.entityId());
+            }
+        };
+
+        EntityChangeTailer tailer = new EntityChangeTailer(entityChangeLog, nodeId, List.of(evictor, locationIndex),
+                batchSize, gapTimeoutMs, retentionMinutes * 60_000, System::currentTimeMillis, meterRegistry);
+        tailer.start();
+        return tailer;
+    }
+}
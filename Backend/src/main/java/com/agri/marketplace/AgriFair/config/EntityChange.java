@@ -0,0 +1,10 @@
+package com.agri.marketplace.AgriFair.config;
+
+/**
+ * One row of the entity_changes table: entity entityType/entityId was written by a
+ * transaction on originNode that committed around changedAtMillis. version is the
+ * entity's @Version value when it has one, otherwise the time of the change.
+ */
+public record EntityChange(long id, String entityType, long entityId, long version,
+                           String originNode, long changedAtMillis) {
+}
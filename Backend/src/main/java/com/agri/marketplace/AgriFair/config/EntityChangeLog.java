@@ -0,0 +1,106 @@
+package com.agri.marketplace.AgriFair.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The entity_changes outbox. Writers append to it on the connection of the transaction
+ * making the change, so a row exists exactly when the change committed; readers page
+ * through it by primary key, which auto-increments and needs no extra index.
+ */
+public class EntityChangeLog {
+
+    static final String INSERT_SQL =
+            "INSERT INTO entity_changes (entity_type, entity_id, version, origin_node, changed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String COLUMNS = "id, entity_type, entity_id, version, origin_node, changed_at";
+
+    private final DataSource dataSource;
+
+    public EntityChangeLog(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS entity_changes ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "entity_type VARCHAR(128) NOT NULL, "
+                    + "entity_id BIGINT NOT NULL, "
+                    + "version BIGINT NOT NULL, "
+                    + "origin_node VARCHAR(64) NOT NULL, "
+                    + "changed_at BIGINT NOT NULL)");
+        }
+    }
+
+    /** Highest id written so far, 0 for an empty table. */
+    public long lastId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM entity_changes")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Up to limit rows with id above afterId, oldest first. */
+    public List<EntityChange> readAfter(long afterId, int limit) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT " + COLUMNS + " FROM entity_changes WHERE id > ? ORDER BY id LIMIT ?")) {
+            select.setLong(1, afterId);
+            select.setInt(2, limit);
+            return read(select);
+        }
+    }
+
+    /** The rows among ids that exist now; used to pick up transactions that committed late. */
+    public List<EntityChange> readIds(Collection<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT " + COLUMNS + " FROM entity_changes WHERE id IN (" + placeholders + ") ORDER BY id")) {
+            int index = 1;
+            for (Long id : ids) {
+                select.setLong(index++, id);
+            }
+            return read(select);
+        }
+    }
+
+    /** Deletes rows up to throughId that are older than cutoffMillis; returns how many went. */
+    public int prune(long throughId, long cutoffMillis) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement(
+                     "DELETE FROM entity_changes WHERE id <= ? AND changed_at < ?")) {
+            delete.setLong(1, throughId);
+            delete.setLong(2, cutoffMillis);
+            int deleted = delete.executeUpdate();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return deleted;
+        }
+    }
+
+    private static List<EntityChange> read(PreparedStatement select) throws SQLException {
+        List<EntityChange> changes = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                changes.add(new EntityChange(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4),
+                        rs.getString(5), rs.getLong(6)));
+            }
+        }
+        return changes;
+    }
+}
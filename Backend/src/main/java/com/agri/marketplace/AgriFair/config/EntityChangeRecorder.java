@@ -0,0 +1,109 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Hibernate listener that appends a row to entity_changes for every insert, update and
+ * delete of a tracked entity. Changes are collected per transaction and written in one
+ * batch just before commit, on the transaction's own connection, so a rollback leaves
+ * nothing behind. JPQL bulk updates fire no entity events and are not recorded.
+ */
+public class EntityChangeRecorder implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final String nodeId;
+    private final Set<String> trackedEntities;
+    private final LongSupplier clock;
+    private final Map<SharedSessionContractImplementor, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public EntityChangeRecorder(String nodeId, Set<String> trackedEntities, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.trackedEntities = trackedEntities;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, EntityPersister persister, Object id, Object entity) {
+        if (!(id instanceof Long entityId) || !trackedEntities.contains(persister.getEntityName())) {
+            return;
+        }
+        long version = clock.getAsLong();
+        if (persister.isVersioned() && persister.getVersion(entity) instanceof Number number) {
+            version = number.longValue();
+        }
+        openBatches.computeIfAbsent(session, s -> {
+            Batch batch = new Batch();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) batch);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) batch);
+            return batch;
+        }).changes.put(new Key(persister.getEntityName(), entityId), version);
+    }
+
+    private record Key(String entityType, long entityId) {
+    }
+
+    /** The changes of one transaction; the last version seen for an entity wins. */
+    private class Batch implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Map<Key, Long> changes = new LinkedHashMap<>();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            long now = clock.getAsLong();
+            session.doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(EntityChangeLog.INSERT_SQL)) {
+                    for (Map.Entry<Key, Long> change : changes.entrySet()) {
+                        insert.setString(1, change.getKey().entityType());
+                        insert.setLong(2, change.getKey().entityId());
+                        insert.setLong(3, change.getValue());
+                        insert.setString(4, nodeId);
+                        insert.setLong(5, now);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            openBatches.remove(session);
+        }
+    }
+}
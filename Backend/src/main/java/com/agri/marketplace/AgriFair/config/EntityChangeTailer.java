@@ -0,0 +1,174 @@
+package com.agri.marketplace.AgriFair.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Follows entity_changes on this node and hands every change made by another node to
+ * the listeners, which drop whatever they hold for that entity.
+ *
+ * Rows are read by keyset (id above the cursor), but ids are handed out at insert time
+ * and transactions commit in any order, so a row can appear below the cursor after the
+ * cursor has passed it. Skipped ids are therefore kept as open gaps and looked up by id
+ * on every poll until their row turns up or gapTimeoutMs passes (a rolled-back insert
+ * leaves a gap that never fills).
+ */
+public class EntityChangeTailer {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityChangeTailer.class);
+
+    // Ids skipped in one jump beyond this are not tracked; only a runaway sequence does that
+    private static final int MAX_OPEN_GAPS = 10_000;
+
+    /** Reacts to a change another node committed. */
+    @FunctionalInterface
+    public interface Listener {
+        void onChange(EntityChange change);
+    }
+
+    private final EntityChangeLog changeLog;
+    private final String nodeId;
+    private final List<Listener> listeners;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long retentionMs;
+    private final LongSupplier clock;
+    private final Timer propagation;
+    private final Counter applied;
+
+    // Every id at or below the cursor has been applied, except the open gaps
+    private long cursor;
+    // Skipped id -> when it was first skipped
+    private final TreeMap<Long, Long> openGaps = new TreeMap<>();
+
+    public EntityChangeTailer(EntityChangeLog changeLog, String nodeId, List<Listener> listeners,
+                              int batchSize, long gapTimeoutMs, long retentionMs, LongSupplier clock,
+                              MeterRegistry registry) {
+        this.changeLog = changeLog;
+        this.nodeId = nodeId;
+        this.listeners = List.copyOf(listeners);
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+        this.clock = clock;
+        this.propagation = Timer.builder("agrifair.cache.invalidation.propagation")
+                .description("Time from a change committing on another node to this node evicting it")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.applied = Counter.builder("agrifair.cache.invalidation.applied")
+                .description("Changes from other nodes applied to local caches")
+                .register(registry);
+    }
+
+    /** Starts after everything already in the table; a node's caches are empty when it boots. */
+    public synchronized void start() throws SQLException {
+        cursor = changeLog.lastId();
+        openGaps.clear();
+    }
+
+    public synchronized long cursor() {
+        return cursor;
+    }
+
+    public synchronized int openGaps() {
+        return openGaps.size();
+    }
+
+    /** Applies everything committed since the last poll; returns how many rows were read. */
+    @Scheduled(fixedDelayString = "${cluster.invalidation.poll-ms:200}")
+    public synchronized int poll() {
+        int read = 0;
+        try {
+            List<Long> gaps = new ArrayList<>(openGaps.keySet());
+            for (int from = 0; from < gaps.size(); from += batchSize) {
+                List<Long> chunk = gaps.subList(from, Math.min(from + batchSize, gaps.size()));
+                for (EntityChange change : changeLog.readIds(chunk)) {
+                    openGaps.remove(change.id());
+                    apply(change);
+                    read++;
+                }
+            }
+            List<EntityChange> page;
+            do {
+                page = changeLog.readAfter(cursor, batchSize);
+                for (EntityChange change : page) {
+                    advanceTo(change.id());
+                    apply(change);
+                }
+                read += page.size();
+            } while (page.size() == batchSize);
+        } catch (SQLException e) {
+            log.warn("Could not read entity changes: {}", e.getMessage());
+        }
+        expireGaps();
+        return read;
+    }
+
+    /** Highest id this node is done with: every row at or below it has been applied. */
+    public synchronized long appliedThrough() {
+        return openGaps.isEmpty() ? cursor : openGaps.firstKey() - 1;
+    }
+
+    /**
+     * Deletes rows this node has applied once they are older than the retention. Every node
+     * prunes; a node lagging by more than the retention is already hopelessly stale.
+     */
+    @Scheduled(fixedDelayString = "${cluster.invalidation.prune-ms:60000}")
+    public int prune() {
+        try {
+            int deleted = changeLog.prune(appliedThrough(), clock.getAsLong() - retentionMs);
+            if (deleted > 0) {
+                log.debug("Pruned {} entity changes", deleted);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            log.warn("Could not prune entity changes: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void advanceTo(long id) {
+        long skipped = id - cursor - 1;
+        if (skipped > MAX_OPEN_GAPS) {
+            log.warn("entity_changes jumped from {} to {}; not waiting for the ids in between", cursor, id);
+        } else {
+            long now = clock.getAsLong();
+            for (long gap = cursor + 1; gap < id; gap++) {
+                openGaps.put(gap, now);
+            }
+        }
+        cursor = id;
+    }
+
+    private void expireGaps() {
+        long cutoff = clock.getAsLong() - gapTimeoutMs;
+        openGaps.values().removeIf(firstSkipped -> firstSkipped < cutoff);
+    }
+
+    private void apply(EntityChange change) {
+        if (nodeId.equals(change.originNode())) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.warn("Listener failed for {} {}: {}", change.entityType(), change.entityId(), e.getMessage());
+            }
+        }
+        applied.increment();
+        long lag = clock.getAsLong() - change.changedAtMillis();
+        propagation.record(Math.max(0, lag), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,204 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends connections for read-only transactions opened by service methods to the replica
+ * pool and everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy
+ * so the connection is chosen after the transaction's read-only flag is set.
+ *
+ * Replica lag is tracked with a heartbeat row: {@link #heartbeat()} writes the time to the
+ * primary and reads back the newest time the replica has. A read stays on the primary when
+ * the replica is unreachable, lags more than maxLagMs, or hasn't yet replicated the
+ * current user's last committed write (read-your-writes).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public enum Target { PRIMARY, REPLICA }
+
+    // Set by ReplicaReadAspect around @Transactional(readOnly = true) service methods
+    private static final ThreadLocal<Boolean> replicaReadsAllowed = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final LongSupplier clock;
+
+    // Commit time of each user's last write, kept until the replica has caught up with it
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+    // Newest primary heartbeat time visible on the replica; -1 until the first heartbeat
+    private volatile long replicaWatermark = -1;
+    private volatile boolean replicaReachable;
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong replicaReads = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long maxLagMs, LongSupplier clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.clock = clock;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /** Allows replica reads on this thread; returns the previous setting for {@link #restoreReplicaReads}. */
+    public static Boolean allowReplicaReads() {
+        Boolean previous = replicaReadsAllowed.get();
+        replicaReadsAllowed.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restoreReplicaReads(Boolean previous) {
+        if (previous == null) {
+            replicaReadsAllowed.remove();
+        } else {
+            replicaReadsAllowed.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = route();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            (target == Target.REPLICA ? replicaReads : primaryReads).incrementAndGet();
+        }
+        return target;
+    }
+
+    Target route() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(user);
+            return Target.PRIMARY;
+        }
+        if (!Boolean.TRUE.equals(replicaReadsAllowed.get()) || !replicaUsable()) {
+            return Target.PRIMARY;
+        }
+        if (user != null) {
+            Long lastWrite = pendingWrites.get(user);
+            if (lastWrite != null) {
+                if (replicaWatermark < lastWrite) {
+                    return Target.PRIMARY;
+                }
+                pendingWrites.remove(user, lastWrite);
+            }
+        }
+        return Target.REPLICA;
+    }
+
+    private void rememberWriteOnCommit(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingWrites.put(user, clock.getAsLong());
+            }
+        });
+    }
+
+    public boolean replicaUsable() {
+        return replicaReachable && replicaLagMs() <= maxLagMs;
+    }
+
+    /** Milliseconds the replica is behind, heartbeat interval included; -1 before the first heartbeat. */
+    public long replicaLagMs() {
+        return replicaWatermark < 0 ? -1 : Math.max(0, clock.getAsLong() - replicaWatermark);
+    }
+
+    public long primaryReads() {
+        return primaryReads.get();
+    }
+
+    public long replicaReads() {
+        return replicaReads.get();
+    }
+
+    /** Creates the heartbeat table on the primary; replication brings it to the replica. */
+    public void createHeartbeatTable() throws SQLException {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        }
+    }
+
+    /** Writes a heartbeat to the primary and reads back how far the replica has caught up. */
+    public void heartbeat() {
+        long now = clock.getAsLong();
+        try (Connection connection = primary.getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1")) {
+            update.setLong(1, now);
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)")) {
+                    insert.setLong(1, now);
+                    insert.executeUpdate();
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not write replica heartbeat to the primary: {}", e.getMessage());
+        }
+
+        try (Connection connection = replica.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT beat_millis FROM replica_heartbeat WHERE id = 1");
+             ResultSet rs = select.executeQuery()) {
+            if (rs.next()) {
+                replicaWatermark = Math.max(replicaWatermark, rs.getLong(1));
+            }
+            if (!replicaReachable) {
+                log.info("Replica reachable, lag {} ms", replicaLagMs());
+            }
+            replicaReachable = true;
+        } catch (SQLException e) {
+            if (replicaReachable) {
+                log.warn("Replica unreachable, reading from the primary: {}", e.getMessage());
+            }
+            replicaReachable = false;
+        }
+
+        // Users whose writes the replica already has no longer need pinning
+        long watermark = replicaWatermark;
+        pendingWrites.values().removeIf(lastWrite -> lastWrite <= watermark);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : new DataSource[]{primary, replica}) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
+            return null;
+        }
+        return auth.getName();
+    }
+}
@@ -0,0 +1,28 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks @Transactional(readOnly = true) service methods as safe to read from the replica.
+ * Spring Data's own read-only repository transactions don't qualify, so a repository
+ * call made outside a service transaction still reads from the primary.
+ */
+@Aspect
+public class ReplicaReadAspect {
+
+    @Around("@annotation(transactional) && within(com.agri.marketplace.AgriFair.service..*)")
+    public Object allowReplica(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        Boolean previous = ReadWriteRoutingDataSource.allowReplicaReads();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.restoreReplicaReads(previous);
+        }
+    }
+}
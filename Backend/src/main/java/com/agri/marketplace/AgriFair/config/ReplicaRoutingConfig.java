@@ -0,0 +1,118 @@
+package com.agri.marketplace.AgriFair.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Read replica support, on only when datasource.replica.url is set. The primary pool is
+ * still configured from spring.datasource.*; the replica from datasource.replica.*.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReplicaRoutingConfig {
+
+    /** Owns the routing DataSource; not a DataSource bean, so the SQL logging wrapper sees only the proxy. */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replica.url}") String replicaUrl,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+            @Value("${datasource.routing.max-lag-ms:3000}") long maxLagMs) throws SQLException {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolSize);
+        replica.setReadOnly(true);
+        // Start without the replica rather than fail the boot; reads fall back to the primary
+        replica.setInitializationFailTimeout(-1);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, maxLagMs,
+                System::currentTimeMillis);
+        routing.createHeartbeatTable();
+        routing.heartbeat();
+        return new ReplicaLagMonitor(routing, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaLagMonitor replicaLagMonitor) {
+        return new RoutedDataSource(replicaLagMonitor.routing());
+    }
+
+    @Bean
+    public ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    /** Defers the connection until the first statement; closes both pools on shutdown. */
+    static class RoutedDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final ReadWriteRoutingDataSource routing;
+
+        RoutedDataSource(ReadWriteRoutingDataSource routing) {
+            super(routing);
+            this.routing = routing;
+        }
+
+        @Override
+        public void close() throws Exception {
+            routing.close();
+        }
+    }
+
+    public static class ReplicaLagMonitor {
+
+        private final ReadWriteRoutingDataSource routing;
+
+        ReplicaLagMonitor(ReadWriteRoutingDataSource routing, MeterRegistry meterRegistry) {
+            this.routing = routing;
+            Gauge.builder("agrifair.datasource.replica.lag", routing, ReadWriteRoutingDataSource::replicaLagMs)
+                    .baseUnit("milliseconds")
+                    .description("How far the replica is behind the primary; -1 before the first heartbeat")
+                    .register(meterRegistry);
+            Gauge.builder("agrifair.datasource.replica.usable", routing, r -> r.replicaUsable() ? 1 : 0)
+                    .register(meterRegistry);
+            FunctionCounter.builder("agrifair.datasource.reads", routing, ReadWriteRoutingDataSource::primaryReads)
+                    .tag("target", "primary")
+                    .register(meterRegistry);
+            FunctionCounter.builder("agrifair.datasource.reads", routing, ReadWriteRoutingDataSource::replicaReads)
+                    .tag("target", "replica")
+                    .register(meterRegistry);
+        }
+
+        ReadWriteRoutingDataSource routing() {
+            return routing;
+        }
+
+        @Scheduled(fixedDelayString = "${datasource.routing.heartbeat-ms:1000}")
+        public void heartbeat() {
+            routing.heartbeat();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.EntityValuedModelPart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drops another node's change from the local second-level cache: the entity itself,
+ * every cached collection that can hold it (Farmer.ownedEquipment for an Equipment),
+ * and the cached query results, whose table timestamps are kept per node as well.
+ */
+public class SecondLevelCacheEvictor implements EntityChangeTailer.Listener {
+
+    private final Cache cache;
+    // Entity name -> cached collection roles whose elements are that entity
+    private final Map<String, List<String>> collectionRoles = new HashMap<>();
+
+    public SecondLevelCacheEvictor(SessionFactoryImplementor sessionFactory) {
+        this.cache = sessionFactory.getCache();
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            // Entity elements are an EntityCollectionPart, which is an EntityValuedModelPart
+            if (collection.hasCache()
+                    && collection.getAttributeMapping().getElementDescriptor() instanceof EntityValuedModelPart element) {
+                collectionRoles.computeIfAbsent(element.getEntityMappingType().getEntityName(), name -> new ArrayList<>())
+                        .add(collection.getRole());
+            }
+        });
+    }
+
+    @Override
+    public void onChange(EntityChange change) {
+        cache.evictEntityData(change.entityType(), change.entityId());
+        collectionRoles.getOrDefault(change.entityType(), List.of()).forEach(cache::evictCollectionData);
+        cache.evictQueryRegions();
+    }
+}
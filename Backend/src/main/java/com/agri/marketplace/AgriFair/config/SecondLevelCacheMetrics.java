@@ -0,0 +1,55 @@
+package com.agri.marketplace.AgriFair.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hit ratio and hit/miss/put counts for each Hibernate second-level cache region,
+ * read from Hibernate's statistics on every scrape. The ratio is over the life of
+ * the process; use rate() over the hit and miss counters for a windowed view. Only
+ * registered with cache.metrics.enabled, which also turns on the statistics it reads.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.metrics.enabled", havingValue = "true")
+public class SecondLevelCacheMetrics {
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("agrifair.cache.hit.ratio", statistics, s -> hitRatio(s.getCacheRegionStatistics(region)))
+                    .description("Share of second-level cache lookups answered from the region")
+                    .tag("region", region)
+                    .register(registry);
+            counter(registry, statistics, region, "hits", CacheRegionStatistics::getHitCount);
+            counter(registry, statistics, region, "misses", CacheRegionStatistics::getMissCount);
+            counter(registry, statistics, region, "puts", CacheRegionStatistics::getPutCount);
+        }
+    }
+
+    static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return 0;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String region, String name,
+                                ToDoubleFunction<CacheRegionStatistics> value) {
+        FunctionCounter.builder("agrifair.cache." + name, statistics, s -> {
+                    CacheRegionStatistics stats = s.getCacheRegionStatistics(region);
+                    return stats == null ? 0 : value.applyAsDouble(stats);
+                })
+                .tag("region", region)
+                .register(registry);
+    }
+}
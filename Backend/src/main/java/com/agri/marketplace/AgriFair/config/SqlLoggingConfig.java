@@ -0,0 +1,35 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link SqlLoggingDataSource}. Replaces
+ * spring.jpa.show-sql, which printed every statement to stdout from the request thread.
+ */
+@Configuration
+public class SqlLoggingConfig {
+
+    @Bean
+    static BeanPostProcessor sqlLoggingDataSourcePostProcessor(Environment environment) {
+        boolean enabled = environment.getProperty("sql.log.enabled", Boolean.class, true);
+        double sampleRate = environment.getProperty("sql.log.sample-rate", Double.class, 0.001);
+        long slowMs = environment.getProperty("sql.log.slow-ms", Long.class, 200L);
+        long verySlowMs = environment.getProperty("sql.log.very-slow-ms", Long.class, 2000L);
+        boolean bindValues = environment.getProperty("sql.log.bind-values", Boolean.class, false);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof SqlLoggingDataSource)) {
+                    return new SqlLoggingDataSource(dataSource, sampleRate, slowMs, verySlowMs, bindValues);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement executed through the pool. Statements over the slow
+ * threshold always go to the agrifair.slowsql logger (WARN, or ERROR over the very-slow
+ * threshold); a random sample of the rest goes to agrifair.sql at INFO. Both carry the
+ * SQL, elapsed time, batch size and binds as structured fields. Bind values are only
+ * logged when enabled, since they include emails and password hashes.
+ */
+public class SqlLoggingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger sqlLog = LoggerFactory.getLogger("agrifair.sql");
+    private static final Logger slowLog = LoggerFactory.getLogger("agrifair.slowsql");
+    private static final int MAX_BIND_LENGTH = 64;
+
+    private final double sampleRate;
+    private final long slowNanos;
+    private final long verySlowNanos;
+    private final boolean bindValues;
+
+    public SqlLoggingDataSource(DataSource target, double sampleRate, long slowMs, long verySlowMs, boolean bindValues) {
+        super(target);
+        this.sampleRate = sampleRate;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMs);
+        this.verySlowNanos = TimeUnit.MILLISECONDS.toNanos(verySlowMs);
+        this.bindValues = bindValues;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /** The wrapper replaces the pool as the bean, so it has to close the pool on shutdown. */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return wrap(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrap(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, sql));
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private String sql;
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private int batch;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, 0, bindCount, null);
+                bindCount = 0;
+            } else if (name.equals("addBatch")) {
+                batch++;
+                if (args != null && args.length == 1) {
+                    sql = (String) args[0];
+                }
+            } else if (name.startsWith("execute")) {
+                String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                long started = System.nanoTime();
+                try {
+                    return SqlLoggingDataSource.invoke(target, method, args);
+                } finally {
+                    record(statementSql, System.nanoTime() - started);
+                    if (name.equals("executeBatch")) {
+                        batch = 0;
+                    }
+                }
+            }
+            return SqlLoggingDataSource.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private void record(String statementSql, long elapsedNanos) {
+            LoggingEventBuilder event;
+            if (elapsedNanos >= verySlowNanos) {
+                event = slowLog.atError();
+            } else if (elapsedNanos >= slowNanos) {
+                event = slowLog.atWarn();
+            } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && sqlLog.isInfoEnabled()) {
+                event = sqlLog.atInfo();
+            } else {
+                return;
+            }
+            double elapsedMs = elapsedNanos / 1e6;
+            event.addKeyValue("sql.statement", statementSql)
+                    .addKeyValue("sql.elapsed_ms", elapsedMs)
+                    .addKeyValue("sql.batch", batch)
+                    .addKeyValue("sql.binds", describeBinds())
+                    .log("{} ms: {}", String.format("%.2f", elapsedMs), statementSql);
+        }
+
+        private String describeBinds() {
+            StringBuilder out = new StringBuilder("[");
+            for (int i = 0; i < bindCount; i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                Object value = binds[i];
+                if (value == null) {
+                    out.append("null");
+                } else if (!bindValues) {
+                    out.append(value.getClass().getSimpleName());
+                } else if (value instanceof byte[] bytes) {
+                    out.append('<').append(bytes.length).append(" bytes>");
+                } else {
+                    String text = String.valueOf(value);
+                    out.append(text.length() > MAX_BIND_LENGTH ? text.substring(0, MAX_BIND_LENGTH) + "..." : text);
+                }
+            }
+            return out.append(']').toString();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
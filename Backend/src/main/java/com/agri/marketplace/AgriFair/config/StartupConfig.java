@@ -0,0 +1,50 @@
+package com.agri.marketplace.AgriFair.config;
+
+import com.agri.marketplace.AgriFair.service.CropNameIndex;
+import com.agri.marketplace.AgriFair.service.LocationIndexService;
+import com.agri.marketplace.AgriFair.service.MarketPriceIndex;
+import com.agri.marketplace.AgriFair.service.OrderNotificationDispatcher;
+import com.agri.marketplace.AgriFair.service.RollupRebuildJob;
+import com.agri.marketplace.AgriFair.service.TrendingCropTracker;
+import com.agri.marketplace.AgriFair.service.UploadGarbageCollector;
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Which beans stay eager when spring.main.lazy-initialization is on (the faststart profile).
+ * Controllers, and through them the services and repositories they use, are built at
+ * startup so the first request doesn't pay for them; cold-path beans such as actuator
+ * endpoints and the upload layout migration are built on first use. Background jobs are
+ * listed explicitly, since nothing on the request path would ever create them.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter requestPathBeans() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                        || SecurityFilterChain.class.isAssignableFrom(beanType)
+                        || Filter.class.isAssignableFrom(beanType)
+                        // Load their indexes on ApplicationReadyEvent
+                        || LocationIndexService.class.isAssignableFrom(beanType)
+                        || MarketPriceIndex.class.isAssignableFrom(beanType)
+                        || CropNameIndex.class.isAssignableFrom(beanType)
+                        // @Scheduled methods are only picked up on beans that get created
+                        || UploadGarbageCollector.class.isAssignableFrom(beanType)
+                        // Registers gauges nothing else references
+                        || SecondLevelCacheMetrics.class.isAssignableFrom(beanType)
+                        // Register the entity change listener and the polling job
+                        || EntityChangeRecorder.class.isAssignableFrom(beanType)
+                        || EntityChangeTailer.class.isAssignableFrom(beanType)
+                        || OrderNotificationDispatcher.class.isAssignableFrom(beanType)
+                        || RollupRebuildJob.class.isAssignableFrom(beanType)
+                        // Restores its checkpoint when built, and checkpoints on a schedule
+                        || TrendingCropTracker.class.isAssignableFrom(beanType);
+    }
+}
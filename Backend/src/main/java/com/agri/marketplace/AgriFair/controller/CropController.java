@@ -3,7 +3,12 @@ package com.agri.marketplace.AgriFair.controller;
 import com.agri.marketplace.AgriFair.dto.CropRequestDto;
 import com.agri.marketplace.AgriFair.dto.CropResponseDto;
 import com.agri.marketplace.AgriFair.service.CropService;
+import com.agri.marketplace.AgriFair.service.RequestCoalescer;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,9 +21,14 @@ import java.util.List;
 @RequestMapping("/api/crops")
 public class CropController {
 
+    private static final Logger log = LoggerFactory.getLogger(CropController.class);
+
     @Autowired
     private CropService cropService;
 
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     @PreAuthorize("hasRole('ROLE_FARMER')")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> addCrop(
@@ -35,7 +45,7 @@ public class CropController {
             
             return ResponseEntity.ok(cropService.addCrop(auth, cropDto, imageFile));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to add crop", e);
             return ResponseEntity.badRequest().body("Error processing request: " + e.getMessage());
         }
     }
@@ -49,10 +59,52 @@ public class CropController {
         return ResponseEntity.ok(cropService.getCropsByFarmer(auth));
     }
 
-    // Public endpoint to list all crops (for customers to browse)
+    // Public endpoint to list all crops (for customers to browse); concurrent requests share one query
     @GetMapping
     public ResponseEntity<List<CropResponseDto>> getAllCrops() {
-        return ResponseEntity.ok(cropService.getAllCrops());
+        return ResponseEntity.ok(requestCoalescer.execute("crops", "all", cropService::getAllCrops));
+    }
+
+    // Public endpoint to find crops sold near a point
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getCropsNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "25") double radiusKm) {
+        try {
+            return ResponseEntity.ok(cropService.getCropsNear(lat, lng, radiusKm));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Public endpoint for the "trending now" shelf
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingCrops(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body("limit must be positive");
+        }
+        return ResponseEntity.ok(cropService.getTrendingCrops(limit));
+    }
+
+    // Public endpoint for crop name type-ahead
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestCropNames(@RequestParam(defaultValue = "") String q,
+                                              @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body("limit must be positive");
+        }
+        return ResponseEntity.ok(cropService.suggestCropNames(q, limit));
+    }
+
+    // Public endpoint for one crop's listing
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<?> getCrop(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(cropService.getCrop(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     // Add update and delete endpoints with ownership checks as needed
@@ -0,0 +1,84 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Farmer dashboard figures, read from the daily rollup tables only. Dates are ISO
+ * (yyyy-MM-dd) and inclusive; without them the last 30 days are shown.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@PreAuthorize("hasRole('ROLE_FARMER')")
+public class DashboardController {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardController.class);
+
+    private static final int DEFAULT_DAYS = 30;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getDailyRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+            return ResponseEntity.ok(salesRollupService.dailyRevenue(auth.getName(), start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to fetch daily revenue", e);
+            return ResponseEntity.status(500).body("Error fetching daily revenue: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/crops")
+    public ResponseEntity<?> getCropSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+            return ResponseEntity.ok(salesRollupService.cropSales(auth.getName(), start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to fetch crop sales", e);
+            return ResponseEntity.status(500).body("Error fetching crop sales: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/equipment")
+    public ResponseEntity<?> getEquipmentUtilization(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+            return ResponseEntity.ok(salesRollupService.equipmentUtilization(auth.getName(), start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to fetch equipment utilization", e);
+            return ResponseEntity.status(500).body("Error fetching equipment utilization: " + e.getMessage());
+        }
+    }
+}
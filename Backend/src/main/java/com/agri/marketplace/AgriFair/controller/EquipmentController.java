@@ -2,8 +2,11 @@ package com.agri.marketplace.AgriFair.controller;
 
 import com.agri.marketplace.AgriFair.model.Equipment;
 import com.agri.marketplace.AgriFair.service.EquipmentService;
+import com.agri.marketplace.AgriFair.service.RequestCoalescer;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,10 +21,14 @@ import java.util.List;
 @RequestMapping("/api/v1/equipments")
 public class EquipmentController {
 
+    private static final Logger log = LoggerFactory.getLogger(EquipmentController.class);
+
     private final EquipmentService equipmentService;
+    private final RequestCoalescer requestCoalescer;
 
-    public EquipmentController(EquipmentService equipmentService) {
+    public EquipmentController(EquipmentService equipmentService, RequestCoalescer requestCoalescer) {
         this.equipmentService = equipmentService;
+        this.requestCoalescer = requestCoalescer;
     }
 
     @GetMapping
@@ -36,9 +43,22 @@ public class EquipmentController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Concurrent requests share one query
     @GetMapping("/available")
     public List<Equipment> getAvailableEquipments() {
-        return equipmentService.getAvailableEquipments();
+        return requestCoalescer.execute("equipment", "available", equipmentService::getAvailableEquipments);
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getEquipmentsNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "25") double radiusKm) {
+        try {
+            return ResponseEntity.ok(equipmentService.getEquipmentsNear(lat, lng, radiusKm));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
     @GetMapping("/owner/{ownerId}")
@@ -64,7 +84,7 @@ public class EquipmentController {
         } catch (EntityNotFoundException | IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to create equipment", e);
             return ResponseEntity.badRequest().body("Error processing request: " + e.getMessage());
         }
     }
@@ -0,0 +1,35 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.service.MarketPriceIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public market prices, served from the in-memory {@link MarketPriceIndex}.
+ */
+@RestController
+@RequestMapping("/api/market")
+public class MarketController {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketController.class);
+
+    @Autowired
+    private MarketPriceIndex marketPriceIndex;
+
+    @GetMapping("/prices")
+    public ResponseEntity<?> getPrices(@RequestParam(required = false) String crop,
+                                       @RequestParam(required = false) String region) {
+        try {
+            return ResponseEntity.ok(marketPriceIndex.prices(crop, region));
+        } catch (Exception e) {
+            log.error("Failed to fetch market prices", e);
+            return ResponseEntity.status(500).body("Error fetching market prices: " + e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.agri.marketplace.AgriFair.controller;
 
+import com.agri.marketplace.AgriFair.dto.IncomingOrderDto;
 import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
 import com.agri.marketplace.AgriFair.dto.OrderResponseDto;
 import com.agri.marketplace.AgriFair.dto.OrderStatusUpdateDto;
+import com.agri.marketplace.AgriFair.dto.TimelineEventDto;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
 import com.agri.marketplace.AgriFair.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +21,8 @@ import java.util.List;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+
     @Autowired
     private OrderService orderService;
 
@@ -37,7 +44,7 @@ public class OrderController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to create order", e);
             return ResponseEntity.status(500).body("Error creating order: " + e.getMessage());
         }
     }
@@ -53,11 +60,34 @@ public class OrderController {
             List<OrderResponseDto> orders = orderService.getMyOrders(auth);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to fetch orders", e);
             return ResponseEntity.status(500).body("Error fetching orders: " + e.getMessage());
         }
     }
 
+    @PreAuthorize("hasRole('ROLE_FARMER')")
+    @GetMapping("/incoming")
+    public ResponseEntity<?> getIncomingOrders(
+            @RequestParam(defaultValue = "PENDING") OrderStatus status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int size,
+            Authentication auth) {
+        try {
+            if (auth == null) {
+                return ResponseEntity.status(401).body("Authentication required");
+            }
+
+            List<IncomingOrderDto> orders = orderService.getIncomingOrders(auth, status, afterId, page, size);
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to fetch incoming orders", e);
+            return ResponseEntity.status(500).body("Error fetching incoming orders: " + e.getMessage());
+        }
+    }
+
     @PreAuthorize("hasRole('ROLE_CUSTOMER')")
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(
@@ -73,27 +103,54 @@ public class OrderController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(403).body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to fetch order {}", id, e);
             return ResponseEntity.status(500).body("Error fetching order: " + e.getMessage());
         }
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_CUSTOMER', 'ROLE_FARMER')")
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<?> getOrderTimeline(
+            @PathVariable Long id,
+            Authentication auth) {
+        try {
+            if (auth == null) {
+                return ResponseEntity.status(401).body("Authentication required");
+            }
+
+            List<TimelineEventDto> timeline = orderService.getOrderTimeline(auth, id);
+            return ResponseEntity.ok(timeline);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(403).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to fetch timeline of order {}", id, e);
+            return ResponseEntity.status(500).body("Error fetching order timeline: " + e.getMessage());
+        }
+    }
+
     @PreAuthorize("hasRole('ROLE_FARMER')")
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateOrderStatus(
             @PathVariable Long id,
-            @RequestBody OrderStatusUpdateDto statusDto) {
+            @RequestBody OrderStatusUpdateDto statusDto,
+            Authentication auth) {
         try {
+            if (auth == null) {
+                return ResponseEntity.status(401).body("Authentication required");
+            }
             if (statusDto == null || statusDto.getStatus() == null) {
                 return ResponseEntity.badRequest().body("Status is required");
             }
 
-            OrderResponseDto order = orderService.updateOrderStatus(id, statusDto);
+            // Moves only the caller's part of the order
+            OrderResponseDto order = orderService.updateFulfillmentStatus(auth, id, statusDto);
             return ResponseEntity.ok(order);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to update status of order {}", id, e);
             return ResponseEntity.status(500).body("Error updating order status: " + e.getMessage());
         }
     }
@@ -3,6 +3,9 @@ package com.agri.marketplace.AgriFair.controller;
 import com.agri.marketplace.AgriFair.dto.ProfileResponseDto;
 import com.agri.marketplace.AgriFair.dto.ProfileUpdateDto;
 import com.agri.marketplace.AgriFair.service.ProfileService;
+import com.agri.marketplace.AgriFair.service.RequestCoalescer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,9 +18,14 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/profile")
 public class ProfileController {
 
+    private static final Logger log = LoggerFactory.getLogger(ProfileController.class);
+
     @Autowired
     private ProfileService profileService;
 
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     /**
      * Get current user's profile
      */
@@ -37,12 +45,12 @@ public class ProfileController {
     }
 
     /**
-     * Get user profile by username (public)
+     * Get user profile by username (public). Concurrent requests for one username share a query
      */
     @GetMapping("/{username}")
     public ResponseEntity<?> getProfileByUsername(@PathVariable String username) {
         try {
-            ProfileResponseDto profile = profileService.getProfile(username);
+            ProfileResponseDto profile = requestCoalescer.execute("profiles", username, () -> profileService.getProfile(username));
             return ResponseEntity.ok(profile);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(404).body(e.getMessage());
@@ -69,7 +77,7 @@ public class ProfileController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to update profile", e);
             return ResponseEntity.status(500).body("Error updating profile: " + e.getMessage());
         }
     }
@@ -96,7 +104,7 @@ public class ProfileController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to upload profile image", e);
             return ResponseEntity.status(500).body("Error uploading image: " + e.getMessage());
         }
     }
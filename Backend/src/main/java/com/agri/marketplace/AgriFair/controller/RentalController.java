@@ -1,5 +1,6 @@
 package com.agri.marketplace.AgriFair.controller;
 
+import com.agri.marketplace.AgriFair.dto.RentalSummaryDto;
 import com.agri.marketplace.AgriFair.model.Rental;
 import com.agri.marketplace.AgriFair.service.RentalService;
 import jakarta.persistence.EntityNotFoundException;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -28,8 +30,10 @@ public class RentalController {
     }
 
     @GetMapping
-    public List<Rental> getAllRentals() {
-        return rentalService.getAllRentals();
+    public List<RentalSummaryDto> getAllRentals(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "" + RentalService.DEFAULT_PAGE_SIZE) int size) {
+        return rentalService.getAllRentals(afterId, page, size);
     }
 
     @GetMapping("/{id}")
@@ -42,8 +46,11 @@ public class RentalController {
     }
 
     @GetMapping("/farmer/{farmerId}")
-    public List<Rental> getRentalsByFarmer(@PathVariable Long farmerId) {
-        return rentalService.getRentalsByFarmer(farmerId);
+    public List<RentalSummaryDto> getRentalsByFarmer(@PathVariable Long farmerId,
+                                                     @RequestParam(required = false) Long afterId,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "" + RentalService.DEFAULT_PAGE_SIZE) int size) {
+        return rentalService.getRentalsByFarmer(farmerId, afterId, page, size);
     }
 
     @GetMapping("/equipment/{equipmentId}")
@@ -68,13 +75,16 @@ public class RentalController {
 
     @PreAuthorize("hasRole('ROLE_FARMER')")
     @GetMapping("/my-requests")
-    public ResponseEntity<?> getMyRentalRequests(Authentication auth) {
+    public ResponseEntity<?> getMyRentalRequests(@RequestParam(required = false) Long afterId,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "" + RentalService.DEFAULT_PAGE_SIZE) int size,
+                                                 Authentication auth) {
         try {
             if (auth == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required");
             }
             String username = auth.getName();
-            return ResponseEntity.ok(rentalService.getRentalsByRenter(username));
+            return ResponseEntity.ok(rentalService.getRentalsByRenter(username, afterId, page, size));
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         }
@@ -82,13 +92,16 @@ public class RentalController {
 
     @PreAuthorize("hasRole('ROLE_FARMER')")
     @GetMapping("/my-equipment")
-    public ResponseEntity<?> getRentalsForMyEquipment(Authentication auth) {
+    public ResponseEntity<?> getRentalsForMyEquipment(@RequestParam(required = false) Long afterId,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "" + RentalService.DEFAULT_PAGE_SIZE) int size,
+                                                      Authentication auth) {
         try {
             if (auth == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required");
             }
             String username = auth.getName();
-            return ResponseEntity.ok(rentalService.getRentalsForMyEquipment(username));
+            return ResponseEntity.ok(rentalService.getRentalsForMyEquipment(username, afterId, page, size));
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         }
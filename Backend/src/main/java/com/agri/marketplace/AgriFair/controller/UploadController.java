@@ -0,0 +1,237 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.service.FileStorageService;
+import com.agri.marketplace.AgriFair.service.OpenFileCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * Serves /uploads/** straight from the upload directory: strong ETags, single-range
+ * requests and Tomcat sendfile for large bodies. Uploads are images and PDFs, already
+ * compressed, so there is no Content-Encoding negotiation. Content-addressed names
+ * never change content, so they are cached as immutable.
+ */
+@Controller
+public class UploadController {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(_[a-z]+)?\\.[a-z0-9]{1,8}");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String MUTABLE = "public, max-age=3600";
+
+    // Tomcat's sendfile request attributes (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private final Path uploadRoot;
+    private final OpenFileCache openFileCache;
+
+    public UploadController(@Value("${file.upload-dir:uploads}") String uploadDir, OpenFileCache openFileCache) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.openFileCache = openFileCache;
+    }
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(request);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String name = file.getFileName().toString();
+        OpenFileCache.Entry entry;
+        try {
+            entry = openFileCache.acquire(file);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try {
+            boolean immutable = CONTENT_ADDRESSED.matcher(name).matches();
+            String etag = etagFor(name, entry, immutable);
+
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : MUTABLE);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, entry.lastModified());
+            response.setContentType(MediaTypeFactory.getMediaType(name)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            long size = entry.size();
+            long[] range = null;
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+                range = parseRange(rangeHeader, size);
+            }
+            if (range == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+
+            long start = range == null ? 0 : range[0];
+            long end = range == null ? size - 1 : range[1];
+            long length = end - start + 1;
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+            response.setContentLengthLong(length);
+
+            if ("HEAD".equals(request.getMethod()) || length <= 0) {
+                return;
+            }
+            transfer(request, response, entry, start, length);
+        } finally {
+            openFileCache.release(entry);
+        }
+    }
+
+    private void transfer(HttpServletRequest request, HttpServletResponse response,
+                          OpenFileCache.Entry entry, long start, long length) throws IOException {
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat opens the file itself and writes it with sendfile() after the handler
+            // returns - no copy through the heap. Only the cached stat() is used here, so
+            // the entry never opens a channel for it
+            request.setAttribute(SENDFILE_FILENAME, entry.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long written = entry.channel().transferTo(position, remaining, out);
+            if (written <= 0) {
+                break;
+            }
+            position += written;
+            remaining -= written;
+        }
+    }
+
+    private Path resolve(HttpServletRequest request) {
+        String prefix = request.getContextPath() + "/uploads/";
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(prefix) || uri.length() == prefix.length()) {
+            return null;
+        }
+        String relative = UriUtils.decode(uri.substring(prefix.length()), StandardCharsets.UTF_8);
+        for (String segment : relative.split("/")) {
+            // Blocks traversal and keeps staging dirs such as .incoming private
+            if (segment.isEmpty() || segment.startsWith(".")) {
+                return null;
+            }
+        }
+        Path file = uploadRoot.resolve(relative).normalize();
+        if (!file.startsWith(uploadRoot)) {
+            return null;
+        }
+        if (!Files.exists(file)) {
+            // Old flat URLs keep working after files move into the sharded layout, and vice versa
+            String name = file.getFileName().toString();
+            Path alternate = relative.contains("/")
+                    ? uploadRoot.resolve(name)
+                    : uploadRoot.resolve(FileStorageService.relativePathFor(name));
+            if (Files.exists(alternate)) {
+                return alternate;
+            }
+        }
+        return file;
+    }
+
+    private String etagFor(String name, OpenFileCache.Entry entry, boolean immutable) {
+        String base = immutable
+                ? name.substring(0, name.lastIndexOf('.'))
+                : Long.toHexString(entry.size()) + "-" + Long.toHexString(entry.lastModified());
+        return "\"" + base + "\"";
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Single byte range as {start, end} inclusive, null to send the whole body
+     * (absent, malformed or multi-range), or UNSATISFIABLE.
+     */
+    private long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return UNSATISFIABLE;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
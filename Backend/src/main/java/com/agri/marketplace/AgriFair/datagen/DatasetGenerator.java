@@ -0,0 +1,459 @@
+package com.agri.marketplace.AgriFair.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Fills an empty schema with a synthetic marketplace for scale testing, then exits.
+ * Rows come from {@link SyntheticData}, so a given seed and size always produce the same
+ * dataset. Id ranges are split into chunks written in parallel over plain JDBC batches,
+ * one transaction per chunk, bypassing Hibernate entirely.
+ *
+ * Run with {@code --spring.profiles.active=datagen}; sizes are in application-datagen.properties.
+ */
+@Component
+@Profile("datagen")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] TABLES = {"order_fulfillments", "order_items", "orders", "rentals", "equipment", "crop", "farmers", "users"};
+
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${datagen.seed:42}")
+    private long seed;
+
+    @Value("${datagen.farmers:100000}")
+    private long farmers;
+
+    @Value("${datagen.customers:250000}")
+    private long customers;
+
+    @Value("${datagen.crops:2000000}")
+    private long crops;
+
+    @Value("${datagen.equipment:300000}")
+    private long equipment;
+
+    @Value("${datagen.rentals:5000000}")
+    private long rentals;
+
+    @Value("${datagen.order-items:10000000}")
+    private long orderItems;
+
+    @Value("${datagen.items-per-order:3}")
+    private double itemsPerOrder;
+
+    @Value("${datagen.anchor-date:2025-01-01}")
+    private String anchorDate;
+
+    @Value("${datagen.password:password}")
+    private String password;
+
+    @Value("${datagen.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${datagen.chunk-size:20000}")
+    private int chunkSize;
+
+    @Value("${datagen.threads:4}")
+    private int threads;
+
+    @Value("${datagen.truncate:false}")
+    private boolean truncate;
+
+    @Value("${datagen.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public DatasetGenerator(DataSource dataSource, PasswordEncoder passwordEncoder,
+                            ConfigurableApplicationContext context) {
+        this.dataSource = dataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+    }
+
+    /** Writes rows fromId..toId of one table on the given connection and returns how many it wrote. */
+    private interface ChunkWriter {
+        long write(Connection connection, long fromId, long toId) throws SQLException;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        SyntheticData data = new SyntheticData(seed, farmers, customers, crops, equipment,
+                (double) rentals / equipment, itemsPerOrder, LocalDate.parse(anchorDate));
+        long orders = Math.max(1, Math.round(orderItems / itemsPerOrder));
+        log.info("Generating dataset seed={} farmers={} customers={} crops={} equipment={} rentals~{} orders={} order-items~{}",
+                seed, farmers, customers, crops, equipment, rentals, orders, orderItems);
+
+        prepareTables();
+        // Every user shares one hash; BCrypt per row would dominate the run
+        String passwordHash = passwordEncoder.encode(password);
+
+        long started = System.nanoTime();
+        long total = 0;
+        total += phase("users", data.users(), (c, from, to) -> writeUsers(c, data, passwordHash, from, to));
+        total += phase("farmers", farmers, (c, from, to) -> writeFarmers(c, data, from, to));
+        total += phase("crop", crops, (c, from, to) -> writeCrops(c, data, from, to));
+
+        long[] rentalStarts = firstIds(equipment, data::rentalCount);
+        total += phase("equipment+rentals", equipment,
+                (c, from, to) -> writeEquipment(c, data, rentalStarts[chunkOf(from)], from, to));
+
+        long[] itemStarts = firstIds(orders, data::itemCount);
+        total += phase("orders+items+fulfillments", orders,
+                (c, from, to) -> writeOrders(c, data, itemStarts[chunkOf(from)], from, to));
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info(String.format("Dataset complete: %d rows in %.1fs (%.0f rows/s)", total, seconds, total / seconds));
+        resetIdentities();
+        printCounts();
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void prepareTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            long existing = count(statement, "users");
+            if (existing == 0) {
+                return;
+            }
+            if (!truncate) {
+                throw new IllegalStateException("Table users already has " + existing
+                        + " rows; set datagen.truncate=true to replace the data");
+            }
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            statement.execute(mysql ? "SET FOREIGN_KEY_CHECKS = 0" : "SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (String table : TABLES) {
+                    statement.execute("TRUNCATE TABLE " + table);
+                }
+            } finally {
+                statement.execute(mysql ? "SET FOREIGN_KEY_CHECKS = 1" : "SET REFERENTIAL_INTEGRITY TRUE");
+            }
+            log.info("Truncated {}", String.join(", ", TABLES));
+        }
+    }
+
+    /**
+     * Splits ids 1..count into chunks, writes them on a fixed pool and waits for all of
+     * them, so a later phase can rely on the foreign keys it points at.
+     */
+    private long phase(String name, long count, ChunkWriter writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong done = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        long started = System.nanoTime();
+        long chunks = (count + chunkSize - 1) / chunkSize;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 1; from <= count; from += chunkSize) {
+                long fromId = from;
+                long toId = Math.min(count, from + chunkSize - 1);
+                futures.add(pool.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        written.addAndGet(writer.write(connection, fromId, toId));
+                        connection.commit();
+                    }
+                    long finished = done.incrementAndGet();
+                    if (finished % Math.max(1, chunks / 10) == 0 || finished == chunks) {
+                        log.info("{}: {}/{} chunks, {} rows", name, finished, chunks, written.get());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info(String.format("%s: %d rows in %.1fs (%.0f rows/s)", name, written.get(), seconds, written.get() / seconds));
+        return written.get();
+    }
+
+    private int chunkOf(long fromId) {
+        return (int) ((fromId - 1) / chunkSize);
+    }
+
+    /**
+     * Child ids are dense too: the first child id of every parent chunk is the running
+     * total of the children of all earlier parents.
+     */
+    private long[] firstIds(long parents, LongUnaryOperator childCount) {
+        long[] starts = new long[(int) ((parents + chunkSize - 1) / chunkSize)];
+        long next = 1;
+        for (long id = 1; id <= parents; id++) {
+            if ((id - 1) % chunkSize == 0) {
+                starts[chunkOf(id)] = next;
+            }
+            next += childCount.applyAsLong(id);
+        }
+        return starts;
+    }
+
+    private long writeUsers(Connection connection, SyntheticData data, String passwordHash,
+                            long fromId, long toId) throws SQLException {
+        String sql = "INSERT INTO users (id, username, email, password, role, full_name, phone_number, city, state, "
+                + "latitude, longitude, farm_name, farm_size, farming_type, years_of_experience, is_verified, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long id = fromId; id <= toId; id++) {
+                SyntheticData.UserRow user = data.user(id);
+                Timestamp createdAt = Timestamp.valueOf(user.createdAt());
+                insert.setLong(1, id);
+                insert.setString(2, user.username());
+                insert.setString(3, user.email());
+                insert.setString(4, passwordHash);
+                insert.setString(5, user.role());
+                insert.setString(6, user.fullName());
+                insert.setString(7, user.phoneNumber());
+                insert.setString(8, user.city());
+                insert.setString(9, user.state());
+                insert.setDouble(10, user.latitude());
+                insert.setDouble(11, user.longitude());
+                insert.setString(12, user.farmName());
+                insert.setObject(13, user.farmSize(), Types.DOUBLE);
+                insert.setString(14, user.farmingType());
+                insert.setObject(15, user.yearsOfExperience(), Types.INTEGER);
+                insert.setBoolean(16, user.verified());
+                insert.setTimestamp(17, createdAt);
+                insert.setTimestamp(18, createdAt);
+                addBatch(insert, id - fromId + 1);
+            }
+            insert.executeBatch();
+        }
+        return toId - fromId + 1;
+    }
+
+    private long writeFarmers(Connection connection, SyntheticData data, long fromId, long toId) throws SQLException {
+        String sql = "INSERT INTO farmers (id, first_name, second_name, email, phone_no, county, local_area, "
+                + "latitude, longitude, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long id = fromId; id <= toId; id++) {
+                SyntheticData.FarmerRow farmer = data.farmer(id);
+                insert.setLong(1, id);
+                insert.setString(2, farmer.firstName());
+                insert.setString(3, farmer.secondName());
+                insert.setString(4, farmer.email());
+                insert.setString(5, farmer.phoneNo());
+                insert.setString(6, farmer.county());
+                insert.setString(7, farmer.localArea());
+                insert.setDouble(8, farmer.latitude());
+                insert.setDouble(9, farmer.longitude());
+                insert.setLong(10, farmer.userId());
+                addBatch(insert, id - fromId + 1);
+            }
+            insert.executeBatch();
+        }
+        return toId - fromId + 1;
+    }
+
+    private long writeCrops(Connection connection, SyntheticData data, long fromId, long toId) throws SQLException {
+        String sql = "INSERT INTO crop (id, product_name, description, price, quantity, organic, farmer_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long id = fromId; id <= toId; id++) {
+                SyntheticData.CropRow crop = data.crop(id);
+                insert.setLong(1, id);
+                insert.setString(2, crop.productName());
+                insert.setString(3, crop.description());
+                insert.setDouble(4, crop.price());
+                insert.setInt(5, crop.quantity());
+                insert.setBoolean(6, crop.organic());
+                insert.setLong(7, crop.farmerUserId());
+                addBatch(insert, id - fromId + 1);
+            }
+            insert.executeBatch();
+        }
+        return toId - fromId + 1;
+    }
+
+    /** Equipment rows go first in each chunk so the chunk's rentals can reference them. */
+    private long writeEquipment(Connection connection, SyntheticData data, long firstRentalId,
+                                long fromId, long toId) throws SQLException {
+        List<SyntheticData.EquipmentRow> rows = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            rows.add(data.equipment(id));
+        }
+
+        String equipmentSql = "INSERT INTO equipment (id, type, model, available, rate, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(equipmentSql)) {
+            long n = 0;
+            for (SyntheticData.EquipmentRow row : rows) {
+                insert.setLong(1, row.id());
+                insert.setString(2, row.type());
+                insert.setString(3, row.model());
+                insert.setBoolean(4, row.available());
+                insert.setInt(5, row.rate());
+                insert.setLong(6, row.ownerId());
+                addBatch(insert, ++n);
+            }
+            insert.executeBatch();
+        }
+
+        String rentalSql = "INSERT INTO rentals (id, renter_id, equipment_id, start_date, end_date, status, total_cost) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long rentalId = firstRentalId;
+        try (PreparedStatement insert = connection.prepareStatement(rentalSql)) {
+            for (SyntheticData.EquipmentRow row : rows) {
+                for (SyntheticData.RentalRow rental : row.rentals()) {
+                    insert.setLong(1, rentalId);
+                    insert.setLong(2, rental.renterId());
+                    insert.setLong(3, row.id());
+                    insert.setDate(4, Date.valueOf(rental.startDate()));
+                    insert.setDate(5, Date.valueOf(rental.endDate()));
+                    insert.setString(6, rental.status().name());
+                    insert.setDouble(7, rental.totalCost());
+                    addBatch(insert, rentalId - firstRentalId + 1);
+                    rentalId++;
+                }
+            }
+            insert.executeBatch();
+        }
+        return rows.size() + (rentalId - firstRentalId);
+    }
+
+    /**
+     * Orders, their items and one fulfillment per farmer selling into each order, in the
+     * order's status, as if OrderService had split it at checkout. Fulfillment ids are left
+     * to the database; nothing else references them.
+     */
+    private long writeOrders(Connection connection, SyntheticData data, long firstItemId,
+                             long fromId, long toId) throws SQLException {
+        List<SyntheticData.OrderRow> rows = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            rows.add(data.order(id));
+        }
+
+        String orderSql = "INSERT INTO orders (id, customer_id, total_amount, status, created_date) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(orderSql)) {
+            long n = 0;
+            for (SyntheticData.OrderRow order : rows) {
+                insert.setLong(1, order.id());
+                insert.setLong(2, order.customerId());
+                insert.setDouble(3, order.totalAmount());
+                insert.setString(4, order.status().name());
+                insert.setTimestamp(5, Timestamp.valueOf(order.createdDate()));
+                addBatch(insert, ++n);
+            }
+            insert.executeBatch();
+        }
+
+        String itemSql = "INSERT INTO order_items (id, order_id, crop_id, quantity, price) VALUES (?, ?, ?, ?, ?)";
+        long itemId = firstItemId;
+        try (PreparedStatement insert = connection.prepareStatement(itemSql)) {
+            for (SyntheticData.OrderRow order : rows) {
+                for (SyntheticData.OrderItemRow item : order.items()) {
+                    insert.setLong(1, itemId);
+                    insert.setLong(2, order.id());
+                    insert.setLong(3, item.cropId());
+                    insert.setInt(4, item.quantity());
+                    insert.setDouble(5, item.price());
+                    addBatch(insert, itemId - firstItemId + 1);
+                    itemId++;
+                }
+            }
+            insert.executeBatch();
+        }
+
+        String fulfillmentSql = "INSERT INTO order_fulfillments (order_id, farmer_id, status, subtotal, created_date) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        long fulfillments = 0;
+        try (PreparedStatement insert = connection.prepareStatement(fulfillmentSql)) {
+            for (SyntheticData.OrderRow order : rows) {
+                Map<Long, Double> subtotals = new LinkedHashMap<>();
+                for (SyntheticData.OrderItemRow item : order.items()) {
+                    subtotals.merge(data.crop(item.cropId()).farmerUserId(), item.price() * item.quantity(), Double::sum);
+                }
+                for (Map.Entry<Long, Double> subtotal : subtotals.entrySet()) {
+                    insert.setLong(1, order.id());
+                    insert.setLong(2, subtotal.getKey());
+                    insert.setString(3, order.status().name());
+                    insert.setDouble(4, subtotal.getValue());
+                    insert.setTimestamp(5, Timestamp.valueOf(order.createdDate()));
+                    addBatch(insert, ++fulfillments);
+                }
+            }
+            insert.executeBatch();
+        }
+        return rows.size() + (itemId - firstItemId) + fulfillments;
+    }
+
+    private void addBatch(PreparedStatement insert, long rowsInChunk) throws SQLException {
+        insert.addBatch();
+        if (rowsInChunk % batchSize == 0) {
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * MySQL moves AUTO_INCREMENT past explicit ids by itself; H2 does not, so restart its
+     * identity columns or the app's first insert would collide with a generated row.
+     */
+    private void resetIdentities() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")) {
+                return;
+            }
+            for (String table : TABLES) {
+                long next;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    next = rs.getLong(1);
+                }
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+
+    private void printCounts() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = TABLES.length - 1; i >= 0; i--) {
+                log.info(String.format("%-12s %,d", TABLES[i], count(statement, TABLES[i])));
+            }
+        }
+    }
+
+    private static long count(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
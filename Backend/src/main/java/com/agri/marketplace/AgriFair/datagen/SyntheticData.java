@@ -0,0 +1,322 @@
+package com.agri.marketplace.AgriFair.datagen;
+
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic marketplace data. Every row is a pure function of
+ * (seed, table, id), so rows can be generated in any order or in parallel and the same
+ * seed always produces the same dataset. Ids are dense from 1: users 1..farmers are the
+ * farmers' logins (user i belongs to farmer i) and the customers follow them.
+ */
+public class SyntheticData {
+
+    private static final long USER = 1, FARMER = 2, CROP = 3, EQUIPMENT = 4, RENTAL = 5, ORDER = 6;
+
+    private static final String[] CROP_NAMES = {
+            "Basmati Rice", "Sona Masoori Rice", "Durum Wheat", "Sharbati Wheat", "Yellow Maize", "Pearl Millet",
+            "Finger Millet", "Sorghum", "Chickpea", "Pigeon Pea", "Green Gram", "Black Gram", "Red Lentil",
+            "Soybean", "Groundnut", "Mustard Seed", "Sesame", "Sunflower Seed", "Cotton", "Sugarcane", "Tomato",
+            "Onion", "Potato", "Brinjal", "Okra", "Cauliflower", "Cabbage", "Green Chilli", "Garlic", "Ginger",
+            "Turmeric", "Alphonso Mango", "Banana", "Pomegranate", "Guava", "Papaya", "Grapes", "Coconut",
+            "Cardamom", "Black Pepper"};
+    private static final String[] GRADES = {"Grade A", "Grade B", "Premium", "Export quality", "Farm fresh"};
+    private static final String[] EQUIPMENT_TYPES = {
+            "Tractor", "Combine Harvester", "Rotavator", "Seed Drill", "Power Tiller", "Sprayer", "Baler",
+            "Thresher", "Cultivator", "Water Pump"};
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh", "Krishna", "Ishaan", "Ananya", "Diya", "Priya",
+            "Kavya", "Lakshmi", "Meera", "Pooja", "Ravi", "Suresh", "Ramesh", "Gurpreet", "Harpreet", "Manoj",
+            "Sunita", "Geeta", "Rajesh"};
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Patel", "Reddy", "Singh", "Yadav", "Kumar", "Naidu", "Gowda", "Patil", "Jadhav",
+            "Chauhan", "Gill", "Sandhu", "Nair", "Pillai", "Das", "Mondal", "Rao", "Shetty"};
+    // Farming regions: name, state, latitude, longitude
+    private static final Object[][] REGIONS = {
+            {"Ludhiana", "Punjab", 30.90, 75.85}, {"Karnal", "Haryana", 29.69, 76.99},
+            {"Meerut", "Uttar Pradesh", 28.98, 77.71}, {"Nashik", "Maharashtra", 19.99, 73.79},
+            {"Guntur", "Andhra Pradesh", 16.31, 80.44}, {"Mandya", "Karnataka", 12.52, 76.90},
+            {"Thanjavur", "Tamil Nadu", 10.79, 79.14}, {"Bardhaman", "West Bengal", 23.23, 87.86},
+            {"Indore", "Madhya Pradesh", 22.72, 75.86}, {"Rajkot", "Gujarat", 22.30, 70.80},
+            {"Kota", "Rajasthan", 25.21, 75.86}, {"Palakkad", "Kerala", 10.78, 76.65}};
+    private static final String[] FARMING_TYPES = {"Organic", "Conventional", "Mixed"};
+
+    private final long seed;
+    private final long farmers;
+    private final long customers;
+    private final long crops;
+    private final long equipment;
+    private final double rentalsPerEquipment;
+    private final double itemsPerOrder;
+    private final LocalDate anchor;
+
+    public SyntheticData(long seed, long farmers, long customers, long crops, long equipment,
+                         double rentalsPerEquipment, double itemsPerOrder, LocalDate anchor) {
+        if (farmers < 2 || customers < 1 || crops < 1 || equipment < 1) {
+            throw new IllegalArgumentException("Need at least 2 farmers, 1 customer, 1 crop and 1 piece of equipment");
+        }
+        this.seed = seed;
+        this.farmers = farmers;
+        this.customers = customers;
+        this.crops = crops;
+        this.equipment = equipment;
+        this.rentalsPerEquipment = rentalsPerEquipment;
+        this.itemsPerOrder = itemsPerOrder;
+        this.anchor = anchor;
+    }
+
+    public record UserRow(long id, String username, String email, String role, String fullName, String phoneNumber,
+                          String city, String state, double latitude, double longitude, String farmName,
+                          Double farmSize, String farmingType, Integer yearsOfExperience, boolean verified,
+                          LocalDateTime createdAt) {
+    }
+
+    public record FarmerRow(long id, String firstName, String secondName, String email, String phoneNo,
+                            String county, String localArea, double latitude, double longitude, long userId) {
+    }
+
+    public record CropRow(long id, String productName, String description, double price, int quantity,
+                          boolean organic, long farmerUserId) {
+    }
+
+    public record RentalRow(long renterId, LocalDate startDate, LocalDate endDate, RentalStatus status,
+                            double totalCost) {
+    }
+
+    public record EquipmentRow(long id, String type, String model, boolean available, int rate, long ownerId,
+                               List<RentalRow> rentals) {
+    }
+
+    public record OrderItemRow(long cropId, int quantity, double price) {
+    }
+
+    public record OrderRow(long id, long customerId, LocalDateTime createdDate, OrderStatus status,
+                           double totalAmount, List<OrderItemRow> items) {
+    }
+
+    public long users() {
+        return farmers + customers;
+    }
+
+    public UserRow user(long id) {
+        SplittableRandom rng = rng(USER, id);
+        boolean farmer = id <= farmers;
+        String username = (farmer ? "dg_farmer" : "dg_customer") + (farmer ? id : id - farmers);
+        Object[] region = region(farmer ? id : id - farmers, farmer);
+        String fullName = pick(rng, FIRST_NAMES) + " " + pick(rng, LAST_NAMES);
+        LocalDateTime createdAt = anchor.atStartOfDay().minusMinutes(rng.nextLong(3L * 365 * 24 * 60));
+        if (!farmer) {
+            return new UserRow(id, username, username + "@agrifair.example", "ROLE_CUSTOMER", fullName,
+                    phone(7_000_000_000L + id), (String) region[0], (String) region[1],
+                    jitter(rng, (double) region[2]), jitter(rng, (double) region[3]),
+                    null, null, null, null, rng.nextDouble() < 0.4, createdAt);
+        }
+        FarmerRow farmerRow = farmer(id);
+        return new UserRow(id, username, farmerRow.email(), "ROLE_FARMER",
+                farmerRow.firstName() + " " + farmerRow.secondName(), farmerRow.phoneNo(),
+                farmerRow.county(), (String) region[1], farmerRow.latitude(), farmerRow.longitude(),
+                farmerRow.secondName() + " Farms", 1 + rng.nextInt(4000) / 100.0, pick(rng, FARMING_TYPES),
+                1 + rng.nextInt(40), rng.nextDouble() < 0.6, createdAt);
+    }
+
+    public FarmerRow farmer(long id) {
+        SplittableRandom rng = rng(FARMER, id);
+        Object[] region = region(id, true);
+        String email = "dg_farmer" + id + "@agrifair.example";
+        // Phone numbers and emails are derived from the id, so they are unique by construction
+        return new FarmerRow(id, pick(rng, FIRST_NAMES), pick(rng, LAST_NAMES), email, phone(9_000_000_000L + id),
+                (String) region[0], "Village " + (1 + rng.nextInt(500)),
+                jitter(rng, (double) region[2]), jitter(rng, (double) region[3]), id);
+    }
+
+    /** Price is the first draw for a crop so order items can look it up cheaply. */
+    public double cropPrice(long id) {
+        return priceOf(rng(CROP, id));
+    }
+
+    public CropRow crop(long id) {
+        SplittableRandom rng = rng(CROP, id);
+        double price = priceOf(rng);
+        String name = pick(rng, CROP_NAMES);
+        String grade = pick(rng, GRADES);
+        // A few listings are sold out, the rest hold anywhere up to a truckload
+        int quantity = rng.nextDouble() < 0.03 ? 0 : 10 + rng.nextInt(5000);
+        // Busy sellers list far more than the long tail
+        long farmerUserId = skewed(rng, farmers, 1.6);
+        return new CropRow(id, name, grade + " " + name.toLowerCase() + ", harvested this season", price, quantity,
+                rng.nextDouble() < 0.25, farmerUserId);
+    }
+
+    public int rentalCount(long equipmentId) {
+        return rentalsOf(rng(RENTAL, equipmentId));
+    }
+
+    public EquipmentRow equipment(long id) {
+        SplittableRandom rng = rng(EQUIPMENT, id);
+        String type = pick(rng, EQUIPMENT_TYPES);
+        String model = type.substring(0, 2).toUpperCase() + "-" + (100 + rng.nextInt(900));
+        int rate = 200 + 50 * rng.nextInt(37);
+        long owner = skewed(rng, farmers, 1.4);
+        List<RentalRow> rentals = rentals(id, owner, rate);
+        boolean booked = rentals.stream().anyMatch(r -> r.status() == RentalStatus.APPROVED
+                || r.status() == RentalStatus.PAID || r.status() == RentalStatus.ACTIVE);
+        return new EquipmentRow(id, type, model, !booked, rate, owner, rentals);
+    }
+
+    /**
+     * One piece of equipment's bookings over the two years before the anchor date and
+     * three months after it. Live bookings never overlap, matching the app's own check;
+     * only cancelled requests collide with another booking.
+     */
+    private List<RentalRow> rentals(long equipmentId, long ownerId, int rate) {
+        SplittableRandom rng = rng(RENTAL, equipmentId);
+        int count = rentalsOf(rng);
+        List<RentalRow> rentals = new ArrayList<>(count);
+        if (count == 0) {
+            return rentals;
+        }
+
+        LocalDate windowStart = anchor.minusDays(730);
+        long window = 730 + 90;
+        long slot = Math.max(1, window / count);
+        LocalDate cursor = windowStart;
+        RentalRow previous = null;
+        for (int i = 0; i < count; i++) {
+            int days = 1 + rng.nextInt(7);
+            long renter = 1 + rng.nextLong(farmers);
+            if (renter == ownerId) {
+                renter = renter % farmers + 1;
+            }
+
+            LocalDate start;
+            RentalStatus status;
+            if (previous != null && rng.nextDouble() < 0.12) {
+                // Request for dates someone else already holds, later cancelled
+                long previousDays = ChronoUnit.DAYS.between(previous.startDate(), previous.endDate()) + 1;
+                start = previous.startDate().plusDays(rng.nextLong(previousDays));
+                status = RentalStatus.CANCELLED;
+            } else {
+                cursor = cursor.plusDays(rng.nextLong(Math.max(1, 2 * (slot - 4))));
+                start = cursor;
+                LocalDate end = start.plusDays(days - 1);
+                cursor = end.plusDays(1);
+                status = liveStatus(rng, start, end);
+            }
+            LocalDate end = start.plusDays(days - 1);
+            RentalRow row = new RentalRow(renter, start, end, status, (double) days * rate);
+            rentals.add(row);
+            if (status != RentalStatus.CANCELLED) {
+                previous = row;
+            }
+        }
+        return rentals;
+    }
+
+    private RentalStatus liveStatus(SplittableRandom rng, LocalDate start, LocalDate end) {
+        double roll = rng.nextDouble();
+        if (end.isBefore(anchor)) {
+            return roll < 0.9 ? RentalStatus.COMPLETED : RentalStatus.CANCELLED;
+        }
+        if (!start.isAfter(anchor)) {
+            return RentalStatus.ACTIVE;
+        }
+        if (roll < 0.5) {
+            return RentalStatus.PENDING;
+        }
+        if (roll < 0.75) {
+            return RentalStatus.APPROVED;
+        }
+        return roll < 0.9 ? RentalStatus.PAID : RentalStatus.CANCELLED;
+    }
+
+    public int itemCount(long orderId) {
+        return itemsOf(rng(ORDER, orderId));
+    }
+
+    public OrderRow order(long id) {
+        SplittableRandom rng = rng(ORDER, id);
+        int itemCount = itemsOf(rng);
+        long customer = farmers + skewed(rng, customers, 1.3);
+        LocalDateTime created = anchor.atStartOfDay().minusSeconds(rng.nextLong(730L * 24 * 3600));
+
+        List<OrderItemRow> items = new ArrayList<>(itemCount);
+        double total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            // Popular crops dominate baskets
+            long cropId = skewed(rng, crops, 2.0);
+            int quantity = 1 + rng.nextInt(10);
+            double price = cropPrice(cropId);
+            items.add(new OrderItemRow(cropId, quantity, price));
+            total += price * quantity;
+        }
+        return new OrderRow(id, customer, created, orderStatus(rng, created), Math.round(total * 100) / 100.0, items);
+    }
+
+    private OrderStatus orderStatus(SplittableRandom rng, LocalDateTime created) {
+        double roll = rng.nextDouble();
+        long ageDays = ChronoUnit.DAYS.between(created.toLocalDate(), anchor);
+        if (ageDays > 14) {
+            if (roll < 0.08) {
+                return OrderStatus.CANCELLED;
+            }
+            return roll < 0.6 ? OrderStatus.COMPLETED : OrderStatus.DELIVERED;
+        }
+        OrderStatus[] open = {OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PACKED,
+                OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.CANCELLED};
+        return open[(int) (roll * open.length)];
+    }
+
+    /** First draw for a piece of equipment's bookings: mean rentalsPerEquipment, from a quarter to 1.75x of it. */
+    private int rentalsOf(SplittableRandom rng) {
+        return (int) Math.round(rentalsPerEquipment * (0.25 + 1.5 * rng.nextDouble()));
+    }
+
+    /** First draw for an order: uniform 1..(2*mean - 1), so the mean is itemsPerOrder. */
+    private int itemsOf(SplittableRandom rng) {
+        int max = Math.max(1, (int) Math.round(2 * itemsPerOrder - 1));
+        return 1 + rng.nextInt(max);
+    }
+
+    private static double priceOf(SplittableRandom rng) {
+        return (500 + rng.nextInt(20_000)) / 100.0;
+    }
+
+    private Object[] region(long index, boolean farmer) {
+        SplittableRandom rng = rng(farmer ? FARMER : USER, index ^ 0x5DEECE66DL);
+        return REGIONS[rng.nextInt(REGIONS.length)];
+    }
+
+    /** Ids 1..n with the low ids drawn far more often; exponent 1 is uniform. */
+    private static long skewed(SplittableRandom rng, long n, double exponent) {
+        return 1 + Math.min(n - 1, (long) (n * Math.pow(rng.nextDouble(), exponent)));
+    }
+
+    private static double jitter(SplittableRandom rng, double coordinate) {
+        return Math.round((coordinate + (rng.nextDouble() - 0.5)) * 1e6) / 1e6;
+    }
+
+    private static String phone(long digits) {
+        return "+91-" + digits;
+    }
+
+    private static String pick(SplittableRandom rng, String[] values) {
+        return values[rng.nextInt(values.length)];
+    }
+
+    private SplittableRandom rng(long table, long id) {
+        return new SplittableRandom(mix(seed ^ mix(table * 0x9E3779B97F4A7C15L + id)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
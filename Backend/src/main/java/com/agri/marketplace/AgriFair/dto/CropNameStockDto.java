@@ -0,0 +1,7 @@
+package com.agri.marketplace.AgriFair.dto;
+
+/**
+ * Total stock listed under one crop name, for building the name suggestion index.
+ */
+public record CropNameStockDto(String productName, Long stock) {
+}
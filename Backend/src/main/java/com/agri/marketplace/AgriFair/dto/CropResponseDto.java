@@ -2,6 +2,8 @@ package com.agri.marketplace.AgriFair.dto;
 
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class CropResponseDto {
     private Long id;
@@ -11,5 +13,6 @@ public class CropResponseDto {
     private int quantity;
     private boolean organic;
     private String photoUrl;
+    private Map<String, String> photoRenditions;  // thumbnail/medium/full, once generated
     private String farmerUsername;
 }
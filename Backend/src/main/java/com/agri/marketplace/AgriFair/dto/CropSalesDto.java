@@ -0,0 +1,7 @@
+package com.agri.marketplace.AgriFair.dto;
+
+/**
+ * Units and revenue of one crop over a date range, summed from crop_daily_sales.
+ */
+public record CropSalesDto(Long cropId, Long units, Double revenue) {
+}
@@ -0,0 +1,10 @@
+package com.agri.marketplace.AgriFair.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One day of a farmer's dashboard: crop sales by order date and the rental income
+ * that falls on the day.
+ */
+public record DailyRevenueDto(LocalDate date, long orderCount, long unitsSold, double salesRevenue, double rentalRevenue) {
+}
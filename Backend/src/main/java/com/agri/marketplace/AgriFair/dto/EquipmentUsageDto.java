@@ -0,0 +1,8 @@
+package com.agri.marketplace.AgriFair.dto;
+
+/**
+ * Days booked and rental revenue of one piece of equipment over a date range, summed
+ * from equipment_daily_rentals.
+ */
+public record EquipmentUsageDto(Long equipmentId, Long bookedDays, Double revenue) {
+}
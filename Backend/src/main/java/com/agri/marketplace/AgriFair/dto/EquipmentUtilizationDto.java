@@ -0,0 +1,7 @@
+package com.agri.marketplace.AgriFair.dto;
+
+/**
+ * Share of the days in a range a piece of equipment was booked for, between 0 and 1.
+ */
+public record EquipmentUtilizationDto(Long equipmentId, long bookedDays, long days, double utilization, double revenue) {
+}
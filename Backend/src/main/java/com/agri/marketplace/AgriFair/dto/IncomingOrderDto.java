@@ -0,0 +1,23 @@
+package com.agri.marketplace.AgriFair.dto;
+
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An entry in a farmer's incoming queue: their part of one order, with only their items.
+ */
+@Data
+public class IncomingOrderDto {
+    private Long fulfillmentId;
+    private Long orderId;
+    private OrderStatus status;
+    private OrderStatus orderStatus;
+    private String customerUsername;
+    private String customerFullName;
+    private Double subtotal;
+    private LocalDateTime createdDate;
+    private List<OrderResponseDto.OrderItemResponseDto> items;
+}
@@ -0,0 +1,9 @@
+package com.agri.marketplace.AgriFair.dto;
+
+/**
+ * Price summary of one crop in one region (or all regions when region is null) over the
+ * market price window. Quantiles are weighted by quantity, like the VWAP.
+ */
+public record MarketPriceDto(String crop, String region, long trades, long volume, double vwap,
+                             double p10, double median, double p90, double min, double max) {
+}
@@ -0,0 +1,11 @@
+package com.agri.marketplace.AgriFair.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order item as the market price index sees it: what sold, where the seller is,
+ * at what price and in what quantity.
+ */
+public record PriceTickDto(Long itemId, String crop, String region, Double price, Integer quantity,
+                           LocalDateTime tradedAt) {
+}
@@ -3,6 +3,7 @@ package com.agri.marketplace.AgriFair.dto;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 public class ProfileResponseDto {
@@ -13,10 +14,13 @@ public class ProfileResponseDto {
     private String fullName;
     private String phoneNumber;
     private String profileImage;
+    private Map<String, String> profileImageRenditions;
     private String address;
     private String city;
     private String state;
     private String pincode;
+    private Double latitude;
+    private Double longitude;
     private String bio;
 
     // Farmer-specific fields
@@ -10,6 +10,8 @@ public class ProfileUpdateDto {
     private String city;
     private String state;
     private String pincode;
+    private Double latitude;
+    private Double longitude;
     private String bio;
 
     // Farmer-specific fields
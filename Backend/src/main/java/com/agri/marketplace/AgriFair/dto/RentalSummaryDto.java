@@ -0,0 +1,28 @@
+package com.agri.marketplace.AgriFair.dto;
+
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Flat rental row selected directly in JPQL, so listing endpoints don't
+ * serialize the full renter / equipment / owner graph for every rental.
+ */
+public record RentalSummaryDto(
+        Long id,
+        LocalDate startDate,
+        LocalDate endDate,
+        RentalStatus status,
+        Double totalCost,
+        String notes,
+        Long renterId,
+        String renterFirstName,
+        String renterSecondName,
+        Long equipmentId,
+        String equipmentType,
+        String equipmentModel,
+        String equipmentImageUrl,
+        Long ownerId,
+        String ownerFirstName,
+        String ownerSecondName) {
+}
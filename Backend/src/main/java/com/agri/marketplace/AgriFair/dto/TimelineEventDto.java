@@ -0,0 +1,17 @@
+package com.agri.marketplace.AgriFair.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class TimelineEventDto {
+    private long sequence;
+    private Instant at;
+    private String fromStatus;
+    private String toStatus;
+    private String actor;
+    // Set when one farmer's part of the order moved rather than the order as a whole
+    private Long fulfillmentId;
+    private Long farmerId;
+}
@@ -0,0 +1,436 @@
+package com.agri.marketplace.AgriFair.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of {@link JournalEvent}s in memory-mapped segment files.
+ *
+ * Each segment, segment-&lt;first sequence&gt;.log, is mapped at its full size up front; a new
+ * one is started when the next record would not fit. A record is
+ * [int payload length][int CRC32C of payload][payload], and the payload is
+ * [long sequence][long timestamp][byte subject][long entity id][from][to][actor] with each
+ * string as [short byte length][UTF-8]. Unwritten space is zeros, so a zero length ends a
+ * segment. On open every segment is scanned to rebuild the per-entity offset index; the
+ * scan stops at the first record with a bad checksum or out-of-order sequence, which is
+ * where the last write was torn, and appending continues from there.
+ *
+ * At most retain-segments segments are kept: when a roll goes past that, the oldest
+ * segment is deleted and its events drop out of the index, timelines and replay. That
+ * bounds both the disk and mapped memory the journal holds and the size of the index.
+ *
+ * Writers copy their record into the mapping under a short lock and then wait for it to
+ * reach disk with group commit: the first waiter forces everything written so far while
+ * later writers queue behind it, and the next force covers all of them at once.
+ */
+public class EventJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 1 + 8 + 3 * 2;
+    private static final int MAX_TEXT_BYTES = 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int retainSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    // Guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Key, Offsets> index = new HashMap<>();
+    // Number of segments.get(0); numbers keep growing as old segments are deleted
+    private int firstNumber;
+    private Segment active;
+    private long nextSequence = 1;
+    private long writtenBytes;
+    private long durableBytes;
+    private boolean flushing;
+    private boolean closed;
+
+    private record Key(JournalEvent.Subject subject, long entityId) {
+    }
+
+    private static final class Segment {
+        final Path file;
+        final int number;
+        final long firstSequence;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int end;
+        int durableEnd;
+
+        Segment(Path file, int number, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.number = number;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /** Record positions of one entity, oldest first: segment number in the high 32 bits, offset in the low. */
+    private static final class Offsets {
+        long[] positions = new long[4];
+        int size;
+
+        void add(long position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        /** Drops positions in segments numbered below first; returns whether none are left. */
+        boolean dropBefore(int first) {
+            int dropped = 0;
+            while (dropped < size && (int) (positions[dropped] >>> 32) < first) {
+                dropped++;
+            }
+            if (dropped > 0) {
+                System.arraycopy(positions, dropped, positions, 0, size - dropped);
+                size -= dropped;
+            }
+            return size == 0;
+        }
+    }
+
+    /** A journal that keeps every segment. */
+    public EventJournal(Path dir, int segmentBytes) throws IOException {
+        this(dir, segmentBytes, Integer.MAX_VALUE);
+    }
+
+    public EventJournal(Path dir, int segmentBytes, int retainSegments) throws IOException {
+        if (segmentBytes < HEADER_BYTES + FIXED_PAYLOAD_BYTES + 3 * MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        if (retainSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be retained");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.retainSegments = retainSegments;
+        Files.createDirectories(dir);
+        // One writer per directory; a second process would interleave records
+        lockChannel = FileChannel.open(dir.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open elsewhere in this JVM
+            acquired = null;
+        }
+        lock = acquired;
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Journal directory is in use by another process: " + dir);
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        // Segments past the retention, e.g. after it was lowered, go before anything is mapped
+        while (files.size() > retainSegments) {
+            Files.delete(files.get(0));
+            files = files.subList(1, files.size());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            boolean last = file.equals(files.get(files.size() - 1));
+            Segment segment = map(file, segments.size(), firstSequence, last ? segmentBytes : (int) Files.size(file));
+            segments.add(segment);
+            recover(segment, last);
+        }
+        if (segments.isEmpty()) {
+            segments.add(createSegment(nextSequence));
+        }
+        active = segments.get(segments.size() - 1);
+        durableBytes = writtenBytes;
+        log.info("Event journal {} opened: {} segments, next sequence {}", dir, segments.size(), nextSequence);
+    }
+
+    /** Appends an event and returns its sequence once it is on disk. */
+    public long append(JournalEvent.Subject subject, long entityId, String fromStatus, String toStatus,
+                       String actor, long timestampMillis) throws IOException {
+        byte[] from = text(fromStatus);
+        byte[] to = text(toStatus);
+        byte[] by = text(actor);
+        int payloadBytes = FIXED_PAYLOAD_BYTES + from.length + to.length + by.length;
+        ByteBuffer payload = ByteBuffer.allocate(payloadBytes);
+
+        long sequence;
+        long target;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Journal is closed");
+            }
+            if (active.end + HEADER_BYTES + payloadBytes > segmentBytes) {
+                roll();
+            }
+            sequence = nextSequence++;
+            payload.putLong(sequence).putLong(timestampMillis).put((byte) subject.ordinal()).putLong(entityId);
+            putText(payload, from);
+            putText(payload, to);
+            putText(payload, by);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.array());
+
+            // Length last, so a scan never sees a length whose record isn't complete
+            int position = active.end;
+            active.buffer.put(position + HEADER_BYTES, payload.array());
+            active.buffer.putInt(position + 4, (int) crc.getValue());
+            active.buffer.putInt(position, payloadBytes);
+            active.end += HEADER_BYTES + payloadBytes;
+            writtenBytes += HEADER_BYTES + payloadBytes;
+            index.computeIfAbsent(new Key(subject, entityId), k -> new Offsets()).add(position(active.number, position));
+            target = writtenBytes;
+        }
+        awaitDurable(target);
+        return sequence;
+    }
+
+    /** Every event of one entity, oldest first, read through the offset index. */
+    public List<JournalEvent> events(JournalEvent.Subject subject, long entityId) {
+        long[] positions;
+        List<Segment> snapshot;
+        int first;
+        synchronized (this) {
+            Offsets offsets = index.get(new Key(subject, entityId));
+            if (offsets == null) {
+                return List.of();
+            }
+            positions = Arrays.copyOf(offsets.positions, offsets.size);
+            snapshot = List.copyOf(segments);
+            first = firstNumber;
+        }
+        // A deleted segment's file is gone, but its mapping stays readable until collected
+        List<JournalEvent> events = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            events.add(decode(snapshot.get((int) (position >>> 32) - first).buffer, (int) position));
+        }
+        return events;
+    }
+
+    /** Feeds every event with a sequence at or above fromSequence to consumer, in order. */
+    public void replay(long fromSequence, Consumer<JournalEvent> consumer) {
+        List<Segment> snapshot;
+        int[] ends;
+        synchronized (this) {
+            snapshot = List.copyOf(segments);
+            ends = snapshot.stream().mapToInt(s -> s.end).toArray();
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i + 1 < snapshot.size() && snapshot.get(i + 1).firstSequence <= fromSequence) {
+                continue;
+            }
+            MappedByteBuffer buffer = snapshot.get(i).buffer;
+            for (int position = 0; position < ends[i]; position += HEADER_BYTES + buffer.getInt(position)) {
+                JournalEvent event = decode(buffer, position);
+                if (event.sequence() >= fromSequence) {
+                    consumer.accept(event);
+                }
+            }
+        }
+    }
+
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /** Sequence of the oldest event still kept. */
+    public synchronized long firstSequence() {
+        return segments.get(0).firstSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        }
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void awaitDurable(long target) throws IOException {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long covered;
+            synchronized (this) {
+                while (durableBytes < target && flushing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for journal flush");
+                    }
+                }
+                if (durableBytes >= target) {
+                    return;
+                }
+                // Become the leader: force everything written so far, for every waiting writer
+                flushing = true;
+                segment = active;
+                from = segment.durableEnd;
+                to = segment.end;
+                covered = writtenBytes;
+            }
+            try {
+                segment.buffer.force(from, to - from);
+            } finally {
+                synchronized (this) {
+                    segment.durableEnd = Math.max(segment.durableEnd, to);
+                    durableBytes = Math.max(durableBytes, covered);
+                    flushing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Seals the active segment (forcing it fully) and starts the next; called holding the lock. */
+    private void roll() throws IOException {
+        active.buffer.force(active.durableEnd, active.end - active.durableEnd);
+        active.durableEnd = active.end;
+        durableBytes = writtenBytes;
+        active = createSegment(nextSequence);
+        segments.add(active);
+        while (segments.size() > retainSegments) {
+            dropOldest();
+        }
+    }
+
+    /** Deletes the oldest segment and takes its events out of the index; called holding the lock. */
+    private void dropOldest() {
+        Segment oldest = segments.remove(0);
+        firstNumber++;
+        index.values().removeIf(offsets -> offsets.dropBefore(firstNumber));
+        try {
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.file);
+        } catch (IOException e) {
+            log.warn("Could not delete event journal segment {}", oldest.file, e);
+        }
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path file = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        return map(file, firstNumber + segments.size(), firstSequence, segmentBytes);
+    }
+
+    private static Segment map(Path file, int number, long firstSequence, int size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(file, number, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /** Indexes a segment's valid records and, for the last segment, clears a torn tail. */
+    private void recover(Segment segment, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        long expected = segment.firstSequence;
+        int position = 0;
+        while (position + HEADER_BYTES + FIXED_PAYLOAD_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < FIXED_PAYLOAD_BYTES || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4) || ByteBuffer.wrap(payload).getLong() != expected) {
+                break;
+            }
+            JournalEvent event = decode(buffer, position);
+            index.computeIfAbsent(new Key(event.subject(), event.entityId()), k -> new Offsets())
+                    .add(position(segment.number, position));
+            expected++;
+            position += HEADER_BYTES + length;
+        }
+        segment.end = position;
+        segment.durableEnd = position;
+        writtenBytes += position;
+        nextSequence = Math.max(nextSequence, expected);
+
+        if (last && position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            log.warn("Event journal segment {} has a torn record at offset {}; discarding the tail", segment.firstSequence, position);
+            for (int i = position; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+
+    private static JournalEvent decode(ByteBuffer buffer, int position) {
+        ByteBuffer payload = buffer.slice(position + HEADER_BYTES, buffer.getInt(position));
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        JournalEvent.Subject subject = JournalEvent.Subject.values()[payload.get()];
+        long entityId = payload.getLong();
+        return new JournalEvent(sequence, timestamp, subject, entityId, readText(payload), readText(payload), readText(payload));
+    }
+
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static byte[] text(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_TEXT_BYTES ? bytes : Arrays.copyOf(bytes, MAX_TEXT_BYTES);
+    }
+
+    private static void putText(ByteBuffer payload, byte[] bytes) {
+        payload.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readText(ByteBuffer payload) {
+        int length = payload.getShort();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package com.agri.marketplace.AgriFair.journal;
+
+/**
+ * One status transition as stored in the event journal. fromStatus is null for the
+ * event that created the entity; actor is the authenticated username, or "system".
+ */
+public record JournalEvent(long sequence, long timestampMillis, Subject subject, long entityId,
+                           String fromStatus, String toStatus, String actor) {
+
+    /** What kind of entity changed. Stored as its ordinal, so only append new values. */
+    public enum Subject {
+        ORDER,
+        RENTAL,
+        // One farmer's part of an order (an OrderFulfillment)
+        FULFILLMENT
+    }
+}
@@ -0,0 +1,94 @@
+package com.agri.marketplace.AgriFair.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records order, fulfillment and rental status transitions in this node's {@link EventJournal}.
+ * Inside a transaction the event is appended after commit, so rolled-back transitions
+ * never reach the journal; a failed append is logged and doesn't fail the request.
+ *
+ * The journal is local to the node: events aren't shipped between nodes, so with more
+ * than one node a timeline only has the transitions made through the node asked. Only
+ * the newest retain-segments segments are kept.
+ */
+@Component
+public class TransitionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TransitionJournal.class);
+
+    private final EventJournal journal;
+
+    public TransitionJournal(@Value("${journal.dir:journal}") String dir,
+                             @Value("${journal.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${journal.retain-segments:16}") int retainSegments) throws IOException {
+        this.journal = new EventJournal(Path.of(dir), segmentBytes, retainSegments);
+    }
+
+    public void orderChanged(Long orderId, Enum<?> from, Enum<?> to) {
+        record(JournalEvent.Subject.ORDER, orderId, from, to);
+    }
+
+    public void fulfillmentChanged(Long fulfillmentId, Enum<?> from, Enum<?> to) {
+        record(JournalEvent.Subject.FULFILLMENT, fulfillmentId, from, to);
+    }
+
+    public void rentalChanged(Long rentalId, Enum<?> from, Enum<?> to) {
+        record(JournalEvent.Subject.RENTAL, rentalId, from, to);
+    }
+
+    /** Every recorded transition of one entity, oldest first. */
+    public List<JournalEvent> timeline(JournalEvent.Subject subject, Long entityId) {
+        return journal.events(subject, entityId);
+    }
+
+    public void replay(long fromSequence, Consumer<JournalEvent> consumer) {
+        journal.replay(fromSequence, consumer);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    private void record(JournalEvent.Subject subject, Long entityId, Enum<?> from, Enum<?> to) {
+        String fromStatus = from == null ? null : from.name();
+        String toStatus = to.name();
+        String actor = currentActor();
+        long timestamp = System.currentTimeMillis();
+        Runnable append = () -> {
+            try {
+                journal.append(subject, entityId, fromStatus, toStatus, actor, timestamp);
+            } catch (IOException e) {
+                log.error("Could not journal {} {} {} -> {}", subject, entityId, fromStatus, toStatus, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append.run();
+                }
+            });
+        } else {
+            append.run();
+        }
+    }
+
+    private static String currentActor() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : "system";
+    }
+}
@@ -0,0 +1,42 @@
+package com.agri.marketplace.AgriFair.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup of one crop's sales on one day, by order date. Maintained by SalesRollupService.
+ */
+@Entity
+@Table(name = "crop_daily_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_crop_daily_sales", columnNames = {"crop_id", "sales_date"}),
+        indexes = @Index(name = "idx_crop_daily_sales_farmer", columnList = "farmer_id, sales_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CropDailySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long cropId;
+
+    // users.id of the farmer selling the crop
+    private Long farmerId;
+
+    private LocalDate salesDate;
+
+    private long units;
+
+    private double revenue;
+}
@@ -0,0 +1,44 @@
+package com.agri.marketplace.AgriFair.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup of one piece of equipment on one calendar day: how many approved rentals cover
+ * the day (0 or 1 unless bookings overlap) and the share of their cost that falls on it.
+ * Maintained by SalesRollupService.
+ */
+@Entity
+@Table(name = "equipment_daily_rentals",
+        uniqueConstraints = @UniqueConstraint(name = "uk_equipment_daily_rentals", columnNames = {"equipment_id", "usage_date"}),
+        indexes = @Index(name = "idx_equipment_daily_rentals_owner", columnList = "owner_id, usage_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquipmentDailyRentals {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long equipmentId;
+
+    // farmers.id of the equipment owner
+    private Long ownerId;
+
+    private LocalDate usageDate;
+
+    private long bookings;
+
+    private double revenue;
+}
@@ -1,6 +1,7 @@
 package com.agri.marketplace.AgriFair.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -16,11 +17,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "farmers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "farmer")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,10 +58,19 @@ public class Farmer {
     @Column(nullable = false)
     private String localArea = "Not Set";
 
+    // Optional coordinates used by nearby-equipment search
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @Column(unique = true)
     private Long userId; // Link to User entity via email matching
 
+    // Only ids are cached here; the equipment itself comes from the equipment region
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "farmer-equipment")
     @JsonIgnore
     private List<Equipment> ownedEquipment;
 
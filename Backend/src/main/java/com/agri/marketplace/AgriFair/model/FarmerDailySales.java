@@ -0,0 +1,41 @@
+package com.agri.marketplace.AgriFair.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup of one farmer's crop sales on one day, by order date. Maintained by
+ * SalesRollupService; cancelled parts of orders are taken out again.
+ */
+@Entity
+@Table(name = "farmer_daily_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_farmer_daily_sales", columnNames = {"farmer_id", "sales_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FarmerDailySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // users.id of the selling farmer, as in crop.farmer_id
+    private Long farmerId;
+
+    private LocalDate salesDate;
+
+    private long orderCount;
+
+    private long units;
+
+    private double revenue;
+}
@@ -0,0 +1,70 @@
+package com.agri.marketplace.AgriFair.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One farmer's share of an order: the items of that order whose crops the farmer sells.
+ * Each farmer moves their own fulfillment through OrderStatus; the order's status follows
+ * the least advanced of its fulfillments. The index serves the farmer's incoming queue.
+ */
+@Entity
+@Table(name = "order_fulfillments",
+        indexes = @Index(name = "idx_order_fulfillments_queue", columnList = "farmer_id, status, created_date"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_fulfillments_order_farmer", columnNames = {"order_id", "farmer_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFulfillment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "farmer_id", nullable = false)
+    private User farmer;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @NotNull
+    private Double subtotal;
+
+    @NotNull
+    private LocalDateTime createdDate;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdDate == null) {
+            createdDate = LocalDateTime.now();
+        }
+        if (status == null) {
+            status = OrderStatus.PENDING;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.agri.marketplace.AgriFair.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for one order status change, written in the transaction that made the
+ * change. OrderNotificationDispatcher mails it to the customer and sets sentAt; while
+ * it works on a row it holds a lease (claimToken, claimedUntil) so other nodes skip it.
+ */
+@Entity
+@Table(name = "order_notifications", indexes = @Index(name = "idx_order_notifications_due", columnList = "sent_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus toStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    private LocalDateTime claimedUntil;
+
+    public static OrderNotification statusChanged(Order order, OrderStatus from, OrderStatus to) {
+        OrderNotification notification = new OrderNotification();
+        notification.setOrder(order);
+        notification.setFromStatus(from);
+        notification.setToStatus(to);
+        return notification;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.agri.marketplace.AgriFair.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
@@ -7,5 +13,26 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    // Allowed transitions: forward one step at a time, cancellable until shipped
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+
+    static {
+        NEXT.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED));
+        NEXT.put(CONFIRMED, EnumSet.of(PACKED, CANCELLED));
+        NEXT.put(PACKED, EnumSet.of(SHIPPED, CANCELLED));
+        NEXT.put(SHIPPED, EnumSet.of(DELIVERED));
+        NEXT.put(DELIVERED, EnumSet.of(COMPLETED));
+        NEXT.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+        NEXT.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public Set<OrderStatus> nextStatuses() {
+        return Collections.unmodifiableSet(NEXT.get(this));
+    }
+
+    public boolean canMoveTo(OrderStatus next) {
+        return NEXT.get(this).contains(next);
+    }
 }
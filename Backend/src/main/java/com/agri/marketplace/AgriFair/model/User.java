@@ -44,6 +44,10 @@ public class User {
 
     private String pincode;
 
+    private Double latitude;  // optional, used by nearby-crop search
+
+    private Double longitude;
+
     private String bio;  // Short description about the user
 
     // Farmer-specific fields
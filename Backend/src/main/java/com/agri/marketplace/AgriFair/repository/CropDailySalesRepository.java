@@ -0,0 +1,34 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.dto.CropSalesDto;
+import com.agri.marketplace.AgriFair.model.CropDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CropDailySalesRepository extends JpaRepository<CropDailySales, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO crop_daily_sales (crop_id, farmer_id, sales_date, units, revenue) "
+            + "VALUES (:cropId, :farmerId, :day, :units, :revenue) "
+            + "ON DUPLICATE KEY UPDATE units = units + :units, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int add(@Param("cropId") Long cropId, @Param("farmerId") Long farmerId, @Param("day") LocalDate day,
+            @Param("units") long units, @Param("revenue") double revenue);
+
+    // Totals per crop over the range, served from idx_crop_daily_sales_farmer
+    @Query("SELECT new com.agri.marketplace.AgriFair.dto.CropSalesDto(s.cropId, SUM(s.units), SUM(s.revenue)) "
+            + "FROM CropDailySales s WHERE s.farmerId = :farmerId AND s.salesDate BETWEEN :from AND :to "
+            + "GROUP BY s.cropId ORDER BY SUM(s.units) DESC")
+    List<CropSalesDto> sumByCrop(@Param("farmerId") Long farmerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM CropDailySales s WHERE s.salesDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,20 +1,52 @@
 package com.agri.marketplace.AgriFair.repository;
 
+import com.agri.marketplace.AgriFair.dto.CropNameStockDto;
 import com.agri.marketplace.AgriFair.model.Crop;
 import com.agri.marketplace.AgriFair.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CropRepository extends JpaRepository<Crop, Long> {
 
+    // Listings always show the seller, so load it in the same select
+    @Override
+    @EntityGraph(attributePaths = "farmer")
+    List<Crop> findAll();
+
     // Get all crops listed by a specific farmer
     List<Crop> findByFarmer(User farmer);
 
     // If you want to fetch crops by crop name for searches
     List<Crop> findByProductNameContainingIgnoreCase(String productName);
 
+    // Crops listed by any of the given sellers (used by nearby search)
+    @EntityGraph(attributePaths = "farmer")
+    List<Crop> findByFarmerIdIn(Collection<Long> farmerIds);
+
+    // Crops by id with their sellers, for the trending shelf
+    @EntityGraph(attributePaths = "farmer")
+    List<Crop> findByIdIn(Collection<Long> ids);
+
+    // Stock per distinct name, for the name suggestion index
+    @Query("SELECT new com.agri.marketplace.AgriFair.dto.CropNameStockDto(c.productName, SUM(c.quantity)) "
+            + "FROM Crop c WHERE c.productName IS NOT NULL GROUP BY c.productName")
+    List<CropNameStockDto> sumQuantityByProductName();
+
+    // Which of the given upload URLs are still used as crop photos
+    @Query("SELECT c.photoUrl FROM Crop c WHERE c.photoUrl IN :urls")
+    List<String> findReferencedPhotoUrls(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Query("UPDATE Crop c SET c.photoUrl = :newUrl WHERE c.photoUrl = :oldUrl")
+    int replacePhotoUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
+
     // You can add more methods when you need advanced queries
 }
@@ -0,0 +1,37 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.dto.EquipmentUsageDto;
+import com.agri.marketplace.AgriFair.model.EquipmentDailyRentals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EquipmentDailyRentalsRepository extends JpaRepository<EquipmentDailyRentals, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO equipment_daily_rentals (equipment_id, owner_id, usage_date, bookings, revenue) "
+            + "VALUES (:equipmentId, :ownerId, :day, :bookings, :revenue) "
+            + "ON DUPLICATE KEY UPDATE bookings = bookings + :bookings, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int add(@Param("equipmentId") Long equipmentId, @Param("ownerId") Long ownerId, @Param("day") LocalDate day,
+            @Param("bookings") long bookings, @Param("revenue") double revenue);
+
+    // Booked days and revenue per piece of equipment over the range
+    @Query("SELECT new com.agri.marketplace.AgriFair.dto.EquipmentUsageDto(r.equipmentId, "
+            + "SUM(CASE WHEN r.bookings > 0 THEN 1 ELSE 0 END), SUM(r.revenue)) "
+            + "FROM EquipmentDailyRentals r WHERE r.ownerId = :ownerId AND r.usageDate BETWEEN :from AND :to "
+            + "GROUP BY r.equipmentId ORDER BY r.equipmentId")
+    List<EquipmentUsageDto> sumByEquipment(@Param("ownerId") Long ownerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    List<EquipmentDailyRentals> findByOwnerIdAndUsageDateBetweenOrderByUsageDate(Long ownerId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM EquipmentDailyRentals r WHERE r.usageDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,12 +1,40 @@
 package com.agri.marketplace.AgriFair.repository;
 
 import com.agri.marketplace.AgriFair.model.Equipment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
+    // Equipment is serialised with its owner, so every list fetches the owner in the same select
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Equipment> findAll();
+
+    // The browse page; the result is dropped whenever any equipment row is written
+    @EntityGraph(attributePaths = "owner")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Equipment> findByAvailable(Boolean available);
+
+    @EntityGraph(attributePaths = "owner")
     List<Equipment> findByOwnerId(Long ownerId);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Equipment> findByOwnerIdIn(Collection<Long> ownerIds);
+
+    @Query("SELECT e.imageUrl FROM Equipment e WHERE e.imageUrl IN :urls")
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Query("UPDATE Equipment e SET e.imageUrl = :newUrl WHERE e.imageUrl = :oldUrl")
+    int replaceImageUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
 
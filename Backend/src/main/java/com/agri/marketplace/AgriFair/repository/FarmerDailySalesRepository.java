@@ -0,0 +1,30 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.model.FarmerDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FarmerDailySalesRepository extends JpaRepository<FarmerDailySales, Long> {
+
+    // Atomic add-or-create, so concurrent orders on the same day don't race on the row
+    @Modifying
+    @Query(value = "INSERT INTO farmer_daily_sales (farmer_id, sales_date, order_count, units, revenue) "
+            + "VALUES (:farmerId, :day, :orders, :units, :revenue) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + :orders, units = units + :units, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int add(@Param("farmerId") Long farmerId, @Param("day") LocalDate day,
+            @Param("orders") long orders, @Param("units") long units, @Param("revenue") double revenue);
+
+    List<FarmerDailySales> findByFarmerIdAndSalesDateBetweenOrderBySalesDate(Long farmerId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM FarmerDailySales s WHERE s.salesDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
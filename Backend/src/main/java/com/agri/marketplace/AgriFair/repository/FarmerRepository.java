@@ -1,12 +1,20 @@
 package com.agri.marketplace.AgriFair.repository;
 
 import com.agri.marketplace.AgriFair.model.Farmer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FarmerRepository extends JpaRepository<Farmer, Long> {
+    // Resolves the signed-in farmer on every rental and equipment request
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Farmer> findByEmail(String email);
+
     Optional<Farmer> findByPhoneNo(String phoneNo);
+    List<Farmer> findByLatitudeIsNotNullAndLongitudeIsNotNull();
 }
 
@@ -0,0 +1,41 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderFulfillment;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderFulfillmentRepository extends JpaRepository<OrderFulfillment, Long> {
+
+    // A farmer's queue, oldest first, walking idx_order_fulfillments_queue
+    @Query("SELECT f FROM OrderFulfillment f JOIN FETCH f.order o JOIN FETCH o.customer "
+            + "WHERE f.farmer.id = :farmerId AND f.status = :status "
+            + "ORDER BY f.createdDate, f.id")
+    List<OrderFulfillment> findQueue(@Param("farmerId") Long farmerId,
+                                     @Param("status") OrderStatus status,
+                                     Pageable pageable);
+
+    // The same queue from just after (afterDate, afterId): the cursor compares on the
+    // whole sort key, since backfilled fulfillments carry old dates but new ids
+    @Query("SELECT f FROM OrderFulfillment f JOIN FETCH f.order o JOIN FETCH o.customer "
+            + "WHERE f.farmer.id = :farmerId AND f.status = :status "
+            + "AND (f.createdDate > :afterDate OR (f.createdDate = :afterDate AND f.id > :afterId)) "
+            + "ORDER BY f.createdDate, f.id")
+    List<OrderFulfillment> findQueueAfter(@Param("farmerId") Long farmerId,
+                                          @Param("status") OrderStatus status,
+                                          @Param("afterDate") LocalDateTime afterDate,
+                                          @Param("afterId") long afterId,
+                                          Pageable pageable);
+
+    List<OrderFulfillment> findByOrder(Order order);
+
+    List<OrderFulfillment> findByStatusAndCreatedDateBetween(OrderStatus status, LocalDateTime from, LocalDateTime to);
+}
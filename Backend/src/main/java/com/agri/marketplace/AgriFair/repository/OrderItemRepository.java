@@ -1,15 +1,42 @@
 package com.agri.marketplace.AgriFair.repository;
 
+import com.agri.marketplace.AgriFair.dto.PriceTickDto;
 import com.agri.marketplace.AgriFair.model.Order;
 import com.agri.marketplace.AgriFair.model.OrderItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     // Get all items for a specific order
+    @EntityGraph(attributePaths = {"crop", "crop.farmer"})
     List<OrderItem> findByOrder(Order order);
+
+    // Items of several orders at once, so order lists don't query per order
+    @EntityGraph(attributePaths = {"crop", "crop.farmer"})
+    List<OrderItem> findByOrderIn(Collection<Order> orders);
+
+    // One farmer's items of several orders, for the incoming queue
+    @EntityGraph(attributePaths = {"crop", "crop.farmer"})
+    List<OrderItem> findByOrderInAndCropFarmerId(Collection<Order> orders, Long farmerId);
+
+    // Items of every order placed in a time range, for rebuilding the sales rollups
+    @EntityGraph(attributePaths = {"order", "order.customer", "crop", "crop.farmer"})
+    List<OrderItem> findByOrderCreatedDateBetween(LocalDateTime from, LocalDateTime to);
+
+    // One keyset page of trades since a time, for rebuilding the market price index;
+    // projected so the pass never holds entities
+    @Query("SELECT new com.agri.marketplace.AgriFair.dto.PriceTickDto(i.id, c.productName, f.state, i.price, i.quantity, o.createdDate) "
+            + "FROM OrderItem i JOIN i.order o JOIN i.crop c LEFT JOIN c.farmer f "
+            + "WHERE i.id > :afterId AND o.createdDate >= :since ORDER BY i.id")
+    List<PriceTickDto> findPriceTicks(@Param("afterId") Long afterId, @Param("since") LocalDateTime since, Pageable pageable);
 }
@@ -0,0 +1,43 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.model.OrderNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderNotificationRepository extends JpaRepository<OrderNotification, Long> {
+
+    // Unsent rows with attempts left and no live lease, oldest first
+    @Query("SELECT n.id FROM OrderNotification n WHERE n.sentAt IS NULL AND n.attempts < :maxAttempts "
+            + "AND (n.claimedUntil IS NULL OR n.claimedUntil < :now) ORDER BY n.id")
+    List<Long> findDueIds(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now, Pageable page);
+
+    // Takes the lease on whichever of the rows no other node took in the meantime
+    @Modifying
+    @Query("UPDATE OrderNotification n SET n.claimToken = :token, n.claimedUntil = :until "
+            + "WHERE n.id IN :ids AND n.sentAt IS NULL AND (n.claimedUntil IS NULL OR n.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Query("SELECT n FROM OrderNotification n JOIN FETCH n.order o JOIN FETCH o.customer "
+            + "WHERE n.claimToken = :token ORDER BY n.id")
+    List<OrderNotification> findClaimed(@Param("token") String token);
+
+    @Modifying
+    @Query("UPDATE OrderNotification n SET n.sentAt = :sentAt, n.claimToken = NULL WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OrderNotification n SET n.attempts = n.attempts + 1, n.lastError = :error, "
+            + "n.claimToken = NULL, n.claimedUntil = :retryAt WHERE n.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("error") String error,
+                   @Param("retryAt") LocalDateTime retryAt);
+
+    long countBySentAtIsNull();
+}
@@ -2,10 +2,16 @@ package com.agri.marketplace.AgriFair.repository;
 
 import com.agri.marketplace.AgriFair.model.Order;
 import com.agri.marketplace.AgriFair.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -15,4 +21,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Find orders by status
     List<Order> findByStatus(com.agri.marketplace.AgriFair.model.OrderStatus status);
+
+    // Orders with no per-farmer fulfillments yet, by id, for the one-off split
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId "
+            + "AND NOT EXISTS (SELECT f.id FROM OrderFulfillment f WHERE f.order = o) ORDER BY o.id")
+    List<Long> findUnsplitIds(@Param("afterId") long afterId, Pageable pageable);
+
+    // Row lock so two concurrent status changes can't both start from the same status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForUpdate(@Param("id") Long id);
 }
@@ -1,20 +1,54 @@
 package com.agri.marketplace.AgriFair.repository;
 
+import com.agri.marketplace.AgriFair.dto.RentalSummaryDto;
 import com.agri.marketplace.AgriFair.model.Rental;
 import com.agri.marketplace.AgriFair.model.RentalStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface RentalRepository extends JpaRepository<Rental, Long> {
+
+    // Single joined select for list endpoints; callers page by offset or by "id > afterId"
+    String SUMMARY_SELECT = "SELECT new com.agri.marketplace.AgriFair.dto.RentalSummaryDto("
+            + "r.id, r.startDate, r.endDate, r.status, r.totalCost, r.notes, "
+            + "rn.id, rn.firstName, rn.secondName, "
+            + "e.id, e.type, e.model, e.imageUrl, "
+            + "o.id, o.firstName, o.secondName) "
+            + "FROM Rental r JOIN r.renter rn JOIN r.equipment e JOIN e.owner o ";
+
     List<Rental> findByRenterId(Long renterId);
+    @EntityGraph(attributePaths = {"renter", "equipment", "equipment.owner"})
     List<Rental> findByEquipmentId(Long equipmentId);
     List<Rental> findByStatus(RentalStatus status);
     List<Rental> findByEquipmentIdAndStatusIn(Long equipmentId, List<RentalStatus> status);
     
     @Query("SELECT r FROM Rental r WHERE r.equipment.owner.id = :ownerId")
     List<Rental> findByEquipmentOwnerId(@Param("ownerId") Long ownerId);
-}
 
+    // Rentals in the given statuses covering any day of [from, to], for rebuilding the rollups
+    @Query("SELECT r FROM Rental r JOIN FETCH r.renter JOIN FETCH r.equipment e JOIN FETCH e.owner "
+            + "WHERE r.status IN :statuses AND r.startDate <= :to AND r.endDate >= :from")
+    List<Rental> findOverlapping(@Param("statuses") Collection<RentalStatus> statuses,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to);
+
+    @Query(SUMMARY_SELECT + "WHERE r.id > :afterId ORDER BY r.id")
+    List<RentalSummaryDto> findSummaries(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE rn.id = :renterId AND r.id > :afterId ORDER BY r.id")
+    List<RentalSummaryDto> findSummariesByRenterId(@Param("renterId") Long renterId,
+                                                   @Param("afterId") long afterId,
+                                                   Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.id = :ownerId AND r.id > :afterId ORDER BY r.id")
+    List<RentalSummaryDto> findSummariesByOwnerId(@Param("ownerId") Long ownerId,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
+}
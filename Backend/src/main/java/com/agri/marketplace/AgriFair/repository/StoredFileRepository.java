@@ -0,0 +1,39 @@
+package com.agri.marketplace.AgriFair.repository;
+
+import com.agri.marketplace.AgriFair.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ref counts change only through single-statement updates, so concurrent uploads and
+ * deletes of the same content can't lose an update or race to insert the row.
+ */
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    // Insert with one reference, or add one to an existing row
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO stored_files (filename, size, ref_count, created_at, retained_at) "
+            + "VALUES (:filename, :size, 1, :now, :now) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, retained_at = :now",
+            nativeQuery = true)
+    int retain(@Param("filename") String filename, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    // Drop one of several references; 0 when this was the last one (or there is no row)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.filename = :filename AND f.refCount > 1")
+    int releaseShared(@Param("filename") String filename);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StoredFile f WHERE f.filename = :filename")
+    int deleteByFilename(@Param("filename") String filename);
+
+    // For the orphan collector: leaves a row alone that gained a reference after cutoff,
+    // including one whose uncommitted upsert this has to wait for
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StoredFile f WHERE f.filename = :filename AND (f.retainedAt IS NULL OR f.retainedAt < :cutoff)")
+    int deleteIfRetainedBefore(@Param("filename") String filename, @Param("cutoff") LocalDateTime cutoff);
+}
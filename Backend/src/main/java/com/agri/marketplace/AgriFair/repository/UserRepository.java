@@ -1,11 +1,25 @@
 package com.agri.marketplace.AgriFair.repository;
 import com.agri.marketplace.AgriFair.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
     @Repository
     public interface UserRepository extends JpaRepository<User, Long> {
         User findByUsername(String username);
         User findByEmail(String email);
+        List<User> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+        @Query("SELECT u.profileImage FROM User u WHERE u.profileImage IN :urls")
+        List<String> findReferencedProfileImages(@Param("urls") Collection<String> urls);
+
+        @Modifying
+        @Query("UPDATE User u SET u.profileImage = :newUrl WHERE u.profileImage = :oldUrl")
+        int replaceProfileImage(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
     }
 
@@ -5,6 +5,8 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +18,8 @@ import java.io.IOException;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
 
@@ -43,18 +47,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                     } else {
-                        System.out.println("JWT Filter: Token validation failed for user: " + username);
+                        log.debug("Token validation failed for user {}", username);
                     }
                 }
             } catch (Exception e) {
-                System.err.println("JWT Filter Error: " + e.getMessage());
-                e.printStackTrace();
+                log.debug("Rejected bearer token: {}", e.getMessage());
                 // Don't set authentication, let it fail and return 401
             }
         } else {
-            // Log when Authorization header is missing or malformed
+            // Malformed header; the value itself may be a credential, so only note that it happened
             if (authHeader != null) {
-                System.out.println("JWT Filter: Invalid Authorization header format: " + authHeader);
+                log.debug("Ignoring Authorization header without Bearer prefix");
             }
         }
         filterChain.doFilter(request, response);
@@ -2,15 +2,20 @@ package com.agri.marketplace.AgriFair.security;
 
 import com.agri.marketplace.AgriFair.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,6 +26,12 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Value("${management.scrape.username:prometheus}")
+    private String scrapeUsername;
+
+    @Value("${management.scrape.password:}")
+    private String scrapePassword;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -39,6 +50,33 @@ public class SecurityConfig {
         return new JwtAuthenticationFilter(jwtUtil, userDetailsService);
     }
 
+    /**
+     * Actuator endpoints other than health take HTTP Basic with the scrape account from
+     * management.scrape.*, as Prometheus sends with basic_auth. With no password set
+     * they are closed to everyone.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+        if (!scrapePassword.isBlank()) {
+            scrapeUsers.createUser(User.withUsername(scrapeUsername)
+                    .password(passwordEncoder().encode(scrapePassword))
+                    .roles("METRICS")
+                    .build());
+        }
+        http.securityMatcher("/actuator/**")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health").permitAll() // Probes
+                        .anyRequest().hasRole("METRICS")
+                )
+                .httpBasic(Customizer.withDefaults())
+                .userDetailsService(scrapeUsers);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtFilter) throws Exception {
         http.csrf(csrf -> csrf.disable())
@@ -48,7 +86,12 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/health").permitAll() // Health check endpoint
                         .requestMatchers("/api/crops").permitAll() // Public browsing of crops
+                        .requestMatchers("/api/crops/nearby").permitAll() // Public nearby crop search
+                        .requestMatchers("/api/crops/trending").permitAll() // Public trending shelf
+                        .requestMatchers("/api/crops/suggest").permitAll() // Public crop name type-ahead
+                        .requestMatchers(HttpMethod.GET, "/api/crops/{id:\\d+}").permitAll() // Public crop listing
                         .requestMatchers("/api/equipment").permitAll() // Public browsing of equipment
+                        .requestMatchers("/api/market/prices").permitAll() // Public market prices
                         .requestMatchers("/uploads/**").permitAll() // Allow access to uploaded files
                         .requestMatchers("/error").permitAll() // Allow error pages
                         .anyRequest().authenticated()
@@ -0,0 +1,87 @@
+package com.agri.marketplace.AgriFair.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Approximate per-key totals in fixed memory: depth rows of width counters, each key
+ * hashed to one counter per row. A key's estimate is the smallest of its counters, which
+ * never undercounts and overcounts by about total / width with high probability. Adds use
+ * the conservative update (only counters below the new estimate are raised), which keeps
+ * the overcount much lower for skewed streams. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final double[] counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Sketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new double[depth * width];
+    }
+
+    /** Adds amount to key and returns the key's new estimate. */
+    public double add(long key, double amount) {
+        double estimate = estimate(key) + amount;
+        for (int row = 0; row < depth; row++) {
+            int index = index(key, row);
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public double estimate(long key) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(key, row)]);
+        }
+        return estimate;
+    }
+
+    /** Multiplies every counter by factor, e.g. to decay or rescale all counts at once. */
+    public void scale(double factor) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] *= factor;
+        }
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        for (double counter : counters) {
+            out.writeDouble(counter);
+        }
+    }
+
+    /** Reads counters written by {@link #writeTo} from a sketch of the same depth and width. */
+    public void readFrom(DataInput in) throws IOException {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = in.readDouble();
+        }
+    }
+
+    private int index(long key, int row) {
+        // A different odd multiplier per row, then the murmur3 finalizer to spread the bits
+        long h = (key + 1) * (0x9E3779B97F4A7C15L + 2L * row);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * width + (int) ((h & Long.MAX_VALUE) % width);
+    }
+}
@@ -0,0 +1,104 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.CropNameStockDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Crop name suggestions from a {@link PrefixTrie} over the distinct product names, so
+ * type-ahead never touches the database. A name's weight is the stock listed under it
+ * plus popularity-weight times its crops' trending scores. New crops are added as they
+ * are listed; the whole index is rebuilt on startup and every rebuild-ms, which picks up
+ * sold stock and changes in popularity.
+ */
+@Service
+public class CropNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CropNameIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final CropRepository cropRepository;
+    private final TrendingCropTracker trendingCropTracker;
+    private final double popularityWeight;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PrefixTrie trie = new PrefixTrie();
+
+    public CropNameIndex(CropRepository cropRepository,
+                         TrendingCropTracker trendingCropTracker,
+                         @Value("${suggest.popularity-weight:10}") double popularityWeight) {
+        this.cropRepository = cropRepository;
+        this.trendingCropTracker = trendingCropTracker;
+        this.popularityWeight = popularityWeight;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggest.rebuild-ms:600000}", initialDelayString = "${suggest.rebuild-ms:600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        PrefixTrie fresh = new PrefixTrie();
+        for (CropNameStockDto name : cropRepository.sumQuantityByProductName()) {
+            fresh.add(normalize(name.productName()), name.productName().trim(), name.stock() == null ? 0 : name.stock());
+        }
+        List<Long> trending = trendingCropTracker.top(Integer.MAX_VALUE);
+        if (!trending.isEmpty()) {
+            for (Crop crop : cropRepository.findByIdIn(trending)) {
+                if (crop.getProductName() != null && !crop.getProductName().isBlank()) {
+                    fresh.add(normalize(crop.getProductName()), crop.getProductName().trim(),
+                            popularityWeight * trendingCropTracker.score(crop.getId()));
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Rebuilt crop name index with {} names in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    /** Adds a newly listed crop's name and stock. */
+    public void cropAdded(String productName, Integer quantity) {
+        if (productName == null || productName.isBlank()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            trie.add(normalize(productName), productName.trim(), quantity == null ? 0 : quantity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Up to limit names starting with prefix (ignoring case), best first. */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            return trie.top(key, Math.min(limit, MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,15 +6,23 @@ import com.agri.marketplace.AgriFair.model.Crop;
 import com.agri.marketplace.AgriFair.model.User;
 import com.agri.marketplace.AgriFair.repository.CropRepository;
 import com.agri.marketplace.AgriFair.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class CropService {
     @Autowired
     private CropRepository cropRepository;
@@ -25,6 +33,21 @@ public class CropService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private LocationIndexService locationIndexService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TrendingCropTracker trendingCropTracker;
+
+    @Autowired
+    private CropNameIndex cropNameIndex;
+
     public CropResponseDto addCrop(Authentication auth, CropRequestDto cropDto, MultipartFile imageFile) {
         User farmer = userRepository.findByUsername(auth.getName());
         Crop crop = new Crop();
@@ -34,11 +57,11 @@ public class CropService {
         crop.setQuantity(cropDto.getQuantity());
         crop.setOrganic(cropDto.isOrganic());
         
-        // Handle image upload
+        // Stage the image before the transaction so disk I/O never holds a pooled connection
+        FileStorageService.StagedFile staged = null;
         try {
             if (imageFile != null && !imageFile.isEmpty()) {
-                String imageUrl = fileStorageService.storeFile(imageFile);
-                crop.setPhotoUrl(imageUrl);
+                staged = fileStorageService.stageFile(imageFile);
             } else if (cropDto.getPhotoUrl() != null && !cropDto.getPhotoUrl().isEmpty()) {
                 // Allow URL if no file uploaded
                 crop.setPhotoUrl(cropDto.getPhotoUrl());
@@ -46,53 +69,95 @@ public class CropService {
         } catch (Exception e) {
             throw new RuntimeException("Failed to store image: " + e.getMessage(), e);
         }
-        
-        crop.setFarmer(farmer);
-        Crop saved = cropRepository.save(crop);
-
-        CropResponseDto response = new CropResponseDto();
-        response.setId(saved.getId());
-        response.setProductName(saved.getProductName());
-        response.setDescription(saved.getDescription());
-        response.setPrice(saved.getPrice());
-        response.setQuantity(saved.getQuantity());
-        response.setOrganic(saved.isOrganic());
-        response.setPhotoUrl(saved.getPhotoUrl());
-        response.setFarmerUsername(farmer.getUsername());
-        return response;
+
+        FileStorageService.StagedFile image = staged;
+        try {
+            Crop saved = transactionTemplate.execute(status -> {
+                if (image != null) {
+                    crop.setPhotoUrl(fileStorageService.commitStaged(image));
+                }
+                crop.setFarmer(farmer);
+                return cropRepository.save(crop);
+            });
+            cropNameIndex.cropAdded(saved.getProductName(), saved.getQuantity());
+            return mapToResponseDto(saved);
+        } finally {
+            fileStorageService.discard(staged);
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<CropResponseDto> getCropsByFarmer(Authentication auth) {
         User farmer = userRepository.findByUsername(auth.getName());
         return cropRepository.findByFarmer(farmer)
-                .stream().map(crop -> {
-                    CropResponseDto dto = new CropResponseDto();
-                    dto.setId(crop.getId());
-                    dto.setProductName(crop.getProductName());
-                    dto.setDescription(crop.getDescription());
-                    dto.setPrice(crop.getPrice());
-                    dto.setQuantity(crop.getQuantity());
-                    dto.setOrganic(crop.isOrganic());
-                    dto.setPhotoUrl(crop.getPhotoUrl());
-                    dto.setFarmerUsername(farmer.getUsername());
-                    return dto;
-                }).collect(Collectors.toList());
+                .stream().map(this::mapToResponseDto).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<CropResponseDto> getAllCrops() {
         return cropRepository.findAll()
-                .stream().map(crop -> {
-                    CropResponseDto dto = new CropResponseDto();
-                    dto.setId(crop.getId());
-                    dto.setProductName(crop.getProductName());
-                    dto.setDescription(crop.getDescription());
-                    dto.setPrice(crop.getPrice());
-                    dto.setQuantity(crop.getQuantity());
-                    dto.setOrganic(crop.isOrganic());
-                    dto.setPhotoUrl(crop.getPhotoUrl());
-                    dto.setFarmerUsername(crop.getFarmer().getUsername());
-                    return dto;
-                }).collect(Collectors.toList());
+                .stream().map(this::mapToResponseDto).collect(Collectors.toList());
+    }
+
+    /** One crop's listing; counts as a view for the trending shelf. */
+    @Transactional(readOnly = true)
+    public CropResponseDto getCrop(Long id) {
+        Crop crop = cropRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Crop not found: " + id));
+        trendingCropTracker.cropViewed(crop.getId());
+        return mapToResponseDto(crop);
+    }
+
+    /**
+     * The most viewed and ordered crops lately, most popular first. Crops deleted since
+     * they were counted are dropped from the tracker and left out.
+     */
+    @Transactional(readOnly = true)
+    public List<CropResponseDto> getTrendingCrops(int limit) {
+        List<Long> ids = trendingCropTracker.top(limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Crop> crops = cropRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Crop::getId, Function.identity()));
+        ids.stream().filter(id -> !crops.containsKey(id)).forEach(trendingCropTracker::forget);
+        return ids.stream()
+                .filter(crops::containsKey)
+                .map(id -> mapToResponseDto(crops.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    public List<String> suggestCropNames(String prefix, int limit) {
+        return cropNameIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Crops listed by sellers within radiusKm of the given point, nearest seller first
+     */
+    public List<CropResponseDto> getCropsNear(double lat, double lng, double radiusKm) {
+        Map<Long, Double> sellers = locationIndexService.findCropSellersNear(lat, lng, radiusKm);
+        if (sellers.isEmpty()) {
+            return List.of();
+        }
+        return cropRepository.findByFarmerIdIn(sellers.keySet())
+                .stream()
+                .sorted(Comparator.comparing(crop -> sellers.get(crop.getFarmer().getId())))
+                .map(this::mapToResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    private CropResponseDto mapToResponseDto(Crop crop) {
+        CropResponseDto dto = new CropResponseDto();
+        dto.setId(crop.getId());
+        dto.setProductName(crop.getProductName());
+        dto.setDescription(crop.getDescription());
+        dto.setPrice(crop.getPrice());
+        dto.setQuantity(crop.getQuantity());
+        dto.setOrganic(crop.isOrganic());
+        dto.setPhotoUrl(crop.getPhotoUrl());
+        dto.setPhotoRenditions(imageDerivativeService.renditionUrls(crop.getPhotoUrl()));
+        dto.setFarmerUsername(crop.getFarmer().getUsername());
+        return dto;
     }
 
     // Add update and delete as needed, always verifying ownership via auth
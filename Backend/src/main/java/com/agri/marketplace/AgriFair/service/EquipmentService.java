@@ -5,82 +5,120 @@ import com.agri.marketplace.AgriFair.model.Farmer;
 import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
 import com.agri.marketplace.AgriFair.repository.FarmerRepository;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class EquipmentService {
 
     private final EquipmentRepository equipmentRepository;
     private final FarmerRepository farmerRepository;
     private final FarmerService farmerService;
     private final FileStorageService fileStorageService;
+    private final LocationIndexService locationIndexService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final TransactionTemplate transactionTemplate;
 
     public EquipmentService(EquipmentRepository equipmentRepository, 
                            FarmerRepository farmerRepository,
                            FarmerService farmerService,
-                           FileStorageService fileStorageService) {
+                           FileStorageService fileStorageService,
+                           LocationIndexService locationIndexService,
+                           ImageDerivativeService imageDerivativeService,
+                           TransactionTemplate transactionTemplate) {
         this.equipmentRepository = equipmentRepository;
         this.farmerRepository = farmerRepository;
         this.farmerService = farmerService;
         this.fileStorageService = fileStorageService;
+        this.locationIndexService = locationIndexService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    @Transactional(readOnly = true)
     public List<Equipment> getEquipments() {
-        return equipmentRepository.findAll();
+        return withAllRenditions(equipmentRepository.findAll());
     }
 
     public Optional<Equipment> getEquipmentById(Long id) {
-        return equipmentRepository.findById(id);
+        return equipmentRepository.findById(id).map(this::withRenditions);
     }
 
+    @Transactional(readOnly = true)
     public List<Equipment> getAvailableEquipments() {
-        return equipmentRepository.findByAvailable(Boolean.TRUE);
+        return withAllRenditions(equipmentRepository.findByAvailable(Boolean.TRUE));
     }
 
+    @Transactional(readOnly = true)
     public List<Equipment> getEquipmentsByOwner(Long ownerId) {
-        return equipmentRepository.findByOwnerId(ownerId);
+        return withAllRenditions(equipmentRepository.findByOwnerId(ownerId));
     }
 
-    @Transactional
-    public Equipment createEquipment(Equipment equipment, MultipartFile imageFile, String username) {
-        // Get farmer by username (auto-assign owner from logged-in user)
-        Farmer owner;
-        if (username != null && !username.isEmpty()) {
-            // Use FarmerService to get farmer by username
-            owner = farmerService.getFarmerByUsername(username);
-        } else {
-            // Fallback: use owner from equipment if provided (for backward compatibility)
-            Long ownerId = Optional.ofNullable(equipment.getOwner())
-                    .map(Farmer::getId)
-                    .orElseThrow(() -> new IllegalArgumentException("Equipment owner is required"));
-            owner = farmerRepository.findById(ownerId)
-                    .orElseThrow(() -> new EntityNotFoundException("Owner not found: " + ownerId));
-        }
-
-        equipment.setOwner(owner);
-        if (equipment.getAvailable() == null) {
-            equipment.setAvailable(Boolean.TRUE);
+    /**
+     * Equipment whose owner is within radiusKm of the given point, nearest owner first
+     */
+    public List<Equipment> getEquipmentsNear(double lat, double lng, double radiusKm) {
+        Map<Long, Double> owners = locationIndexService.findEquipmentOwnersNear(lat, lng, radiusKm);
+        if (owners.isEmpty()) {
+            return List.of();
         }
+        return equipmentRepository.findByOwnerIdIn(owners.keySet()).stream()
+                .sorted(Comparator.comparing(e -> owners.get(e.getOwner().getId())))
+                .map(this::withRenditions)
+                .collect(Collectors.toList());
+    }
 
-        // Handle image upload
+    public Equipment createEquipment(Equipment equipment, MultipartFile imageFile, String username) {
+        // Stage the image before the transaction so disk I/O never holds a pooled connection
+        FileStorageService.StagedFile staged = null;
         try {
             if (imageFile != null && !imageFile.isEmpty()) {
-                String imageUrl = fileStorageService.storeFile(imageFile);
-                equipment.setImageUrl(imageUrl);
-            } else if (equipment.getImageUrl() != null && !equipment.getImageUrl().isEmpty()) {
-                // Allow URL if no file uploaded
-                // imageUrl already set
+                staged = fileStorageService.stageFile(imageFile);
             }
+            // Otherwise allow a URL if no file uploaded - imageUrl already set
         } catch (Exception e) {
             throw new RuntimeException("Failed to store image: " + e.getMessage(), e);
         }
 
-        return equipmentRepository.save(equipment);
+        FileStorageService.StagedFile image = staged;
+        try {
+            return withRenditions(transactionTemplate.execute(status -> {
+                // Get farmer by username (auto-assign owner from logged-in user)
+                Farmer owner;
+                if (username != null && !username.isEmpty()) {
+                    // Use FarmerService to get farmer by username
+                    owner = farmerService.getFarmerByUsername(username);
+                } else {
+                    // Fallback: use owner from equipment if provided (for backward compatibility)
+                    Long ownerId = Optional.ofNullable(equipment.getOwner())
+                            .map(Farmer::getId)
+                            .orElseThrow(() -> new IllegalArgumentException("Equipment owner is required"));
+                    owner = farmerRepository.findById(ownerId)
+                            .orElseThrow(() -> new EntityNotFoundException("Owner not found: " + ownerId));
+                }
+
+                equipment.setOwner(owner);
+                if (equipment.getAvailable() == null) {
+                    equipment.setAvailable(Boolean.TRUE);
+                }
+                if (image != null) {
+                    equipment.setImageUrl(fileStorageService.commitStaged(image));
+                }
+                return equipmentRepository.save(equipment);
+            }));
+        } finally {
+            fileStorageService.discard(staged);
+        }
     }
 
     @Transactional
@@ -90,5 +128,14 @@ public class EquipmentService {
         equipment.setAvailable(available);
         return equipmentRepository.save(equipment);
     }
-}
 
+    private List<Equipment> withAllRenditions(List<Equipment> equipments) {
+        equipments.forEach(this::withRenditions);
+        return equipments;
+    }
+
+    private Equipment withRenditions(Equipment equipment) {
+        equipment.setImageRenditions(imageDerivativeService.renditionUrls(equipment.getImageUrl()));
+        return equipment;
+    }
+}
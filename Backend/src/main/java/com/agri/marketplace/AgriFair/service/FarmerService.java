@@ -5,6 +5,7 @@ import com.agri.marketplace.AgriFair.model.User;
 import com.agri.marketplace.AgriFair.repository.FarmerRepository;
 import com.agri.marketplace.AgriFair.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,16 +13,22 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class FarmerService {
 
     private final FarmerRepository farmerRepository;
     private final UserRepository userRepository;
+    private final LocationIndexService locationIndexService;
 
-    public FarmerService(FarmerRepository farmerRepository, UserRepository userRepository) {
+    public FarmerService(FarmerRepository farmerRepository,
+                         UserRepository userRepository,
+                         LocationIndexService locationIndexService) {
         this.farmerRepository = farmerRepository;
         this.userRepository = userRepository;
+        this.locationIndexService = locationIndexService;
     }
 
+    @Transactional(readOnly = true)
     public List<Farmer> getFarmers() {
         return farmerRepository.findAll();
     }
@@ -149,8 +156,15 @@ public class FarmerService {
             && !updatedFarmer.getLocalArea().equals("Not Set")) {
             existingFarmer.setLocalArea(updatedFarmer.getLocalArea());
         }
+        if (updatedFarmer.getLatitude() != null || updatedFarmer.getLongitude() != null) {
+            LocationIndexService.validateCoordinates(updatedFarmer.getLatitude(), updatedFarmer.getLongitude());
+            existingFarmer.setLatitude(updatedFarmer.getLatitude());
+            existingFarmer.setLongitude(updatedFarmer.getLongitude());
+        }
         
-        return farmerRepository.save(existingFarmer);
+        Farmer saved = farmerRepository.save(existingFarmer);
+        locationIndexService.indexFarmer(saved);
+        return saved;
     }
 
     /**
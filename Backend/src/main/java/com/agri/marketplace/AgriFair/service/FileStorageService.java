@@ -1,62 +1,368 @@
 package com.agri.marketplace.AgriFair.service;
 
+import com.agri.marketplace.AgriFair.repository.StoredFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.UUID;
 
+/**
+ * Content-addressed upload store. Writes are two-phase so the upload is never written
+ * or hashed while a database connection is held: {@link #stageFile} does that outside
+ * any transaction, and {@link #commitStaged} records the reference and renames the file
+ * into place inside the caller's transaction, so a failed rename fails the request. A
+ * file placed by a transaction that rolls back is removed again; old files are removed
+ * only after the releasing transaction commits. Callers {@link #discard} the staged
+ * file in a finally block.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    static final String URL_PREFIX = "/uploads/";
+    static final String INCOMING_DIR = ".incoming";
+
+    private static final int LOCK_STRIPES = 64;
+
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
-    public String storeFile(MultipartFile file) throws IOException {
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private OpenFileCache openFileCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Serialises promotion and removal of the same file so a new upload can't lose a race with a delete
+    private final Object[] fileLocks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            fileLocks[i] = new Object();
+        }
+    }
+
+    /** An upload written to the staging area but not yet visible under its final URL. */
+    public record StagedFile(Path stagedPath, String filename, long size) {
+
+        public String url() {
+            return URL_PREFIX + relativePathFor(filename);
+        }
+    }
+
+    /**
+     * Write an upload to the staging area and hash it. Does not touch the database, so
+     * call it before opening a transaction. Returns null for an empty upload.
+     */
+    public StagedFile stageFile(MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) {
             return null;
         }
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        Path incoming = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(INCOMING_DIR);
+        Files.createDirectories(incoming);
+
+        // transferTo lets a spooled multipart part be renamed into place instead of copied
+        Path staged = incoming.resolve(UUID.randomUUID() + ".part");
+        try {
+            file.transferTo(staged.toFile());
+            String filename = sha256(staged) + extensionOf(file.getOriginalFilename());
+            return new StagedFile(staged, filename, Files.size(staged));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
         }
+    }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    /**
+     * Record a reference to a staged file, move it into place and return its URL. Throws
+     * if the file can't be moved, rolling the surrounding transaction back; if that
+     * transaction rolls back for any reason, the moved file is removed unless another
+     * upload of the same bytes has committed meanwhile.
+     */
+    @Transactional
+    public String commitStaged(StagedFile staged) {
+        retain(staged.filename(), staged.size());
+        if (promote(staged)) {
+            afterRollback(() -> removeIfUnreferenced(staged.filename()));
+            imageDerivativeService.submit(staged.filename());
+        } else {
+            // The copy already on disk may belong to a concurrent upload that rolls back
+            // and removes it before we commit; ours is still staged to take its place
+            afterCommit(() -> restoreIfMissing(staged));
         }
-        String filename = UUID.randomUUID().toString() + extension;
+        return staged.url();
+    }
 
-        // Save file
-        Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    /** Remove a staged file if it was never promoted. Safe to call with null or twice. */
+    public void discard(StagedFile staged) {
+        if (staged == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(staged.stagedPath());
+        } catch (IOException e) {
+            log.warn("Error discarding staged file {}: {}", staged.stagedPath(), e.getMessage());
+        }
+    }
 
-        // Return relative URL path
-        return "/uploads/" + filename;
+    /**
+     * Store an upload under the SHA-256 of its content. Identical content is stored
+     * once and reference counted; the returned URL is stable for that content.
+     * Stages first and only then opens a short transaction for the reference.
+     */
+    public String storeFile(MultipartFile file) throws IOException {
+        StagedFile staged = stageFile(file);
+        if (staged == null) {
+            return null;
+        }
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> commitStaged(staged));
+        } finally {
+            discard(staged);
+        }
     }
 
+    /**
+     * Release one reference to a stored file. The file leaves the disk only after the
+     * surrounding transaction commits and nothing references it any more. Files stored
+     * before content addressing have no ref count and are removed directly.
+     */
+    @Transactional
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isEmpty()) {
             return;
         }
 
+        String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+        if (storedFileRepository.releaseShared(filename) > 0) {
+            return;
+        }
+        if (storedFileRepository.deleteByFilename(filename) > 0) {
+            afterCommit(() -> removeIfUnreferenced(filename));
+            return;
+        }
+
+        afterCommit(() -> removeFromDisk(filename));
+    }
+
+    /**
+     * Remove a file no row points at, regardless of its ref count, together with its
+     * renditions. Used by the orphan collector, which saw the
+     * file unreferenced and unmodified since cutoff; a file uploaded again since then
+     * (its row retained or the file touched after cutoff) is kept.
+     */
+    @Transactional
+    public void purgeFile(String filename, Instant cutoff) {
+        storedFileRepository.deleteIfRetainedBefore(filename, LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault()));
+        afterCommit(() -> removeIfUnreferenced(filename, cutoff));
+    }
+
+    /**
+     * Sharded location of a file relative to the upload dir: {@code ab/cd/abcd...ext}.
+     * Names that don't start with four alphanumerics stay at the top level.
+     */
+    public static String relativePathFor(String filename) {
+        String key = filename.toLowerCase(Locale.ROOT);
+        if (key.length() < 5 || !key.substring(0, 4).matches("[0-9a-z]{4}")) {
+            return filename;
+        }
+        return key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + filename;
+    }
+
+    private void removeFromDisk(String filename) {
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        // Legacy files may still sit in the flat layout
+        for (Path filePath : new Path[]{uploadPath.resolve(relativePathFor(filename)), uploadPath.resolve(filename)}) {
+            try {
+                Files.deleteIfExists(filePath);
+            } catch (IOException e) {
+                // Log error but don't throw - file might not exist
+                log.warn("Error deleting file {}: {}", filename, e.getMessage());
+            }
+            openFileCache.evict(filePath);
+        }
+        imageDerivativeService.deleteRenditions(filename);
+    }
+
+    /**
+     * Move a staged file to its final location. Returns false if the same bytes are
+     * already stored there, and throws if the move fails.
+     */
+    private boolean promote(StagedFile staged) {
+        Path target = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(relativePathFor(staged.filename()));
+        synchronized (lockFor(staged.filename())) {
+            if (Files.exists(target)) {
+                // Mark the existing copy as in use, so the orphan collector leaves it alone
+                touch(target);
+                return false;
+            }
+            try {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(staged.stagedPath(), target);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not store upload " + staged.filename(), e);
+            }
+        }
+    }
+
+    private void restoreIfMissing(StagedFile staged) {
+        Path target = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(relativePathFor(staged.filename()));
+        synchronized (lockFor(staged.filename())) {
+            if (Files.exists(target) || !Files.exists(staged.stagedPath())) {
+                return;
+            }
+            try {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(staged.stagedPath(), target);
+            } catch (IOException e) {
+                log.error("Stored file {} is referenced but missing: {}", staged.filename(), e.getMessage());
+                return;
+            }
+        }
+        imageDerivativeService.submit(staged.filename());
+    }
+
+    private void removeIfUnreferenced(String filename) {
+        removeIfUnreferenced(filename, null);
+    }
+
+    /** As above, but also keeps the file if it was modified (re-uploaded) after untouchedSince. */
+    private void removeIfUnreferenced(String filename, Instant untouchedSince) {
+        synchronized (lockFor(filename)) {
+            if (untouchedSince != null && modifiedAfter(filename, untouchedSince)) {
+                return;
+            }
+            // A concurrent upload of the same bytes may have re-created the row since our commit
+            TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+            readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            readTemplate.setReadOnly(true);
+            Boolean referenced = readTemplate.execute(status -> storedFileRepository.existsById(filename));
+            if (!Boolean.TRUE.equals(referenced)) {
+                removeFromDisk(filename);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private boolean modifiedAfter(String filename, Instant instant) {
+        Path path = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(relativePathFor(filename));
         try {
-            String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Files.deleteIfExists(filePath);
+            return Files.getLastModifiedTime(path).toInstant().isAfter(instant);
         } catch (IOException e) {
-            // Log error but don't throw - file might not exist
-            System.err.println("Error deleting file: " + fileUrl + " - " + e.getMessage());
+            // Gone already, or unreadable: nothing to keep
+            return false;
         }
     }
-}
 
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("Error touching stored file {}: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private Object lockFor(String filename) {
+        return fileLocks[Math.floorMod(filename.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void retain(String filename, long size) {
+        // One upsert: two first uploads of the same bytes can't both try to insert the row
+        storedFileRepository.retain(filename, size, LocalDateTime.now());
+    }
+
+    private void moveIntoPlace(Path staged, Path target) throws IOException {
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase(Locale.ROOT);
+        // Only keep short alphanumeric extensions so names stay safe to serve
+        return extension.matches("[a-z0-9]{1,8}") ? "." + extension : "";
+    }
+}
@@ -0,0 +1,63 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off split of orders placed before order_fulfillments existed, so their farmers
+ * see them in their queues and the rollup rebuild counts their cancellations. Walks the
+ * unsplit orders by id in batches of batch-size, one transaction each. Safe to rerun:
+ * orders that already have fulfillments are skipped, and orders whose crops have no
+ * farmer are left as they are.
+ */
+@Component
+public class FulfillmentBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(FulfillmentBackfill.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public FulfillmentBackfill(OrderRepository orderRepository,
+                               OrderService orderService,
+                               @Value("${fulfillments.backfill-on-startup:true}") boolean enabled,
+                               @Value("${fulfillments.backfill.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    /** Splits every unsplit order and returns how many were split. */
+    public synchronized long backfill() {
+        long started = System.currentTimeMillis();
+        long split = 0;
+        long afterId = 0;
+        List<Long> batch;
+        while (!(batch = orderRepository.findUnsplitIds(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            split += orderService.splitOrders(batch);
+            afterId = batch.get(batch.size() - 1);
+        }
+        if (split > 0) {
+            log.info("Split {} existing orders into fulfillments in {} ms", split, System.currentTimeMillis() - started);
+        }
+        return split;
+    }
+}
@@ -0,0 +1,190 @@
+package com.agri.marketplace.AgriFair.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory lat/long grid. Points are bucketed into fixed-size cells so a radius
+ * query only scans the cells covering its bounding box, and a nearest-k query only
+ * the rings of cells around the point that can still hold one of the k.
+ * Reads are lock-free; writes are serialized.
+ */
+public class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.2;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+    private final Map<Long, double[]> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.cols = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public synchronized void put(Long id, double lat, double lng) {
+        remove(id);
+        points.put(id, new double[]{lat, lng});
+        cells.computeIfAbsent(cellKey(row(lat), col(lng)), k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    public synchronized void remove(Long id) {
+        double[] old = points.remove(id);
+        if (old == null) {
+            return;
+        }
+        long key = cellKey(row(old[0]), col(old[1]));
+        Set<Long> members = cells.get(key);
+        if (members != null) {
+            members.remove(id);
+            if (members.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        points.clear();
+        cells.clear();
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Ids within radiusKm of the given point, nearest first, mapped to their distance in km.
+     */
+    public Map<Long, Double> within(double lat, double lng, double radiusKm) {
+        return nearest(lat, lng, radiusKm, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The (at most) limit ids nearest to the given point within radiusKm, nearest first,
+     * mapped to their distance in km. Cells are scanned in rings outward from the point's
+     * cell, and the scan stops once a ring can't hold anything nearer than the limit-th
+     * hit, so the cost follows the limit rather than the number of points in the radius.
+     */
+    public Map<Long, Double> nearest(double lat, double lng, double radiusKm, int limit) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double dLng = cosLat < 1e-6 ? 360 : dLat / cosLat;
+
+        int rowMin = row(lat - dLat);
+        int rowMax = row(lat + dLat);
+        int colMin = (int) Math.floor((lng - dLng + 180) / cellDegrees);
+        int colMax = (int) Math.floor((lng + dLng + 180) / cellDegrees);
+        boolean wrapsAround = colMax - colMin + 1 >= cols;
+        if (wrapsAround) {
+            colMin = 0;
+            colMax = cols - 1;
+        }
+        int row0 = row(lat);
+        int col0 = wrapsAround ? col(lng) : (int) Math.floor((lng + 180) / cellDegrees);
+        int maxRing = Math.max(Math.max(row0 - rowMin, rowMax - row0), Math.max(col0 - colMin, colMax - col0));
+        // Past half the globe east-west, a ring's columns can be nearer the other way round
+        boolean exhaustive = colMax - colMin + 1 > cols / 2;
+        // Smallest cos(latitude) in the box (plus a cell), for the east-west lower bound of a ring
+        double maxAbsLat = Math.min(90, Math.max(Math.abs(lat - dLat), Math.abs(lat + dLat)) + cellDegrees);
+        double cosMin = Math.cos(Math.toRadians(maxAbsLat));
+
+        // Max-heap on distance holding the best hits so far
+        PriorityQueue<Map.Entry<Long, Double>> best =
+                new PriorityQueue<>(Math.min(limit, 64) + 1, Map.Entry.<Long, Double>comparingByValue().reversed());
+        for (int ring = 0; ring <= maxRing && limit > 0; ring++) {
+            if (!exhaustive && best.size() == limit && ringLowerBoundKm(ring, cosMin) > best.peek().getValue()) {
+                break;
+            }
+            for (int r = Math.max(rowMin, row0 - ring); r <= Math.min(rowMax, row0 + ring); r++) {
+                boolean edgeRow = r == row0 - ring || r == row0 + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = col0 - ring; c <= col0 + ring; c += step) {
+                    if (c >= colMin && c <= colMax) {
+                        scanCell(r, c, lat, lng, radiusKm, limit, best);
+                    }
+                }
+            }
+        }
+
+        List<Map.Entry<Long, Double>> hits = new ArrayList<>(best);
+        hits.sort(Map.Entry.comparingByValue());
+        Map<Long, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, Double> hit : hits) {
+            result.put(hit.getKey(), hit.getValue());
+        }
+        return result;
+    }
+
+    private void scanCell(int r, int c, double lat, double lng, double radiusKm, int limit,
+                          PriorityQueue<Map.Entry<Long, Double>> best) {
+        Set<Long> members = cells.get(cellKey(r, Math.floorMod(c, cols)));
+        if (members == null) {
+            return;
+        }
+        for (Long id : members) {
+            double[] p = points.get(id);
+            if (p == null) {
+                continue;
+            }
+            double distance = distanceKm(lat, lng, p[0], p[1]);
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(Map.entry(id, distance));
+            } else if (distance < best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(id, distance));
+            }
+        }
+    }
+
+    /**
+     * No point in ring (cells ring steps away) is nearer than this: it is at least
+     * ring - 1 whole cells away north-south, where the central angle is at least the
+     * latitude difference, or east-west, where hav(angle) >= cos(lat1) cos(lat2) hav(dLng).
+     */
+    private double ringLowerBoundKm(int ring, double cosMin) {
+        if (ring < 2) {
+            return 0;
+        }
+        double gap = Math.toRadians((ring - 1) * cellDegrees);
+        double northSouth = gap;
+        double eastWest = 2 * Math.asin(Math.min(1, cosMin * Math.sin(gap / 2)));
+        return EARTH_RADIUS_KM * Math.min(northSouth, eastWest);
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private int row(double lat) {
+        int r = (int) Math.floor((lat + 90) / cellDegrees);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private int col(double lng) {
+        return Math.floorMod((int) Math.floor((lng + 180) / cellDegrees), cols);
+    }
+
+    private long cellKey(int row, int col) {
+        return (long) row * cols + col;
+    }
+}
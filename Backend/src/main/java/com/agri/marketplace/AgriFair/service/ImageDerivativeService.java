@@ -0,0 +1,400 @@
+package com.agri.marketplace.AgriFair.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Produces thumbnail / medium / full JPEG renditions of uploaded images on a bounded
+ * background pool, so catalog pages don't download multi-megabyte originals.
+ * Renditions sit next to the original as {@code <name>_<suffix>.jpg}. Lookups for
+ * catalog rows are answered from memory: renditions found are remembered for good,
+ * missing ones for miss-ttl-ms or until this node writes them.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    public enum Rendition {
+        // Largest first: each rendition is scaled down from the previous one
+        FULL("full", 1600),
+        MEDIUM("medium", 800),
+        THUMBNAIL("thumb", 256);
+
+        private final String suffix;
+        private final int maxEdge;
+
+        Rendition(String suffix, int maxEdge) {
+            this.suffix = suffix;
+            this.maxEdge = maxEdge;
+        }
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp", "webp");
+    private static final float JPEG_QUALITY = 0.8f;
+    // Past this many remembered misses the whole set is dropped and rebuilt from lookups
+    private static final int MAX_MISSES = 100_000;
+
+    private final Path uploadPath;
+    private final OpenFileCache openFileCache;
+    private final ThreadPoolExecutor executor;
+    private final long missTtlNanos;
+    private final Set<String> ready = ConcurrentHashMap.newKeySet();
+    // Rendition name -> System.nanoTime() when it was found missing
+    private final Map<String, Long> missing = new ConcurrentHashMap<>();
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public ImageDerivativeService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                                  @Value("${image.derivatives.threads:2}") int threads,
+                                  @Value("${image.derivatives.queue-capacity:200}") int queueCapacity,
+                                  @Value("${image.derivatives.miss-ttl-ms:60000}") long missTtlMillis,
+                                  OpenFileCache openFileCache) {
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.missTtlNanos = TimeUnit.MILLISECONDS.toNanos(missTtlMillis);
+        this.openFileCache = openFileCache;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue rendition generation for a stored file once the surrounding transaction (if
+     * any) commits, so a rolled-back upload is never read. Never blocks: when the queue
+     * is full the job is dropped and the original keeps being served.
+     */
+    public void submit(String filename) {
+        if (!isImage(filename)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(filename);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(filename);
+            }
+        });
+    }
+
+    /**
+     * Queue rendition generation, waiting for room in the queue instead of dropping the
+     * job. For batch work such as {@link RenditionBackfill}; returns false if interrupted
+     * or shut down.
+     */
+    public boolean submitAndWait(String filename) {
+        if (!isImage(filename)) {
+            return true;
+        }
+        while (true) {
+            long enqueuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> process(filename, enqueuedAt));
+                return true;
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    return false;
+                }
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /** Whether all renditions of an image are on disk; always true for non-images. */
+    public boolean hasRenditions(String filename) {
+        if (!isImage(filename)) {
+            return true;
+        }
+        for (Rendition rendition : Rendition.values()) {
+            if (!Files.exists(locate(renditionName(filename, rendition)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * URLs of the renditions that exist for an uploaded file, keyed by rendition name.
+     * Empty until the pipeline has processed the file, or for non-upload URLs.
+     */
+    public Map<String, String> renditionUrls(String originalUrl) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        if (originalUrl == null || !originalUrl.startsWith(FileStorageService.URL_PREFIX)) {
+            return urls;
+        }
+        String filename = originalUrl.substring(originalUrl.lastIndexOf("/") + 1);
+        if (!isImage(filename)) {
+            return urls;
+        }
+        for (Rendition rendition : Rendition.values()) {
+            String name = renditionName(filename, rendition);
+            if (exists(name)) {
+                urls.put(rendition.key(), FileStorageService.URL_PREFIX + FileStorageService.relativePathFor(name));
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Renditions are immutable once written, so a hit is cached for good. A miss is
+     * cached for miss-ttl-ms; renditions written by this node clear it right away, the
+     * TTL covers ones written by another node or process.
+     */
+    private boolean exists(String name) {
+        if (ready.contains(name)) {
+            return true;
+        }
+        long now = System.nanoTime();
+        Long missedAt = missing.get(name);
+        if (missedAt != null && now - missedAt < missTtlNanos) {
+            return false;
+        }
+        if (Files.exists(locate(name))) {
+            ready.add(name);
+            missing.remove(name);
+            return true;
+        }
+        if (missing.size() >= MAX_MISSES) {
+            missing.clear();
+        }
+        missing.put(name, now);
+        return false;
+    }
+
+    public void deleteRenditions(String filename) {
+        for (Rendition rendition : Rendition.values()) {
+            String name = renditionName(filename, rendition);
+            ready.remove(name);
+            missing.remove(name);
+            try {
+                Path path = locate(name);
+                Files.deleteIfExists(path);
+                openFileCache.evict(path);
+            } catch (IOException e) {
+                log.warn("Error deleting rendition {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long done = processed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("processed", done);
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("avgLatencyMs", done == 0 ? 0 : totalLatencyNanos.get() / done / 1_000_000);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000);
+        return stats;
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static String renditionName(String filename, Rendition rendition) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base + "_" + rendition.suffix + ".jpg";
+    }
+
+    /**
+     * Base name (without extension) of the original a rendition was made from, or null
+     * if filename is not a rendition.
+     */
+    static String sourceBaseOf(String filename) {
+        for (Rendition rendition : Rendition.values()) {
+            String suffix = "_" + rendition.suffix + ".jpg";
+            if (filename.endsWith(suffix) && filename.length() > suffix.length()) {
+                return filename.substring(0, filename.length() - suffix.length());
+            }
+        }
+        return null;
+    }
+
+    private Path locate(String name) {
+        return uploadPath.resolve(FileStorageService.relativePathFor(name));
+    }
+
+    private void enqueue(String filename) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> process(filename, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    private void process(String filename, long enqueuedAt) {
+        try {
+            BufferedImage image = readSubsampled(locate(filename), Rendition.FULL.maxEdge);
+            if (image == null) {
+                // No ImageIO reader for this format - originals keep being served
+                failed.incrementAndGet();
+                return;
+            }
+            for (Rendition rendition : Rendition.values()) {
+                image = fit(image, rendition.maxEdge);
+                String name = renditionName(filename, rendition);
+                writeJpeg(image, locate(name));
+                ready.add(name);
+                missing.remove(name);
+            }
+            long latency = System.nanoTime() - enqueuedAt;
+            processed.incrementAndGet();
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Failed to create renditions for {}: {}", filename, e.getMessage());
+        }
+    }
+
+    /**
+     * Decode with source subsampling so a 12MP phone photo never has to be held at full size.
+     */
+    private BufferedImage readSubsampled(Path source, int targetEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longestEdge / targetEdge);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale down to fit maxEdge, halving in steps for quality. Always returns an opaque RGB image.
+     */
+    private BufferedImage fit(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+            if (current.getType() == BufferedImage.TYPE_INT_RGB
+                    && stepWidth == current.getWidth() && stepHeight == current.getHeight()) {
+                break;
+            }
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // JPEG has no alpha: flatten transparent pixels onto white
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, stepWidth, stepHeight);
+                g.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean isImage(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 && IMAGE_EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
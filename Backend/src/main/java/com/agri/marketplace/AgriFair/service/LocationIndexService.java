@@ -0,0 +1,139 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Keeps equipment owners (farmers) and crop sellers (users) in in-memory geo grids
+ * so nearby searches never scan the tables. Loaded once at startup and kept
+ * current from the profile update paths, once their transaction commits, and from
+ * entity_changes for updates made on other nodes.
+ */
+@Service
+public class LocationIndexService {
+
+    public static final double MAX_RADIUS_KM = 500;
+    // Nearest owners or sellers returned per search
+    public static final int MAX_RESULTS = 200;
+
+    private final FarmerRepository farmerRepository;
+    private final UserRepository userRepository;
+    private final GeoGrid equipmentOwners;
+    private final GeoGrid cropSellers;
+
+    public LocationIndexService(FarmerRepository farmerRepository,
+                                UserRepository userRepository,
+                                @Value("${location.index.cell-degrees:0.1}") double cellDegrees) {
+        this.farmerRepository = farmerRepository;
+        this.userRepository = userRepository;
+        this.equipmentOwners = new GeoGrid(cellDegrees);
+        this.cropSellers = new GeoGrid(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        equipmentOwners.clear();
+        cropSellers.clear();
+        farmerRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull().forEach(this::indexFarmer);
+        userRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull().forEach(this::indexUser);
+    }
+
+    /** Indexes a saved farmer's location once the surrounding transaction (if any) commits. */
+    public void indexFarmer(Farmer farmer) {
+        Long id = farmer.getId();
+        if (id == null) {
+            return;
+        }
+        Double lat = farmer.getLatitude();
+        Double lng = farmer.getLongitude();
+        afterCommit(() -> place(equipmentOwners, id, lat != null && lng != null, lat, lng));
+    }
+
+    /** Indexes a saved user's location once the surrounding transaction (if any) commits. */
+    public void indexUser(User user) {
+        Long id = user.getId();
+        if (id == null) {
+            return;
+        }
+        boolean seller = user.getRole() != null && user.getRole().contains("FARMER");
+        Double lat = user.getLatitude();
+        Double lng = user.getLongitude();
+        afterCommit(() -> place(cropSellers, id, seller && lat != null && lng != null, lat, lng));
+    }
+
+    /** Re-reads a farmer changed on another node, or drops it if it was deleted. */
+    public void refreshFarmer(Long farmerId) {
+        farmerRepository.findById(farmerId).ifPresentOrElse(this::indexFarmer, () -> equipmentOwners.remove(farmerId));
+    }
+
+    /** Re-reads a user changed on another node, or drops it if it was deleted. */
+    public void refreshUser(Long userId) {
+        userRepository.findById(userId).ifPresentOrElse(this::indexUser, () -> cropSellers.remove(userId));
+    }
+
+    /**
+     * The MAX_RESULTS nearest farmer ids owning equipment within radiusKm, nearest first,
+     * mapped to distance in km
+     */
+    public Map<Long, Double> findEquipmentOwnersNear(double lat, double lng, double radiusKm) {
+        validate(lat, lng, radiusKm);
+        return equipmentOwners.nearest(lat, lng, radiusKm, MAX_RESULTS);
+    }
+
+    /**
+     * The MAX_RESULTS nearest user ids selling crops within radiusKm, nearest first,
+     * mapped to distance in km
+     */
+    public Map<Long, Double> findCropSellersNear(double lat, double lng, double radiusKm) {
+        validate(lat, lng, radiusKm);
+        return cropSellers.nearest(lat, lng, radiusKm, MAX_RESULTS);
+    }
+
+    public static void validateCoordinates(Double lat, Double lng) {
+        if ((lat == null) != (lng == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be provided together");
+        }
+        // Written as "not inside" so NaN, which fails every comparison, is rejected too
+        if (lat != null && !(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+
+    private void validate(double lat, double lng, double radiusKm) {
+        validateCoordinates(lat, lng);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (int) MAX_RADIUS_KM + " km");
+        }
+    }
+
+    private static void place(GeoGrid grid, Long id, boolean located, Double lat, Double lng) {
+        if (located) {
+            grid.put(id, lat, lng);
+        } else {
+            grid.remove(id);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,265 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.MarketPriceDto;
+import com.agri.marketplace.AgriFair.dto.PriceTickDto;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding-window price summaries per crop and seller region, held in memory. Each series
+ * is a ring of time buckets (VWAP sums and a {@link QuantileSketch} each); a read merges
+ * the buckets still inside the window, so old trades age out a bucket at a time. Every
+ * placed order item is a trade, including ones whose order is cancelled later. The index
+ * is rebuilt from order_items on startup in one keyset-paged pass over the window.
+ */
+@Service
+public class MarketPriceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketPriceIndex.class);
+
+    static final String UNKNOWN_REGION = "Unknown";
+
+    private final OrderItemRepository orderItemRepository;
+    private final double relativeAccuracy;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int rebuildPageSize;
+
+    private volatile Map<SeriesKey, PriceSeries> series = new ConcurrentHashMap<>();
+    // Ticks committed while a rebuild is running, applied to the new map before the swap
+    private List<PriceTickDto> pending;
+
+    public MarketPriceIndex(OrderItemRepository orderItemRepository,
+                            @Value("${market.prices.relative-accuracy:0.01}") double relativeAccuracy,
+                            @Value("${market.prices.window-days:30}") int windowDays,
+                            @Value("${market.prices.bucket-hours:24}") int bucketHours,
+                            @Value("${market.prices.rebuild-page-size:1000}") int rebuildPageSize) {
+        if (bucketHours <= 0 || windowDays * 24 % bucketHours != 0) {
+            throw new IllegalArgumentException("market.prices.bucket-hours must divide the window evenly");
+        }
+        this.orderItemRepository = orderItemRepository;
+        this.relativeAccuracy = relativeAccuracy;
+        this.bucketMillis = bucketHours * 3_600_000L;
+        this.bucketCount = windowDays * 24 / bucketHours;
+        this.rebuildPageSize = rebuildPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime rebuildStart = LocalDateTime.now();
+        Map<SeriesKey, PriceSeries> fresh = new ConcurrentHashMap<>();
+        // Ids read by the pass that may also be in pending, so they aren't counted twice
+        Set<Long> recent = new HashSet<>();
+        long afterId = 0;
+        long ticks = 0;
+        LocalDateTime since = LocalDateTime.now().minusSeconds(bucketCount * bucketMillis / 1000);
+        List<PriceTickDto> page;
+        do {
+            page = orderItemRepository.findPriceTicks(afterId, since, PageRequest.of(0, rebuildPageSize));
+            for (PriceTickDto tick : page) {
+                apply(fresh, tick);
+                if (!tick.tradedAt().isBefore(rebuildStart.minusMinutes(1))) {
+                    recent.add(tick.itemId());
+                }
+                afterId = tick.itemId();
+            }
+            ticks += page.size();
+        } while (page.size() == rebuildPageSize);
+        synchronized (this) {
+            for (PriceTickDto tick : pending) {
+                if (!recent.contains(tick.itemId())) {
+                    apply(fresh, tick);
+                }
+            }
+            pending = null;
+            series = fresh;
+        }
+        log.info("Rebuilt market price index from {} order items in {} ms", ticks, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Adds the items once the surrounding transaction commits, so rolled-back orders never
+     * move prices. The values are read now, while the entities are still attached.
+     */
+    public void recordAfterCommit(List<OrderItem> items) {
+        List<PriceTickDto> ticks = items.stream().map(MarketPriceIndex::toTick).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(ticks);
+                }
+            });
+        } else {
+            record(ticks);
+        }
+    }
+
+    void record(List<PriceTickDto> ticks) {
+        Map<SeriesKey, PriceSeries> current;
+        // Read the map under the same lock as pending: a tick queued for the rebuild must
+        // land in the old map, never in the new one as well
+        synchronized (this) {
+            if (pending != null) {
+                pending.addAll(ticks);
+            }
+            current = series;
+        }
+        ticks.forEach(tick -> apply(current, tick));
+    }
+
+    /**
+     * Summaries for one crop (or every crop when crop is blank), one row per seller region.
+     * With a crop and no region, a row merging all regions (region null) comes first.
+     */
+    public List<MarketPriceDto> prices(String crop, String region) {
+        String cropKey = crop == null || crop.isBlank() ? null : normalize(crop);
+        String regionKey = region == null || region.isBlank() ? null : normalize(region);
+        long now = currentBucket();
+        List<MarketPriceDto> rows = new ArrayList<>();
+        QuantileSketch allRegions = new QuantileSketch(relativeAccuracy);
+        Window total = new Window();
+        String cropName = null;
+        for (Map.Entry<SeriesKey, PriceSeries> entry : series.entrySet()) {
+            SeriesKey key = entry.getKey();
+            if ((cropKey != null && !cropKey.equals(key.crop()))
+                    || (regionKey != null && !regionKey.equals(normalize(key.region())))) {
+                continue;
+            }
+            QuantileSketch sketch = new QuantileSketch(relativeAccuracy);
+            Window window = entry.getValue().collect(now, sketch);
+            if (window.trades == 0) {
+                continue;
+            }
+            rows.add(toDto(entry.getValue().displayName, key.region(), window, sketch));
+            allRegions.merge(sketch);
+            total.add(window);
+            cropName = entry.getValue().displayName;
+        }
+        rows.sort(Comparator.comparing(MarketPriceDto::crop, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(MarketPriceDto::region));
+        if (cropKey != null && regionKey == null && total.trades > 0) {
+            rows.add(0, toDto(cropName, null, total, allRegions));
+        }
+        return rows;
+    }
+
+    private void apply(Map<SeriesKey, PriceSeries> target, PriceTickDto tick) {
+        if (tick.crop() == null || tick.price() == null || tick.quantity() == null || tick.quantity() <= 0) {
+            return;
+        }
+        String region = tick.region() == null || tick.region().isBlank() ? UNKNOWN_REGION : tick.region().trim();
+        SeriesKey key = new SeriesKey(normalize(tick.crop()), region);
+        long bucket = tick.tradedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / bucketMillis;
+        target.computeIfAbsent(key, k -> new PriceSeries(tick.crop().trim(), bucketCount))
+                .add(bucket, currentBucket(), tick.price(), tick.quantity(), relativeAccuracy);
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private static MarketPriceDto toDto(String crop, String region, Window window, QuantileSketch sketch) {
+        return new MarketPriceDto(crop, region, window.trades, window.volume, window.notional / window.volume,
+                sketch.quantile(0.1), sketch.quantile(0.5), sketch.quantile(0.9), sketch.min(), sketch.max());
+    }
+
+    private static PriceTickDto toTick(OrderItem item) {
+        User seller = item.getCrop().getFarmer();
+        return new PriceTickDto(item.getId(), item.getCrop().getProductName(), seller == null ? null : seller.getState(),
+                item.getPrice(), item.getQuantity(), item.getOrder().getCreatedDate());
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record SeriesKey(String crop, String region) {
+    }
+
+    /** Running sums of a set of trades. */
+    private static class Window {
+        long trades;
+        long volume;
+        double notional;
+
+        void add(Window other) {
+            trades += other.trades;
+            volume += other.volume;
+            notional += other.notional;
+        }
+    }
+
+    /** Ring of buckets for one crop and region; slot i holds bucket numbers congruent to i. */
+    private static class PriceSeries {
+        final String displayName;
+        final long[] bucketIds;
+        final Window[] windows;
+        final QuantileSketch[] sketches;
+
+        PriceSeries(String displayName, int bucketCount) {
+            this.displayName = displayName;
+            this.bucketIds = new long[bucketCount];
+            this.windows = new Window[bucketCount];
+            this.sketches = new QuantileSketch[bucketCount];
+            Arrays.fill(bucketIds, -1);
+        }
+
+        synchronized void add(long bucket, long now, double price, int quantity, double relativeAccuracy) {
+            if (bucket <= now - bucketIds.length || bucket > now) {
+                return;
+            }
+            int slot = (int) (bucket % bucketIds.length);
+            if (bucketIds[slot] != bucket) {
+                bucketIds[slot] = bucket;
+                windows[slot] = new Window();
+                if (sketches[slot] == null) {
+                    sketches[slot] = new QuantileSketch(relativeAccuracy);
+                } else {
+                    sketches[slot].clear();
+                }
+            }
+            windows[slot].trades++;
+            windows[slot].volume += quantity;
+            windows[slot].notional += price * quantity;
+            sketches[slot].add(price, quantity);
+        }
+
+        synchronized Window collect(long now, QuantileSketch into) {
+            Window total = new Window();
+            for (int slot = 0; slot < bucketIds.length; slot++) {
+                if (bucketIds[slot] > now - bucketIds.length && bucketIds[slot] <= now) {
+                    total.add(windows[slot]);
+                    into.merge(sketches[slot]);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.agri.marketplace.AgriFair.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business counters and background-pipeline gauges published alongside the
+ * HTTP, repository and connection-pool metrics that Actuator records on its own.
+ * Business counters move when the caller's transaction commits, so rolled-back
+ * orders and rentals are never counted.
+ */
+@Component
+public class MarketplaceMetrics {
+
+    private final Counter ordersPlaced;
+    private final Counter orderItems;
+    private final Counter rentalsRequested;
+    private final Counter rentalsApproved;
+    private final Counter stockOuts;
+    private final Counter notificationsSent;
+    private final Counter notificationsFailed;
+
+    public MarketplaceMetrics(MeterRegistry registry, ImageDerivativeService imageDerivativeService) {
+        this.ordersPlaced = Counter.builder("agrifair.orders.placed")
+                .description("Orders successfully placed")
+                .register(registry);
+        this.orderItems = Counter.builder("agrifair.orders.items")
+                .description("Line items across placed orders")
+                .register(registry);
+        this.rentalsRequested = Counter.builder("agrifair.rentals.requested")
+                .description("Rental requests created")
+                .register(registry);
+        this.rentalsApproved = Counter.builder("agrifair.rentals.approved")
+                .description("Rental requests approved by the equipment owner")
+                .register(registry);
+        this.stockOuts = Counter.builder("agrifair.crops.stockouts")
+                .description("Crop listings whose quantity reached zero through an order")
+                .register(registry);
+        this.notificationsSent = Counter.builder("agrifair.notifications.sent")
+                .description("Order status changes mailed to customers")
+                .register(registry);
+        this.notificationsFailed = Counter.builder("agrifair.notifications.failed")
+                .description("Order status changes whose mail failed and will be retried")
+                .register(registry);
+
+        Gauge.builder("agrifair.images.queue", imageDerivativeService, ImageDerivativeService::queueDepth)
+                .description("Rendition jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("agrifair.images.active", imageDerivativeService, s -> stat(s, "active"))
+                .description("Rendition jobs being generated right now")
+                .register(registry);
+        TimeGauge.builder("agrifair.images.latency.avg", imageDerivativeService, TimeUnit.MILLISECONDS,
+                        s -> stat(s, "avgLatencyMs"))
+                .description("Mean time from queueing an upload to its renditions on disk")
+                .register(registry);
+        TimeGauge.builder("agrifair.images.latency.max", imageDerivativeService, TimeUnit.MILLISECONDS,
+                        s -> stat(s, "maxLatencyMs"))
+                .description("Longest time from queueing an upload to its renditions on disk")
+                .register(registry);
+        FunctionCounter.builder("agrifair.images.processed", imageDerivativeService, s -> stat(s, "processed"))
+                .description("Uploads whose renditions were generated")
+                .register(registry);
+        FunctionCounter.builder("agrifair.images.failed", imageDerivativeService, s -> stat(s, "failed"))
+                .description("Rendition jobs that failed")
+                .register(registry);
+        FunctionCounter.builder("agrifair.images.rejected", imageDerivativeService, s -> stat(s, "rejected"))
+                .description("Rendition jobs dropped because the queue was full")
+                .register(registry);
+    }
+
+    public void orderPlaced(int items) {
+        afterCommit(() -> {
+            ordersPlaced.increment();
+            orderItems.increment(items);
+        });
+    }
+
+    public void rentalRequested() {
+        afterCommit(rentalsRequested::increment);
+    }
+
+    public void rentalApproved() {
+        afterCommit(rentalsApproved::increment);
+    }
+
+    public void stockOut() {
+        afterCommit(stockOuts::increment);
+    }
+
+    public void notificationsSent(int count) {
+        afterCommit(() -> notificationsSent.increment(count));
+    }
+
+    public void notificationsFailed(int count) {
+        afterCommit(() -> notificationsFailed.increment(count));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static double stat(ImageDerivativeService service, String key) {
+        Object value = service.stats().get(key);
+        return value instanceof Number number ? number.doubleValue() : 0;
+    }
+}
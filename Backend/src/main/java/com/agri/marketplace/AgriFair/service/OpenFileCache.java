@@ -0,0 +1,183 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded LRU of stat() results and open read-only channels for files served from the
+ * upload store. The channel is opened on first use, so files Tomcat sends with
+ * sendfile (which opens them itself) only cost the cached stat(). Entries are leased
+ * while in use and only closed once they have been evicted and the last lease is
+ * released.
+ */
+@Component
+public class OpenFileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenFileCache.class);
+
+    public static final class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final AtomicInteger leases = new AtomicInteger();
+        private volatile boolean evicted;
+        private FileChannel channel;
+        private boolean closed;
+
+        private Entry(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        /** Opens the channel on first use; only valid while leased. */
+        public synchronized FileChannel channel() throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Entry for " + path + " was released");
+            }
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            return channel;
+        }
+
+        /** Whether a channel has been opened for this entry. */
+        public synchronized boolean isOpen() {
+            return channel != null && !closed;
+        }
+
+        private synchronized void close() throws IOException {
+            closed = true;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public long lastModified() {
+            return lastModified;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    public OpenFileCache(@Value("${file.serve.open-file-cache-size:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Lease the entry for path; callers must {@link #release(Entry)} it when done.
+     */
+    public Entry acquire(Path path) throws IOException {
+        synchronized (entries) {
+            Entry cached = entries.get(path);
+            if (cached != null) {
+                cached.leases.incrementAndGet();
+                return cached;
+            }
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new NoSuchFileException(path.toString());
+        }
+        Entry opened = new Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+        opened.leases.incrementAndGet();
+
+        List<Entry> toClose = new ArrayList<>();
+        Entry result;
+        synchronized (entries) {
+            Entry raced = entries.get(path);
+            if (raced != null) {
+                // Another request opened it first - use theirs
+                raced.leases.incrementAndGet();
+                opened.evicted = true;
+                toClose.add(opened);
+                result = raced;
+            } else {
+                entries.put(path, opened);
+                result = opened;
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    Entry victim = eldest.next();
+                    eldest.remove();
+                    victim.evicted = true;
+                    toClose.add(victim);
+                }
+            }
+        }
+        if (toClose.contains(opened)) {
+            release(opened);
+        }
+        toClose.stream().filter(e -> e != opened).forEach(this::closeIfIdle);
+        return result;
+    }
+
+    public void release(Entry entry) {
+        if (entry.leases.decrementAndGet() <= 0) {
+            closeIfIdle(entry);
+        }
+    }
+
+    /**
+     * Drop a file after it was deleted or replaced on disk.
+     */
+    public void evict(Path path) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(path);
+        }
+        if (entry != null) {
+            entry.evicted = true;
+            closeIfIdle(entry);
+        }
+    }
+
+    @PreDestroy
+    public void clear() {
+        List<Entry> removed;
+        synchronized (entries) {
+            removed = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        removed.forEach(entry -> {
+            entry.evicted = true;
+            closeIfIdle(entry);
+        });
+    }
+
+    private void closeIfIdle(Entry entry) {
+        if (entry.evicted && entry.leases.get() <= 0) {
+            try {
+                entry.close();
+            } catch (IOException e) {
+                log.warn("Error closing {}: {}", entry.path, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.OrderNotification;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.OrderNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mails queued order status changes to customers in the background. Each run leases a
+ * batch of order_notifications rows, folds them into one message per customer, and sends
+ * all messages over a single SMTP connection. No transaction or pooled connection is held
+ * while talking to the mail server; a failed message is retried after retry-delay-ms,
+ * up to max-attempts times. Runs only when spring.mail.host is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.mail.host")
+public class OrderNotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNotificationDispatcher.class);
+
+    private final OrderNotificationRepository notificationRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketplaceMetrics marketplaceMetrics;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long retryDelayMs;
+
+    public OrderNotificationDispatcher(OrderNotificationRepository notificationRepository,
+                                       JavaMailSender mailSender,
+                                       TransactionTemplate transactionTemplate,
+                                       MarketplaceMetrics marketplaceMetrics,
+                                       @Value("${notifications.from:no-reply@agrifair.example}") String from,
+                                       @Value("${notifications.batch-size:200}") int batchSize,
+                                       @Value("${notifications.max-attempts:5}") int maxAttempts,
+                                       @Value("${notifications.lease-ms:120000}") long leaseMs,
+                                       @Value("${notifications.retry-delay-ms:60000}") long retryDelayMs) {
+        this.notificationRepository = notificationRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.marketplaceMetrics = marketplaceMetrics;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /** Sends one batch; returns how many notifications went out. */
+    @Scheduled(fixedDelayString = "${notifications.dispatch-ms:5000}")
+    public int dispatch() {
+        List<OrderNotification> claimed = claimBatch();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // One message per customer, covering all of their changes in this batch
+        Map<Long, List<OrderNotification>> byCustomer = new LinkedHashMap<>();
+        for (OrderNotification notification : claimed) {
+            byCustomer.computeIfAbsent(notification.getOrder().getCustomer().getId(), id -> new ArrayList<>())
+                    .add(notification);
+        }
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        List<List<Long>> idsPerMessage = new ArrayList<>();
+        List<Long> undeliverable = new ArrayList<>();
+        for (List<OrderNotification> changes : byCustomer.values()) {
+            User customer = changes.get(0).getOrder().getCustomer();
+            List<Long> ids = changes.stream().map(OrderNotification::getId).toList();
+            if (customer.getEmail() == null || customer.getEmail().isBlank()) {
+                undeliverable.addAll(ids);
+                continue;
+            }
+            messages.add(message(customer, changes));
+            idsPerMessage.add(ids);
+        }
+
+        List<Long> sent = new ArrayList<>(undeliverable);
+        List<Long> failed = new ArrayList<>();
+        String error = null;
+        try {
+            if (!messages.isEmpty()) {
+                mailSender.send(messages.toArray(SimpleMailMessage[]::new));
+            }
+            idsPerMessage.forEach(sent::addAll);
+        } catch (MailSendException e) {
+            // Sent over one connection; the exception names the messages that didn't go out,
+            // or none at all when the connection itself failed
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < messages.size(); i++) {
+                if (failedMessages.isEmpty() || failedMessages.containsKey(messages.get(i))) {
+                    failed.addAll(idsPerMessage.get(i));
+                } else {
+                    sent.addAll(idsPerMessage.get(i));
+                }
+            }
+            error = e.getMessage();
+        } catch (MailException e) {
+            idsPerMessage.forEach(failed::addAll);
+            error = e.getMessage();
+        }
+
+        record(sent, failed, error);
+        int delivered = sent.size() - undeliverable.size();
+        marketplaceMetrics.notificationsSent(delivered);
+        marketplaceMetrics.notificationsFailed(failed.size());
+        if (!failed.isEmpty()) {
+            log.warn("Could not mail {} order notifications, retrying in {} ms: {}", failed.size(), retryDelayMs, error);
+        }
+        return delivered;
+    }
+
+    private List<OrderNotification> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            List<Long> due = notificationRepository.findDueIds(maxAttempts, now, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return List.of();
+            }
+            notificationRepository.claim(due, token, now.plus(Duration.ofMillis(leaseMs)), now);
+            return notificationRepository.findClaimed(token);
+        });
+    }
+
+    private void record(List<Long> sent, List<Long> failed, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                notificationRepository.markSent(sent, now);
+            }
+            if (!failed.isEmpty()) {
+                String truncated = error == null ? null : error.substring(0, Math.min(error.length(), 500));
+                notificationRepository.markFailed(failed, truncated, now.plus(Duration.ofMillis(retryDelayMs)));
+            }
+        });
+    }
+
+    private SimpleMailMessage message(User customer, List<OrderNotification> changes) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(customer.getEmail());
+        if (changes.size() == 1) {
+            OrderNotification change = changes.get(0);
+            message.setSubject("Your AgriFair order #" + change.getOrder().getId() + " is " + label(change.getToStatus()));
+        } else {
+            message.setSubject("Updates to " + changes.size() + " of your AgriFair orders");
+        }
+
+        String name = customer.getFullName() != null && !customer.getFullName().isBlank()
+                ? customer.getFullName() : customer.getUsername();
+        StringBuilder body = new StringBuilder("Hello ").append(name).append(",\n\n");
+        for (OrderNotification change : changes) {
+            body.append("Order #").append(change.getOrder().getId())
+                    .append(": ").append(label(change.getFromStatus()))
+                    .append(" -> ").append(label(change.getToStatus())).append('\n');
+        }
+        body.append("\nAgriFair\n");
+        message.setText(body.toString());
+        return message;
+    }
+
+    private static String label(Enum<?> status) {
+        return status.name().toLowerCase();
+    }
+}
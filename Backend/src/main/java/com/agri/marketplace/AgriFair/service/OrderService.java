@@ -1,28 +1,48 @@
 package com.agri.marketplace.AgriFair.service;
 
+import com.agri.marketplace.AgriFair.dto.IncomingOrderDto;
 import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
 import com.agri.marketplace.AgriFair.dto.OrderResponseDto;
 import com.agri.marketplace.AgriFair.dto.OrderStatusUpdateDto;
+import com.agri.marketplace.AgriFair.dto.TimelineEventDto;
+import com.agri.marketplace.AgriFair.journal.JournalEvent;
+import com.agri.marketplace.AgriFair.journal.TransitionJournal;
 import com.agri.marketplace.AgriFair.model.*;
 import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.OrderFulfillmentRepository;
 import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import com.agri.marketplace.AgriFair.repository.OrderNotificationRepository;
 import com.agri.marketplace.AgriFair.repository.OrderRepository;
 import com.agri.marketplace.AgriFair.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class OrderService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderFulfillmentRepository orderFulfillmentRepository;
+
     @Autowired
     private OrderItemRepository orderItemRepository;
 
@@ -32,6 +52,24 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OrderNotificationRepository orderNotificationRepository;
+
+    @Autowired
+    private MarketplaceMetrics marketplaceMetrics;
+
+    @Autowired
+    private TransitionJournal transitionJournal;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private MarketPriceIndex marketPriceIndex;
+
+    @Autowired
+    private TrendingCropTracker trendingCropTracker;
+
     @Transactional
     public OrderResponseDto createOrder(Authentication auth, OrderRequestDto requestDto) {
         if (requestDto.getItems() == null || requestDto.getItems().isEmpty()) {
@@ -68,7 +106,9 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
-        // Second loop: create order items and deduct inventory
+        // Second loop: create order items, deduct inventory and split the order per farmer
+        Map<Long, OrderFulfillment> fulfillments = new LinkedHashMap<>();
+        List<OrderItem> savedItems = new ArrayList<>();
         for (OrderRequestDto.OrderItemDto itemDto : requestDto.getItems()) {
             Crop crop = cropRepository.findById(itemDto.getCropId())
                     .orElseThrow(() -> new IllegalArgumentException("Crop not found: " + itemDto.getCropId()));
@@ -79,16 +119,28 @@ public class OrderService {
             orderItem.setQuantity(itemDto.getQuantity());
             orderItem.setPrice(crop.getPrice());
 
-            orderItemRepository.save(orderItem);
+            savedItems.add(orderItemRepository.save(orderItem));
 
             // Deduct quantity from crop inventory
             crop.setQuantity(crop.getQuantity() - itemDto.getQuantity());
             cropRepository.save(crop);
+            if (crop.getQuantity() <= 0) {
+                marketplaceMetrics.stockOut();
+            }
+
+            addToFulfillment(fulfillments, savedOrder, orderItem);
         }
+        orderFulfillmentRepository.saveAll(fulfillments.values());
+        salesRollupService.orderPlaced(savedItems);
+        marketPriceIndex.recordAfterCommit(savedItems);
+        trendingCropTracker.cropsOrderedAfterCommit(savedItems.stream().map(item -> item.getCrop().getId()).toList());
 
+        marketplaceMetrics.orderPlaced(requestDto.getItems().size());
+        transitionJournal.orderChanged(savedOrder.getId(), null, OrderStatus.PENDING);
         return mapToResponseDto(savedOrder);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getMyOrders(Authentication auth) {
         User customer = userRepository.findByUsername(auth.getName());
         if (customer == null) {
@@ -96,11 +148,19 @@ public class OrderService {
         }
 
         List<Order> orders = orderRepository.findByCustomerOrderByCreatedDateDesc(customer);
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        // One query for every order's items instead of one per order
+        Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIn(orders).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
         return orders.stream()
-                .map(this::mapToResponseDto)
+                .map(order -> mapToResponseDto(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public OrderResponseDto getOrderById(Authentication auth, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
@@ -115,18 +175,229 @@ public class OrderService {
         return mapToResponseDto(order);
     }
 
-    @Transactional
-    public OrderResponseDto updateOrderStatus(Long orderId, OrderStatusUpdateDto statusDto) {
+    /**
+     * Status history of an order from the event journal: the moves of the order as a
+     * whole and of each farmer's part of it, oldest first. The customer who placed the
+     * order sees every part; a farmer with items in it sees the order's moves and their
+     * own part. Nobody else can read it. Orders placed before the journal existed have no
+     * history. The journal is per node, so this is only complete on a single-node
+     * deployment; with several nodes it lists just the changes made through this one.
+     * Changes older than the journal's retained segments are gone too.
+     */
+    @Transactional(readOnly = true)
+    public List<TimelineEventDto> getOrderTimeline(Authentication auth, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+        User caller = userRepository.findByUsername(auth.getName());
+        if (caller == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        boolean owner = order.getCustomer().getId().equals(caller.getId());
+        Map<Long, Long> farmerByFulfillment = new LinkedHashMap<>();
+        for (OrderFulfillment fulfillment : orderFulfillmentRepository.findByOrder(order)) {
+            if (owner || fulfillment.getFarmer().getId().equals(caller.getId())) {
+                farmerByFulfillment.put(fulfillment.getId(), fulfillment.getFarmer().getId());
+            }
+        }
+        // Orders never split have no fulfillments yet; their farmers are found by item
+        if (!owner && farmerByFulfillment.isEmpty()
+                && orderItemRepository.findByOrderInAndCropFarmerId(List.of(order), caller.getId()).isEmpty()) {
+            throw new IllegalArgumentException("Unauthorized access to order");
+        }
+
+        List<TimelineEventDto> timeline = new ArrayList<>();
+        for (JournalEvent event : transitionJournal.timeline(JournalEvent.Subject.ORDER, orderId)) {
+            timeline.add(mapToTimelineDto(event, null, null));
+        }
+        farmerByFulfillment.forEach((fulfillmentId, farmerId) -> {
+            for (JournalEvent event : transitionJournal.timeline(JournalEvent.Subject.FULFILLMENT, fulfillmentId)) {
+                timeline.add(mapToTimelineDto(event, fulfillmentId, farmerId));
+            }
+        });
+        timeline.sort(Comparator.comparingLong(TimelineEventDto::getSequence));
+        return timeline;
+    }
+
+    /**
+     * A farmer's queue of fulfillments in the given status, oldest first. Pages by
+     * offset, or from the fulfillment afterId onwards when a cursor is given.
+     */
+    @Transactional(readOnly = true)
+    public List<IncomingOrderDto> getIncomingOrders(Authentication auth, OrderStatus status, Long afterId, int page, int size) {
+        User farmer = userRepository.findByUsername(auth.getName());
+        if (farmer == null) {
+            throw new IllegalArgumentException("Farmer not found");
+        }
+
+        int boundedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<OrderFulfillment> queue;
+        if (afterId == null) {
+            queue = orderFulfillmentRepository.findQueue(farmer.getId(), status, PageRequest.of(Math.max(page, 0), boundedSize));
+        } else {
+            // The queue is sorted by (createdDate, id), so the cursor has to carry both
+            OrderFulfillment cursor = orderFulfillmentRepository.findById(afterId)
+                    .filter(fulfillment -> fulfillment.getFarmer().getId().equals(farmer.getId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown cursor: " + afterId));
+            queue = orderFulfillmentRepository.findQueueAfter(farmer.getId(), status,
+                    cursor.getCreatedDate(), cursor.getId(), PageRequest.of(0, boundedSize));
+        }
+        if (queue.isEmpty()) {
+            return List.of();
+        }
+
+        List<Order> orders = queue.stream().map(OrderFulfillment::getOrder).toList();
+        Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderInAndCropFarmerId(orders, farmer.getId()).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        return queue.stream()
+                .map(fulfillment -> mapToIncomingDto(fulfillment, itemsByOrder.getOrDefault(fulfillment.getOrder().getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Moves the calling farmer's part of an order along OrderStatus's transition table.
+     * The order itself then takes the status of its least advanced part, ignoring
+     * cancelled parts unless every part is cancelled; the customer is notified when that
+     * changes. Orders from before the per-farmer split are split on first use.
+     */
+    @Transactional
+    public OrderResponseDto updateFulfillmentStatus(Authentication auth, Long orderId, OrderStatusUpdateDto statusDto) {
+        Order order = orderRepository.findForUpdate(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+        User farmer = userRepository.findByUsername(auth.getName());
+        if (farmer == null) {
+            throw new IllegalArgumentException("Farmer not found");
+        }
+
+        List<OrderFulfillment> fulfillments = orderFulfillmentRepository.findByOrder(order);
+        if (fulfillments.isEmpty()) {
+            fulfillments = splitExistingOrder(order);
+        }
+        OrderFulfillment own = fulfillments.stream()
+                .filter(fulfillment -> fulfillment.getFarmer().getId().equals(farmer.getId()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Order " + orderId + " has no items of yours"));
+
+        OrderStatus current = own.getStatus();
+        OrderStatus next = statusDto.getStatus();
+        if (current == next) {
+            return mapToResponseDto(order);
+        }
+        if (!current.canMoveTo(next)) {
+            throw new IllegalStateException("Your part of order " + orderId + " cannot go from " + current + " to " + next
+                    + "; allowed: " + current.nextStatuses());
+        }
+        own.setStatus(next);
+        orderFulfillmentRepository.save(own);
+        transitionJournal.fulfillmentChanged(own.getId(), current, next);
+        if (next == OrderStatus.CANCELLED) {
+            salesRollupService.itemsCancelled(orderItemRepository.findByOrder(order).stream()
+                    .filter(item -> item.getCrop().getFarmer() != null && item.getCrop().getFarmer().getId().equals(farmer.getId()))
+                    .toList());
+        }
 
-        order.setStatus(statusDto.getStatus());
+        OrderStatus overall = overallStatus(fulfillments);
+        if (overall != order.getStatus()) {
+            order = moveOrder(order, order.getStatus(), overall);
+        }
+        return mapToResponseDto(order);
+    }
+
+    /**
+     * Splits orders placed before the per-farmer split into fulfillments that take the
+     * order's status, locking each order first. Orders split in the meantime, by a farmer
+     * moving their part, are skipped. Returns how many orders were split.
+     */
+    @Transactional
+    public int splitOrders(List<Long> orderIds) {
+        int split = 0;
+        for (Long orderId : orderIds) {
+            Order order = orderRepository.findForUpdate(orderId).orElse(null);
+            if (order == null || !orderFulfillmentRepository.findByOrder(order).isEmpty()) {
+                continue;
+            }
+            if (!splitExistingOrder(order).isEmpty()) {
+                split++;
+            }
+        }
+        return split;
+    }
+
+    /** Saves the order's new status and records the change for the customer and the journal. */
+    private Order moveOrder(Order order, OrderStatus from, OrderStatus to) {
+        order.setStatus(to);
         Order updatedOrder = orderRepository.save(order);
+        orderNotificationRepository.save(OrderNotification.statusChanged(updatedOrder, from, to));
+        transitionJournal.orderChanged(updatedOrder.getId(), from, to);
+        return updatedOrder;
+    }
+
+    private static TimelineEventDto mapToTimelineDto(JournalEvent event, Long fulfillmentId, Long farmerId) {
+        TimelineEventDto dto = new TimelineEventDto();
+        dto.setSequence(event.sequence());
+        dto.setAt(Instant.ofEpochMilli(event.timestampMillis()));
+        dto.setFromStatus(event.fromStatus());
+        dto.setToStatus(event.toStatus());
+        dto.setActor(event.actor());
+        dto.setFulfillmentId(fulfillmentId);
+        dto.setFarmerId(farmerId);
+        return dto;
+    }
+
+    private List<OrderFulfillment> splitExistingOrder(Order order) {
+        Map<Long, OrderFulfillment> fulfillments = new LinkedHashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrder(order)) {
+            addToFulfillment(fulfillments, order, item);
+        }
+        fulfillments.values().forEach(fulfillment -> fulfillment.setStatus(order.getStatus()));
+        return orderFulfillmentRepository.saveAll(fulfillments.values());
+    }
+
+    private static void addToFulfillment(Map<Long, OrderFulfillment> fulfillments, Order order, OrderItem item) {
+        User farmer = item.getCrop().getFarmer();
+        if (farmer == null) {
+            // Nobody to fulfill it; the item still counts towards the order total
+            return;
+        }
+        OrderFulfillment fulfillment = fulfillments.computeIfAbsent(farmer.getId(), id -> {
+            OrderFulfillment created = new OrderFulfillment();
+            created.setOrder(order);
+            created.setFarmer(farmer);
+            created.setStatus(OrderStatus.PENDING);
+            created.setSubtotal(0.0);
+            created.setCreatedDate(order.getCreatedDate());
+            return created;
+        });
+        fulfillment.setSubtotal(fulfillment.getSubtotal() + item.getPrice() * item.getQuantity());
+    }
 
-        return mapToResponseDto(updatedOrder);
+    private static OrderStatus overallStatus(List<OrderFulfillment> fulfillments) {
+        return fulfillments.stream()
+                .map(OrderFulfillment::getStatus)
+                .filter(status -> status != OrderStatus.CANCELLED)
+                .min(Comparator.naturalOrder())
+                .orElse(OrderStatus.CANCELLED);
     }
 
     private OrderResponseDto mapToResponseDto(Order order) {
+        return mapToResponseDto(order, orderItemRepository.findByOrder(order));
+    }
+
+    private IncomingOrderDto mapToIncomingDto(OrderFulfillment fulfillment, List<OrderItem> items) {
+        IncomingOrderDto dto = new IncomingOrderDto();
+        dto.setFulfillmentId(fulfillment.getId());
+        dto.setOrderId(fulfillment.getOrder().getId());
+        dto.setStatus(fulfillment.getStatus());
+        dto.setOrderStatus(fulfillment.getOrder().getStatus());
+        dto.setCustomerUsername(fulfillment.getOrder().getCustomer().getUsername());
+        dto.setCustomerFullName(fulfillment.getOrder().getCustomer().getFullName());
+        dto.setSubtotal(fulfillment.getSubtotal());
+        dto.setCreatedDate(fulfillment.getCreatedDate());
+        dto.setItems(items.stream().map(this::mapToItemDto).collect(Collectors.toList()));
+        return dto;
+    }
+
+    private OrderResponseDto mapToResponseDto(Order order, List<OrderItem> items) {
         OrderResponseDto dto = new OrderResponseDto();
         dto.setId(order.getId());
         dto.setCustomerUsername(order.getCustomer().getUsername());
@@ -134,21 +405,22 @@ public class OrderService {
         dto.setStatus(order.getStatus());
         dto.setCreatedDate(order.getCreatedDate());
 
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
         List<OrderResponseDto.OrderItemResponseDto> itemDtos = items.stream()
-                .map(item -> {
-                    OrderResponseDto.OrderItemResponseDto itemDto = new OrderResponseDto.OrderItemResponseDto();
-                    itemDto.setId(item.getId());
-                    itemDto.setCropId(item.getCrop().getId());
-                    itemDto.setProductName(item.getCrop().getProductName());
-                    itemDto.setQuantity(item.getQuantity());
-                    itemDto.setPrice(item.getPrice());
-                    itemDto.setSubtotal(item.getPrice() * item.getQuantity());
-                    return itemDto;
-                })
+                .map(this::mapToItemDto)
                 .collect(Collectors.toList());
 
         dto.setItems(itemDtos);
         return dto;
     }
+
+    private OrderResponseDto.OrderItemResponseDto mapToItemDto(OrderItem item) {
+        OrderResponseDto.OrderItemResponseDto itemDto = new OrderResponseDto.OrderItemResponseDto();
+        itemDto.setId(item.getId());
+        itemDto.setCropId(item.getCrop().getId());
+        itemDto.setProductName(item.getCrop().getProductName());
+        itemDto.setQuantity(item.getQuantity());
+        itemDto.setPrice(item.getPrice());
+        itemDto.setSubtotal(item.getPrice() * item.getQuantity());
+        return itemDto;
+    }
 }
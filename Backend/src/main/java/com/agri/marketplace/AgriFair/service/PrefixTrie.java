@@ -0,0 +1,232 @@
+package com.agri.marketplace.AgriFair.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Weighted radix trie (a path-compressed prefix trie) for type-ahead: each edge holds a
+ * run of characters, so a chain of single-child nodes costs one node. Every node also
+ * keeps the best weight in its subtree, which lets {@link #top} visit subtrees best-first
+ * and stop after k results instead of walking everything under the prefix. Keys are
+ * matched exactly; callers normalize them. Weights are floats, plenty for ranking.
+ * Not thread-safe.
+ */
+public class PrefixTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node(new char[0]);
+    private int size;
+
+    private static final class Node {
+        char[] label;
+        // Sorted by the first character of their labels
+        Node[] children = NO_CHILDREN;
+        // The value of the key ending here, null if none does
+        String value;
+        float weight;
+        float maxWeight = Float.NEGATIVE_INFINITY;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Adds delta to key's weight. A new key is stored with value and delta; an existing
+     * key keeps the value it was first stored with.
+     */
+    public void add(String key, String value, double delta) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                node.children = insertAt(node.children, -index - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // Split the edge: node -> middle (the shared part) -> child (the rest)
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[] {child};
+                middle.maxWeight = child.maxWeight;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        if (node.value == null) {
+            node.value = value;
+            node.weight = 0;
+            size++;
+        }
+        node.weight += (float) delta;
+        for (int p = path.size() - 1; p >= 0; p--) {
+            Node n = path.get(p);
+            float max = n.value != null ? n.weight : Float.NEGATIVE_INFINITY;
+            for (Node child : n.children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            n.maxWeight = max;
+        }
+    }
+
+    /** The weight of key, or NaN if it isn't in the trie. */
+    public double weight(String key) {
+        Node node = find(key, true);
+        return node == null || node.value == null ? Double.NaN : node.weight;
+    }
+
+    /** Values of the (at most) k heaviest keys starting with prefix, heaviest first. */
+    public List<String> top(String prefix, int k) {
+        Node start = find(prefix, false);
+        List<String> results = new ArrayList<>(Math.min(k, 16));
+        if (start == null || k <= 0) {
+            return results;
+        }
+        // Nodes are queued by their subtree's best weight, and queued again as terminal
+        // (by their own weight) once expanded, so values come out heaviest first
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start, start.maxWeight, false));
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate next = queue.poll();
+            if (next.terminal) {
+                results.add(next.node.value);
+                continue;
+            }
+            if (next.node.value != null) {
+                queue.add(new Candidate(next.node, next.node.weight, true));
+            }
+            for (Node child : next.node.children) {
+                queue.add(new Candidate(child, child.maxWeight, false));
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimated heap bytes held by the trie on a 64-bit JVM with compressed oops: 32 per
+     * node, plus label arrays, child arrays and the value strings (assumed Latin-1).
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            bytes += 32 + align(16 + 2L * node.label.length);
+            if (node.children.length > 0) {
+                bytes += align(16 + 4L * node.children.length);
+            }
+            if (node.value != null) {
+                bytes += 24 + align(16 + node.value.length());
+            }
+            stack.addAll(Arrays.asList(node.children));
+        }
+        return bytes;
+    }
+
+    public int nodeCount() {
+        int count = 0;
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            count++;
+            stack.addAll(Arrays.asList(node.children));
+        }
+        return count;
+    }
+
+    /**
+     * The node for key. With exact set, key has to end at a node; otherwise it may end
+     * inside an edge, and the node below that edge is returned.
+     */
+    private Node find(String key, boolean exact) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length && (exact || i + common < key.length())) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = node.children[mid].label[0];
+            if (c < first) {
+                low = mid + 1;
+            } else if (c > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, String key, int from) {
+        int max = Math.min(label.length, key.length() - from);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Node[] insertAt(Node[] children, int index, Node child) {
+        Node[] grown = new Node[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, index);
+        grown[index] = child;
+        System.arraycopy(children, index, grown, index + 1, children.length - index);
+        return grown;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private record Candidate(Node node, float priority, boolean terminal) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Float.compare(other.priority, priority);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // Equal weights: a node's own value before its subtree, then values alphabetically
+            if (terminal != other.terminal) {
+                return terminal ? -1 : 1;
+            }
+            return terminal ? node.value.compareTo(other.node.value) : 0;
+        }
+    }
+}
@@ -4,23 +4,40 @@ import com.agri.marketplace.AgriFair.dto.ProfileResponseDto;
 import com.agri.marketplace.AgriFair.dto.ProfileUpdateDto;
 import com.agri.marketplace.AgriFair.model.User;
 import com.agri.marketplace.AgriFair.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class ProfileService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProfileService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private LocationIndexService locationIndexService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Get user profile by username
      */
+    @Transactional(readOnly = true)
     public ProfileResponseDto getProfile(String username) {
         User user = userRepository.findByUsername(username);
         if (user == null) {
@@ -61,6 +78,11 @@ public class ProfileService {
         if (updateDto.getBio() != null) {
             user.setBio(updateDto.getBio());
         }
+        if (updateDto.getLatitude() != null || updateDto.getLongitude() != null) {
+            LocationIndexService.validateCoordinates(updateDto.getLatitude(), updateDto.getLongitude());
+            user.setLatitude(updateDto.getLatitude());
+            user.setLongitude(updateDto.getLongitude());
+        }
 
         // Update farmer-specific fields (only if user is a farmer)
         if (user.getRole() != null && user.getRole().contains("FARMER")) {
@@ -86,34 +108,43 @@ public class ProfileService {
         }
 
         User updatedUser = userRepository.save(user);
+        locationIndexService.indexUser(updatedUser);
         return mapToResponseDto(updatedUser);
     }
 
     /**
-     * Update profile image
+     * Update profile image. The upload is staged before the transaction opens and the
+     * old image only leaves the disk once the new reference has committed.
      */
-    @Transactional
     public ProfileResponseDto updateProfileImage(String username, MultipartFile imageFile) {
-        User user = userRepository.findByUsername(username);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
-        }
-
+        FileStorageService.StagedFile staged;
         try {
-            // Delete old image if exists
-            if (user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
-                fileStorageService.deleteFile(user.getProfileImage());
-            }
-
-            // Upload new image
-            String imageUrl = fileStorageService.storeFile(imageFile);
-            user.setProfileImage(imageUrl);
-
-            User updatedUser = userRepository.save(user);
-            return mapToResponseDto(updatedUser);
+            staged = fileStorageService.stageFile(imageFile);
         } catch (Exception e) {
             throw new RuntimeException("Failed to update profile image: " + e.getMessage(), e);
         }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                User user = userRepository.findByUsername(username);
+                if (user == null) {
+                    throw new IllegalArgumentException("User not found");
+                }
+
+                String oldImage = user.getProfileImage();
+                user.setProfileImage(staged != null ? fileStorageService.commitStaged(staged) : null);
+
+                // Release after retaining so re-uploading the same picture keeps its file
+                if (oldImage != null && !oldImage.isEmpty()) {
+                    fileStorageService.deleteFile(oldImage);
+                }
+
+                User updatedUser = userRepository.save(user);
+                return mapToResponseDto(updatedUser);
+            });
+        } finally {
+            fileStorageService.discard(staged);
+        }
     }
 
     /**
@@ -132,7 +163,7 @@ public class ProfileService {
                 fileStorageService.deleteFile(user.getProfileImage());
             } catch (Exception e) {
                 // Log error but continue - file might already be deleted
-                System.err.println("Error deleting image file: " + e.getMessage());
+                log.warn("Error deleting image file: {}", e.getMessage());
             }
         }
 
@@ -153,10 +184,13 @@ public class ProfileService {
         dto.setFullName(user.getFullName());
         dto.setPhoneNumber(user.getPhoneNumber());
         dto.setProfileImage(user.getProfileImage());
+        dto.setProfileImageRenditions(imageDerivativeService.renditionUrls(user.getProfileImage()));
         dto.setAddress(user.getAddress());
         dto.setCity(user.getCity());
         dto.setState(user.getState());
         dto.setPincode(user.getPincode());
+        dto.setLatitude(user.getLatitude());
+        dto.setLongitude(user.getLongitude());
         dto.setBio(user.getBio());
         dto.setFarmName(user.getFarmName());
         dto.setFarmSize(user.getFarmSize());
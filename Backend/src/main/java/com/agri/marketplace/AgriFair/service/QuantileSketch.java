@@ -0,0 +1,130 @@
+package com.agri.marketplace.AgriFair.service;
+
+import java.util.Arrays;
+
+/**
+ * Weighted quantile sketch with a relative error guarantee (the DDSketch layout): values
+ * go into logarithmic bins whose bounds grow by gamma = (1 + a) / (1 - a), so any
+ * quantile is returned within a factor of a of a value that really sits at that rank.
+ * Sketches with the same accuracy merge exactly by adding bin weights, which is what
+ * lets sliding windows be kept as one small sketch per time bucket. Only positive
+ * values are binned; zero and negative values are counted at zero. Not thread-safe.
+ */
+public class QuantileSketch {
+
+    private final double gamma;
+    private final double logGamma;
+
+    // Dense bins from offset to offset + weights.length - 1, grown to cover what's been seen
+    private double[] weights = new double[0];
+    private int offset;
+    private double zeroWeight;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1)");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value, double weight) {
+        if (weight <= 0 || Double.isNaN(value)) {
+            return;
+        }
+        if (value <= 0) {
+            zeroWeight += weight;
+        } else {
+            int bin = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureCovers(bin, bin);
+            weights[bin - offset] += weight;
+        }
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        if (other.totalWeight == 0) {
+            return;
+        }
+        if (other.weights.length > 0) {
+            ensureCovers(other.offset, other.offset + other.weights.length - 1);
+            for (int i = 0; i < other.weights.length; i++) {
+                weights[other.offset + i - offset] += other.weights[i];
+            }
+        }
+        zeroWeight += other.zeroWeight;
+        totalWeight += other.totalWeight;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** The value at rank q (0 to 1) of the weight added so far, or NaN if empty. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]");
+        }
+        if (totalWeight == 0) {
+            return Double.NaN;
+        }
+        double rank = q * totalWeight;
+        double seen = zeroWeight;
+        if (seen > rank) {
+            return Math.max(min, 0);
+        }
+        for (int i = 0; i < weights.length; i++) {
+            seen += weights[i];
+            if (seen > rank) {
+                // Midpoint of the bin (gamma^(k-1), gamma^k] in relative terms, clamped to what was seen
+                double estimate = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public double totalWeight() {
+        return totalWeight;
+    }
+
+    public double min() {
+        return totalWeight == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return totalWeight == 0 ? Double.NaN : max;
+    }
+
+    public void clear() {
+        Arrays.fill(weights, 0);
+        zeroWeight = 0;
+        totalWeight = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    private void ensureCovers(int low, int high) {
+        if (weights.length == 0) {
+            weights = new double[high - low + 1];
+            offset = low;
+            return;
+        }
+        int currentHigh = offset + weights.length - 1;
+        if (low >= offset && high <= currentHigh) {
+            return;
+        }
+        int newLow = Math.min(low, offset);
+        int newHigh = Math.max(high, currentHigh);
+        double[] grown = new double[newHigh - newLow + 1];
+        System.arraycopy(weights, 0, grown, offset - newLow, weights.length);
+        weights = grown;
+        offset = newLow;
+    }
+}
@@ -0,0 +1,88 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * One-off rendition pass over images uploaded before the rendition pipeline existed, or
+ * whose job was dropped from a full queue. Walks the upload store on a background
+ * thread and queues every image missing a rendition, waiting for room in the queue
+ * rather than dropping jobs. Files still in the flat layout are left for the run after
+ * {@link UploadLayoutMigration} has moved them. Safe to rerun: images with all
+ * renditions are skipped.
+ */
+@Component
+public class RenditionBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionBackfill.class);
+
+    private final Path uploadRoot;
+    private final boolean enabled;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public RenditionBackfill(@Value("${file.upload-dir:uploads}") String uploadDir,
+                             @Value("${image.derivatives.backfill-on-startup:true}") boolean enabled,
+                             ImageDerivativeService imageDerivativeService) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "rendition-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queues every stored image missing a rendition and returns how many were queued. */
+    public synchronized long backfill() {
+        if (!Files.isDirectory(uploadRoot)) {
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        long queued = 0;
+        Path incoming = uploadRoot.resolve(FileStorageService.INCOMING_DIR);
+        try (Stream<Path> files = Files.walk(uploadRoot)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile).iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String name = file.getFileName().toString();
+                if (file.startsWith(incoming) || isDerived(name)
+                        || !uploadRoot.relativize(file).toString().replace('\\', '/')
+                                .equals(FileStorageService.relativePathFor(name))
+                        || imageDerivativeService.hasRenditions(name)) {
+                    continue;
+                }
+                if (!imageDerivativeService.submitAndWait(name)) {
+                    break;
+                }
+                queued++;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Rendition backfill stopped: {}", e.getMessage());
+        }
+        if (queued > 0) {
+            log.info("Queued renditions for {} existing uploads in {} ms", queued, System.currentTimeMillis() - started);
+        }
+        return queued;
+    }
+
+    private boolean isDerived(String name) {
+        return ImageDerivativeService.sourceBaseOf(name) != null || name.endsWith(".tmp");
+    }
+}
@@ -1,5 +1,7 @@
 package com.agri.marketplace.AgriFair.service;
 
+import com.agri.marketplace.AgriFair.dto.RentalSummaryDto;
+import com.agri.marketplace.AgriFair.journal.TransitionJournal;
 import com.agri.marketplace.AgriFair.model.Equipment;
 import com.agri.marketplace.AgriFair.model.Farmer;
 import com.agri.marketplace.AgriFair.model.Rental;
@@ -8,6 +10,9 @@ import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
 import com.agri.marketplace.AgriFair.repository.FarmerRepository;
 import com.agri.marketplace.AgriFair.repository.RentalRepository;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,28 +22,41 @@ import java.util.EnumSet;
 import java.util.List;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class RentalService {
 
     private static final List<RentalStatus> ACTIVE_STATUSES =
             List.copyOf(EnumSet.of(RentalStatus.PENDING, RentalStatus.APPROVED, RentalStatus.PAID, RentalStatus.ACTIVE));
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final RentalRepository rentalRepository;
     private final FarmerRepository farmerRepository;
     private final FarmerService farmerService;
     private final EquipmentRepository equipmentRepository;
+    private final MarketplaceMetrics marketplaceMetrics;
+    private final TransitionJournal transitionJournal;
+    private final SalesRollupService salesRollupService;
 
     public RentalService(RentalRepository rentalRepository,
                          FarmerRepository farmerRepository,
                          FarmerService farmerService,
-                         EquipmentRepository equipmentRepository) {
+                         EquipmentRepository equipmentRepository,
+                         MarketplaceMetrics marketplaceMetrics,
+                         TransitionJournal transitionJournal,
+                         SalesRollupService salesRollupService) {
         this.rentalRepository = rentalRepository;
         this.farmerRepository = farmerRepository;
         this.farmerService = farmerService;
         this.equipmentRepository = equipmentRepository;
+        this.marketplaceMetrics = marketplaceMetrics;
+        this.transitionJournal = transitionJournal;
+        this.salesRollupService = salesRollupService;
     }
 
-    public List<Rental> getAllRentals() {
-        return rentalRepository.findAll();
+    public List<RentalSummaryDto> getAllRentals(Long afterId, int page, int size) {
+        return rentalRepository.findSummaries(cursorOf(afterId), pageOf(afterId, page, size));
     }
 
     public Rental getRentalById(Long id) {
@@ -46,8 +64,8 @@ public class RentalService {
                 .orElseThrow(() -> new EntityNotFoundException("Rental not found: " + id));
     }
 
-    public List<Rental> getRentalsByFarmer(Long farmerId) {
-        return rentalRepository.findByRenterId(farmerId);
+    public List<RentalSummaryDto> getRentalsByFarmer(Long farmerId, Long afterId, int page, int size) {
+        return rentalRepository.findSummariesByRenterId(farmerId, cursorOf(afterId), pageOf(afterId, page, size));
     }
 
     public List<Rental> getRentalsByEquipment(Long equipmentId) {
@@ -57,17 +75,17 @@ public class RentalService {
     /**
      * Get rentals where the logged-in farmer is the renter
      */
-    public List<Rental> getRentalsByRenter(String username) {
+    public List<RentalSummaryDto> getRentalsByRenter(String username, Long afterId, int page, int size) {
         Farmer renter = farmerService.getFarmerByUsername(username);
-        return rentalRepository.findByRenterId(renter.getId());
+        return rentalRepository.findSummariesByRenterId(renter.getId(), cursorOf(afterId), pageOf(afterId, page, size));
     }
 
     /**
      * Get rentals for equipment owned by the logged-in farmer
      */
-    public List<Rental> getRentalsForMyEquipment(String username) {
+    public List<RentalSummaryDto> getRentalsForMyEquipment(String username, Long afterId, int page, int size) {
         Farmer owner = farmerService.getFarmerByUsername(username);
-        return rentalRepository.findByEquipmentOwnerId(owner.getId());
+        return rentalRepository.findSummariesByOwnerId(owner.getId(), cursorOf(afterId), pageOf(afterId, page, size));
     }
 
     @Transactional
@@ -109,7 +127,10 @@ public class RentalService {
         rental.setStatus(RentalStatus.PENDING);
         rental.setTotalCost(totalCost);
 
-        return rentalRepository.save(rental);
+        Rental saved = rentalRepository.save(rental);
+        marketplaceMetrics.rentalRequested();
+        transitionJournal.rentalChanged(saved.getId(), null, RentalStatus.PENDING);
+        return saved;
     }
 
     @Transactional
@@ -136,7 +157,11 @@ public class RentalService {
         rental.setStatus(RentalStatus.APPROVED);
         rental.getEquipment().setAvailable(Boolean.FALSE);
         equipmentRepository.save(rental.getEquipment());
-        return rentalRepository.save(rental);
+        Rental approved = rentalRepository.save(rental);
+        marketplaceMetrics.rentalApproved();
+        salesRollupService.rentalBooked(approved);
+        transitionJournal.rentalChanged(rentalId, RentalStatus.PENDING, RentalStatus.APPROVED);
+        return approved;
     }
 
     @Transactional
@@ -154,6 +179,7 @@ public class RentalService {
         }
 
         rental.setStatus(RentalStatus.PAID);
+        transitionJournal.rentalChanged(rentalId, RentalStatus.APPROVED, RentalStatus.PAID);
         return rentalRepository.save(rental);
     }
 
@@ -174,7 +200,9 @@ public class RentalService {
             throw new IllegalStateException("Rental start date has not arrived yet");
         }
 
+        RentalStatus previous = rental.getStatus();
         rental.setStatus(RentalStatus.ACTIVE);
+        transitionJournal.rentalChanged(rentalId, previous, RentalStatus.ACTIVE);
         return rentalRepository.save(rental);
     }
 
@@ -195,6 +223,7 @@ public class RentalService {
         rental.setStatus(RentalStatus.COMPLETED);
         rental.getEquipment().setAvailable(Boolean.TRUE);
         equipmentRepository.save(rental.getEquipment());
+        transitionJournal.rentalChanged(rentalId, RentalStatus.ACTIVE, RentalStatus.COMPLETED);
         return rentalRepository.save(rental);
     }
 
@@ -220,7 +249,12 @@ public class RentalService {
             equipmentRepository.save(rental.getEquipment());
         }
 
+        RentalStatus previous = rental.getStatus();
+        if (SalesRollupService.BOOKED_STATUSES.contains(previous)) {
+            salesRollupService.bookingCancelled(rental);
+        }
         rental.setStatus(RentalStatus.CANCELLED);
+        transitionJournal.rentalChanged(rentalId, previous, RentalStatus.CANCELLED);
         return rentalRepository.save(rental);
     }
 
@@ -241,6 +275,18 @@ public class RentalService {
         }
     }
 
+    /**
+     * Keyset paging wins when a cursor is given; otherwise fall back to offset paging.
+     */
+    private Pageable pageOf(Long afterId, int page, int size) {
+        int boundedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return PageRequest.of(afterId != null ? 0 : Math.max(page, 0), boundedSize);
+    }
+
+    private long cursorOf(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+
     private boolean overlaps(LocalDate existingStart, LocalDate existingEnd, LocalDate newStart, LocalDate newEnd) {
         return !existingStart.isAfter(newEnd) && !newStart.isAfter(existingEnd);
     }
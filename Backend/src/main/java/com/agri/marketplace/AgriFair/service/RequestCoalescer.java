@@ -0,0 +1,176 @@
+package com.agri.marketplace.AgriFair.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for hot reads: while a call for a key is running, identical calls wait
+ * for its result instead of running their own query. Nothing is cached; the next call
+ * after completion runs again. A caller that waits longer than its group's timeout
+ * (coalesce.&lt;group&gt;.timeout-ms, else coalesce.timeout-ms) stops waiting and runs
+ * the read itself. Call it outside any transaction, so waiting callers don't hold
+ * connections.
+ *
+ * Reads stay read-your-writes: as a transaction listener this sees every read-write
+ * commit, and a signed-in caller never joins a read that started before their own last
+ * commit, but runs a fresh one. Commits are remembered for a minute, and reads running
+ * longer than that aren't joined at all. Calls per group are counted by outcome (leader,
+ * shared, timeout, own-write); the coalescing ratio is shared over all four.
+ */
+@Component
+public class RequestCoalescer implements TransactionExecutionListener {
+
+    private static final long WRITE_MEMORY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MeterRegistry registry;
+    private final Environment environment;
+    private final boolean enabled;
+    private final long defaultTimeoutMillis;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    // System.nanoTime() of each user's last read-write commit
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(MeterRegistry registry,
+                            Environment environment,
+                            @Value("${coalesce.enabled:true}") boolean enabled,
+                            @Value("${coalesce.timeout-ms:2000}") long defaultTimeoutMillis) {
+        this.registry = registry;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    /** Runs loader for key, or waits for a running call with an equal key in the same group. */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, Object key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Group state = groups.computeIfAbsent(group, this::newGroup);
+        Flight mine = new Flight(System.nanoTime(), new CompletableFuture<>());
+        Flight running = state.inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            state.leaders.increment();
+            try {
+                T result = loader.get();
+                state.inFlight.remove(key, mine);
+                mine.result.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                state.inFlight.remove(key, mine);
+                mine.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        if (!mayJoin(running, mine.startedNanos)) {
+            state.ownWrites.increment();
+            return loader.get();
+        }
+        try {
+            T result = (T) running.result.get(state.timeoutMillis, TimeUnit.MILLISECONDS);
+            state.shared.increment();
+            return result;
+        } catch (TimeoutException e) {
+            state.timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            // The leader's failure is this caller's failure too
+            state.shared.increment();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced read", e);
+        }
+    }
+
+    /** Remembers when the signed-in user's read-write transaction committed. */
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly()) {
+            return;
+        }
+        String user = currentUser();
+        if (user != null) {
+            lastWrites.put(user, System.nanoTime());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void forgetOldWrites() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(written -> now - written > WRITE_MEMORY_NANOS);
+    }
+
+    /** Whether the caller may take the running flight's result: it started after their last write. */
+    private boolean mayJoin(Flight running, long now) {
+        if (now - running.startedNanos > WRITE_MEMORY_NANOS) {
+            // Older than the writes remembered, so a write after its start may be forgotten
+            return false;
+        }
+        String user = currentUser();
+        Long written = user == null ? null : lastWrites.get(user);
+        return written == null || written - running.startedNanos < 0;
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
+            return null;
+        }
+        return auth.getName();
+    }
+
+    private Group newGroup(String name) {
+        long timeout = environment.getProperty("coalesce." + name + ".timeout-ms", Long.class, defaultTimeoutMillis);
+        Group group = new Group(timeout, counter(name, "leader"), counter(name, "shared"),
+                counter(name, "timeout"), counter(name, "own-write"));
+        Gauge.builder("agrifair.coalesce.inflight", group.inFlight, Map::size)
+                .description("Keys with a read in flight")
+                .tag("group", name)
+                .register(registry);
+        return group;
+    }
+
+    private Counter counter(String group, String outcome) {
+        return Counter.builder("agrifair.coalesce.requests")
+                .description("Coalesced reads: leader ran the query, shared got a running one's result, "
+                        + "timeout gave up waiting, own-write ran again after the caller's own write")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record Flight(long startedNanos, CompletableFuture<Object> result) {
+    }
+
+    private record Group(long timeoutMillis, Counter leaders, Counter shared, Counter timeouts, Counter ownWrites,
+                         Map<Object, Flight> inFlight) {
+        Group(long timeoutMillis, Counter leaders, Counter shared, Counter timeouts, Counter ownWrites) {
+            this(timeoutMillis, leaders, shared, timeouts, ownWrites, new ConcurrentHashMap<>());
+        }
+    }
+}
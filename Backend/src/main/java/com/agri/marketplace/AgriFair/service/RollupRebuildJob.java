@@ -0,0 +1,66 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Recomputes the sales and rental rollups from the source tables. Every night it redoes
+ * a window around today, which corrects any drift the incremental updates picked up;
+ * rentals are booked ahead, so the window reaches into the future too. Setting
+ * rollups.backfill-from rebuilds everything from that date once the application is up,
+ * which fills the tables for data that predates them.
+ */
+@Component
+public class RollupRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupRebuildJob.class);
+
+    private final SalesRollupService salesRollupService;
+    private final int lookbackDays;
+    private final int lookaheadDays;
+    private final int chunkDays;
+    private final String backfillFrom;
+
+    public RollupRebuildJob(SalesRollupService salesRollupService,
+                            @Value("${rollups.rebuild.lookback-days:2}") int lookbackDays,
+                            @Value("${rollups.rebuild.lookahead-days:180}") int lookaheadDays,
+                            @Value("${rollups.rebuild.chunk-days:7}") int chunkDays,
+                            @Value("${rollups.backfill-from:}") String backfillFrom) {
+        this.salesRollupService = salesRollupService;
+        this.lookbackDays = lookbackDays;
+        this.lookaheadDays = lookaheadDays;
+        this.chunkDays = Math.max(1, chunkDays);
+        this.backfillFrom = backfillFrom;
+    }
+
+    @Scheduled(cron = "${rollups.rebuild.cron:0 30 3 * * *}")
+    public void nightly() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(lookbackDays), today.plusDays(lookaheadDays));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (backfillFrom.isBlank()) {
+            return;
+        }
+        rebuild(LocalDate.parse(backfillFrom), LocalDate.now().plusDays(lookaheadDays));
+    }
+
+    /** Rebuilds from..to (inclusive) in chunks of chunk-days, one transaction each. */
+    public synchronized void rebuild(LocalDate from, LocalDate to) {
+        long started = System.currentTimeMillis();
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1L);
+            salesRollupService.rebuild(chunkStart, chunkEnd.isAfter(to) ? to : chunkEnd);
+        }
+        log.info("Rebuilt rollups for {} to {} in {} ms", from, to, System.currentTimeMillis() - started);
+    }
+}
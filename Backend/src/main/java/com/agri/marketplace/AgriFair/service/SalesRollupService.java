@@ -0,0 +1,276 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.CropSalesDto;
+import com.agri.marketplace.AgriFair.dto.DailyRevenueDto;
+import com.agri.marketplace.AgriFair.dto.EquipmentUtilizationDto;
+import com.agri.marketplace.AgriFair.model.EquipmentDailyRentals;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.FarmerDailySales;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentDailyRentalsRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.OrderFulfillmentRepository;
+import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import com.agri.marketplace.AgriFair.repository.RentalRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Daily sales and rental rollups behind the farmer dashboard.
+ *
+ * The order and rental services call in here inside their own transactions, so a rollup
+ * row changes together with the order or rental it counts; each change is an atomic
+ * INSERT ... ON DUPLICATE KEY UPDATE that adds the delta. Sales count items by order date
+ * and drop out again when the order, or the farmer's part of it, is cancelled. A rental
+ * counts from approval until it is cancelled, on every day of its period, with its cost
+ * spread evenly over those days. rebuild() recomputes a date range from the source tables
+ * for backfills; the dashboard queries read only the rollup tables.
+ */
+@Service
+public class SalesRollupService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    // Statuses in which a rental holds its equipment
+    static final Set<RentalStatus> BOOKED_STATUSES =
+            EnumSet.of(RentalStatus.APPROVED, RentalStatus.PAID, RentalStatus.ACTIVE, RentalStatus.COMPLETED);
+
+    private final FarmerDailySalesRepository farmerDailySalesRepository;
+    private final CropDailySalesRepository cropDailySalesRepository;
+    private final EquipmentDailyRentalsRepository equipmentDailyRentalsRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderFulfillmentRepository orderFulfillmentRepository;
+    private final RentalRepository rentalRepository;
+    private final UserRepository userRepository;
+    private final FarmerRepository farmerRepository;
+
+    public SalesRollupService(FarmerDailySalesRepository farmerDailySalesRepository,
+                              CropDailySalesRepository cropDailySalesRepository,
+                              EquipmentDailyRentalsRepository equipmentDailyRentalsRepository,
+                              OrderItemRepository orderItemRepository,
+                              OrderFulfillmentRepository orderFulfillmentRepository,
+                              RentalRepository rentalRepository,
+                              UserRepository userRepository,
+                              FarmerRepository farmerRepository) {
+        this.farmerDailySalesRepository = farmerDailySalesRepository;
+        this.cropDailySalesRepository = cropDailySalesRepository;
+        this.equipmentDailyRentalsRepository = equipmentDailyRentalsRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderFulfillmentRepository = orderFulfillmentRepository;
+        this.rentalRepository = rentalRepository;
+        this.userRepository = userRepository;
+        this.farmerRepository = farmerRepository;
+    }
+
+    /** Counts a new order's items. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(List<OrderItem> items) {
+        addSales(items, 1);
+    }
+
+    /** Takes items of a cancelled order, or of a cancelled part of one, out again. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void itemsCancelled(List<OrderItem> items) {
+        addSales(items, -1);
+    }
+
+    /** Counts a rental that now holds its equipment. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rentalBooked(Rental rental) {
+        addRental(rental, 1, rental.getStartDate(), rental.getEndDate());
+    }
+
+    /** Takes a booked rental out again after it was cancelled. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingCancelled(Rental rental) {
+        addRental(rental, -1, rental.getStartDate(), rental.getEndDate());
+    }
+
+    /**
+     * Recomputes every rollup row dated from..to (inclusive) from orders, fulfillments and
+     * rentals. Writes made to those days while this runs may be counted twice or not at
+     * all, so large backfills belong off-peak; RollupRebuildJob splits them into chunks.
+     */
+    @Transactional
+    public void rebuild(LocalDate from, LocalDate to) {
+        farmerDailySalesRepository.deleteBetween(from, to);
+        cropDailySalesRepository.deleteBetween(from, to);
+        equipmentDailyRentalsRepository.deleteBetween(from, to);
+
+        Set<FulfillmentKey> cancelled = orderFulfillmentRepository
+                .findByStatusAndCreatedDateBetween(OrderStatus.CANCELLED, from.atStartOfDay(), to.atTime(LocalTime.MAX)).stream()
+                .map(fulfillment -> new FulfillmentKey(fulfillment.getOrder().getId(), fulfillment.getFarmer().getId()))
+                .collect(Collectors.toCollection(HashSet::new));
+        List<OrderItem> live = orderItemRepository.findByOrderCreatedDateBetween(from.atStartOfDay(), to.atTime(LocalTime.MAX)).stream()
+                .filter(item -> item.getOrder().getStatus() != OrderStatus.CANCELLED)
+                .filter(item -> item.getCrop().getFarmer() == null
+                        || !cancelled.contains(new FulfillmentKey(item.getOrder().getId(), item.getCrop().getFarmer().getId())))
+                .toList();
+        addSales(live, 1);
+
+        for (Rental rental : rentalRepository.findOverlapping(BOOKED_STATUSES, from, to)) {
+            addRental(rental, 1, from, to);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyRevenueDto> dailyRevenue(String username, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        User user = farmerUser(username);
+
+        Map<LocalDate, FarmerDailySales> sales = new HashMap<>();
+        for (FarmerDailySales day : farmerDailySalesRepository.findByFarmerIdAndSalesDateBetweenOrderBySalesDate(user.getId(), from, to)) {
+            sales.put(day.getSalesDate(), day);
+        }
+        Map<LocalDate, Double> rentals = new HashMap<>();
+        Farmer profile = farmerRepository.findByEmail(user.getEmail()).orElse(null);
+        if (profile != null) {
+            for (EquipmentDailyRentals day : equipmentDailyRentalsRepository.findByOwnerIdAndUsageDateBetweenOrderByUsageDate(profile.getId(), from, to)) {
+                rentals.merge(day.getUsageDate(), day.getRevenue(), Double::sum);
+            }
+        }
+
+        // Only days with something on them, oldest first
+        Set<LocalDate> dates = new TreeSet<>(sales.keySet());
+        dates.addAll(rentals.keySet());
+        List<DailyRevenueDto> days = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            FarmerDailySales day = sales.get(date);
+            days.add(new DailyRevenueDto(date,
+                    day != null ? day.getOrderCount() : 0,
+                    day != null ? day.getUnits() : 0,
+                    day != null ? day.getRevenue() : 0.0,
+                    rentals.getOrDefault(date, 0.0)));
+        }
+        return days;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CropSalesDto> cropSales(String username, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return cropDailySalesRepository.sumByCrop(farmerUser(username).getId(), from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EquipmentUtilizationDto> equipmentUtilization(String username, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        // Equipment belongs to the farmer profile, matched to the login by email as in FarmerService
+        Farmer profile = farmerRepository.findByEmail(farmerUser(username).getEmail()).orElse(null);
+        if (profile == null) {
+            return List.of();
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        return equipmentDailyRentalsRepository.sumByEquipment(profile.getId(), from, to).stream()
+                .map(usage -> new EquipmentUtilizationDto(usage.equipmentId(), usage.bookedDays(), days,
+                        (double) usage.bookedDays() / days, usage.revenue()))
+                .toList();
+    }
+
+    private void addSales(List<OrderItem> items, int sign) {
+        // Sorted, so every transaction upserts rows in the same order: two orders touching
+        // the same crop and farmer days in a different item order can't deadlock
+        Map<DayKey, SalesDelta> byCrop = new TreeMap<>();
+        Map<DayKey, SalesDelta> byFarmer = new TreeMap<>();
+        for (OrderItem item : items) {
+            User farmer = item.getCrop().getFarmer();
+            if (farmer == null) {
+                continue;
+            }
+            LocalDate day = item.getOrder().getCreatedDate().toLocalDate();
+            double revenue = item.getPrice() * item.getQuantity();
+            byCrop.computeIfAbsent(new DayKey(item.getCrop().getId(), day), key -> new SalesDelta(farmer.getId()))
+                    .add(item.getOrder().getId(), item.getQuantity(), revenue);
+            byFarmer.computeIfAbsent(new DayKey(farmer.getId(), day), key -> new SalesDelta(farmer.getId()))
+                    .add(item.getOrder().getId(), item.getQuantity(), revenue);
+        }
+        byCrop.forEach((key, delta) -> cropDailySalesRepository.add(
+                key.id(), delta.farmerId, key.day(), sign * delta.units, sign * delta.revenue));
+        byFarmer.forEach((key, delta) -> farmerDailySalesRepository.add(
+                key.id(), key.day(), sign * (long) delta.orders.size(), sign * delta.units, sign * delta.revenue));
+    }
+
+    /** Adds sign times the rental's per-day share to each of its days that falls in [from, to]. */
+    private void addRental(Rental rental, int sign, LocalDate from, LocalDate to) {
+        LocalDate start = rental.getStartDate();
+        LocalDate end = rental.getEndDate();
+        long rentalDays = ChronoUnit.DAYS.between(start, end) + 1;
+        double perDay = rental.getTotalCost() / rentalDays;
+        Long equipmentId = rental.getEquipment().getId();
+        Long ownerId = rental.getEquipment().getOwner().getId();
+        LocalDate first = start.isBefore(from) ? from : start;
+        LocalDate last = end.isAfter(to) ? to : end;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            equipmentDailyRentalsRepository.add(equipmentId, ownerId, day, sign, sign * perDay);
+        }
+    }
+
+    private User farmerUser(String username) {
+        User user = userRepository.findByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found: " + username);
+        }
+        return user;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private record FulfillmentKey(Long orderId, Long farmerId) {
+    }
+
+    private record DayKey(Long id, LocalDate day) implements Comparable<DayKey> {
+
+        private static final Comparator<DayKey> ORDER = Comparator.comparing(DayKey::id).thenComparing(DayKey::day);
+
+        @Override
+        public int compareTo(DayKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class SalesDelta {
+        final Long farmerId;
+        final Set<Long> orders = new HashSet<>();
+        long units;
+        double revenue;
+
+        SalesDelta(Long farmerId) {
+            this.farmerId = farmerId;
+        }
+
+        void add(Long orderId, int quantity, double amount) {
+            orders.add(orderId);
+            units += quantity;
+            revenue += amount;
+        }
+    }
+}
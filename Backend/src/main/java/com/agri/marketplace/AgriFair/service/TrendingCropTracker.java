@@ -0,0 +1,197 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which crops are being looked at and bought right now, in constant memory. Views and
+ * ordered items are counted in a {@link CountMinSketch}, and the top-k crops by estimate
+ * are kept as candidates. Counts decay with a half-life, using forward decay: later
+ * events are added with exponentially larger weights instead of every counter being
+ * shrunk over time, and everything is rescaled now and then to keep the numbers small.
+ * The state is checkpointed to a file so a restart doesn't empty the shelf.
+ */
+@Service
+public class TrendingCropTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingCropTracker.class);
+
+    private static final int CHECKPOINT_MAGIC = 0x54524E44; // "TRND"
+    private static final int CHECKPOINT_VERSION = 1;
+    // Rescale once new events weigh 2^32 times as much as ones at the landmark
+    private static final double MAX_EXPONENT = 32;
+
+    private final CountMinSketch sketch;
+    private final int topK;
+    private final double halfLifeMillis;
+    private final double orderWeight;
+    private final Path checkpointFile;
+
+    // Candidate crop id -> score in landmark units
+    private final Map<Long, Double> candidates = new HashMap<>();
+    private long landmarkMillis;
+    private boolean dirty;
+
+    public TrendingCropTracker(@Value("${trending.sketch.depth:4}") int depth,
+                               @Value("${trending.sketch.width:4096}") int width,
+                               @Value("${trending.top-k:50}") int topK,
+                               @Value("${trending.half-life-minutes:360}") long halfLifeMinutes,
+                               @Value("${trending.order-weight:5}") double orderWeight,
+                               @Value("${trending.checkpoint-file:trending.ckpt}") String checkpointFile) {
+        this.sketch = new CountMinSketch(depth, width);
+        this.topK = topK;
+        this.halfLifeMillis = halfLifeMinutes * 60_000.0;
+        this.orderWeight = orderWeight;
+        this.checkpointFile = Path.of(checkpointFile);
+        this.landmarkMillis = System.currentTimeMillis();
+        load();
+    }
+
+    public void cropViewed(Long cropId) {
+        record(cropId, 1, System.currentTimeMillis());
+    }
+
+    /** Counts ordered crops once the surrounding transaction commits. */
+    public void cropsOrderedAfterCommit(Collection<Long> cropIds) {
+        List<Long> ids = List.copyOf(cropIds);
+        Runnable count = () -> {
+            long now = System.currentTimeMillis();
+            ids.forEach(id -> record(id, orderWeight, now));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.run();
+                }
+            });
+        } else {
+            count.run();
+        }
+    }
+
+    /** Up to limit crop ids, highest decayed score first. */
+    public synchronized List<Long> top(int limit) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(Math.min(limit, topK))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /** A crop's decayed score as of now: roughly its weighted event count over the last half-life. */
+    public synchronized double score(Long cropId) {
+        return sketch.estimate(cropId) * Math.pow(2, -(System.currentTimeMillis() - landmarkMillis) / halfLifeMillis);
+    }
+
+    synchronized void record(Long cropId, double weight, long nowMillis) {
+        double exponent = (nowMillis - landmarkMillis) / halfLifeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(nowMillis, exponent);
+            exponent = 0;
+        }
+        double estimate = sketch.add(cropId, weight * Math.pow(2, exponent));
+        dirty = true;
+        if (candidates.containsKey(cropId) || candidates.size() < topK) {
+            candidates.put(cropId, estimate);
+            return;
+        }
+        Map.Entry<Long, Double> weakest = candidates.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .orElseThrow();
+        if (estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(cropId, estimate);
+        }
+    }
+
+    /** Drops a crop that no longer exists from the candidates; its sketch counts just decay. */
+    public synchronized void forget(Long cropId) {
+        candidates.remove(cropId);
+    }
+
+    @Scheduled(fixedDelayString = "${trending.checkpoint-ms:60000}", initialDelayString = "${trending.checkpoint-ms:60000}")
+    @PreDestroy
+    public synchronized void checkpoint() {
+        if (!dirty) {
+            return;
+        }
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(sketch.depth());
+            out.writeInt(sketch.width());
+            out.writeLong(landmarkMillis);
+            sketch.writeTo(out);
+            out.writeInt(candidates.size());
+            for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+                out.writeLong(candidate.getKey());
+                out.writeDouble(candidate.getValue());
+            }
+        } catch (IOException e) {
+            log.warn("Could not write trending checkpoint {}", temp, e);
+            return;
+        }
+        try {
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not replace trending checkpoint {}", checkpointFile, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION
+                    || in.readInt() != sketch.depth() || in.readInt() != sketch.width()) {
+                log.warn("Ignoring trending checkpoint {}: written with a different format or sketch size", checkpointFile);
+                return;
+            }
+            long landmark = in.readLong();
+            sketch.readFrom(in);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                candidates.put(in.readLong(), in.readDouble());
+            }
+            landmarkMillis = landmark;
+            while (candidates.size() > topK) {
+                candidates.remove(candidates.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow().getKey());
+            }
+            log.info("Loaded trending checkpoint with {} candidates", candidates.size());
+        } catch (IOException e) {
+            log.warn("Could not read trending checkpoint {}, starting empty", checkpointFile, e);
+            sketch.scale(0);
+            candidates.clear();
+        }
+    }
+
+    private void rescale(long nowMillis, double exponent) {
+        double factor = Math.pow(2, -exponent);
+        sketch.scale(factor);
+        candidates.replaceAll((id, score) -> score * factor);
+        landmarkMillis = nowMillis;
+    }
+}
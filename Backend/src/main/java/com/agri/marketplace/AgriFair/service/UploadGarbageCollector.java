@@ -0,0 +1,195 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Incrementally deletes uploads no row points at any more. Each run walks the
+ * sharded ab/cd/ directories from where the previous run stopped, examines at most
+ * filesPerRun files, and checks candidates against crop.photo_url,
+ * equipment.image_url and users.profile_image in one query per table.
+ */
+@Component
+public class UploadGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private static final String SHARD_DIR = "[0-9a-z]{2}";
+
+    private final Path uploadRoot;
+    private final boolean enabled;
+    private final int filesPerRun;
+    private final Duration minAge;
+    private final CropRepository cropRepository;
+    private final EquipmentRepository equipmentRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+
+    // Last leaf directory swept ("ab/cd"); empty means start from the beginning
+    private String cursor = "";
+
+    public UploadGarbageCollector(@Value("${file.upload-dir:uploads}") String uploadDir,
+                                  @Value("${file.gc.enabled:true}") boolean enabled,
+                                  @Value("${file.gc.files-per-run:500}") int filesPerRun,
+                                  @Value("${file.gc.min-age-minutes:60}") long minAgeMinutes,
+                                  CropRepository cropRepository,
+                                  EquipmentRepository equipmentRepository,
+                                  UserRepository userRepository,
+                                  FileStorageService fileStorageService) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.filesPerRun = filesPerRun;
+        this.minAge = Duration.ofMinutes(minAgeMinutes);
+        this.cropRepository = cropRepository;
+        this.equipmentRepository = equipmentRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Scheduled(fixedDelayString = "${file.gc.interval-ms:60000}", initialDelayString = "${file.gc.initial-delay-ms:300000}")
+    public synchronized void runIncremental() {
+        if (!enabled || !Files.isDirectory(uploadRoot)) {
+            return;
+        }
+        try {
+            sweepStaging();
+            int budget = filesPerRun;
+            for (Path top : sortedDirs(uploadRoot)) {
+                for (Path leaf : sortedDirs(top)) {
+                    String position = top.getFileName() + "/" + leaf.getFileName();
+                    if (position.compareTo(cursor) <= 0) {
+                        continue;
+                    }
+                    budget -= sweep(leaf, position);
+                    cursor = position;
+                    if (budget <= 0) {
+                        return;
+                    }
+                }
+            }
+            // Reached the end of the store; next run starts over
+            cursor = "";
+        } catch (IOException e) {
+            log.warn("Upload GC run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sweep one leaf directory, returning the number of files examined.
+     */
+    private int sweep(Path leaf, String position) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(leaf)) {
+            files = listing.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        Instant cutoff = Instant.now().minus(minAge);
+        Set<String> originalBases = new HashSet<>();
+        Map<String, String> candidates = new HashMap<>();  // url -> filename
+        List<String> derived = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (isDerived(name)) {
+                derived.add(name);
+                continue;
+            }
+            originalBases.add(baseOf(name));
+            if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                candidates.put(FileStorageService.URL_PREFIX + position + "/" + name, name);
+                // Rows written before the sharded layout may still hold the flat URL
+                candidates.put(FileStorageService.URL_PREFIX + name, name);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Set<String> referenced = new HashSet<>();
+            referenced.addAll(cropRepository.findReferencedPhotoUrls(candidates.keySet()));
+            referenced.addAll(equipmentRepository.findReferencedImageUrls(candidates.keySet()));
+            referenced.addAll(userRepository.findReferencedProfileImages(candidates.keySet()));
+            Set<String> live = referenced.stream().map(candidates::get).collect(Collectors.toSet());
+
+            candidates.values().stream().distinct()
+                    .filter(name -> !live.contains(name))
+                    .forEach(name -> {
+                        fileStorageService.purgeFile(name, cutoff);
+                        // Kept if it was uploaded again since it was listed
+                        if (!Files.exists(leaf.resolve(name))) {
+                            originalBases.remove(baseOf(name));
+                        }
+                    });
+        }
+
+        // Renditions and staging leftovers whose original is gone
+        for (String name : derived) {
+            if (name.endsWith(".tmp") && !Files.getLastModifiedTime(leaf.resolve(name)).toInstant().isBefore(cutoff)) {
+                // Rendition still being written
+                continue;
+            }
+            String source = ImageDerivativeService.sourceBaseOf(name);
+            String base = source != null ? source : baseOf(name.substring(0, name.lastIndexOf('.')));
+            if (!originalBases.contains(base)) {
+                Files.deleteIfExists(leaf.resolve(name));
+            }
+        }
+        return files.size();
+    }
+
+    /**
+     * Remove staging files left behind by uploads that died mid-request.
+     */
+    private void sweepStaging() throws IOException {
+        Path incoming = uploadRoot.resolve(FileStorageService.INCOMING_DIR);
+        if (!Files.isDirectory(incoming)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofDays(1));
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(incoming)) {
+            for (Path file : staged) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private List<Path> sortedDirs(Path parent) throws IOException {
+        try (Stream<Path> listing = Files.list(parent)) {
+            return listing
+                    .filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName().toString().matches(SHARD_DIR))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private boolean isDerived(String name) {
+        return ImageDerivativeService.sourceBaseOf(name) != null || name.endsWith(".tmp");
+    }
+
+    private String baseOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,100 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * One-off move of files from the old flat uploads/ directory into the sharded
+ * ab/cd/ layout, rewriting crop, equipment and profile image URLs as it goes.
+ * Safe to rerun: each file is moved first and its URLs rewritten after, and the
+ * upload handler resolves both URL forms in the meantime.
+ */
+@Component
+public class UploadLayoutMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadLayoutMigration.class);
+
+    private final Path uploadRoot;
+    private final boolean enabled;
+    private final CropRepository cropRepository;
+    private final EquipmentRepository equipmentRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UploadLayoutMigration(@Value("${file.upload-dir:uploads}") String uploadDir,
+                                 @Value("${file.layout.migrate-on-startup:true}") boolean enabled,
+                                 CropRepository cropRepository,
+                                 EquipmentRepository equipmentRepository,
+                                 UserRepository userRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.cropRepository = cropRepository;
+        this.equipmentRepository = equipmentRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled || !Files.isDirectory(uploadRoot)) {
+            return;
+        }
+        int moved = 0;
+        try (DirectoryStream<Path> flat = Files.newDirectoryStream(uploadRoot, Files::isRegularFile)) {
+            for (Path file : flat) {
+                String name = file.getFileName().toString();
+                String relativePath = FileStorageService.relativePathFor(name);
+                if (name.startsWith(".") || relativePath.equals(name)) {
+                    continue;
+                }
+                moveToShard(file, uploadRoot.resolve(relativePath));
+                rewriteUrls(FileStorageService.URL_PREFIX + name, FileStorageService.URL_PREFIX + relativePath);
+                moved++;
+            }
+        } catch (IOException e) {
+            log.warn("Upload layout migration stopped: {}", e.getMessage());
+        }
+        if (moved > 0) {
+            log.info("Moved {} uploads into sharded directories", moved);
+        }
+    }
+
+    private void moveToShard(Path file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        if (Files.exists(target)) {
+            // Already migrated on an earlier run that stopped before deleting the flat copy
+            Files.delete(file);
+            return;
+        }
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(file, target);
+        }
+    }
+
+    private void rewriteUrls(String oldUrl, String newUrl) {
+        transactionTemplate.executeWithoutResult(status -> {
+            cropRepository.replacePhotoUrl(oldUrl, newUrl);
+            equipmentRepository.replaceImageUrl(oldUrl, newUrl);
+            userRepository.replaceProfileImage(oldUrl, newUrl);
+        });
+    }
+}
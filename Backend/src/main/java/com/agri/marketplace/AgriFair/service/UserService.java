@@ -3,6 +3,9 @@ package com.agri.marketplace.AgriFair.service;
 import com.agri.marketplace.AgriFair.model.Farmer;
 import com.agri.marketplace.AgriFair.model.User;
 import com.agri.marketplace.AgriFair.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -11,8 +14,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Service
+@Timed(value = "agrifair.service", histogram = true)
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -60,8 +66,7 @@ public class UserService {
             } catch (Exception e) {
                 // Log error but don't fail registration
                 // Farmer profile can be created later
-                System.err.println("Failed to auto-create farmer profile: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Failed to auto-create farmer profile", e);
             }
         }
         
@@ -0,0 +1,191 @@
+package com.agri.marketplace.AgriFair.config;
+
+import com.agri.marketplace.AgriFair.AgriFairApplication;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.service.LocationIndexService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Two application nodes in one JVM, sharing one in-memory database but each with its own
+ * second-level cache and location index. A write on node A must reach node B's caches
+ * through entity_changes in under a second.
+ */
+class ClusterInvalidationTest {
+
+    private static final long PROPAGATION_BUDGET_MS = 1000;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @TempDir
+    static Path configDir;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void farmerUpdateReachesOtherNodeWithinBudget() {
+        Farmer farmer = inTransaction(nodeA, () -> farmers(nodeA).save(newFarmer()));
+        assertEquals("Nakuru", county(nodeB, farmer.getId()));
+        assertTrue(nodeB.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache()
+                .containsEntity(Farmer.class, farmer.getId()));
+
+        inTransaction(nodeA, () -> {
+            farmers(nodeA).findById(farmer.getId()).orElseThrow().setCounty("Kisumu");
+            return null;
+        });
+        long elapsedMs = awaitWithinBudget(() -> "Kisumu".equals(county(nodeB, farmer.getId())));
+        System.out.printf("Farmer update visible on node B after %d ms%n", elapsedMs);
+    }
+
+    @Test
+    void cachedQueryOnOtherNodeSeesAvailabilityChange() {
+        Equipment equipment = inTransaction(nodeA, () -> {
+            Equipment e = new Equipment();
+            e.setType("Harvester");
+            e.setModel("Cluster test");
+            e.setRate(800);
+            e.setOwner(farmers(nodeA).save(newFarmer()));
+            return equipment(nodeA).save(e);
+        });
+        awaitWithinBudget(() -> availableOnB(equipment.getId()));
+
+        inTransaction(nodeA, () -> {
+            equipment(nodeA).findById(equipment.getId()).orElseThrow().setAvailable(Boolean.FALSE);
+            return null;
+        });
+        awaitWithinBudget(() -> !availableOnB(equipment.getId()));
+    }
+
+    @Test
+    void locationIndexOnOtherNodeFollowsNewCoordinates() {
+        Farmer farmer = inTransaction(nodeA, () -> farmers(nodeA).save(newFarmer()));
+        inTransaction(nodeA, () -> {
+            Farmer managed = farmers(nodeA).findById(farmer.getId()).orElseThrow();
+            managed.setLatitude(-0.30);
+            managed.setLongitude(36.08);
+            return null;
+        });
+
+        LocationIndexService index = nodeB.getBean(LocationIndexService.class);
+        awaitWithinBudget(() -> index.findEquipmentOwnersNear(-0.30, 36.08, 5).containsKey(farmer.getId()));
+    }
+
+    @Test
+    void rolledBackWriteLeavesNoChangeRow() {
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        Long before = jdbc.queryForObject("SELECT COUNT(*) FROM entity_changes", Long.class);
+
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            farmers(nodeA).save(newFarmer());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, jdbc.queryForObject("SELECT COUNT(*) FROM entity_changes", Long.class));
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) throws IOException {
+        // Caffeine's JCache provider hands out one cache manager per config URI, so each
+        // node reads its own copy of the config to get caches of its own
+        Path cacheConfig = configDir.resolve(nodeId + ".conf");
+        try (InputStream in = new ClassPathResource("hibernate-cache.conf").getInputStream()) {
+            Files.copy(in, cacheConfig);
+        }
+        return new SpringApplicationBuilder(AgriFairApplication.class)
+                .profiles("querycount")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:cluster;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        // Both nodes share the schema; create-drop on one would drop it under the other
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.properties.hibernate.javax.cache.uri=" + cacheConfig.toUri(),
+                        "--cluster.node-id=" + nodeId,
+                        "--cluster.invalidation.poll-ms=50");
+    }
+
+    private static long awaitWithinBudget(BooleanSupplier condition) {
+        long start = System.nanoTime();
+        while (!condition.getAsBoolean()) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs > PROPAGATION_BUDGET_MS) {
+                fail("Change not visible on node B after " + elapsedMs + " ms");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static String county(ConfigurableApplicationContext node, Long farmerId) {
+        return inTransaction(node, () -> farmers(node).findById(farmerId).orElseThrow().getCounty());
+    }
+
+    private static boolean availableOnB(Long equipmentId) {
+        return inTransaction(nodeB, () -> equipment(nodeB).findByAvailable(Boolean.TRUE).stream()
+                .anyMatch(e -> e.getId().equals(equipmentId)));
+    }
+
+    private static <T> T inTransaction(ConfigurableApplicationContext node, Supplier<T> work) {
+        return node.getBean(TransactionTemplate.class).execute(status -> work.get());
+    }
+
+    private static FarmerRepository farmers(ConfigurableApplicationContext node) {
+        return node.getBean(FarmerRepository.class);
+    }
+
+    private static EquipmentRepository equipment(ConfigurableApplicationContext node) {
+        return node.getBean(EquipmentRepository.class);
+    }
+
+    private static Farmer newFarmer() {
+        int n = SEQUENCE.incrementAndGet();
+        Farmer farmer = new Farmer();
+        farmer.setFirstName("Cluster");
+        farmer.setEmail("cluster" + n + "@agrifair.test");
+        farmer.setPhoneNo(String.format("+91-7%09d", n));
+        farmer.setCounty("Nakuru");
+        return farmer;
+    }
+}
@@ -0,0 +1,116 @@
+package com.agri.marketplace.AgriFair.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the tailer against an H2 entity_changes table written by hand, with explicit
+ * ids to stage transactions that commit out of id order.
+ */
+class EntityChangeTailerTest {
+
+    private static final long GAP_TIMEOUT_MS = 10_000;
+    private static final long RETENTION_MS = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<Long> seen = new ArrayList<>();
+    private JdbcTemplate db;
+    private EntityChangeTailer tailer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:entity-changes;DB_CLOSE_DELAY=-1");
+        db = new JdbcTemplate(dataSource);
+        db.execute("DROP ALL OBJECTS");
+
+        EntityChangeLog changeLog = new EntityChangeLog(dataSource);
+        changeLog.createTable();
+        tailer = new EntityChangeTailer(changeLog, "node-b", List.of(change -> seen.add(change.entityId())),
+                2, GAP_TIMEOUT_MS, RETENTION_MS, clock::get, new SimpleMeterRegistry());
+        tailer.start();
+    }
+
+    @Test
+    void appliesOtherNodesChangesInIdOrderAcrossPages() {
+        insert(1, "node-a", 101);
+        insert(2, "node-a", 102);
+        insert(3, "node-b", 103);
+        insert(4, "node-a", 104);
+        insert(5, "node-a", 105);
+
+        assertEquals(5, tailer.poll());
+        // Page size is 2, own change 103 is skipped
+        assertEquals(List.of(101L, 102L, 104L, 105L), seen);
+        assertEquals(5, tailer.cursor());
+        assertEquals(0, tailer.poll());
+    }
+
+    @Test
+    void startsAfterExistingRows() throws SQLException {
+        insert(1, "node-a", 101);
+        tailer.start();
+
+        insert(2, "node-a", 102);
+        tailer.poll();
+        assertEquals(List.of(102L), seen);
+    }
+
+    @Test
+    void picksUpRowThatCommitsBelowTheCursor() {
+        insert(1, "node-a", 101);
+        // Id 2 is taken by a transaction still in flight
+        insert(3, "node-a", 103);
+        tailer.poll();
+        assertEquals(List.of(101L, 103L), seen);
+        assertEquals(1, tailer.openGaps());
+        assertEquals(1, tailer.appliedThrough());
+
+        insert(2, "node-a", 102);
+        tailer.poll();
+        assertEquals(List.of(101L, 103L, 102L), seen);
+        assertEquals(0, tailer.openGaps());
+        assertEquals(3, tailer.appliedThrough());
+    }
+
+    @Test
+    void stopsWaitingForRolledBackIds() {
+        insert(1, "node-a", 101);
+        insert(4, "node-a", 104);
+        tailer.poll();
+        assertEquals(2, tailer.openGaps());
+
+        clock.addAndGet(GAP_TIMEOUT_MS + 1);
+        tailer.poll();
+        assertEquals(0, tailer.openGaps());
+        assertEquals(4, tailer.appliedThrough());
+    }
+
+    @Test
+    void prunesOnlyAppliedRowsPastRetention() {
+        insert(1, "node-a", 101);
+        insert(3, "node-a", 103);
+        tailer.poll();
+
+        clock.addAndGet(RETENTION_MS + 1);
+        insert(5, "node-a", 105);
+        // Id 1 is applied and old; 3 is old but sits above the open gap at 2; 5 is new
+        assertEquals(1, tailer.prune());
+        assertEquals(List.of(3L, 5L), db.queryForList("SELECT id FROM entity_changes ORDER BY id", Long.class));
+    }
+
+    private void insert(long id, String origin, long entityId) {
+        db.update("INSERT INTO entity_changes (id, entity_type, entity_id, version, origin_node, changed_at) "
+                + "VALUES (?, 'Farmer', ?, 0, ?, ?)", id, entityId, origin, clock.get());
+    }
+}
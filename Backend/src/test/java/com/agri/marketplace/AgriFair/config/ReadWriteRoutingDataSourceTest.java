@@ -0,0 +1,148 @@
+package com.agri.marketplace.AgriFair.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes against two separate in-memory H2 databases standing in for primary and
+ * replica. Each holds a different marker row, so a query shows where it went, and
+ * "replication" of the heartbeat row is done by hand to control the replica's lag.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final long MAX_LAG_MS = 3000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private JdbcTemplate primaryDb;
+    private JdbcTemplate replicaDb;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource primary = h2("routing-primary");
+        JdbcDataSource replica = h2("routing-replica");
+        primaryDb = new JdbcTemplate(primary);
+        replicaDb = new JdbcTemplate(replica);
+        for (JdbcTemplate db : new JdbcTemplate[]{primaryDb, replicaDb}) {
+            db.execute("DROP ALL OBJECTS");
+            db.execute("CREATE TABLE marker (name VARCHAR(20))");
+            db.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        }
+        primaryDb.update("INSERT INTO marker VALUES ('primary')");
+        replicaDb.update("INSERT INTO marker VALUES ('replica')");
+
+        routing = new ReadWriteRoutingDataSource(primary, replica, MAX_LAG_MS, clock::get);
+        routing.createHeartbeatTable();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("farmer0", null, "ROLE_FARMER"));
+        heartbeatAndReplicate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyServiceTransactionsUseTheReplica() {
+        assertEquals("replica", serviceRead());
+        assertEquals(1, routing.replicaReads());
+    }
+
+    @Test
+    void writesAndUnmarkedReadsUseThePrimary() {
+        assertEquals("primary", writeTx.execute(status -> marker()));
+        // A read-only transaction not opened by a service method, e.g. a bare repository call
+        assertEquals("primary", readTx.execute(status -> marker()));
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilTheReplicaHasTheUsersWrite() {
+        clock.addAndGet(10);
+        writeTx.execute(status -> jdbc.update("INSERT INTO marker VALUES ('written')"));
+        assertEquals("primary", serviceRead());
+
+        // Another user isn't pinned
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("buyer", null, "ROLE_CUSTOMER"));
+        assertEquals("replica", serviceRead());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("farmer0", null, "ROLE_FARMER"));
+        clock.addAndGet(500);
+        heartbeatAndReplicate();
+        assertEquals("replica", serviceRead());
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        clock.addAndGet(MAX_LAG_MS + 1000);
+        // The primary takes a heartbeat the replica never receives
+        routing.heartbeat();
+
+        assertFalse(routing.replicaUsable());
+        assertEquals("primary", serviceRead());
+
+        heartbeatAndReplicate();
+        assertTrue(routing.replicaUsable());
+        assertEquals("replica", serviceRead());
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() {
+        replicaDb.execute("DROP TABLE replica_heartbeat");
+        routing.heartbeat();
+
+        assertFalse(routing.replicaUsable());
+        assertEquals("primary", serviceRead());
+    }
+
+    /** What a @Transactional(readOnly = true) service method looks like to the router. */
+    private String serviceRead() {
+        Boolean previous = ReadWriteRoutingDataSource.allowReplicaReads();
+        try {
+            return readTx.execute(status -> marker());
+        } finally {
+            ReadWriteRoutingDataSource.restoreReplicaReads(previous);
+        }
+    }
+
+    private String marker() {
+        return jdbc.queryForObject("SELECT name FROM marker FETCH FIRST 1 ROWS ONLY", String.class);
+    }
+
+    private void heartbeatAndReplicate() {
+        routing.heartbeat();
+        Long beat = primaryDb.queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+        replicaDb.update("MERGE INTO replica_heartbeat KEY (id) VALUES (1, ?)", beat);
+        routing.heartbeat();
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
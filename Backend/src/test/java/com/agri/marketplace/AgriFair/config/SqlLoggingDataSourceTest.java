@@ -0,0 +1,140 @@
+package com.agri.marketplace.AgriFair.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs statements through the logging wrapper against an in-memory H2 database and
+ * checks what reaches the sampled and slow-query loggers.
+ */
+class SqlLoggingDataSourceTest {
+
+    private final ListAppender<ILoggingEvent> sqlEvents = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> slowEvents = new ListAppender<>();
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sqllog;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS crop (id BIGINT PRIMARY KEY, product_name VARCHAR(255))");
+            statement.execute("DELETE FROM crop");
+        }
+        attach("agrifair.sql", sqlEvents);
+        attach("agrifair.slowsql", slowEvents);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("agrifair.sql")).detachAppender(sqlEvents);
+        ((Logger) LoggerFactory.getLogger("agrifair.slowsql")).detachAppender(slowEvents);
+    }
+
+    @Test
+    void statementsOverTheThresholdGoToTheSlowLogWithBindTypes() throws SQLException {
+        SqlLoggingDataSource dataSource = new SqlLoggingDataSource(h2, 0, 0, Long.MAX_VALUE, false);
+        insert(dataSource, 1, "Basmati Rice");
+
+        assertEquals(1, slowEvents.list.size());
+        ILoggingEvent event = slowEvents.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        Map<String, Object> fields = fields(event);
+        assertEquals("INSERT INTO crop (id, product_name) VALUES (?, ?)", fields.get("sql.statement"));
+        assertEquals("[Long, String]", fields.get("sql.binds"));
+        assertTrue((Double) fields.get("sql.elapsed_ms") >= 0);
+        assertTrue(sqlEvents.list.isEmpty());
+    }
+
+    @Test
+    void silencingTheSampledLogKeepsTheSlowLog() throws SQLException {
+        Logger sampled = (Logger) LoggerFactory.getLogger("agrifair.sql");
+        Level before = sampled.getLevel();
+        sampled.setLevel(Level.OFF);
+        try {
+            SqlLoggingDataSource dataSource = new SqlLoggingDataSource(h2, 1.0, 0, Long.MAX_VALUE, false);
+            insert(dataSource, 1, "Basmati Rice");
+        } finally {
+            sampled.setLevel(before);
+        }
+
+        assertEquals(1, slowEvents.list.size());
+        assertTrue(sqlEvents.list.isEmpty());
+    }
+
+    @Test
+    void sampledStatementsCarryBindValuesWhenEnabled() throws SQLException {
+        SqlLoggingDataSource dataSource = new SqlLoggingDataSource(h2, 1.0, Long.MAX_VALUE, Long.MAX_VALUE, true);
+        insert(dataSource, 2, "Durum Wheat");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT product_name FROM crop WHERE id = ?")) {
+            select.setLong(1, 2);
+            try (ResultSet rs = select.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("Durum Wheat", rs.getString(1));
+            }
+        }
+
+        assertTrue(slowEvents.list.isEmpty());
+        List<Map<String, Object>> logged = sqlEvents.list.stream().map(SqlLoggingDataSourceTest::fields).toList();
+        assertEquals(2, logged.size());
+        assertEquals("[2, Durum Wheat]", logged.get(0).get("sql.binds"));
+        assertEquals("[2]", logged.get(1).get("sql.binds"));
+    }
+
+    @Test
+    void batchesAreLoggedOnceWithTheirSize() throws SQLException {
+        SqlLoggingDataSource dataSource = new SqlLoggingDataSource(h2, 0, 0, Long.MAX_VALUE, false);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO crop (id, product_name) VALUES (?, ?)")) {
+            for (long id = 10; id < 13; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Crop " + id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        assertEquals(1, slowEvents.list.size());
+        assertEquals(3, fields(slowEvents.list.get(0)).get("sql.batch"));
+    }
+
+    private static void insert(SqlLoggingDataSource dataSource, long id, String name) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO crop (id, product_name) VALUES (?, ?)")) {
+            insert.setLong(1, id);
+            insert.setString(2, name);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void attach(String name, ListAppender<ILoggingEvent> appender) {
+        Logger logger = (Logger) LoggerFactory.getLogger(name);
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(kv -> kv.key, kv -> kv.value));
+    }
+}
@@ -0,0 +1,271 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderFulfillment;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.OrderFulfillmentRepository;
+import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import com.agri.marketplace.AgriFair.repository.OrderRepository;
+import com.agri.marketplace.AgriFair.repository.RentalRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every read endpoint against an in-memory database seeded with N and then 10N rows
+ * and compares the JDBC statements Hibernate prepared for each request. A count that grows
+ * with the data is an N+1 and fails the build; so does a count above the endpoint's budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("querycount")
+class QueryCountRegressionTest {
+
+    private static final int N = 5;
+    private static final int SCALE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderFulfillmentRepository orderFulfillmentRepository;
+
+    /** Ids the endpoint paths need from a seeded dataset. */
+    private record Fixture(Long ownerId, Long equipmentId) {
+    }
+
+    /** One endpoint under test and the most statements a request may prepare. */
+    private record Endpoint(String name, long budget, Function<Fixture, MockHttpServletRequestBuilder> request) {
+    }
+
+    private static List<Endpoint> endpoints() {
+        return List.of(
+                new Endpoint("GET /api/crops", 2,
+                        f -> get("/api/crops")),
+                new Endpoint("GET /api/crops/trending", 1,
+                        f -> get("/api/crops/trending")),
+                new Endpoint("GET /api/crops/my", 3,
+                        f -> get("/api/crops/my").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/equipments", 2,
+                        f -> get("/api/v1/equipments").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/equipments/available", 2,
+                        f -> get("/api/v1/equipments/available").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/equipments/owner/{id}", 2,
+                        f -> get("/api/v1/equipments/owner/" + f.ownerId()).with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/farmers", 2,
+                        f -> get("/api/v1/farmers").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/rentals", 2,
+                        f -> get("/api/v1/rentals").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/rentals/equipment/{id}", 2,
+                        f -> get("/api/v1/rentals/equipment/" + f.equipmentId()).with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/v1/rentals/my-requests", 4,
+                        f -> get("/api/v1/rentals/my-requests").with(user("farmer1").roles("FARMER"))),
+                new Endpoint("GET /api/v1/rentals/my-equipment", 4,
+                        f -> get("/api/v1/rentals/my-equipment").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/orders/my", 4,
+                        f -> get("/api/orders/my").with(user("buyer").roles("CUSTOMER"))),
+                new Endpoint("GET /api/orders/incoming", 3,
+                        f -> get("/api/orders/incoming").with(user("farmer0").roles("FARMER"))),
+                new Endpoint("GET /api/profile/me", 2,
+                        f -> get("/api/profile/me").with(user("buyer").roles("CUSTOMER")))
+        );
+    }
+
+    @Test
+    void statementCountsStayConstantAsDataGrows() throws Exception {
+        Map<String, Long> small = measure(N);
+        Map<String, Long> large = measure(N * SCALE);
+
+        List<String> failures = new ArrayList<>();
+        StringBuilder report = new StringBuilder(String.format("%nQuery budget report (N=%d vs %dN)%n", N, SCALE));
+        report.append(String.format("%-40s %6s %6s %7s  %s%n", "endpoint", "N", SCALE + "N", "budget", "result"));
+        for (Endpoint endpoint : endpoints()) {
+            long atN = small.get(endpoint.name());
+            long atScale = large.get(endpoint.name());
+            String result = "ok";
+            if (atScale != atN) {
+                result = "N+1";
+                failures.add(endpoint.name() + " grew from " + atN + " to " + atScale + " statements");
+            } else if (atScale > endpoint.budget()) {
+                result = "over budget";
+                failures.add(endpoint.name() + " prepared " + atScale + " statements, budget is " + endpoint.budget());
+            }
+            report.append(String.format("%-40s %6d %6d %7d  %s%n", endpoint.name(), atN, atScale, endpoint.budget(), result));
+        }
+        System.out.println(report);
+
+        if (!failures.isEmpty()) {
+            fail("Query count regressions:\n  " + String.join("\n  ", failures));
+        }
+    }
+
+    private Map<String, Long> measure(int rows) throws Exception {
+        Fixture fixture = seed(rows);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints()) {
+            statistics.clear();
+            mockMvc.perform(endpoint.request().apply(fixture)).andExpect(status().isOk());
+            counts.put(endpoint.name(), statistics.getPrepareStatementCount());
+        }
+        return counts;
+    }
+
+    /**
+     * n farmers, each with a crop and a piece of equipment; n rentals of farmer0's
+     * equipment by different renters; n orders by one buyer, each touching two crops and
+     * so split between two farmers.
+     */
+    private Fixture seed(int n) {
+        return transactionTemplate.execute(status -> {
+            orderFulfillmentRepository.deleteAllInBatch();
+            orderItemRepository.deleteAllInBatch();
+            orderRepository.deleteAllInBatch();
+            rentalRepository.deleteAllInBatch();
+            equipmentRepository.deleteAllInBatch();
+            cropRepository.deleteAllInBatch();
+            farmerRepository.deleteAllInBatch();
+            userRepository.deleteAllInBatch();
+
+            User buyer = userRepository.save(newUser("buyer", "ROLE_CUSTOMER"));
+
+            List<Farmer> farmers = new ArrayList<>();
+            List<Crop> crops = new ArrayList<>();
+            List<Equipment> equipments = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                User user = userRepository.save(newUser("farmer" + i, "ROLE_FARMER"));
+
+                Farmer farmer = new Farmer();
+                farmer.setFirstName("Farmer");
+                farmer.setSecondName(String.valueOf(i));
+                farmer.setEmail(user.getEmail());
+                farmer.setPhoneNo(String.format("+91-9%09d", i));
+                farmer.setUserId(user.getId());
+                farmers.add(farmerRepository.save(farmer));
+
+                Crop crop = new Crop();
+                crop.setProductName("Crop " + i);
+                crop.setDescription("Seeded crop");
+                crop.setPrice(10 + i);
+                crop.setQuantity(1000);
+                crop.setFarmer(user);
+                crops.add(cropRepository.save(crop));
+
+                Equipment equipment = new Equipment();
+                equipment.setType("Tractor");
+                equipment.setModel("Model " + i);
+                equipment.setAvailable(Boolean.TRUE);
+                equipment.setRate(500);
+                equipment.setOwner(farmer);
+                equipments.add(equipmentRepository.save(equipment));
+            }
+
+            for (int i = 0; i < n; i++) {
+                Rental rental = new Rental();
+                rental.setRenter(farmers.get(i));
+                rental.setEquipment(equipments.get(0));
+                rental.setStartDate(LocalDate.now().plusDays(2L * i));
+                rental.setEndDate(LocalDate.now().plusDays(2L * i + 1));
+                rental.setStatus(RentalStatus.PENDING);
+                rental.setTotalCost(1000.0);
+                rentalRepository.save(rental);
+
+                Order order = new Order();
+                order.setCustomer(buyer);
+                order.setStatus(OrderStatus.PENDING);
+                order.setCreatedDate(LocalDateTime.now().minusMinutes(i));
+                order.setTotalAmount(0.0);
+                order = orderRepository.save(order);
+                for (Crop crop : List.of(crops.get(i), crops.get((i + 1) % n))) {
+                    OrderItem item = new OrderItem();
+                    item.setOrder(order);
+                    item.setCrop(crop);
+                    item.setQuantity(1);
+                    item.setPrice(crop.getPrice());
+                    orderItemRepository.save(item);
+
+                    OrderFulfillment fulfillment = new OrderFulfillment();
+                    fulfillment.setOrder(order);
+                    fulfillment.setFarmer(crop.getFarmer());
+                    fulfillment.setStatus(OrderStatus.PENDING);
+                    fulfillment.setSubtotal(crop.getPrice());
+                    fulfillment.setCreatedDate(order.getCreatedDate());
+                    orderFulfillmentRepository.save(fulfillment);
+                }
+            }
+
+            return new Fixture(farmers.get(0).getId(), equipments.get(0).getId());
+        });
+    }
+
+    private static User newUser(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole(role);
+        user.setFullName(username);
+        return user;
+    }
+}
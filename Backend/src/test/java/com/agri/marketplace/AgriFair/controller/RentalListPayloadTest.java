@@ -0,0 +1,157 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.dto.RentalSummaryDto;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.RentalRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import com.agri.marketplace.AgriFair.service.RentalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statements and JSON bytes of an owner's rental list, as the list endpoints served it
+ * before (every Rental entity with its eager renter, equipment and owner) and now (one
+ * page of RentalSummaryDto rows from a single joined select). The same report is
+ * printed for N and 10N rentals.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rentalpayload;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("querycount")
+class RentalListPayloadTest {
+
+    private static final int N = 20;
+    private static final int SCALE = 10;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    /** Statements prepared and JSON bytes written for one list. */
+    private record Measurement(int rows, long statements, long bytes) {
+    }
+
+    @Test
+    void summaryPagesStayOneStatementAndSmallerThanEntityLists() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%nRental list of one owner: entities vs summary page%n"));
+        report.append(String.format("%-8s %-10s %6s %11s %8s %10s%n", "rentals", "shape", "rows", "statements", "bytes", "bytes/row"));
+        for (int rentals : new int[]{N, N * SCALE}) {
+            Long ownerId = seed(rentals);
+            Measurement entities = measure(() -> rentalRepository.findByEquipmentOwnerId(ownerId));
+            Measurement summaries = measure(() -> rentalRepository.findSummariesByOwnerId(ownerId, 0L,
+                    PageRequest.of(0, RentalService.DEFAULT_PAGE_SIZE)));
+            report.append(row(rentals, "entities", entities)).append(row(rentals, "summary", summaries));
+
+            assertEquals(rentals, entities.rows());
+            assertEquals(Math.min(rentals, RentalService.DEFAULT_PAGE_SIZE), summaries.rows());
+            assertEquals(1, summaries.statements());
+            assertTrue(summaries.bytes() / summaries.rows() < entities.bytes() / entities.rows());
+        }
+        System.out.println(report);
+    }
+
+    private Measurement measure(Supplier<List<?>> list) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        // Cold caches: every row's associations come from the database, as on a fresh node
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        List<?> rows = list.get();
+        long bytes = objectMapper.writeValueAsBytes(rows).length;
+        return new Measurement(rows.size(), statistics.getPrepareStatementCount(), bytes);
+    }
+
+    private static String row(int rentals, String shape, Measurement measurement) {
+        return String.format("%-8d %-10s %6d %11d %8d %10d%n", rentals, shape, measurement.rows(),
+                measurement.statements(), measurement.bytes(), measurement.bytes() / measurement.rows());
+    }
+
+    /** n farmers with their users; n rentals of farmer0's tractor, one by each farmer. */
+    private Long seed(int n) {
+        return transactionTemplate.execute(status -> {
+            rentalRepository.deleteAllInBatch();
+            equipmentRepository.deleteAllInBatch();
+            farmerRepository.deleteAllInBatch();
+            userRepository.deleteAllInBatch();
+
+            List<Farmer> farmers = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                User user = new User();
+                user.setUsername("renter" + i);
+                user.setEmail("renter" + i + "@agrifair.test");
+                user.setPassword("{noop}password");
+                user.setRole("ROLE_FARMER");
+                user.setFullName("Renter " + i);
+                user = userRepository.save(user);
+
+                Farmer farmer = new Farmer();
+                farmer.setFirstName("Farmer");
+                farmer.setSecondName(String.valueOf(i));
+                farmer.setEmail(user.getEmail());
+                farmer.setPhoneNo(String.format("+91-9%09d", i));
+                farmer.setCounty("Nashik");
+                farmer.setLocalArea("Village " + i);
+                farmer.setUserId(user.getId());
+                farmers.add(farmerRepository.save(farmer));
+            }
+
+            Equipment tractor = new Equipment();
+            tractor.setType("Tractor");
+            tractor.setModel("Mahindra 575 DI");
+            tractor.setAvailable(Boolean.TRUE);
+            tractor.setRate(500);
+            tractor.setOwner(farmers.get(0));
+            tractor = equipmentRepository.save(tractor);
+
+            for (int i = 0; i < n; i++) {
+                Rental rental = new Rental();
+                rental.setRenter(farmers.get(i));
+                rental.setEquipment(tractor);
+                rental.setStartDate(LocalDate.now().plusDays(2L * i));
+                rental.setEndDate(LocalDate.now().plusDays(2L * i + 1));
+                rental.setStatus(RentalStatus.PENDING);
+                rental.setTotalCost(1000.0);
+                rental.setNotes("Ploughing before the monsoon");
+                rentalRepository.save(rental);
+            }
+            return farmers.get(0).getId();
+        });
+    }
+}
@@ -0,0 +1,207 @@
+package com.agri.marketplace.AgriFair.controller;
+
+import com.agri.marketplace.AgriFair.service.FileStorageService;
+import com.agri.marketplace.AgriFair.service.OpenFileCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UploadControllerTest {
+
+    private static final String HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String IMAGE = HASH + ".jpg";
+    private static final String BODY = "0123456789";
+
+    @TempDir
+    Path uploadDir;
+
+    private OpenFileCache openFileCache;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        openFileCache = new OpenFileCache(16);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UploadController(uploadDir.toString(), openFileCache)).build();
+        write(FileStorageService.relativePathFor(IMAGE), BODY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        openFileCache.clear();
+    }
+
+    @Test
+    void contentAddressedFilesAreImmutableWithTheHashAsETag() throws Exception {
+        mockMvc.perform(get(url(IMAGE)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void otherNamesGetAShortMaxAge() throws Exception {
+        write("legacy-photo.png", BODY);
+
+        mockMvc.perform(get("/uploads/legacy-photo.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void byteRangesArePartialContent() throws Exception {
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=7-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+
+        // An end past the file is clamped to its last byte
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=8-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-9/10"))
+                .andExpect(content().string("89"));
+    }
+
+    @Test
+    void unsatisfiableRangesAre416() throws Exception {
+        for (String range : new String[]{"bytes=10-", "bytes=5-2", "bytes=-0"}) {
+            mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        }
+    }
+
+    @Test
+    void malformedMultiOrStaleRangesSendTheWholeFile() throws Exception {
+        for (String range : new String[]{"bytes=a-b", "items=0-1", "bytes=0-1,4-5", "bytes=3"}) {
+            mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(BODY));
+        }
+
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+        mockMvc.perform(get(url(IMAGE)).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"" + HASH + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        mockMvc.perform(head(url(IMAGE)))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void flatUrlsStillResolveAfterSharding() throws Exception {
+        mockMvc.perform(get("/uploads/" + IMAGE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void traversalHiddenAndMissingFilesAre404() throws Exception {
+        write(".incoming/staged.jpg", BODY);
+
+        mockMvc.perform(get("/uploads/../secret.txt")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/%2e%2e/secret.txt")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/.incoming/staged.jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/missing.jpg")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void largeBodiesAreHandedToSendfileWithoutOpeningTheFile() throws Exception {
+        char[] large = new char[64 * 1024];
+        Arrays.fill(large, 'x');
+        String name = HASH.replace('0', 'f') + ".jpg";
+        Path file = write(FileStorageService.relativePathFor(name), new String(large));
+
+        mockMvc.perform(get(url(name)).requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.RANGE, "bytes=1024-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", file.toString()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 1024L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) large.length))
+                .andExpect(content().string(""));
+
+        // Tomcat opens the file itself: the cached entry holds only its stat()
+        OpenFileCache.Entry entry = openFileCache.acquire(file);
+        try {
+            assertFalse(entry.isOpen());
+        } finally {
+            openFileCache.release(entry);
+        }
+
+        // Without sendfile the body is streamed from the cached channel, which stays open
+        mockMvc.perform(get(url(name)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new String(large)));
+        entry = openFileCache.acquire(file);
+        try {
+            assertTrue(entry.isOpen());
+        } finally {
+            openFileCache.release(entry);
+        }
+    }
+
+    private Path write(String relative, String body) throws IOException {
+        Path path = uploadDir.toAbsolutePath().normalize().resolve(relative);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, body, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    private static String url(String filename) {
+        return "/uploads/" + FileStorageService.relativePathFor(filename);
+    }
+}
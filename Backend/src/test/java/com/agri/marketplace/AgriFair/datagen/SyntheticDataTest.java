@@ -0,0 +1,101 @@
+package com.agri.marketplace.AgriFair.datagen;
+
+import com.agri.marketplace.AgriFair.model.RentalStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the generated rows respect the schema's constraints and the app's own booking
+ * rules on a small dataset, and that a seed always reproduces the same rows.
+ */
+class SyntheticDataTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2025, 1, 1);
+
+    private static SyntheticData data(long seed) {
+        return new SyntheticData(seed, 500, 1000, 5000, 800, 16.7, 3, ANCHOR);
+    }
+
+    @Test
+    void sameSeedProducesSameRows() {
+        SyntheticData first = data(7);
+        SyntheticData second = data(7);
+        for (long id = 1; id <= 200; id++) {
+            assertEquals(first.user(id), second.user(id));
+            assertEquals(first.crop(id), second.crop(id));
+            assertEquals(first.equipment(id), second.equipment(id));
+            assertEquals(first.order(id), second.order(id));
+        }
+        assertNotEquals(first.crop(1), data(8).crop(1));
+    }
+
+    @Test
+    void phoneNumbersAndEmailsAreUniqueAndValid() {
+        SyntheticData data = data(42);
+        Set<String> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (long id = 1; id <= 500; id++) {
+            SyntheticData.FarmerRow farmer = data.farmer(id);
+            assertTrue(phones.add(farmer.phoneNo()), farmer.phoneNo());
+            assertTrue(emails.add(farmer.email()), farmer.email());
+            assertTrue(farmer.phoneNo().matches("^[+]?[0-9\\-]{7,15}$"), farmer.phoneNo());
+            assertEquals(farmer.email(), data.user(id).email());
+        }
+        for (long id = 501; id <= data.users(); id++) {
+            assertTrue(emails.add(data.user(id).email()));
+        }
+    }
+
+    @Test
+    void onlyCancelledRentalsOverlap() {
+        SyntheticData data = data(42);
+        int cancelled = 0;
+        for (long id = 1; id <= 800; id++) {
+            SyntheticData.EquipmentRow equipment = data.equipment(id);
+            assertEquals(data.rentalCount(id), equipment.rentals().size());
+
+            List<SyntheticData.RentalRow> live = equipment.rentals().stream()
+                    .filter(r -> r.status() != RentalStatus.CANCELLED)
+                    .sorted(Comparator.comparing(SyntheticData.RentalRow::startDate))
+                    .toList();
+            for (int i = 1; i < live.size(); i++) {
+                assertTrue(live.get(i).startDate().isAfter(live.get(i - 1).endDate()),
+                        "equipment " + id + " has overlapping live rentals");
+            }
+            boolean booked = live.stream().anyMatch(r -> r.status() == RentalStatus.APPROVED
+                    || r.status() == RentalStatus.PAID || r.status() == RentalStatus.ACTIVE);
+            assertEquals(!booked, equipment.available());
+            for (SyntheticData.RentalRow rental : equipment.rentals()) {
+                assertNotEquals(equipment.ownerId(), rental.renterId());
+                if (rental.status() == RentalStatus.CANCELLED) {
+                    cancelled++;
+                }
+            }
+        }
+        assertTrue(cancelled > 0);
+    }
+
+    @Test
+    void orderItemsUseTheCropsPrice() {
+        SyntheticData data = data(42);
+        for (long id = 1; id <= 500; id++) {
+            SyntheticData.OrderRow order = data.order(id);
+            assertEquals(data.itemCount(id), order.items().size());
+            double total = 0;
+            for (SyntheticData.OrderItemRow item : order.items()) {
+                assertEquals(data.crop(item.cropId()).price(), item.price());
+                total += item.price() * item.quantity();
+            }
+            assertEquals(Math.round(total * 100) / 100.0, order.totalAmount());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.agri.marketplace.AgriFair.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static com.agri.marketplace.AgriFair.journal.JournalEvent.Subject.ORDER;
+import static com.agri.marketplace.AgriFair.journal.JournalEvent.Subject.RENTAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+    private static final int SEGMENT_BYTES = 8192;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void timelineReturnsOneEntitysEventsInOrder() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            journal.append(ORDER, 7, null, "PENDING", "alice", 1000);
+            journal.append(ORDER, 8, null, "PENDING", "bob", 1001);
+            journal.append(RENTAL, 7, null, "PENDING", "carol", 1002);
+            journal.append(ORDER, 7, "PENDING", "CONFIRMED", "farmer", 1003);
+
+            List<JournalEvent> timeline = journal.events(ORDER, 7);
+
+            assertEquals(2, timeline.size());
+            assertEquals(new JournalEvent(1, 1000, ORDER, 7, null, "PENDING", "alice"), timeline.get(0));
+            assertEquals(new JournalEvent(4, 1003, ORDER, 7, "PENDING", "CONFIRMED", "farmer"), timeline.get(1));
+            assertEquals(List.of(), journal.events(ORDER, 9));
+        }
+    }
+
+    @Test
+    void rollsToANewSegmentWhenFull() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(ORDER, i % 10, "PENDING", "CONFIRMED", "farmer", i);
+            }
+
+            assertTrue(journal.segmentCount() > 1);
+            assertEquals(50, journal.events(ORDER, 3).size());
+            List<Long> sequences = new ArrayList<>();
+            journal.replay(1, event -> sequences.add(event.sequence()));
+            assertEquals(500, sequences.size());
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i + 1, sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void replayStartsAtTheGivenSequence() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            for (int i = 0; i < 300; i++) {
+                journal.append(RENTAL, i, null, "PENDING", "farmer", i);
+            }
+
+            List<JournalEvent> tail = new ArrayList<>();
+            journal.replay(251, tail::add);
+
+            assertEquals(50, tail.size());
+            assertEquals(251, tail.get(0).sequence());
+            assertEquals(250, tail.get(0).entityId());
+        }
+    }
+
+    @Test
+    void dropsTheOldestSegmentsPastTheRetention() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append(ORDER, i % 10, "PENDING", "CONFIRMED", "farmer", i);
+            }
+            // Entity 1000 only appears in the dropped segments
+            journal.append(RENTAL, 1000, null, "PENDING", "renter", 0);
+            for (int i = 0; i < 1000; i++) {
+                journal.append(ORDER, i % 10, "CONFIRMED", "PACKED", "farmer", i);
+            }
+
+            assertEquals(2, journal.segmentCount());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(2, files.filter(p -> p.getFileName().toString().startsWith("segment-")).count());
+            }
+            assertEquals(List.of(), journal.events(RENTAL, 1000));
+            List<JournalEvent> timeline = journal.events(ORDER, 3);
+            assertTrue(timeline.get(0).sequence() >= journal.firstSequence());
+            List<Long> sequences = new ArrayList<>();
+            journal.replay(1, event -> sequences.add(event.sequence()));
+            assertEquals(journal.firstSequence(), sequences.get(0));
+            assertEquals(2001, sequences.get(sequences.size() - 1));
+        }
+
+        // Lowering the retention deletes the extra segments on open
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES, 1)) {
+            assertEquals(1, journal.segmentCount());
+            assertEquals(2002, journal.nextSequence());
+            assertEquals(2002, journal.append(ORDER, 3, "PACKED", "SHIPPED", "farmer", 1));
+        }
+    }
+
+    @Test
+    void reopeningRebuildsTheIndexAndContinuesTheSequence() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            for (int i = 0; i < 200; i++) {
+                journal.append(ORDER, 1, "PENDING", "CONFIRMED", "farmer", i);
+            }
+        }
+
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            assertEquals(201, journal.nextSequence());
+            assertEquals(200, journal.events(ORDER, 1).size());
+            assertEquals(201, journal.append(ORDER, 1, "CONFIRMED", "PACKED", "farmer", 999));
+            assertEquals(201, journal.events(ORDER, 1).size());
+        }
+    }
+
+    @Test
+    void discardsATornRecordAtTheEnd() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            journal.append(ORDER, 1, null, "PENDING", "alice", 1);
+            journal.append(ORDER, 1, "PENDING", "CONFIRMED", "farmer", 2);
+        }
+        // Flip a byte inside the second record's payload, as a crash mid-write would leave it
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            int second = 8 + length.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), second + 8 + 20);
+        }
+
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            List<JournalEvent> timeline = journal.events(ORDER, 1);
+            assertEquals(1, timeline.size());
+            assertNull(timeline.get(0).fromStatus());
+            // The torn record's sequence is reused
+            assertEquals(2, journal.append(ORDER, 1, "PENDING", "CANCELLED", "alice", 3));
+        }
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_BYTES)) {
+            assertEquals("CANCELLED", journal.events(ORDER, 1).get(1).toStatus());
+        }
+    }
+
+    @Test
+    void concurrentWritersGetDistinctSequencesAndAllLand() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (EventJournal journal = new EventJournal(dir, 64 * 1024)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long entity = t;
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            journal.append(ORDER, entity, null, "STEP-" + i, "writer", i);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            assertEquals(threads * perThread + 1, journal.nextSequence());
+            for (int t = 0; t < threads; t++) {
+                List<JournalEvent> timeline = journal.events(ORDER, t);
+                assertEquals(perThread, timeline.size());
+                for (int i = 0; i < perThread; i++) {
+                    assertEquals("STEP-" + i, timeline.get(i).toStatus());
+                }
+            }
+        }
+
+        try (EventJournal journal = new EventJournal(dir, 64 * 1024)) {
+            assertEquals(threads * perThread + 1, journal.nextSequence());
+        }
+    }
+
+    @Test
+    void refusesADirectoryAlreadyInUse() throws IOException {
+        try (EventJournal ignored = new EventJournal(dir, SEGMENT_BYTES)) {
+            assertThrows(Exception.class, () -> new EventJournal(dir, SEGMENT_BYTES));
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("segment-")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.agri.marketplace.AgriFair.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTest {
+
+    @Test
+    void ordersMoveForwardOneStepAtATime() {
+        assertTrue(OrderStatus.PENDING.canMoveTo(OrderStatus.CONFIRMED));
+        assertTrue(OrderStatus.CONFIRMED.canMoveTo(OrderStatus.PACKED));
+        assertTrue(OrderStatus.PACKED.canMoveTo(OrderStatus.SHIPPED));
+        assertTrue(OrderStatus.SHIPPED.canMoveTo(OrderStatus.DELIVERED));
+        assertTrue(OrderStatus.DELIVERED.canMoveTo(OrderStatus.COMPLETED));
+
+        assertFalse(OrderStatus.PENDING.canMoveTo(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.SHIPPED.canMoveTo(OrderStatus.PACKED));
+        assertFalse(OrderStatus.PENDING.canMoveTo(OrderStatus.PENDING));
+    }
+
+    @Test
+    void cancellingIsPossibleOnlyBeforeShipping() {
+        Set<OrderStatus> cancellable = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.canMoveTo(OrderStatus.CANCELLED)) {
+                cancellable.add(status);
+            }
+        }
+        assertEquals(EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PACKED), cancellable);
+    }
+
+    @Test
+    void finalStatusesGoNowhere() {
+        assertTrue(OrderStatus.COMPLETED.nextStatuses().isEmpty());
+        assertTrue(OrderStatus.CANCELLED.nextStatuses().isEmpty());
+    }
+}
@@ -0,0 +1,210 @@
+package com.agri.marketplace.AgriFair.model;
+
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads through the second-level cache after every kind of write the application
+ * makes (entity updates, bulk JPQL updates, inserts and deletes) and checks that
+ * no read ever returns a value older than the last committed write.
+ */
+@SpringBootTest
+@ActiveProfiles("querycount")
+class SecondLevelCacheTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void repeatedLookupIsServedFromCache() {
+        Equipment equipment = newEquipment(newFarmer());
+
+        inTransaction(() -> equipmentRepository.findById(equipment.getId()));
+        statistics.clear();
+        Equipment cached = inTransaction(() -> equipmentRepository.findById(equipment.getId()).orElseThrow());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getCacheRegionStatistics("equipment").getHitCount());
+        assertEquals(equipment.getOwner().getId(), cached.getOwner().getId());
+    }
+
+    @Test
+    void entityUpdateReplacesCachedState() {
+        Equipment equipment = newEquipment(newFarmer());
+        inTransaction(() -> equipmentRepository.findById(equipment.getId()));
+
+        inTransaction(() -> {
+            Equipment managed = equipmentRepository.findById(equipment.getId()).orElseThrow();
+            managed.setRate(900);
+            managed.setAvailable(Boolean.FALSE);
+            return managed;
+        });
+
+        Equipment reread = inTransaction(() -> equipmentRepository.findById(equipment.getId()).orElseThrow());
+        assertEquals(900, reread.getRate());
+        assertFalse(reread.getAvailable());
+    }
+
+    @Test
+    void bulkUpdateEvictsRegion() {
+        Equipment equipment = newEquipment(newFarmer());
+        String oldUrl = "/uploads/old-" + equipment.getId() + ".jpg";
+        String newUrl = "/uploads/new-" + equipment.getId() + ".jpg";
+        inTransaction(() -> {
+            Equipment managed = equipmentRepository.findById(equipment.getId()).orElseThrow();
+            managed.setImageUrl(oldUrl);
+            return managed;
+        });
+        inTransaction(() -> equipmentRepository.findById(equipment.getId()));
+
+        // JPQL updates bypass the session, so Hibernate has to drop the whole region
+        inTransaction(() -> equipmentRepository.replaceImageUrl(oldUrl, newUrl));
+        statistics.clear();
+
+        Equipment reread = inTransaction(() -> equipmentRepository.findById(equipment.getId()).orElseThrow());
+        assertEquals(newUrl, reread.getImageUrl());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cachedQueryResultSeesNewRows() {
+        Farmer farmer = newFarmer();
+        newEquipment(farmer);
+
+        inTransaction(() -> equipmentRepository.findByAvailable(Boolean.TRUE));
+        statistics.clear();
+        inTransaction(() -> equipmentRepository.findByAvailable(Boolean.TRUE));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        Equipment added = newEquipment(farmer);
+        List<Equipment> available = inTransaction(() -> equipmentRepository.findByAvailable(Boolean.TRUE));
+        assertTrue(available.stream().anyMatch(e -> e.getId().equals(added.getId())));
+    }
+
+    @Test
+    void cachedLookupByEmailFollowsFarmerChanges() {
+        Farmer farmer = newFarmer();
+        inTransaction(() -> farmerRepository.findByEmail(farmer.getEmail()));
+
+        inTransaction(() -> {
+            Farmer managed = farmerRepository.findById(farmer.getId()).orElseThrow();
+            managed.setCounty("Nakuru");
+            return managed;
+        });
+
+        Farmer reread = inTransaction(() -> farmerRepository.findByEmail(farmer.getEmail()).orElseThrow());
+        assertEquals("Nakuru", reread.getCounty());
+    }
+
+    @Test
+    void stockChangeAndDeleteAreVisible() {
+        User seller = newUser();
+        Crop crop = inTransaction(() -> {
+            Crop c = new Crop();
+            c.setProductName("Maize");
+            c.setPrice(40);
+            c.setQuantity(100);
+            c.setFarmer(seller);
+            return cropRepository.save(c);
+        });
+        inTransaction(() -> cropRepository.findById(crop.getId()));
+
+        inTransaction(() -> {
+            Crop managed = cropRepository.findById(crop.getId()).orElseThrow();
+            managed.setQuantity(managed.getQuantity() - 30);
+            return managed;
+        });
+        assertEquals(70, inTransaction(() -> cropRepository.findById(crop.getId()).orElseThrow()).getQuantity());
+
+        inTransaction(() -> {
+            cropRepository.deleteById(crop.getId());
+            return null;
+        });
+        assertTrue(inTransaction(() -> cropRepository.findById(crop.getId())).isEmpty());
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private User newUser() {
+        int n = SEQUENCE.incrementAndGet();
+        return inTransaction(() -> {
+            User user = new User();
+            user.setUsername("cache" + n + "-" + System.nanoTime());
+            user.setEmail(user.getUsername() + "@agrifair.test");
+            user.setPassword("{noop}password");
+            user.setRole("ROLE_FARMER");
+            user.setFullName(user.getUsername());
+            return userRepository.save(user);
+        });
+    }
+
+    private Farmer newFarmer() {
+        User user = newUser();
+        return inTransaction(() -> {
+            Farmer farmer = new Farmer();
+            farmer.setFirstName("Cache");
+            farmer.setEmail(user.getEmail());
+            farmer.setPhoneNo(String.format("+91-8%09d", user.getId()));
+            farmer.setUserId(user.getId());
+            return farmerRepository.save(farmer);
+        });
+    }
+
+    private Equipment newEquipment(Farmer owner) {
+        return inTransaction(() -> {
+            Equipment equipment = new Equipment();
+            equipment.setType("Tractor");
+            equipment.setModel("Cache test");
+            equipment.setAvailable(Boolean.TRUE);
+            equipment.setRate(500);
+            equipment.setOwner(owner);
+            return equipmentRepository.save(equipment);
+        });
+    }
+}
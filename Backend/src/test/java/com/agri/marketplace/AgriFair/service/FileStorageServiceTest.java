@@ -0,0 +1,300 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.StoredFile;
+import com.agri.marketplace.AgriFair.repository.StoredFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Injects failures at each step of the two-phase upload flow and checks that the store
+ * never ends up with a referenced file missing from disk or an unreferenced file left on it.
+ */
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    // Stand-in for the stored_files table; restored from a snapshot when a transaction rolls back
+    private final Map<String, StoredFile> rows = new HashMap<>();
+
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        when(repository.existsById(anyString())).thenAnswer(inv -> rows.containsKey(inv.<String>getArgument(0)));
+        when(repository.retain(anyString(), anyLong(), any())).thenAnswer(inv -> {
+            StoredFile existing = rows.get(inv.<String>getArgument(0));
+            if (existing != null) {
+                existing.setRefCount(existing.getRefCount() + 1);
+                existing.setRetainedAt(inv.getArgument(2));
+                return 2;
+            }
+            rows.put(inv.getArgument(0), new StoredFile(inv.getArgument(0), inv.getArgument(1), 1, inv.getArgument(2), inv.getArgument(2)));
+            return 1;
+        });
+        when(repository.releaseShared(anyString())).thenAnswer(inv -> {
+            StoredFile existing = rows.get(inv.<String>getArgument(0));
+            if (existing == null || existing.getRefCount() <= 1) {
+                return 0;
+            }
+            existing.setRefCount(existing.getRefCount() - 1);
+            return 1;
+        });
+        when(repository.deleteByFilename(anyString())).thenAnswer(inv -> rows.remove(inv.<String>getArgument(0)) == null ? 0 : 1);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new FileStorageService();
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "storedFileRepository", repository);
+        ReflectionTestUtils.setField(service, "imageDerivativeService", mock(ImageDerivativeService.class));
+        ReflectionTestUtils.setField(service, "openFileCache", new OpenFileCache(16));
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void committedUploadIsPromotedAndNothingStaysStaged() throws IOException {
+        FileStorageService.StagedFile staged = service.stageFile(upload("wheat"));
+        String url;
+        try {
+            url = inTransaction(true, () -> service.commitStaged(staged));
+        } finally {
+            service.discard(staged);
+        }
+
+        assertEquals(List.of(url), storedUrls());
+        assertTrue(stagingFiles().isEmpty());
+        assertEquals(1, rows.get(staged.filename()).getRefCount());
+    }
+
+    @Test
+    void rollbackAfterCommitStagedLeavesNoFile() throws IOException {
+        FileStorageService.StagedFile staged = service.stageFile(upload("rice"));
+        try {
+            assertThrows(IllegalStateException.class, () -> inTransaction(false, () -> {
+                service.commitStaged(staged);
+                throw new IllegalStateException("row insert failed");
+            }));
+        } finally {
+            service.discard(staged);
+        }
+
+        assertTrue(storedUrls().isEmpty());
+        assertTrue(stagingFiles().isEmpty());
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void failedMoveFailsTheUploadAndLeavesNoReference() throws IOException {
+        FileStorageService.StagedFile staged = service.stageFile(upload("barley"));
+        // A plain file where the shard directory should go makes the move fail
+        Path shard = uploadDir.resolve(FileStorageService.relativePathFor(staged.filename())).getParent().getParent();
+        Files.writeString(shard, "not a directory");
+        try {
+            assertThrows(UncheckedIOException.class, () -> inTransaction(true, () -> service.commitStaged(staged)));
+        } finally {
+            service.discard(staged);
+        }
+
+        assertTrue(rows.isEmpty());
+        assertTrue(stagingFiles().isEmpty());
+    }
+
+    @Test
+    void rollbackKeepsAFileAnotherUploadCommitted() throws IOException {
+        FileStorageService.StagedFile first = service.stageFile(upload("oats"));
+        FileStorageService.StagedFile second = service.stageFile(upload("oats"));
+        try {
+            // first moves the file into place, second commits a reference to it, then first rolls back
+            TransactionSynchronizationManager.initSynchronization();
+            String url = service.commitStaged(first);
+            List<TransactionSynchronization> firstSynchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+
+            inTransaction(true, () -> service.commitStaged(second));
+            rows.get(first.filename()).setRefCount(1);
+            firstSynchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            assertEquals(List.of(url), storedUrls());
+        } finally {
+            service.discard(first);
+            service.discard(second);
+        }
+        assertTrue(stagingFiles().isEmpty());
+    }
+
+    @Test
+    void failureBeforeTransactionLeavesNoFile() throws IOException {
+        FileStorageService.StagedFile staged = service.stageFile(upload("maize"));
+        // e.g. the owner lookup throws before the transaction ever starts
+        service.discard(staged);
+
+        assertTrue(storedUrls().isEmpty());
+        assertTrue(stagingFiles().isEmpty());
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void replacedImageSurvivesRollbackAndGoesAfterCommit() throws IOException {
+        String oldUrl = service.storeFile(upload("old picture"));
+        String oldFile = oldUrl.substring(oldUrl.lastIndexOf('/') + 1);
+
+        FileStorageService.StagedFile first = service.stageFile(upload("new picture"));
+        try {
+            assertThrows(IllegalStateException.class, () -> inTransaction(false, () -> {
+                service.commitStaged(first);
+                service.deleteFile(oldUrl);
+                throw new IllegalStateException("user update failed");
+            }));
+        } finally {
+            service.discard(first);
+        }
+        assertEquals(List.of(oldUrl), storedUrls());
+        assertEquals(1, rows.get(oldFile).getRefCount());
+
+        FileStorageService.StagedFile second = service.stageFile(upload("new picture"));
+        String newUrl;
+        try {
+            newUrl = inTransaction(true, () -> {
+                String url = service.commitStaged(second);
+                service.deleteFile(oldUrl);
+                return url;
+            });
+        } finally {
+            service.discard(second);
+        }
+        assertEquals(List.of(newUrl), storedUrls());
+        assertFalse(rows.containsKey(oldFile));
+        assertTrue(stagingFiles().isEmpty());
+    }
+
+    @Test
+    void reuploadingSameImageKeepsTheSharedFile() throws IOException {
+        String url = service.storeFile(upload("same bytes"));
+
+        FileStorageService.StagedFile staged = service.stageFile(upload("same bytes"));
+        try {
+            inTransaction(true, () -> {
+                String newUrl = service.commitStaged(staged);
+                service.deleteFile(url);
+                return newUrl;
+            });
+        } finally {
+            service.discard(staged);
+        }
+
+        assertEquals(List.of(url), storedUrls());
+        assertTrue(stagingFiles().isEmpty());
+    }
+
+    @Test
+    void fileIsRemovedOnlyWhenLastReferenceIsReleased() throws IOException {
+        String url = service.storeFile(upload("shared"));
+        assertEquals(url, service.storeFile(upload("shared")));
+
+        service.deleteFile(url);
+        assertEquals(List.of(url), storedUrls());
+
+        service.deleteFile(url);
+        assertTrue(storedUrls().isEmpty());
+        assertTrue(rows.isEmpty());
+    }
+
+    /** Run work as one transaction, firing the synchronizations the way the transaction manager would. */
+    private <T> T inTransaction(boolean commit, Supplier<T> work) {
+        Map<String, StoredFile> snapshot = new HashMap<>();
+        rows.forEach((name, row) -> snapshot.put(name,
+                new StoredFile(row.getFilename(), row.getSize(), row.getRefCount(), row.getCreatedAt(), row.getRetainedAt())));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                rollback(snapshot);
+                throw e;
+            }
+            if (!commit) {
+                rollback(snapshot);
+                return result;
+            }
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void rollback(Map<String, StoredFile> snapshot) {
+        rows.clear();
+        rows.putAll(snapshot);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private MockMultipartFile upload(String content) {
+        return new MockMultipartFile("image", "photo.jpg", "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> storedUrls() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(p -> !p.startsWith(uploadDir.resolve(FileStorageService.INCOMING_DIR)))
+                    .map(p -> FileStorageService.URL_PREFIX + uploadDir.relativize(p).toString().replace('\\', '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<Path> stagingFiles() throws IOException {
+        Path incoming = uploadDir.resolve(FileStorageService.INCOMING_DIR);
+        if (!Files.isDirectory(incoming)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(incoming)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridTest {
+
+    @Test
+    void returnsPointsWithinTheRadiusNearestFirst() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(1L, 12.9716, 77.5946);   // Bengaluru
+        grid.put(2L, 13.0827, 80.2707);   // Chennai, ~290 km away
+        grid.put(3L, 12.9352, 77.6245);   // Koramangala, ~5 km away
+        grid.put(4L, 12.2958, 76.6394);   // Mysuru, ~125 km away
+
+        Map<Long, Double> near = grid.within(12.9716, 77.5946, 150);
+
+        assertEquals(List.of(1L, 3L, 4L), List.copyOf(near.keySet()));
+        assertEquals(0, near.get(1L), 1e-9);
+        assertEquals(5.2, near.get(3L), 0.5);
+        assertEquals(128, near.get(4L), 5);
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        GeoGrid grid = new GeoGrid(0.1);
+        Random random = new Random(7);
+        double[][] points = new double[5_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29};
+            grid.put((long) i, points[i][0], points[i][1]);
+        }
+        for (int q = 0; q < 50; q++) {
+            double lat = 8 + random.nextDouble() * 27;
+            double lng = 68 + random.nextDouble() * 29;
+            double radius = 5 + random.nextDouble() * 200;
+            Map<Long, Double> expected = new TreeMap<>();
+            for (int i = 0; i < points.length; i++) {
+                double distance = GeoGrid.distanceKm(lat, lng, points[i][0], points[i][1]);
+                if (distance <= radius) {
+                    expected.put((long) i, distance);
+                }
+            }
+            assertEquals(expected, new TreeMap<>(grid.within(lat, lng, radius)));
+        }
+    }
+
+    @Test
+    void nearestMatchesTheFirstHitsOfABruteForceScan() {
+        GeoGrid grid = new GeoGrid(0.1);
+        Random random = new Random(11);
+        double[][] points = new double[20_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29};
+            grid.put((long) i, points[i][0], points[i][1]);
+        }
+        for (int q = 0; q < 50; q++) {
+            double lat = 8 + random.nextDouble() * 27;
+            double lng = 68 + random.nextDouble() * 29;
+            double radius = 5 + random.nextDouble() * 495;
+            int limit = 1 + random.nextInt(300);
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < points.length; i++) {
+                if (GeoGrid.distanceKm(lat, lng, points[i][0], points[i][1]) <= radius) {
+                    expected.add((long) i);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(id -> GeoGrid.distanceKm(lat, lng, points[id.intValue()][0], points[id.intValue()][1])));
+
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())),
+                    List.copyOf(grid.nearest(lat, lng, radius, limit).keySet()));
+        }
+    }
+
+    @Test
+    void nearestNearThePoleAndAcrossTheAntimeridian() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(1L, 89.9, 10);
+        grid.put(2L, 89.9, -170);
+        grid.put(3L, 89.0, 10);
+        grid.put(4L, -17.0, -179.95);
+        grid.put(5L, -17.0, 179.5);
+
+        assertEquals(List.of(1L, 2L), List.copyOf(grid.nearest(89.95, 10, 200, 2).keySet()));
+        assertEquals(List.of(4L), List.copyOf(grid.nearest(-17.0, 179.99, 100, 1).keySet()));
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(1L, -17.0, 179.95);
+        grid.put(2L, -17.0, -179.95);
+
+        Map<Long, Double> near = grid.within(-17.0, 179.99, 50);
+
+        assertEquals(2, near.size());
+        assertTrue(near.get(2L) < 10);
+    }
+
+    @Test
+    void movingAPointLeavesItsOldCell() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(1L, 28.6139, 77.2090);
+        grid.put(1L, 19.0760, 72.8777);
+
+        assertTrue(grid.within(28.6139, 77.2090, 10).isEmpty());
+        assertEquals(List.of(1L), List.copyOf(grid.within(19.0760, 72.8777, 10).keySet()));
+        assertEquals(1, grid.size());
+
+        grid.remove(1L);
+        assertTrue(grid.within(19.0760, 72.8777, 10).isEmpty());
+        assertEquals(0, grid.size());
+    }
+}
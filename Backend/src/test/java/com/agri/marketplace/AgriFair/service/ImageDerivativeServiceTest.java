@@ -0,0 +1,162 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageDerivativeServiceTest {
+
+    private static final String IMAGE = "abcd0001.png";
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageDerivativeService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void processedImageHasAllRenditionUrls() throws Exception {
+        service = newService(60_000);
+        writeImage(IMAGE);
+
+        service.submit(IMAGE);
+        awaitProcessed(1);
+
+        Map<String, String> urls = service.renditionUrls(url(IMAGE));
+        assertEquals(List.of("full", "medium", "thumbnail"), List.copyOf(urls.keySet()));
+        assertEquals("/uploads/ab/cd/abcd0001_thumb.jpg", urls.get("thumbnail"));
+        assertTrue(service.hasRenditions(IMAGE));
+    }
+
+    @Test
+    void missingRenditionsAreRememberedUntilTheTtl() throws Exception {
+        service = newService(60_000);
+        writeImage(IMAGE);
+        assertTrue(service.renditionUrls(url(IMAGE)).isEmpty());
+
+        // Written behind the service's back, e.g. by another node: still a cached miss
+        writeRenditionsByHand(IMAGE);
+        assertTrue(service.renditionUrls(url(IMAGE)).isEmpty());
+
+        service.shutdown();
+        service = newService(0);
+        assertEquals(3, service.renditionUrls(url(IMAGE)).size());
+    }
+
+    @Test
+    void renditionsWrittenHereClearTheCachedMiss() throws Exception {
+        service = newService(60_000);
+        writeImage(IMAGE);
+        assertTrue(service.renditionUrls(url(IMAGE)).isEmpty());
+
+        service.submit(IMAGE);
+        awaitProcessed(1);
+
+        assertEquals(3, service.renditionUrls(url(IMAGE)).size());
+    }
+
+    @Test
+    void submitInsideATransactionWaitsForTheCommit() throws Exception {
+        service = newService(60_000);
+        writeImage(IMAGE);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.submit(IMAGE);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(0, service.queueDepth());
+        assertEquals(0L, service.stats().get("processed"));
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        awaitProcessed(1);
+        assertTrue(service.hasRenditions(IMAGE));
+    }
+
+    @Test
+    void submitInsideARolledBackTransactionDoesNothing() throws Exception {
+        service = newService(60_000);
+        writeImage(IMAGE);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.submit(IMAGE);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        Thread.sleep(200);
+        assertEquals(0L, service.stats().get("processed"));
+        assertFalse(service.hasRenditions(IMAGE));
+    }
+
+    @Test
+    void backfillQueuesOnlyImagesMissingRenditions() throws Exception {
+        service = newService(60_000);
+        writeImage("abcd0002.png");
+        writeImage("abcd0003.jpg");
+        service.submit("abcd0002.png");
+        awaitProcessed(1);
+        // Not an image, and an image still in the flat layout
+        Files.writeString(uploadDir.resolve(FileStorageService.relativePathFor("abcd0004.pdf")), "pdf");
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", uploadDir.resolve("abcd0005.png").toFile());
+
+        RenditionBackfill backfill = new RenditionBackfill(uploadDir.toString(), true, service);
+        assertEquals(1, backfill.backfill());
+        awaitProcessed(2);
+        assertTrue(service.hasRenditions("abcd0003.jpg"));
+
+        assertEquals(0, backfill.backfill());
+    }
+
+    private ImageDerivativeService newService(long missTtlMillis) {
+        return new ImageDerivativeService(uploadDir.toString(), 1, 4, missTtlMillis, new OpenFileCache(16));
+    }
+
+    private void writeImage(String filename) throws IOException {
+        Path path = uploadDir.resolve(FileStorageService.relativePathFor(filename));
+        Files.createDirectories(path.getParent());
+        String format = filename.endsWith(".png") ? "png" : "jpg";
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), format, path.toFile());
+    }
+
+    private void writeRenditionsByHand(String filename) throws IOException {
+        for (ImageDerivativeService.Rendition rendition : ImageDerivativeService.Rendition.values()) {
+            String name = ImageDerivativeService.renditionName(filename, rendition);
+            Files.writeString(uploadDir.resolve(FileStorageService.relativePathFor(name)), "jpeg");
+        }
+    }
+
+    private void awaitProcessed(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((long) service.stats().get("processed") < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, service.stats().get("processed"));
+    }
+
+    private static String url(String filename) {
+        return FileStorageService.URL_PREFIX + FileStorageService.relativePathFor(filename);
+    }
+}
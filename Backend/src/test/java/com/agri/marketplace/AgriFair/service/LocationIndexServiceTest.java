@@ -0,0 +1,124 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocationIndexServiceTest {
+
+    private FarmerRepository farmerRepository;
+    private UserRepository userRepository;
+    private LocationIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        farmerRepository = mock(FarmerRepository.class);
+        userRepository = mock(UserRepository.class);
+        index = new LocationIndexService(farmerRepository, userRepository, 0.1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rejectsNonFiniteAndOutOfRangeCoordinates() {
+        for (double[] bad : new double[][]{
+                {Double.NaN, 77}, {12, Double.NaN}, {Double.POSITIVE_INFINITY, 77},
+                {12, Double.NEGATIVE_INFINITY}, {91, 77}, {12, -181}}) {
+            assertThrows(IllegalArgumentException.class, () -> LocationIndexService.validateCoordinates(bad[0], bad[1]));
+            assertThrows(IllegalArgumentException.class, () -> index.findCropSellersNear(bad[0], bad[1], 10));
+        }
+        assertThrows(IllegalArgumentException.class, () -> LocationIndexService.validateCoordinates(12.0, null));
+        assertThrows(IllegalArgumentException.class, () -> index.findEquipmentOwnersNear(12, 77, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> index.findEquipmentOwnersNear(12, 77, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.findEquipmentOwnersNear(12, 77, 501));
+
+        LocationIndexService.validateCoordinates(null, null);
+        LocationIndexService.validateCoordinates(-90.0, 180.0);
+    }
+
+    @Test
+    void profileUpdatesShowOnlyOnceTheyCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.indexFarmer(farmer(1L, 12.97, 77.59));
+        assertTrue(index.findEquipmentOwnersNear(12.97, 77.59, 10).isEmpty());
+        commit();
+        assertEquals(List.of(1L), List.copyOf(index.findEquipmentOwnersNear(12.97, 77.59, 10).keySet()));
+
+        // A move that rolls back leaves the committed location in place
+        TransactionSynchronizationManager.initSynchronization();
+        index.indexFarmer(farmer(1L, 19.07, 72.87));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(List.of(1L), List.copyOf(index.findEquipmentOwnersNear(12.97, 77.59, 10).keySet()));
+        assertTrue(index.findEquipmentOwnersNear(19.07, 72.87, 10).isEmpty());
+    }
+
+    @Test
+    void onlyFarmersAreIndexedAsCropSellers() {
+        index.indexUser(user(1L, "ROLE_FARMER", 12.97, 77.59));
+        index.indexUser(user(2L, "ROLE_CUSTOMER", 12.97, 77.59));
+        assertEquals(List.of(1L), List.copyOf(index.findCropSellersNear(12.97, 77.59, 10).keySet()));
+
+        // Clearing the location takes the seller out
+        index.indexUser(user(1L, "ROLE_FARMER", null, null));
+        assertTrue(index.findCropSellersNear(12.97, 77.59, 10).isEmpty());
+    }
+
+    @Test
+    void rebuildLoadsLocatedRowsAndRefreshDropsDeletedOnes() {
+        when(farmerRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()).thenReturn(List.of(farmer(5L, 28.61, 77.21)));
+        when(userRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull())
+                .thenReturn(List.of(user(6L, "ROLE_FARMER", 28.61, 77.21)));
+        index.rebuild();
+        assertEquals(List.of(5L), List.copyOf(index.findEquipmentOwnersNear(28.61, 77.21, 5).keySet()));
+        assertEquals(List.of(6L), List.copyOf(index.findCropSellersNear(28.61, 77.21, 5).keySet()));
+
+        when(farmerRepository.findById(5L)).thenReturn(Optional.empty());
+        index.refreshFarmer(5L);
+        assertTrue(index.findEquipmentOwnersNear(28.61, 77.21, 5).isEmpty());
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static Farmer farmer(Long id, Double lat, Double lng) {
+        Farmer farmer = new Farmer();
+        farmer.setId(id);
+        farmer.setLatitude(lat);
+        farmer.setLongitude(lng);
+        return farmer;
+    }
+
+    private static User user(Long id, String role, Double lat, Double lng) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        user.setLatitude(lat);
+        user.setLongitude(lng);
+        return user;
+    }
+}
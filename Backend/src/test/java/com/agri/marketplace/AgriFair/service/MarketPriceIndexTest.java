@@ -0,0 +1,89 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.MarketPriceDto;
+import com.agri.marketplace.AgriFair.dto.PriceTickDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Quantile sketch accuracy and merging, and the price index's windowing and per-region rows.
+ */
+class MarketPriceIndexTest {
+
+    @Test
+    void sketchQuantilesStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        double[] values = new double[10_000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3);
+            sketch.add(values[i], 1);
+        }
+        Arrays.sort(values);
+        for (double q : new double[] {0.01, 0.1, 0.5, 0.9, 0.99}) {
+            double exact = values[(int) (q * values.length)];
+            assertEquals(exact, sketch.quantile(q), exact * 0.011, "q=" + q);
+        }
+        assertEquals(values[0], sketch.min());
+        assertEquals(values[values.length - 1], sketch.max());
+    }
+
+    @Test
+    void mergedSketchesMatchOneSketchOverEverything() {
+        QuantileSketch low = new QuantileSketch(0.02);
+        QuantileSketch high = new QuantileSketch(0.02);
+        QuantileSketch all = new QuantileSketch(0.02);
+        for (int i = 1; i <= 500; i++) {
+            (i % 2 == 0 ? low : high).add(i * 1.5, i % 3 + 1);
+            all.add(i * 1.5, i % 3 + 1);
+        }
+        low.merge(high);
+        assertEquals(all.totalWeight(), low.totalWeight());
+        for (double q : new double[] {0, 0.25, 0.5, 0.75, 1}) {
+            assertEquals(all.quantile(q), low.quantile(q));
+        }
+        assertThrows(IllegalArgumentException.class, () -> low.merge(new QuantileSketch(0.01)));
+    }
+
+    @Test
+    void pricesAreVolumeWeightedPerRegionWithAnAllRegionsRow() {
+        MarketPriceIndex index = new MarketPriceIndex(null, 0.01, 30, 24, 100);
+        LocalDateTime now = LocalDateTime.now();
+        index.record(List.of(
+                new PriceTickDto(1L, "Wheat", "Punjab", 20.0, 10, now),
+                new PriceTickDto(2L, "wheat ", "Punjab", 30.0, 30, now.minusDays(3)),
+                new PriceTickDto(3L, "Wheat", null, 40.0, 10, now),
+                new PriceTickDto(4L, "Maize", "Punjab", 15.0, 5, now),
+                // Outside the 30 day window
+                new PriceTickDto(5L, "Wheat", "Punjab", 99.0, 100, now.minusDays(45))));
+
+        List<MarketPriceDto> wheat = index.prices("WHEAT", null);
+        assertEquals(3, wheat.size());
+        MarketPriceDto all = wheat.get(0);
+        assertNull(all.region());
+        assertEquals(3, all.trades());
+        assertEquals(50, all.volume());
+        assertEquals((200 + 900 + 400) / 50.0, all.vwap(), 1e-9);
+        assertEquals(20.0, all.min());
+        assertEquals(40.0, all.max());
+        assertEquals(30.0, all.median(), 30 * 0.01);
+
+        MarketPriceDto punjab = index.prices("wheat", "punjab").get(0);
+        assertEquals("Punjab", punjab.region());
+        assertEquals(27.5, punjab.vwap(), 1e-9);
+        assertEquals(MarketPriceIndex.UNKNOWN_REGION, wheat.get(2).region());
+
+        assertEquals(List.of("Maize", "Wheat", "Wheat"),
+                index.prices(null, null).stream().map(MarketPriceDto::crop).toList());
+        assertTrue(index.prices("rice", null).isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.agri.marketplace.AgriFair.service;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scrapes the business metrics through a local Prometheus registry to check names,
+ * types and values as Prometheus will see them.
+ */
+class MarketplaceMetricsTest {
+
+    private PrometheusMeterRegistry registry;
+    private MarketplaceMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        ImageDerivativeService imageDerivativeService = mock(ImageDerivativeService.class);
+        when(imageDerivativeService.queueDepth()).thenReturn(3);
+        when(imageDerivativeService.stats()).thenReturn(Map.of("active", 2, "processed", 7L, "failed", 1L,
+                "rejected", 0L, "avgLatencyMs", 250L, "maxLatencyMs", 1500L));
+
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metrics = new MarketplaceMetrics(registry, imageDerivativeService);
+    }
+
+    @Test
+    void scrapeExposesBusinessCounters() {
+        metrics.orderPlaced(2);
+        metrics.orderPlaced(1);
+        metrics.stockOut();
+        metrics.rentalRequested();
+        metrics.rentalApproved();
+
+        String scrape = registry.scrape();
+
+        assertSample(scrape, "agrifair_orders_placed_total", 2);
+        assertSample(scrape, "agrifair_orders_items_total", 3);
+        assertSample(scrape, "agrifair_crops_stockouts_total", 1);
+        assertSample(scrape, "agrifair_rentals_requested_total", 1);
+        assertSample(scrape, "agrifair_rentals_approved_total", 1);
+        assertTrue(scrape.contains("# TYPE agrifair_orders_placed_total counter"), scrape);
+    }
+
+    @Test
+    void countersMoveOnlyWhenTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metrics.orderPlaced(4);
+            metrics.rentalRequested();
+            assertSample(registry.scrape(), "agrifair_orders_placed_total", 0);
+
+            // Rolled back: the synchronizations are dropped without afterCommit
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertSample(registry.scrape(), "agrifair_orders_placed_total", 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metrics.orderPlaced(4);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        String scrape = registry.scrape();
+        assertSample(scrape, "agrifair_orders_placed_total", 1);
+        assertSample(scrape, "agrifair_orders_items_total", 4);
+        assertSample(scrape, "agrifair_rentals_requested_total", 0);
+    }
+
+    @Test
+    void scrapeExposesImagePipeline() {
+        String scrape = registry.scrape();
+
+        assertSample(scrape, "agrifair_images_queue", 3);
+        assertSample(scrape, "agrifair_images_processed_total", 7);
+        assertSample(scrape, "agrifair_images_failed_total", 1);
+        assertSample(scrape, "agrifair_images_active", 2);
+        assertSample(scrape, "agrifair_images_latency_avg_seconds", 0.25);
+        assertSample(scrape, "agrifair_images_latency_max_seconds", 1.5);
+        assertTrue(scrape.contains("# TYPE agrifair_images_queue gauge"), scrape);
+    }
+
+    private static void assertSample(String scrape, String name, double value) {
+        Pattern sample = Pattern.compile("(?m)^" + name + "(\\{[^}]*\\})? (\\S+)$");
+        var matcher = sample.matcher(scrape);
+        assertTrue(matcher.find(), () -> name + " missing from scrape:\n" + scrape);
+        assertTrue(Double.parseDouble(matcher.group(2)) == value,
+                () -> name + " expected " + value + " but was " + matcher.group(2));
+    }
+}
@@ -0,0 +1,304 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.IncomingOrderDto;
+import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
+import com.agri.marketplace.AgriFair.dto.OrderResponseDto;
+import com.agri.marketplace.AgriFair.dto.OrderStatusUpdateDto;
+import com.agri.marketplace.AgriFair.dto.TimelineEventDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.OrderItemRepository;
+import com.agri.marketplace.AgriFair.repository.OrderRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Orders split per farmer at checkout, each farmer moving only their own part, and the
+ * order following the least advanced part. Orders from before the split are split by
+ * the backfill.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fulfillment;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("querycount")
+class OrderFulfillmentTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private FulfillmentBackfill fulfillmentBackfill;
+
+    @Test
+    void eachFarmerSeesOnlyTheirPartOfAnOrder() {
+        User anna = newUser("anna", "ROLE_FARMER");
+        User ben = newUser("ben", "ROLE_FARMER");
+        Crop wheat = newCrop(anna, "Wheat", 20);
+        Crop rice = newCrop(anna, "Rice", 30);
+        Crop maize = newCrop(ben, "Maize", 15);
+        OrderResponseDto order = placeOrder(newUser("cara", "ROLE_CUSTOMER"), wheat, rice, maize);
+
+        List<IncomingOrderDto> annaQueue = incoming(anna, OrderStatus.PENDING);
+        List<IncomingOrderDto> benQueue = incoming(ben, OrderStatus.PENDING);
+
+        assertEquals(1, annaQueue.size());
+        assertEquals(order.getId(), annaQueue.get(0).getOrderId());
+        assertEquals(2, annaQueue.get(0).getItems().size());
+        assertEquals(50.0, annaQueue.get(0).getSubtotal());
+        assertEquals(1, benQueue.size());
+        assertEquals(List.of("Maize"), benQueue.get(0).getItems().stream()
+                .map(OrderResponseDto.OrderItemResponseDto::getProductName).toList());
+        assertEquals(15.0, benQueue.get(0).getSubtotal());
+    }
+
+    @Test
+    void orderFollowsItsLeastAdvancedPart() {
+        User dev = newUser("dev", "ROLE_FARMER");
+        User eli = newUser("eli", "ROLE_FARMER");
+        OrderResponseDto order = placeOrder(newUser("fay", "ROLE_CUSTOMER"),
+                newCrop(dev, "Barley", 10), newCrop(eli, "Millet", 12));
+
+        move(dev, order, OrderStatus.CONFIRMED);
+        assertEquals(OrderStatus.PENDING, statusOf(order));
+        assertEquals(1, incoming(dev, OrderStatus.CONFIRMED).size());
+        assertEquals(0, incoming(dev, OrderStatus.PENDING).size());
+
+        move(eli, order, OrderStatus.CONFIRMED);
+        assertEquals(OrderStatus.CONFIRMED, statusOf(order));
+
+        move(dev, order, OrderStatus.PACKED);
+        move(eli, order, OrderStatus.CANCELLED);
+        // A cancelled part no longer holds the order back
+        assertEquals(OrderStatus.PACKED, statusOf(order));
+
+        move(dev, order, OrderStatus.CANCELLED);
+        assertEquals(OrderStatus.CANCELLED, statusOf(order));
+    }
+
+    @Test
+    void farmersCannotMoveOrdersTheyHaveNoPartIn() {
+        User gus = newUser("gus", "ROLE_FARMER");
+        User hal = newUser("hal", "ROLE_FARMER");
+        OrderResponseDto order = placeOrder(newUser("ivy", "ROLE_CUSTOMER"), newCrop(gus, "Oats", 8));
+
+        assertThrows(IllegalArgumentException.class, () -> move(hal, order, OrderStatus.CONFIRMED));
+        assertThrows(IllegalStateException.class, () -> move(gus, order, OrderStatus.SHIPPED));
+        assertEquals(OrderStatus.PENDING, statusOf(order));
+    }
+
+    @Test
+    void backfillSplitsOrdersFromBeforeTheSplit() {
+        User jo = newUser("jo", "ROLE_FARMER");
+        User kim = newUser("kim", "ROLE_FARMER");
+        Order old = legacyOrder(newUser("lee", "ROLE_CUSTOMER"), OrderStatus.CONFIRMED, LocalDateTime.now().minusDays(30),
+                newCrop(jo, "Sorghum", 40), newCrop(kim, "Teff", 25));
+
+        fulfillmentBackfill.backfill();
+
+        List<IncomingOrderDto> joQueue = incoming(jo, OrderStatus.CONFIRMED);
+        assertEquals(1, joQueue.size());
+        assertEquals(old.getId(), joQueue.get(0).getOrderId());
+        assertEquals(40.0, joQueue.get(0).getSubtotal());
+        assertEquals(25.0, incoming(kim, OrderStatus.CONFIRMED).get(0).getSubtotal());
+        // Already split: a second run leaves it alone
+        fulfillmentBackfill.backfill();
+        assertEquals(1, incoming(jo, OrderStatus.CONFIRMED).size());
+    }
+
+    @Test
+    void cursorFollowsTheQueueOrderForBackfilledOrders() {
+        User max = newUser("max", "ROLE_FARMER");
+        User ned = newUser("ned", "ROLE_CUSTOMER");
+        OrderResponseDto recent = placeOrder(ned, newCrop(max, "Peas", 5));
+        // Split after the recent one, so its fulfillment has the higher id but the older date
+        Order old = legacyOrder(ned, OrderStatus.PENDING, LocalDateTime.now().minusDays(3), newCrop(max, "Beans", 6));
+        fulfillmentBackfill.backfill();
+
+        List<IncomingOrderDto> first = orderService.getIncomingOrders(auth(max), OrderStatus.PENDING, null, 0, 1);
+        assertEquals(old.getId(), first.get(0).getOrderId());
+        List<IncomingOrderDto> second = orderService.getIncomingOrders(auth(max), OrderStatus.PENDING,
+                first.get(0).getFulfillmentId(), 0, 1);
+        assertEquals(1, second.size());
+        assertEquals(recent.getId(), second.get(0).getOrderId());
+        assertEquals(0, orderService.getIncomingOrders(auth(max), OrderStatus.PENDING,
+                second.get(0).getFulfillmentId(), 0, 1).size());
+    }
+
+    @Test
+    void anotherFarmersFulfillmentIsNotACursor() {
+        User wes = newUser("wes", "ROLE_FARMER");
+        User xia = newUser("xia", "ROLE_FARMER");
+        User customer = newUser("yan", "ROLE_CUSTOMER");
+        placeOrder(customer, newCrop(wes, "Mustard", 4));
+        placeOrder(customer, newCrop(xia, "Sesame", 5));
+        Long foreign = incoming(xia, OrderStatus.PENDING).get(0).getFulfillmentId();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getIncomingOrders(auth(wes), OrderStatus.PENDING, foreign, 0, 10));
+    }
+
+    @Test
+    void everyFarmersMovesAreInTheOrderTimeline() {
+        User olu = newUser("olu", "ROLE_FARMER");
+        User pia = newUser("pia", "ROLE_FARMER");
+        User customer = newUser("quinn", "ROLE_CUSTOMER");
+        OrderResponseDto order = placeOrder(customer, newCrop(olu, "Lentils", 9), newCrop(pia, "Chickpeas", 11));
+
+        move(olu, order, OrderStatus.CONFIRMED);
+        move(pia, order, OrderStatus.CONFIRMED);
+        move(olu, order, OrderStatus.PACKED);
+        move(olu, order, OrderStatus.SHIPPED);
+        // Pia catches up: only now does the order as a whole move
+        move(pia, order, OrderStatus.PACKED);
+
+        List<TimelineEventDto> timeline = orderService.getOrderTimeline(auth(customer), order.getId());
+        // Placed without a security context here, so the first event is the system's
+        assertEquals(List.of(
+                "system order null->PENDING",
+                olu.getUsername() + " part of " + olu.getId() + " PENDING->CONFIRMED",
+                pia.getUsername() + " part of " + pia.getId() + " PENDING->CONFIRMED",
+                pia.getUsername() + " order PENDING->CONFIRMED",
+                olu.getUsername() + " part of " + olu.getId() + " CONFIRMED->PACKED",
+                olu.getUsername() + " part of " + olu.getId() + " PACKED->SHIPPED",
+                pia.getUsername() + " part of " + pia.getId() + " CONFIRMED->PACKED",
+                pia.getUsername() + " order CONFIRMED->PACKED"),
+                timeline.stream().map(OrderFulfillmentTest::describe).toList());
+    }
+
+    @Test
+    void onlyTheCustomerAndTheOrdersFarmersCanReadItsTimeline() {
+        User ria = newUser("ria", "ROLE_FARMER");
+        User sam = newUser("sam", "ROLE_FARMER");
+        User outsider = newUser("tao", "ROLE_FARMER");
+        User otherCustomer = newUser("uma", "ROLE_CUSTOMER");
+        OrderResponseDto order = placeOrder(newUser("val", "ROLE_CUSTOMER"), newCrop(ria, "Jowar", 7), newCrop(sam, "Ragi", 8));
+        move(ria, order, OrderStatus.CONFIRMED);
+        move(sam, order, OrderStatus.CONFIRMED);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrderTimeline(auth(outsider), order.getId()));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrderTimeline(auth(otherCustomer), order.getId()));
+
+        // A farmer sees the order's own moves and their part, not the other farmer's
+        List<String> riaView = orderService.getOrderTimeline(auth(ria), order.getId()).stream()
+                .map(OrderFulfillmentTest::describe).toList();
+        assertEquals(List.of(
+                "system order null->PENDING",
+                ria.getUsername() + " part of " + ria.getId() + " PENDING->CONFIRMED",
+                sam.getUsername() + " order PENDING->CONFIRMED"), riaView);
+
+        // Orders from before the split are readable by their farmers, found through the items
+        Order old = legacyOrder(otherCustomer, OrderStatus.PENDING, LocalDateTime.now().minusDays(10), newCrop(sam, "Bajra", 6));
+        assertEquals(List.of(), orderService.getOrderTimeline(auth(sam), old.getId()));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrderTimeline(auth(ria), old.getId()));
+    }
+
+    private OrderResponseDto placeOrder(User customer, Crop... crops) {
+        OrderRequestDto request = new OrderRequestDto();
+        request.setItems(Arrays.stream(crops).map(crop -> {
+            OrderRequestDto.OrderItemDto item = new OrderRequestDto.OrderItemDto();
+            item.setCropId(crop.getId());
+            item.setQuantity(1);
+            return item;
+        }).toList());
+        return orderService.createOrder(auth(customer), request);
+    }
+
+    /** Moves the farmer's part as a request would: with them as the authenticated user. */
+    private void move(User farmer, OrderResponseDto order, OrderStatus status) {
+        OrderStatusUpdateDto update = new OrderStatusUpdateDto();
+        update.setStatus(status);
+        SecurityContextHolder.getContext().setAuthentication(auth(farmer));
+        try {
+            orderService.updateFulfillmentStatus(auth(farmer), order.getId(), update);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static String describe(TimelineEventDto event) {
+        String subject = event.getFulfillmentId() == null ? "order" : "part of " + event.getFarmerId();
+        return event.getActor() + " " + subject + " " + event.getFromStatus() + "->" + event.getToStatus();
+    }
+
+    private List<IncomingOrderDto> incoming(User farmer, OrderStatus status) {
+        return orderService.getIncomingOrders(auth(farmer), status, null, 0, OrderService.DEFAULT_PAGE_SIZE);
+    }
+
+    private OrderStatus statusOf(OrderResponseDto order) {
+        return orderRepository.findById(order.getId()).orElseThrow().getStatus();
+    }
+
+    private static Authentication auth(User user) {
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null,
+                List.of(new SimpleGrantedAuthority(user.getRole())));
+    }
+
+    /** An order written the way it was before checkout split orders: items but no fulfillments. */
+    private Order legacyOrder(User customer, OrderStatus status, LocalDateTime createdDate, Crop... crops) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        order.setCreatedDate(createdDate);
+        order.setTotalAmount(Arrays.stream(crops).mapToDouble(Crop::getPrice).sum());
+        Order saved = orderRepository.save(order);
+        for (Crop crop : crops) {
+            OrderItem item = new OrderItem();
+            item.setOrder(saved);
+            item.setCrop(crop);
+            item.setQuantity(1);
+            item.setPrice(crop.getPrice());
+            orderItemRepository.save(item);
+        }
+        return saved;
+    }
+
+    private Crop newCrop(User farmer, String name, double price) {
+        Crop crop = new Crop();
+        crop.setProductName(name);
+        crop.setPrice(price);
+        crop.setQuantity(100);
+        crop.setFarmer(farmer);
+        return cropRepository.save(crop);
+    }
+
+    private User newUser(String name, String role) {
+        User user = new User();
+        user.setUsername(name + SEQUENCE.incrementAndGet());
+        user.setEmail(user.getUsername() + "@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole(role);
+        user.setFullName(name);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,197 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
+import com.agri.marketplace.AgriFair.dto.OrderStatusUpdateDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderNotification;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.OrderNotificationRepository;
+import com.agri.marketplace.AgriFair.repository.OrderRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Status changes through OrderService, mailed by the dispatcher to a GreenMail SMTP
+ * server on localhost. Every order holds one crop of a single farmer, so moving the
+ * farmer's part moves the order. The scheduled run is pushed out of the way and
+ * dispatch() is called by hand.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notifications;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.port=3025",
+        "notifications.dispatch-ms=3600000"
+})
+@ActiveProfiles("querycount")
+class OrderNotificationDispatcherTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderNotificationDispatcher dispatcher;
+
+    @Autowired
+    private OrderNotificationRepository notificationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    private User farmer;
+    private Crop crop;
+
+    @BeforeEach
+    void clearOutbox() {
+        notificationRepository.deleteAllInBatch();
+        farmer = newUser("Farmer", "ROLE_FARMER");
+        crop = new Crop();
+        crop.setProductName("Wheat");
+        crop.setPrice(100.0);
+        crop.setQuantity(1000);
+        crop.setFarmer(farmer);
+        crop = cropRepository.save(crop);
+    }
+
+    @Test
+    void batchesChangesIntoOneMessagePerCustomer() throws Exception {
+        User alice = newCustomer("Alice");
+        User bob = newCustomer("Bob");
+        Order first = newOrder(alice);
+        Order second = newOrder(alice);
+        Order third = newOrder(bob);
+
+        move(first, OrderStatus.CONFIRMED);
+        move(second, OrderStatus.CONFIRMED);
+        move(third, OrderStatus.CONFIRMED);
+        move(first, OrderStatus.PACKED);
+        // Nothing is sent on the request thread
+        assertEquals(0, smtp.getReceivedMessages().length);
+
+        assertEquals(4, dispatcher.dispatch());
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(2, received.length);
+        MimeMessage toAlice = null;
+        for (MimeMessage message : received) {
+            if (GreenMailUtil.getAddressList(message.getAllRecipients()).contains(alice.getEmail())) {
+                toAlice = message;
+            }
+        }
+        assertNotNull(toAlice);
+        assertEquals("Updates to 3 of your AgriFair orders", toAlice.getSubject());
+        String body = GreenMailUtil.getBody(toAlice);
+        assertTrue(body.contains("Order #" + first.getId() + ": pending -> confirmed"), body);
+        assertTrue(body.contains("Order #" + first.getId() + ": confirmed -> packed"), body);
+        assertTrue(body.contains("Order #" + second.getId() + ": pending -> confirmed"), body);
+
+        assertEquals(0, notificationRepository.countBySentAtIsNull());
+        assertEquals(0, dispatcher.dispatch());
+        assertEquals(2, smtp.getReceivedMessages().length);
+    }
+
+    @Test
+    void rejectsTransitionsOutsideTheTable() {
+        Order order = newOrder(newCustomer("Carol"));
+
+        assertThrows(IllegalStateException.class, () -> move(order, OrderStatus.SHIPPED));
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        assertEquals(0, notificationRepository.count());
+    }
+
+    @Test
+    void settingTheCurrentStatusQueuesNothing() {
+        Order order = newOrder(newCustomer("Dan"));
+
+        move(order, OrderStatus.PENDING);
+
+        assertEquals(0, notificationRepository.count());
+    }
+
+    @Test
+    void keepsNotificationForRetryWhenSmtpIsDown() {
+        Order order = newOrder(newCustomer("Erin"));
+        move(order, OrderStatus.CANCELLED);
+        smtp.stop();
+
+        assertEquals(0, dispatcher.dispatch());
+
+        List<OrderNotification> pending = notificationRepository.findAll();
+        assertEquals(1, pending.size());
+        assertNull(pending.get(0).getSentAt());
+        assertEquals(1, pending.get(0).getAttempts());
+        assertNotNull(pending.get(0).getLastError());
+        // Not due again until the retry delay has passed
+        assertEquals(0, dispatcher.dispatch());
+    }
+
+    private void move(Order order, OrderStatus status) {
+        OrderStatusUpdateDto update = new OrderStatusUpdateDto();
+        update.setStatus(status);
+        orderService.updateFulfillmentStatus(auth(farmer), order.getId(), update);
+    }
+
+    private User newCustomer(String name) {
+        return newUser(name, "ROLE_CUSTOMER");
+    }
+
+    private User newUser(String name, String role) {
+        User user = new User();
+        user.setUsername(name.toLowerCase() + SEQUENCE.incrementAndGet());
+        user.setEmail(user.getUsername() + "@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole(role);
+        user.setFullName(name);
+        return userRepository.save(user);
+    }
+
+    private static Authentication auth(User user) {
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null,
+                List.of(new SimpleGrantedAuthority(user.getRole())));
+    }
+
+    private Order newOrder(User customer) {
+        OrderRequestDto.OrderItemDto item = new OrderRequestDto.OrderItemDto();
+        item.setCropId(crop.getId());
+        item.setQuantity(1);
+        OrderRequestDto request = new OrderRequestDto();
+        request.setItems(List.of(item));
+        Long orderId = orderService.createOrder(auth(customer), request).getId();
+        return orderRepository.findById(orderId).orElseThrow();
+    }
+}
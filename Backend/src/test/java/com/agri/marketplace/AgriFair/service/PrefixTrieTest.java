@@ -0,0 +1,93 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prefix lookups and ranking, and a footprint report for a million distinct names.
+ */
+class PrefixTrieTest {
+
+    private static final String[] VARIETIES = {"Red", "Green", "Cherry", "Baby", "Golden", "Heirloom", "Desi",
+            "Hybrid", "Organic", "Roma", "Wild", "Sweet", "Black", "White", "Long", "Round"};
+    private static final String[] CROPS = {"Tomato", "Potato", "Onion", "Chilli", "Brinjal", "Okra", "Cabbage",
+            "Cauliflower", "Carrot", "Radish", "Spinach", "Wheat", "Rice", "Maize", "Millet", "Mango", "Banana",
+            "Grapes", "Guava", "Papaya", "Lentil", "Chickpea", "Mustard", "Groundnut", "Soybean"};
+
+    @Test
+    void suggestsHeaviestNamesUnderAPrefix() {
+        PrefixTrie trie = new PrefixTrie();
+        add(trie, "Tomato", 40);
+        add(trie, "Tomatillo", 5);
+        add(trie, "Cherry Tomato", 90);
+        add(trie, "Tom Thumb Lettuce", 12);
+        add(trie, "Turnip", 70);
+        add(trie, "tomato", 25);
+
+        assertEquals(List.of("Tomato", "Tom Thumb Lettuce", "Tomatillo"), trie.top("tom", 10));
+        assertEquals(List.of("Tomato", "Tomatillo"), trie.top("toma", 10));
+        assertEquals(List.of("Cherry Tomato", "Turnip"), trie.top("", 2));
+        assertEquals(List.of("Tomato"), trie.top("tomato", 10));
+        assertEquals(List.of(), trie.top("tomatoes", 10));
+        assertEquals(List.of(), trie.top("x", 10));
+        // Both spellings of tomato count towards one name
+        assertEquals(65.0, trie.weight("tomato"));
+        assertTrue(Double.isNaN(trie.weight("tom")));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    void reRanksWhenWeightsChange() {
+        PrefixTrie trie = new PrefixTrie();
+        add(trie, "Mango", 10);
+        add(trie, "Maize", 20);
+        add(trie, "Millet", 30);
+        assertEquals(List.of("Millet", "Maize", "Mango"), trie.top("m", 3));
+
+        add(trie, "Mango", 50);
+        add(trie, "Millet", -25);
+        assertEquals(List.of("Mango", "Maize", "Millet"), trie.top("m", 3));
+        assertEquals(List.of("Mango", "Maize"), trie.top("ma", 3));
+    }
+
+    @Test
+    void footprintReportForAMillionNames() {
+        PrefixTrie trie = new PrefixTrie();
+        long rawChars = 0;
+        int n = 0;
+        for (int grade = 0; n < 1_000_000; grade++) {
+            for (String variety : VARIETIES) {
+                for (String crop : CROPS) {
+                    String name = variety + " " + crop + " Lot " + grade;
+                    add(trie, name, (grade * 31 + n) % 1000);
+                    rawChars += name.length();
+                    n++;
+                }
+            }
+        }
+
+        int lookups = 100_000;
+        String[] prefixes = {"t", "to", "tom", "red t", "cherry tomato lot 1", "golden m", "wild rice lot 99"};
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            trie.top(prefixes[i % prefixes.length], 8);
+        }
+        double microsPerLookup = (System.nanoTime() - started) / 1000.0 / lookups;
+
+        long bytes = trie.footprintBytes();
+        System.out.printf("%nPrefix trie footprint: %d names (%d chars), %d nodes, %.1f MB, %.0f bytes/name, %.2f us/lookup%n",
+                trie.size(), rawChars, trie.nodeCount(), bytes / 1048576.0, (double) bytes / trie.size(), microsPerLookup);
+        assertTrue(trie.size() >= 1_000_000);
+        assertTrue(bytes / trie.size() < 200, "footprint per name grew to " + bytes / trie.size() + " bytes");
+        assertEquals(8, trie.top("cherry", 8).size());
+    }
+
+    private static void add(PrefixTrie trie, String name, double weight) {
+        trie.add(name.toLowerCase(Locale.ROOT), name, weight);
+    }
+}
@@ -0,0 +1,213 @@
+package com.agri.marketplace.AgriFair.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Concurrent identical reads sharing one call, failures reaching every waiter, timeouts
+ * and callers with a newer write of their own falling back to a call of their own, and
+ * the outcome counters.
+ */
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry registry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment().withProperty("coalesce.slow.timeout-ms", "50");
+        coalescer = new RequestCoalescer(registry, environment, true, 5_000);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> result = List.of("wheat", "maize");
+        Map<Integer, Object> seen = new ConcurrentHashMap<>();
+
+        List<Thread> threads = start(8, i -> seen.put(i, coalescer.execute("crops", "all", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return result;
+        })));
+        awaitAllBlocked(threads);
+        release.countDown();
+        join(threads);
+
+        assertEquals(1, calls.get());
+        assertEquals(8, seen.size());
+        seen.values().forEach(value -> assertSame(result, value));
+        assertEquals(1.0, count("crops", "leader"));
+        assertEquals(7.0, count("crops", "shared"));
+
+        // Nothing is kept once the call is done
+        coalescer.execute("crops", "all", () -> calls.incrementAndGet());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void differentKeysDoNotShare() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = start(3, i -> coalescer.execute("profiles", "user" + i, () -> {
+            calls.incrementAndGet();
+            await(release);
+            return i;
+        }));
+        awaitAllBlocked(threads);
+        release.countDown();
+        join(threads);
+
+        assertEquals(3, calls.get());
+        assertEquals(3.0, count("profiles", "leader"));
+    }
+
+    @Test
+    void aFailedCallFailsEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = start(4, i -> {
+            try {
+                coalescer.execute("profiles", "ghost", () -> {
+                    await(release);
+                    throw new IllegalArgumentException("User not found");
+                });
+            } catch (IllegalArgumentException e) {
+                failures.incrementAndGet();
+            }
+        });
+        awaitAllBlocked(threads);
+        release.countDown();
+        join(threads);
+
+        assertEquals(4, failures.get());
+        assertThrows(IllegalArgumentException.class, () -> coalescer.execute("profiles", "ghost", () -> {
+            throw new IllegalArgumentException("User not found");
+        }));
+    }
+
+    @Test
+    void waitersPastTheGroupTimeoutRunTheirOwnCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> leader = start(1, i -> coalescer.execute("slow", "key", () -> {
+            await(release);
+            return "leader";
+        }));
+        awaitAllBlocked(leader);
+
+        assertEquals("own", coalescer.execute("slow", "key", () -> "own"));
+        assertEquals(1.0, count("slow", "timeout"));
+        release.countDown();
+        join(leader);
+    }
+
+    @Test
+    void callersDoNotJoinReadsStartedBeforeTheirOwnWrite() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> leader = start(1, i -> coalescer.execute("profiles", "alice", () -> {
+            await(release);
+            return "before the write";
+        }));
+        awaitAllBlocked(leader);
+
+        signIn("alice");
+        coalescer.afterCommit(readOnly(true), null);
+        // A read-only commit is no write
+        assertEquals(0.0, count("profiles", "own-write"));
+        coalescer.afterCommit(readOnly(false), null);
+        assertEquals("after the write", coalescer.execute("profiles", "alice", () -> "after the write"));
+        assertEquals(1.0, count("profiles", "own-write"));
+
+        // Someone without a newer write shares the running read as usual
+        Map<Integer, Object> seen = new ConcurrentHashMap<>();
+        List<Thread> others = start(1, i -> {
+            signIn("bob");
+            seen.put(i, coalescer.execute("profiles", "alice", () -> "bob's own"));
+        });
+        awaitAllBlocked(others);
+        release.countDown();
+        join(leader);
+        join(others);
+        assertEquals("before the write", seen.get(0));
+        assertEquals(1.0, count("profiles", "shared"));
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static TransactionExecution readOnly(boolean readOnly) {
+        return new TransactionExecution() {
+            @Override
+            public boolean isReadOnly() {
+                return readOnly;
+            }
+        };
+    }
+
+    private double count(String group, String outcome) {
+        return registry.get("agrifair.coalesce.requests").tag("group", group).tag("outcome", outcome).counter().count();
+    }
+
+    private static List<Thread> start(int count, IntConsumer body) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> body.accept(index));
+            threads.add(thread);
+            thread.start();
+        }
+        return threads;
+    }
+
+    /** Waits until every thread is parked: the leader in its loader, the rest on its result. */
+    private static void awaitAllBlocked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING || t.getState() == Thread.State.TIMED_WAITING)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Threads did not block");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
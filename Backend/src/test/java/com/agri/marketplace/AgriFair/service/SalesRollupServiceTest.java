@@ -0,0 +1,266 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.dto.CropSalesDto;
+import com.agri.marketplace.AgriFair.dto.DailyRevenueDto;
+import com.agri.marketplace.AgriFair.dto.EquipmentUtilizationDto;
+import com.agri.marketplace.AgriFair.dto.OrderRequestDto;
+import com.agri.marketplace.AgriFair.dto.OrderResponseDto;
+import com.agri.marketplace.AgriFair.dto.OrderStatusUpdateDto;
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.Order;
+import com.agri.marketplace.AgriFair.model.OrderItem;
+import com.agri.marketplace.AgriFair.model.OrderStatus;
+import com.agri.marketplace.AgriFair.model.Rental;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentDailyRentalsRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerDailySalesRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Rollups maintained by the order and rental services, and a rebuild from the source
+ * tables arriving at the same rows.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rollups;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("querycount")
+class SalesRollupServiceTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private FarmerDailySalesRepository farmerDailySalesRepository;
+
+    @Autowired
+    private CropDailySalesRepository cropDailySalesRepository;
+
+    @Autowired
+    private EquipmentDailyRentalsRepository equipmentDailyRentalsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Test
+    void ordersUpdateSalesRollupsAndCancellationsTakeThemOut() {
+        LocalDate today = LocalDate.now();
+        User anna = newUser("anna", "ROLE_FARMER");
+        User ben = newUser("ben", "ROLE_FARMER");
+        Crop wheat = newCrop(anna, 20);
+        Crop maize = newCrop(ben, 15);
+        User customer = newUser("cara", "ROLE_CUSTOMER");
+
+        placeOrder(customer, wheat, 2, maize, 1);
+        OrderResponseDto second = placeOrder(customer, wheat, 3, maize, 4);
+
+        List<DailyRevenueDto> annaDays = salesRollupService.dailyRevenue(anna.getUsername(), today, today);
+        assertEquals(1, annaDays.size());
+        assertEquals(new DailyRevenueDto(today, 2, 5, 100.0, 0.0), annaDays.get(0));
+        assertEquals(List.of(new CropSalesDto(maize.getId(), 5L, 75.0)),
+                salesRollupService.cropSales(ben.getUsername(), today, today));
+
+        // Ben cancels his part of the second order; Anna's part still counts
+        OrderStatusUpdateDto cancel = new OrderStatusUpdateDto();
+        cancel.setStatus(OrderStatus.CANCELLED);
+        orderService.updateFulfillmentStatus(auth(ben), second.getId(), cancel);
+
+        assertEquals(new DailyRevenueDto(today, 1, 1, 15.0, 0.0),
+                salesRollupService.dailyRevenue(ben.getUsername(), today, today).get(0));
+        assertEquals(new DailyRevenueDto(today, 2, 5, 100.0, 0.0),
+                salesRollupService.dailyRevenue(anna.getUsername(), today, today).get(0));
+
+        assertRebuildMatches(today, today);
+    }
+
+    @Test
+    void approvedRentalsCountTowardsUtilizationUntilCancelled() {
+        LocalDate start = LocalDate.now().plusDays(1);
+        User ownerUser = newUser("owner", "ROLE_FARMER");
+        User renterUser = newUser("renter", "ROLE_FARMER");
+        Farmer owner = newFarmer(ownerUser);
+        newFarmer(renterUser);
+        Equipment tractor = newEquipment(owner, 300);
+
+        Rental request = new Rental();
+        request.setEquipment(tractor);
+        request.setStartDate(start);
+        request.setEndDate(start.plusDays(2));
+        Rental rental = rentalService.createRental(request, renterUser.getUsername());
+        // Pending requests don't hold the equipment
+        assertEquals(List.of(), salesRollupService.equipmentUtilization(ownerUser.getUsername(), start, start.plusDays(9)));
+
+        rentalService.approveRental(rental.getId(), ownerUser.getUsername());
+
+        List<EquipmentUtilizationDto> usage = salesRollupService.equipmentUtilization(ownerUser.getUsername(), start, start.plusDays(9));
+        assertEquals(List.of(new EquipmentUtilizationDto(tractor.getId(), 3, 10, 0.3, 900.0)), usage);
+        assertEquals(3, salesRollupService.dailyRevenue(ownerUser.getUsername(), start, start.plusDays(9)).size());
+        assertRebuildMatches(start, start.plusDays(9));
+
+        rentalService.cancelRental(rental.getId(), renterUser.getUsername());
+
+        usage = salesRollupService.equipmentUtilization(ownerUser.getUsername(), start, start.plusDays(9));
+        assertEquals(0, usage.get(0).bookedDays());
+        assertEquals(0.0, usage.get(0).revenue(), 1e-9);
+    }
+
+    @Test
+    void salesUpsertsRunInKeyOrderWhateverTheItemOrder() {
+        CropDailySalesRepository crops = mock(CropDailySalesRepository.class);
+        FarmerDailySalesRepository farmers = mock(FarmerDailySalesRepository.class);
+        SalesRollupService service = new SalesRollupService(farmers, crops, null, null, null, null, null, null);
+        LocalDate today = LocalDate.now();
+        User anna = detachedUser(7L);
+        User ben = detachedUser(3L);
+        Order order = new Order();
+        order.setId(1L);
+        order.setCreatedDate(today.atTime(12, 0));
+
+        // Items listed highest id first, as another order might list them lowest first
+        service.orderPlaced(List.of(detachedItem(order, 40L, anna), detachedItem(order, 30L, ben),
+                detachedItem(order, 20L, anna), detachedItem(order, 10L, ben)));
+
+        InOrder upserts = inOrder(crops, farmers);
+        for (long cropId : new long[]{10, 20, 30, 40}) {
+            upserts.verify(crops).add(eq(cropId), anyLong(), eq(today), anyLong(), anyDouble());
+        }
+        upserts.verify(farmers).add(eq(3L), eq(today), anyLong(), anyLong(), anyDouble());
+        upserts.verify(farmers).add(eq(7L), eq(today), anyLong(), anyLong(), anyDouble());
+    }
+
+    private static User detachedUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static OrderItem detachedItem(Order order, Long cropId, User farmer) {
+        Crop crop = new Crop();
+        crop.setId(cropId);
+        crop.setFarmer(farmer);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setCrop(crop);
+        item.setQuantity(1);
+        item.setPrice(10.0);
+        return item;
+    }
+
+    /** Rebuilding a range from the source tables gives the rows the incremental updates left. */
+    private void assertRebuildMatches(LocalDate from, LocalDate to) {
+        List<String> before = snapshot();
+        salesRollupService.rebuild(from, to);
+        assertEquals(before, snapshot());
+    }
+
+    /** Every non-empty rollup row as text; rows that went back to zero are left out. */
+    private List<String> snapshot() {
+        Stream<String> farmers = farmerDailySalesRepository.findAll().stream()
+                .filter(r -> r.getOrderCount() != 0)
+                .map(r -> "farmer " + r.getFarmerId() + " " + r.getSalesDate() + " " + r.getOrderCount() + " " + r.getUnits() + " " + r.getRevenue());
+        Stream<String> crops = cropDailySalesRepository.findAll().stream()
+                .filter(r -> r.getUnits() != 0)
+                .map(r -> "crop " + r.getCropId() + " " + r.getSalesDate() + " " + r.getUnits() + " " + r.getRevenue());
+        Stream<String> equipment = equipmentDailyRentalsRepository.findAll().stream()
+                .filter(r -> r.getBookings() != 0)
+                .map(r -> "equipment " + r.getEquipmentId() + " " + r.getUsageDate() + " " + r.getBookings() + " " + r.getRevenue());
+        return Stream.of(farmers, crops, equipment).flatMap(rows -> rows).sorted().toList();
+    }
+
+    private OrderResponseDto placeOrder(User customer, Crop first, int firstQuantity, Crop second, int secondQuantity) {
+        OrderRequestDto request = new OrderRequestDto();
+        request.setItems(List.of(item(first, firstQuantity), item(second, secondQuantity)));
+        return orderService.createOrder(auth(customer), request);
+    }
+
+    private static OrderRequestDto.OrderItemDto item(Crop crop, int quantity) {
+        OrderRequestDto.OrderItemDto item = new OrderRequestDto.OrderItemDto();
+        item.setCropId(crop.getId());
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Authentication auth(User user) {
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null,
+                List.of(new SimpleGrantedAuthority(user.getRole())));
+    }
+
+    private Crop newCrop(User farmer, double price) {
+        Crop crop = new Crop();
+        crop.setProductName("Crop " + SEQUENCE.incrementAndGet());
+        crop.setPrice(price);
+        crop.setQuantity(100);
+        crop.setFarmer(farmer);
+        return cropRepository.save(crop);
+    }
+
+    private Farmer newFarmer(User user) {
+        Farmer farmer = new Farmer();
+        farmer.setFirstName(user.getFullName());
+        farmer.setSecondName("Test");
+        farmer.setEmail(user.getEmail());
+        farmer.setPhoneNo(String.format("+91-8%09d", SEQUENCE.incrementAndGet()));
+        farmer.setUserId(user.getId());
+        return farmerRepository.save(farmer);
+    }
+
+    private Equipment newEquipment(Farmer owner, int rate) {
+        Equipment equipment = new Equipment();
+        equipment.setType("Tractor");
+        equipment.setModel("Model " + SEQUENCE.incrementAndGet());
+        equipment.setAvailable(Boolean.TRUE);
+        equipment.setRate(rate);
+        equipment.setOwner(owner);
+        return equipmentRepository.save(equipment);
+    }
+
+    private User newUser(String name, String role) {
+        User user = new User();
+        user.setUsername(name + SEQUENCE.incrementAndGet());
+        user.setEmail(user.getUsername() + "@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole(role);
+        user.setFullName(name);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,79 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.repository.StoredFileRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Ref counting against a real database: concurrent first uploads of the same bytes
+ * share one stored_files row instead of failing on its primary key.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:storedfiles;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("querycount")
+class StoredFileRefCountTest {
+
+    private static final int UPLOADERS = 8;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Test
+    void concurrentFirstUploadsShareOneRow() throws Exception {
+        byte[] content = ("harvest " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        ExecutorService pool = Executors.newFixedThreadPool(UPLOADERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> uploads = new ArrayList<>();
+        try {
+            for (int i = 0; i < UPLOADERS; i++) {
+                uploads.add(pool.submit(() -> {
+                    start.await();
+                    return fileStorageService.storeFile(new MockMultipartFile("image", "photo.jpg", "image/jpeg", content));
+                }));
+            }
+            start.countDown();
+            Set<String> urls = new HashSet<>();
+            for (Future<String> upload : uploads) {
+                urls.add(upload.get());
+            }
+            assertEquals(1, urls.size());
+
+            String url = urls.iterator().next();
+            String filename = url.substring(url.lastIndexOf('/') + 1);
+            assertEquals(UPLOADERS, storedFileRepository.findById(filename).orElseThrow().getRefCount());
+
+            List<Future<?>> deletes = new ArrayList<>();
+            for (int i = 0; i < UPLOADERS - 1; i++) {
+                deletes.add(pool.submit(() -> fileStorageService.deleteFile(url)));
+            }
+            for (Future<?> delete : deletes) {
+                delete.get();
+            }
+            assertEquals(1, storedFileRepository.findById(filename).orElseThrow().getRefCount());
+
+            fileStorageService.deleteFile(url);
+            assertFalse(storedFileRepository.existsById(filename));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
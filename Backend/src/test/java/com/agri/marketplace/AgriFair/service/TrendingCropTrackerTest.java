@@ -0,0 +1,84 @@
+package com.agri.marketplace.AgriFair.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heavy hitters surfacing through noise, decay favouring recent activity, and checkpoints.
+ */
+class TrendingCropTrackerTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void heavyHittersRiseAboveALongTailOfSingleViews() {
+        TrendingCropTracker tracker = tracker(10);
+        long now = System.currentTimeMillis();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            // Crops 1..5 get a share of the traffic each; the rest is spread over 100k crops
+            long cropId = random.nextInt(10) < 3 ? 1 + random.nextInt(5) : 1_000 + random.nextInt(100_000);
+            tracker.record(cropId, 1, now);
+        }
+        List<Long> top = tracker.top(5);
+        assertEquals(5, top.size());
+        assertTrue(top.containsAll(List.of(1L, 2L, 3L, 4L, 5L)), "top: " + top);
+    }
+
+    @Test
+    void recentActivityOutranksOlderActivityOnceItHasDecayed() {
+        TrendingCropTracker tracker = tracker(10);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1L, 1, now);
+        }
+        // Two half-lives later crop 1 is worth 25 events; 30 fresh ones beat it
+        for (int i = 0; i < 30; i++) {
+            tracker.record(2L, 1, now + 12 * HOUR);
+        }
+        assertEquals(List.of(2L, 1L), tracker.top(10));
+    }
+
+    @Test
+    void rescalingKeepsTheRanking() {
+        TrendingCropTracker tracker = tracker(10);
+        long now = System.currentTimeMillis();
+        tracker.record(1L, 10, now);
+        tracker.record(2L, 1, now + 6 * HOUR);
+        // 40 half-lives on, past the rescale point
+        tracker.record(3L, 1, now + 240 * HOUR);
+        tracker.record(2L, 5, now + 240 * HOUR);
+        assertEquals(List.of(2L, 3L, 1L), tracker.top(10));
+    }
+
+    @Test
+    void checkpointIsRestoredByTheNextTracker() {
+        TrendingCropTracker tracker = tracker(3);
+        long now = System.currentTimeMillis();
+        for (long cropId = 1; cropId <= 5; cropId++) {
+            for (int i = 0; i < cropId; i++) {
+                tracker.record(cropId, 1, now);
+            }
+        }
+        tracker.checkpoint();
+
+        TrendingCropTracker restored = tracker(3);
+        assertEquals(List.of(5L, 4L, 3L), restored.top(10));
+        // A tracker with a different sketch size ignores the file
+        assertEquals(List.of(), new TrendingCropTracker(4, 512, 3, 360, 5, dir.resolve("trending.ckpt").toString()).top(10));
+    }
+
+    private TrendingCropTracker tracker(int topK) {
+        return new TrendingCropTracker(4, 4096, topK, 360, 5, dir.resolve("trending.ckpt").toString());
+    }
+}
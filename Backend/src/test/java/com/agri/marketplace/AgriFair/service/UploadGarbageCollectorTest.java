@@ -0,0 +1,163 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.StoredFileRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Orphan collection against a real schema: only uploads no crop, equipment or profile
+ * points at, and that are older than the minimum age, leave the store, renditions
+ * included. A file uploaded again after the collector listed it stays.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:uploadgc;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "file.gc.enabled=true",
+        "file.gc.initial-delay-ms=3600000",
+        "file.gc.min-age-minutes=60"
+})
+@ActiveProfiles("querycount")
+class UploadGarbageCollectorTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final Path UPLOAD_DIR = createUploadDir();
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", UPLOAD_DIR::toString);
+    }
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void collectsOnlyOldUnreferencedUploads() throws IOException {
+        User farmer = newUser();
+        String cropPhoto = store("crop photo");
+        String profileImage = store("profile image");
+        String orphan = store("orphan");
+        String youngOrphan = store("young orphan");
+        Crop crop = new Crop();
+        crop.setProductName("Crop " + SEQUENCE.incrementAndGet());
+        crop.setPrice(10.0);
+        crop.setQuantity(5);
+        crop.setFarmer(farmer);
+        crop.setPhotoUrl(cropPhoto);
+        cropRepository.save(crop);
+        farmer.setProfileImage(profileImage);
+        userRepository.save(farmer);
+
+        for (String url : new String[]{cropPhoto, profileImage, orphan}) {
+            age(url);
+        }
+        Path rendition = pathOf(orphan).resolveSibling(
+                ImageDerivativeService.renditionName(filenameOf(orphan), ImageDerivativeService.Rendition.THUMBNAIL));
+        Files.writeString(rendition, "thumbnail");
+
+        uploadGarbageCollector.runIncremental();
+
+        assertTrue(Files.exists(pathOf(cropPhoto)));
+        assertTrue(Files.exists(pathOf(profileImage)));
+        assertTrue(Files.exists(pathOf(youngOrphan)));
+        assertFalse(Files.exists(pathOf(orphan)));
+        assertFalse(Files.exists(rendition));
+        assertFalse(storedFileRepository.existsById(filenameOf(orphan)));
+    }
+
+    @Test
+    void orphanUploadedAgainAfterListingIsKept() throws IOException {
+        String url = store("uploaded twice");
+        String filename = filenameOf(url);
+        // An orphan the collector has just listed: old, unreferenced, no row left
+        fileStorageService.deleteFile(url);
+        Files.writeString(pathOf(url), "uploaded twice");
+        age(url);
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(60));
+
+        // The same bytes are uploaded again before the collector gets to purge it
+        assertEquals(url, store("uploaded twice"));
+        assertTrue(Files.getLastModifiedTime(pathOf(url)).toInstant().isAfter(cutoff));
+
+        fileStorageService.purgeFile(filename, cutoff);
+
+        assertTrue(Files.exists(pathOf(url)));
+        assertEquals(1, storedFileRepository.findById(filename).orElseThrow().getRefCount());
+    }
+
+    private String store(String content) throws IOException {
+        return fileStorageService.storeFile(new MockMultipartFile("image", "photo.jpg", "image/jpeg",
+                content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Backdate a stored file and its row by two hours, past the minimum age. */
+    private void age(String url) throws IOException {
+        Instant twoHoursAgo = Instant.now().minus(Duration.ofHours(2));
+        Files.setLastModifiedTime(pathOf(url), FileTime.from(twoHoursAgo));
+        storedFileRepository.findById(filenameOf(url)).ifPresent(row -> {
+            row.setRetainedAt(LocalDateTime.ofInstant(twoHoursAgo, ZoneId.systemDefault()));
+            storedFileRepository.save(row);
+        });
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setUsername("gc" + SEQUENCE.incrementAndGet());
+        user.setEmail(user.getUsername() + "@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole("ROLE_FARMER");
+        user.setFullName("Collector Test");
+        return userRepository.save(user);
+    }
+
+    private static Path pathOf(String url) {
+        return UPLOAD_DIR.resolve(url.substring(FileStorageService.URL_PREFIX.length()));
+    }
+
+    private static String filenameOf(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    private static Path createUploadDir() {
+        try {
+            return Files.createTempDirectory("agrifair-gc-test");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.agri.marketplace.AgriFair.service;
+
+import com.agri.marketplace.AgriFair.model.Crop;
+import com.agri.marketplace.AgriFair.model.Equipment;
+import com.agri.marketplace.AgriFair.model.Farmer;
+import com.agri.marketplace.AgriFair.model.User;
+import com.agri.marketplace.AgriFair.repository.CropRepository;
+import com.agri.marketplace.AgriFair.repository.EquipmentRepository;
+import com.agri.marketplace.AgriFair.repository.FarmerRepository;
+import com.agri.marketplace.AgriFair.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The flat-to-sharded move: files land in ab/cd/, the crop, equipment and profile URLs
+ * pointing at them are rewritten, and a rerun after an interrupted one finishes the job.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:uploadlayout;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "file.layout.migrate-on-startup=true"
+})
+@ActiveProfiles("querycount")
+class UploadLayoutMigrationTest {
+
+    private static final Path UPLOAD_DIR = createUploadDir();
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", UPLOAD_DIR::toString);
+    }
+
+    @Autowired
+    private UploadLayoutMigration uploadLayoutMigration;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void movesFlatFilesAndRewritesTheirUrls() throws IOException {
+        Files.writeString(UPLOAD_DIR.resolve("abcd1111.jpg"), "crop");
+        Files.writeString(UPLOAD_DIR.resolve("abcd2222.png"), "equipment");
+        Files.writeString(UPLOAD_DIR.resolve("ef013333.jpg"), "profile");
+        // Too short to shard: stays where it is
+        Files.writeString(UPLOAD_DIR.resolve("a.jpg"), "legacy");
+
+        User user = new User();
+        user.setUsername("layout");
+        user.setEmail("layout@agrifair.test");
+        user.setPassword("{noop}password");
+        user.setRole("ROLE_FARMER");
+        user.setFullName("Layout Test");
+        user.setProfileImage("/uploads/ef013333.jpg");
+        user = userRepository.save(user);
+
+        Farmer farmer = new Farmer();
+        farmer.setFirstName("Layout");
+        farmer.setSecondName("Test");
+        farmer.setEmail(user.getEmail());
+        farmer.setPhoneNo("+91-8000000001");
+        farmer.setUserId(user.getId());
+        farmer = farmerRepository.save(farmer);
+
+        Crop crop = new Crop();
+        crop.setProductName("Millet");
+        crop.setPrice(10.0);
+        crop.setQuantity(5);
+        crop.setFarmer(user);
+        crop.setPhotoUrl("/uploads/abcd1111.jpg");
+        crop = cropRepository.save(crop);
+
+        Equipment equipment = new Equipment();
+        equipment.setType("Tractor");
+        equipment.setModel("Layout");
+        equipment.setAvailable(Boolean.TRUE);
+        equipment.setRate(100);
+        equipment.setOwner(farmer);
+        equipment.setImageUrl("/uploads/abcd2222.png");
+        equipment = equipmentRepository.save(equipment);
+
+        // An earlier run moved this one but stopped before deleting the flat copy
+        Files.createDirectories(UPLOAD_DIR.resolve("ab/cd"));
+        Files.writeString(UPLOAD_DIR.resolve("ab/cd/abcd2222.png"), "equipment");
+
+        uploadLayoutMigration.migrate();
+
+        assertEquals("crop", Files.readString(UPLOAD_DIR.resolve("ab/cd/abcd1111.jpg")));
+        assertEquals("equipment", Files.readString(UPLOAD_DIR.resolve("ab/cd/abcd2222.png")));
+        assertEquals("profile", Files.readString(UPLOAD_DIR.resolve("ef/01/ef013333.jpg")));
+        assertFalse(Files.exists(UPLOAD_DIR.resolve("abcd1111.jpg")));
+        assertFalse(Files.exists(UPLOAD_DIR.resolve("abcd2222.png")));
+        assertTrue(Files.exists(UPLOAD_DIR.resolve("a.jpg")));
+
+        assertEquals("/uploads/ab/cd/abcd1111.jpg", cropRepository.findById(crop.getId()).orElseThrow().getPhotoUrl());
+        assertEquals("/uploads/ab/cd/abcd2222.png", equipmentRepository.findById(equipment.getId()).orElseThrow().getImageUrl());
+        assertEquals("/uploads/ef/01/ef013333.jpg", userRepository.findById(user.getId()).orElseThrow().getProfileImage());
+
+        // Nothing left to do on a rerun
+        uploadLayoutMigration.migrate();
+        assertEquals("/uploads/ab/cd/abcd1111.jpg", cropRepository.findById(crop.getId()).orElseThrow().getPhotoUrl());
+        assertTrue(Files.exists(UPLOAD_DIR.resolve("a.jpg")));
+    }
+
+    private static Path createUploadDir() {
+        try {
+            return Files.createTempDirectory("agrifair-layout-test");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
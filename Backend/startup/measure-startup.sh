@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Measure time-to-first-request of the faststart build against the plain jar.
+#
+#   ./measure-startup.sh [runs] [-- extra app arguments]
+#
+# Builds with -Pfaststart, then starts the backend `runs` times (default 3) in each
+# mode and times launch -> first 200 from $URL. Results are written to
+# ../target/startup/ttfr-<commit>-<timestamp>.json for CI to keep as an artifact.
+# Pass datasource settings after `--`.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+runs="${1:-3}"
+shift || true
+[ "${1:-}" = "--" ] && shift
+app_args=("$@")
+
+url="${URL:-http://localhost:8080/api/crops}"
+timeout_s="${TIMEOUT:-120}"
+jar="target/AgriFair-0.0.1-SNAPSHOT-exec.jar"
+extracted="target/app/AgriFair-0.0.1-SNAPSHOT-exec.jar"
+
+./mvnw -q -B -Pfaststart package -DskipTests
+
+# plain: as deployed today; fast: AOT bean definitions, CDS archive, faststart profile
+plain_cmd=(java -jar "$jar")
+fast_cmd=(java -XX:SharedArchiveFile=target/app/application.jsa -Dspring.aot.enabled=true
+          -jar "$extracted" --spring.profiles.active=faststart)
+
+mkdir -p target/startup
+log="target/startup/app.log"
+
+# Prints "<launch-to-200 ms> <in-process ms>" for one start of the given command
+measure() {
+  local start end pid in_process
+  start=$(date +%s%N)
+  "$@" "${app_args[@]}" >"$log" 2>&1 &
+  pid=$!
+  until curl -fs -o /dev/null "$url"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Backend exited before serving $url, see $log" >&2
+      exit 1
+    fi
+    if [ $(( ($(date +%s%N) - start) / 1000000000 )) -ge "$timeout_s" ]; then
+      kill "$pid"
+      echo "No response from $url after ${timeout_s}s, see $log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  in_process=$(sed -n 's/^Time to first request: \([0-9]*\) ms.*/\1/p' "$log" | head -1)
+  echo "$(( (end - start) / 1000000 )) ${in_process:-null}"
+}
+
+median() {
+  tr ' ' '\n' | sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+json_modes=()
+for mode in plain fast; do
+  external=()
+  internal=()
+  for ((i = 1; i <= runs; i++)); do
+    if [ "$mode" = plain ]; then
+      read -r ext int < <(measure "${plain_cmd[@]}")
+    else
+      read -r ext int < <(measure "${fast_cmd[@]}")
+    fi
+    # measure runs in a subshell, so its exit doesn't stop the script
+    [ -n "${ext:-}" ] || exit 1
+    echo "$mode run $i: ${ext} ms to first response (in-process ${int} ms)"
+    external+=("$ext")
+    internal+=("$int")
+  done
+  ext_median=$(echo "${external[*]}" | median)
+  json_modes+=("\"$mode\": {\"runs_ms\": [$(IFS=,; echo "${external[*]}")], \"median_ms\": $ext_median, \"in_process_ms\": [$(IFS=,; echo "${internal[*]}")]}")
+  echo "$mode median: ${ext_median} ms"
+done
+
+commit="$(git rev-parse --short HEAD 2>/dev/null || echo unknown)"
+out="target/startup/ttfr-${commit}-$(date +%Y%m%d%H%M%S).json"
+{
+  echo "{"
+  echo "  \"commit\": \"$commit\","
+  echo "  \"url\": \"$url\","
+  echo "  \"java\": \"$(java -version 2>&1 | head -1 | tr -d '"')\","
+  echo "  ${json_modes[0]},"
+  echo "  ${json_modes[1]}"
+  echo "}"
+} > "$out"
+echo "Results written to $out"
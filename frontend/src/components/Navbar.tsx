@@ -162,7 +162,7 @@ const Navbar = () => {
                     <Button variant="ghost" className="flex items-center gap-2 hover:bg-accent">
                       <Avatar className="h-8 w-8">
                         <AvatarImage
-                          src={profile?.profileImage ? `http://localhost:8080${profile.profileImage}` : `https://api.dicebear.com/7.x/initials/svg?seed=${username}`}
+                          src={profile?.profileImage ? `http://localhost:8080${profile.profileImageRenditions?.thumbnail ?? profile.profileImage}` : `https://api.dicebear.com/7.x/initials/svg?seed=${username}`}
                           alt={username}
                         />
                         <AvatarFallback>{getUserInitials(username)}</AvatarFallback>
@@ -117,7 +117,7 @@ const CropList = () => {
                 {crop.photoUrl && (
                   <div className="w-full h-48 overflow-hidden rounded-t-lg">
                     <img
-                      src={`http://localhost:8080${crop.photoUrl}`}
+                      src={`http://localhost:8080${crop.photoRenditions?.medium ?? crop.photoUrl}`}
                       alt={crop.productName}
                       className="w-full h-full object-cover"
                       onError={(e) => {
@@ -94,7 +94,7 @@ const EquipmentList = () => {
                 <div className="space-y-3">
                   {equipment.imageUrl && (
                     <img
-                      src={`http://localhost:8080${equipment.imageUrl}`}
+                      src={`http://localhost:8080${equipment.imageRenditions?.medium ?? equipment.imageUrl}`}
                       alt={equipment.type}
                       className="w-full h-48 object-cover rounded-md"
                       onError={(e) => {
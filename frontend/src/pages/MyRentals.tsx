@@ -1,6 +1,6 @@
 import { useState } from "react";
-import { useQuery, useMutation, useQueryClient } from "@tanstack/react-query";
-import { rentalApi, Rental } from "@/services/rentalApi";
+import { useInfiniteQuery, useMutation, useQueryClient } from "@tanstack/react-query";
+import { rentalApi, Rental, RentalSummary, RENTAL_PAGE_SIZE } from "@/services/rentalApi";
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from "@/components/ui/card";
 import { Button } from "@/components/ui/button";
 import { Badge } from "@/components/ui/badge";
@@ -28,19 +28,40 @@ const MyRentals = () => {
 
   const isAuthenticated = apiService.isAuthenticated();
 
+  // Both lists are paged by id; the next page starts after the last rental loaded
+  const nextAfterId = (lastPage: RentalSummary[]) =>
+    lastPage.length < RENTAL_PAGE_SIZE ? undefined : lastPage[lastPage.length - 1].id;
+
   // Rentals I requested (as renter)
-  const { data: myRequests = [], isLoading: loadingRequests } = useQuery({
+  const requestsQuery = useInfiniteQuery({
     queryKey: ["rentals", "my-requests"],
-    queryFn: () => rentalApi.getMyRentalRequests(),
+    queryFn: ({ pageParam }) => rentalApi.getMyRentalRequests({ afterId: pageParam }),
+    initialPageParam: undefined as number | undefined,
+    getNextPageParam: nextAfterId,
     enabled: isAuthenticated,
   });
+  const myRequests = requestsQuery.data?.pages.flat() ?? [];
+  const loadingRequests = requestsQuery.isLoading;
 
   // Rentals for my equipment (as owner)
-  const { data: myEquipmentRentals = [], isLoading: loadingEquipment } = useQuery({
+  const equipmentQuery = useInfiniteQuery({
     queryKey: ["rentals", "my-equipment"],
-    queryFn: () => rentalApi.getRentalsForMyEquipment(),
+    queryFn: ({ pageParam }) => rentalApi.getRentalsForMyEquipment({ afterId: pageParam }),
+    initialPageParam: undefined as number | undefined,
+    getNextPageParam: nextAfterId,
     enabled: isAuthenticated,
   });
+  const myEquipmentRentals = equipmentQuery.data?.pages.flat() ?? [];
+  const loadingEquipment = equipmentQuery.isLoading;
+
+  const renderLoadMore = (query: typeof requestsQuery) =>
+    query.hasNextPage && (
+      <div className="text-center">
+        <Button variant="outline" onClick={() => query.fetchNextPage()} disabled={query.isFetchingNextPage}>
+          {query.isFetchingNextPage ? "Loading..." : "Load more"}
+        </Button>
+      </div>
+    );
 
   const getStatusBadge = (status: Rental["status"]) => {
     const variants: Record<string, string> = {
@@ -112,7 +133,7 @@ const MyRentals = () => {
     },
   });
 
-  const handleAction = (rental: Rental, action: string) => {
+  const handleAction = (rental: RentalSummary, action: string) => {
     switch (action) {
       case "approve":
         approveMutation.mutate(rental.id);
@@ -132,14 +153,14 @@ const MyRentals = () => {
     }
   };
 
-  const renderRentalCard = (rental: Rental, isOwner: boolean) => {
+  const renderRentalCard = (rental: RentalSummary, isOwner: boolean) => {
     // Defensive guards in case backend returns partial data
-    const renterFirst = rental.renter?.firstName || "Unknown";
-    const renterLast = rental.renter?.secondName || "";
-    const ownerFirst = rental.equipment?.owner?.firstName || "Unknown";
-    const ownerLast = rental.equipment?.owner?.secondName || "";
-    const equipmentType = rental.equipment?.type || "Equipment";
-    const equipmentModel = rental.equipment?.model || "";
+    const renterFirst = rental.renterFirstName || "Unknown";
+    const renterLast = rental.renterSecondName || "";
+    const ownerFirst = rental.ownerFirstName || "Unknown";
+    const ownerLast = rental.ownerSecondName || "";
+    const equipmentType = rental.equipmentType || "Equipment";
+    const equipmentModel = rental.equipmentModel || "";
 
     return (
       <Card key={rental.id}>
@@ -370,10 +391,10 @@ const MyRentals = () => {
       <Tabs value={activeTab} onValueChange={setActiveTab} className="space-y-6">
         <TabsList>
           <TabsTrigger value="my-requests">
-            Rentals I Requested ({myRequests.length})
+            Rentals I Requested ({myRequests.length}{requestsQuery.hasNextPage ? "+" : ""})
           </TabsTrigger>
           <TabsTrigger value="my-equipment">
-            Rentals for My Equipment ({myEquipmentRentals.length})
+            Rentals for My Equipment ({myEquipmentRentals.length}{equipmentQuery.hasNextPage ? "+" : ""})
           </TabsTrigger>
         </TabsList>
 
@@ -390,6 +411,7 @@ const MyRentals = () => {
           ) : (
             <div className="space-y-4">
               {myRequests.map((rental) => renderRentalCard(rental, false))}
+              {renderLoadMore(requestsQuery)}
             </div>
           )}
         </TabsContent>
@@ -407,6 +429,7 @@ const MyRentals = () => {
           ) : (
             <div className="space-y-4">
               {myEquipmentRentals.map((rental) => renderRentalCard(rental, true))}
+              {renderLoadMore(equipmentQuery)}
             </div>
           )}
         </TabsContent>
@@ -8,6 +8,7 @@ export interface Crop {
   quantity: number;
   organic: boolean;
   photoUrl?: string;
+  photoRenditions?: Record<string, string>; // thumbnail / medium / full, once generated
   farmerUsername: string;
 }
 
@@ -8,6 +8,7 @@ export interface ProfileData {
   fullName?: string;
   phoneNumber?: string;
   profileImage?: string;
+  profileImageRenditions?: Record<string, string>;
   address?: string;
   city?: string;
   state?: string;
@@ -17,6 +17,7 @@ export interface Equipment {
   available: boolean;
   rate: number;
   imageUrl?: string;
+  imageRenditions?: Record<string, string>;
   owner: Farmer;
 }
 
@@ -31,6 +32,43 @@ export interface Rental {
   notes?: string;
 }
 
+// Compact row returned by the rental list endpoints
+export interface RentalSummary {
+  id: number;
+  startDate: string;
+  endDate: string;
+  status: Rental['status'];
+  totalCost: number;
+  notes?: string;
+  renterId: number;
+  renterFirstName: string;
+  renterSecondName: string;
+  equipmentId: number;
+  equipmentType: string;
+  equipmentModel: string;
+  equipmentImageUrl?: string;
+  ownerId: number;
+  ownerFirstName: string;
+  ownerSecondName: string;
+}
+
+// Rental lists come a page at a time, oldest first; pass the last id seen as afterId
+// for the next page. A page shorter than size is the last one.
+export const RENTAL_PAGE_SIZE = 50;
+
+export interface RentalPageParams {
+  afterId?: number;
+  size?: number;
+}
+
+const pageQuery = ({ afterId, size = RENTAL_PAGE_SIZE }: RentalPageParams = {}): string => {
+  const params = new URLSearchParams({ size: String(size) });
+  if (afterId !== undefined) {
+    params.set('afterId', String(afterId));
+  }
+  return `?${params.toString()}`;
+};
+
 class RentalApiService {
   private getAuthToken(): string | null {
     return localStorage.getItem('authToken');
@@ -156,28 +194,28 @@ class RentalApiService {
   }
 
   // Rental endpoints
-  async getRentals(): Promise<Rental[]> {
-    return this.request<Rental[]>('/rentals');
+  async getRentals(page?: RentalPageParams): Promise<RentalSummary[]> {
+    return this.request<RentalSummary[]>(`/rentals${pageQuery(page)}`);
   }
 
   async getRentalById(id: number): Promise<Rental> {
     return this.request<Rental>(`/rentals/${id}`);
   }
 
-  async getRentalsByFarmer(farmerId: number): Promise<Rental[]> {
-    return this.request<Rental[]>(`/rentals/farmer/${farmerId}`);
+  async getRentalsByFarmer(farmerId: number, page?: RentalPageParams): Promise<RentalSummary[]> {
+    return this.request<RentalSummary[]>(`/rentals/farmer/${farmerId}${pageQuery(page)}`);
   }
 
   async getRentalsByEquipment(equipmentId: number): Promise<Rental[]> {
     return this.request<Rental[]>(`/rentals/equipment/${equipmentId}`);
   }
 
-  async getMyRentalRequests(): Promise<Rental[]> {
-    return this.request<Rental[]>('/rentals/my-requests');
+  async getMyRentalRequests(page?: RentalPageParams): Promise<RentalSummary[]> {
+    return this.request<RentalSummary[]>(`/rentals/my-requests${pageQuery(page)}`);
   }
 
-  async getRentalsForMyEquipment(): Promise<Rental[]> {
-    return this.request<Rental[]>('/rentals/my-equipment');
+  async getRentalsForMyEquipment(page?: RentalPageParams): Promise<RentalSummary[]> {
+    return this.request<RentalSummary[]>(`/rentals/my-equipment${pageQuery(page)}`);
   }
 
   async createRental(rental: {